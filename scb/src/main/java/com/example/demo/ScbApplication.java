@@ -3,33 +3,90 @@ package com.example.demo;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.ApplicationContext;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-import com.example.demo.view.WindowManager;
+import com.example.demo.view.InicializadorInterface;
 
-import javax.swing.*;
+import java.util.Arrays;
 
 @SpringBootApplication
+@EnableScheduling
 public class ScbApplication {
 
+	// Endereço de um servidor SCB remoto; se informado, o quiosque sobe sem servidor nem banco locais
+	private static final String PROPRIEDADE_SERVIDOR = "scb.cliente.servidor";
+
+	// Perfil dos nós de API: sobe só web e persistência, sem interface gráfica
+	private static final String PERFIL_SERVIDOR = "server";
+
 	public static void main(String[] args) {
-		
+
+		if (modoServidor(args)) {
+			// Nenhuma classe do pacote view é referenciada neste caminho, então AWT/Swing não são carregados
+			SpringApplication application = new SpringApplication(ScbApplication.class);
+			application.setHeadless(true);
+			application.run(args);
+			return;
+		}
+
 		// Configura a aplicação para suportar interface gráfica
 		System.setProperty("java.awt.headless", "false");
+
+		String servidor = servidorRemoto(args);
+		if (servidor != null) {
+			InicializadorInterface.iniciarRemoto(servidor);
+			return;
+		}
+
 		SpringApplication application = new SpringApplication(ScbApplication.class);
 		application.setHeadless(false);
 		
 		// Inicializa o contexto Spring
 		final ApplicationContext springContext = application.run(args);
 
-		// Inicializa a interface gráfica na Event Dispatch Thread
-		SwingUtilities.invokeLater(() -> {
-			try {
-				UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
-				// Passa o contexto para o WindowManager
-				new WindowManager(springContext);
-			} catch (Exception e) {
-				e.printStackTrace();
+		InicializadorInterface.iniciarLocal(springContext);
+	}
+
+	/**
+	 * Verifica se o perfil "server" está ativo nos argumentos (--spring.profiles.active=...),
+	 * nas propriedades do sistema ou na variável de ambiente SPRING_PROFILES_ACTIVE
+	 * O perfil precisa ser conhecido antes de subir o Spring, pois decide se a interface é carregada
+	 *
+	 * @param args argumentos da linha de comando
+	 * @return boolean true se a aplicação deve subir sem interface gráfica
+	 */
+	private static boolean modoServidor(String[] args) {
+		String prefixo = "--spring.profiles.active=";
+		for (String arg : args) {
+			if (arg.startsWith(prefixo)) {
+				return contemPerfilServidor(arg.substring(prefixo.length()));
+			}
+		}
+		String propriedade = System.getProperty("spring.profiles.active");
+		if (propriedade != null) {
+			return contemPerfilServidor(propriedade);
+		}
+		return contemPerfilServidor(System.getenv("SPRING_PROFILES_ACTIVE"));
+	}
+
+	private static boolean contemPerfilServidor(String perfis) {
+		return perfis != null && Arrays.stream(perfis.split(",")).map(String::trim).anyMatch(PERFIL_SERVIDOR::equals);
+	}
+
+	/**
+	 * Lê o endereço do servidor remoto dos argumentos (--scb.cliente.servidor=...) ou das propriedades do sistema
+	 *
+	 * @param args argumentos da linha de comando
+	 * @return String endereço do servidor, ou nulo para subir o servidor localmente
+	 */
+	private static String servidorRemoto(String[] args) {
+		String prefixo = "--" + PROPRIEDADE_SERVIDOR + "=";
+		for (String arg : args) {
+			if (arg.startsWith(prefixo) && arg.length() > prefixo.length()) {
+				return arg.substring(prefixo.length());
 			}
-		});
+		}
+		String propriedade = System.getProperty(PROPRIEDADE_SERVIDOR);
+		return propriedade != null && !propriedade.isBlank() ? propriedade : null;
 	}
-}
\ No newline at end of file
+}
@@ -33,7 +33,7 @@ public class DemoDataInitializer implements CommandLineRunner {
 	 */
 	@Override
 	public void run(String... args) {
-		if (totemService.listarTodos().isEmpty()) {
+		if (totemService.listarPagina(null, 1).getItens().isEmpty()) {
 			initializeDemoData();
 		}
 	}
@@ -7,12 +7,17 @@
  */
 package com.example.demo.controller;
 
+import com.example.demo.dto.BicicletaDTO;
+import com.example.demo.dto.PaginaDTO;
 import com.example.demo.model.Bicicleta;
 import com.example.demo.model.StatusBicicleta;
 import com.example.demo.service.BicicletaService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 
@@ -24,52 +29,63 @@ public class BicicletaController {
 	private BicicletaService bicicletaService;
 
 	/**
-     * Lista todas as bicicletas cadastradas no sistema
+     * Lista as bicicletas cadastradas no sistema, paginadas por cursor
      *
-     * @return List<Bicicleta> lista de todas as bicicletas
+     * @param cursor ID da última bicicleta recebida (omitido na primeira página)
+     * @param limite tamanho da página (padrão 50, máximo 200)
+     * @return PaginaDTO<BicicletaDTO> página de bicicletas e cursor da próxima
      */
 	@GetMapping
-	public List<Bicicleta> listarTodas() {
-		return bicicletaService.listarTodas();
+	public PaginaDTO<BicicletaDTO> listarTodas(@RequestParam(required = false) Long cursor,
+			@RequestParam(required = false) Integer limite) {
+		return bicicletaService.listarPagina(cursor, limite);
 	}
 
 	/**
      * Busca uma bicicleta específica por seu ID
      *
      * @param id identificador único da bicicleta
-     * @return ResponseEntity<Bicicleta> bicicleta encontrada ou notFound
+     * @return ResponseEntity<BicicletaDTO> bicicleta encontrada ou notFound
      */
 	@GetMapping("/{id}")
-	public ResponseEntity<Bicicleta> buscarPorId(@PathVariable Long id) {
-		return bicicletaService.buscarPorId(id).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+	public ResponseEntity<BicicletaDTO> buscarPorId(@PathVariable Long id) {
+		return bicicletaService.buscarPorId(id).map(bicicleta -> ResponseEntity.ok(BicicletaDTO.de(bicicleta)))
+				.orElse(ResponseEntity.notFound().build());
 	}
 
 	/**
      * Cadastra uma nova bicicleta no sistema
      *
      * @param bicicleta dados da nova bicicleta a ser cadastrada
-     * @return Bicicleta bicicleta cadastrada com ID gerado
+     * @return BicicletaDTO bicicleta cadastrada com ID gerado
      */
 	@PostMapping
-	public Bicicleta criar(@RequestBody Bicicleta bicicleta) {
-		return bicicletaService.salvar(bicicleta);
+	public BicicletaDTO criar(@RequestBody Bicicleta bicicleta) {
+		return BicicletaDTO.de(bicicletaService.salvar(bicicleta));
 	}
 
 	/**
      * Atualiza os dados de uma bicicleta existente
-     * Requer que a bicicleta exista no sistema
+     * Requer que a bicicleta exista no sistema e que o corpo traga a versão lida
      *
      * @param id ID da bicicleta a ser atualizada
-     * @param bicicleta novos dados da bicicleta
-     * @return ResponseEntity<Bicicleta> bicicleta atualizada ou notFound
+     * @param bicicleta novos dados da bicicleta, com a versão
+     * @return ResponseEntity<BicicletaDTO> bicicleta atualizada ou notFound (400 sem versão, 409 se desatualizada)
      */
 	@PutMapping("/{id}")
-	public ResponseEntity<Bicicleta> atualizar(@PathVariable Long id, @RequestBody Bicicleta bicicleta) {
+	public ResponseEntity<BicicletaDTO> atualizar(@PathVariable Long id, @RequestBody Bicicleta bicicleta) {
 		if (!bicicletaService.buscarPorId(id).isPresent()) {
 			return ResponseEntity.notFound().build();
 		}
 		bicicleta.setId(id);
-		return ResponseEntity.ok(bicicletaService.salvar(bicicleta));
+		try {
+			return ResponseEntity.ok(BicicletaDTO.de(bicicletaService.salvar(bicicleta)));
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+		} catch (OptimisticLockingFailureException e) {
+			throw new ResponseStatusException(HttpStatus.CONFLICT,
+					"Bicicleta alterada por outra operação: busque a versão atual e tente novamente");
+		}
 	}
 
 	/**
@@ -92,10 +108,10 @@ public class BicicletaController {
      * Busca bicicletas por seu status atual
      *
      * @param status status desejado das bicicletas
-     * @return List<Bicicleta> lista de bicicletas com o status especificado
+     * @return List<BicicletaDTO> lista de bicicletas com o status especificado
      */
 	@GetMapping("/status/{status}")
-	public List<Bicicleta> buscarPorStatus(@PathVariable StatusBicicleta status) {
+	public List<BicicletaDTO> buscarPorStatus(@PathVariable StatusBicicleta status) {
 		return bicicletaService.buscarPorStatus(status);
 	}
 
@@ -0,0 +1,31 @@
+/**
+ * Controller REST responsável pela consulta do cache de segundo nível
+ * Expõe as estatísticas de acertos e falhas do cache de totens, trancas e bicicletas
+ *
+ * @RestController Indica que esta classe é um controller REST
+ * @RequestMapping Define o path base "/api/cache" para todos os endpoints
+ */
+package com.example.demo.controller;
+
+import com.example.demo.dto.EstatisticasCacheDTO;
+import com.example.demo.service.CacheTopologiaService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+	@Autowired
+	private CacheTopologiaService cacheTopologiaService;
+
+	/**
+     * Retorna as estatísticas do cache de segundo nível e do cache de consultas
+     *
+     * @return EstatisticasCacheDTO acertos, falhas e inserções, no total e por região
+     */
+	@GetMapping("/estatisticas")
+	public EstatisticasCacheDTO estatisticas() {
+		return cacheTopologiaService.estatisticas();
+	}
+}
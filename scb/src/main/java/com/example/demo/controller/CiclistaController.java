@@ -9,23 +9,25 @@
 package com.example.demo.controller;
 
 import com.example.demo.model.Ciclista;
-import com.example.demo.model.Emprestimo;
 import com.example.demo.dto.CartaoCreditoDTO;
 import com.example.demo.dto.CiclistaAtualizacaoDTO;
+import com.example.demo.dto.CiclistaDTO;
+import com.example.demo.dto.CobrancaDTO;
 import com.example.demo.dto.EmprestimoDTO;
 import com.example.demo.dto.LoginDTO;
 import com.example.demo.dto.LoginResponseDTO;
+import com.example.demo.dto.PaginaDTO;
 import com.example.demo.model.Brasileiro;
 import com.example.demo.model.Estrangeiro;
-import com.example.demo.model.CartaoCredito;
 import com.example.demo.service.CiclistaService;
+import com.example.demo.service.LivroCobrancasService;
 
 import jakarta.validation.Valid;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -38,19 +40,22 @@ public class CiclistaController {
 	@Autowired
 	private CiclistaService ciclistaService;
 
+	@Autowired
+	private LivroCobrancasService livroCobrancasService;
+
 	/**
      * Cadastra um novo ciclista brasileiro no sistema
      * Valida os dados do ciclista, incluindo CPF único
      *
      * @param brasileiro dados do novo ciclista brasileiro a ser cadastrado
-     * @return ResponseEntity<Ciclista> ciclista cadastrado ou erro de validação
+     * @return ResponseEntity<CiclistaDTO> ciclista cadastrado ou erro de validação
      * @throws ResponseStatusException se houver erro de validação ou CPF duplicado
      */
 	@PostMapping("/brasileiro")
-	public ResponseEntity<Ciclista> cadastrarBrasileiro(@Valid @RequestBody Brasileiro brasileiro) {
+	public ResponseEntity<CiclistaDTO> cadastrarBrasileiro(@Valid @RequestBody Brasileiro brasileiro) {
 		try {
 			Ciclista novoCiclista = ciclistaService.cadastrarCiclista(brasileiro);
-			return ResponseEntity.ok(novoCiclista);
+			return ResponseEntity.ok(CiclistaDTO.de(novoCiclista));
 		} catch (RuntimeException e) {
 			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
 		}
@@ -61,14 +66,14 @@ public class CiclistaController {
      * Valida os dados do ciclista, incluindo passaporte único
      *
      * @param estrangeiro dados do novo ciclista estrangeiro
-     * @return ResponseEntity<Ciclista> ciclista cadastrado ou erro de validação
+     * @return ResponseEntity<CiclistaDTO> ciclista cadastrado ou erro de validação
      * @throws ResponseStatusException se houver erro de validação ou passaporte duplicado
      */
 	@PostMapping("/estrangeiro")
-	public ResponseEntity<Ciclista> cadastrarEstrangeiro(@Valid @RequestBody Estrangeiro estrangeiro) {
+	public ResponseEntity<CiclistaDTO> cadastrarEstrangeiro(@Valid @RequestBody Estrangeiro estrangeiro) {
 		try {
 			Ciclista novoCiclista = ciclistaService.cadastrarCiclista(estrangeiro);
-			return ResponseEntity.ok(novoCiclista);
+			return ResponseEntity.ok(CiclistaDTO.de(novoCiclista));
 		} catch (RuntimeException e) {
 			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
 		}
@@ -76,7 +81,8 @@ public class CiclistaController {
 
 	/**
      * Realiza o login do ciclista no sistema
-     * Valida credenciais e retorna informações da sessão
+     * Valida credenciais e retorna informações da sessão, incluindo o token
+     * a ser enviado nas próximas requisições
      *
      * @param loginDTO credenciais do usuário (email e senha)
      * @return ResponseEntity<LoginResponseDTO> dados da sessão ou erro de autenticação
@@ -95,14 +101,17 @@ public class CiclistaController {
 	/**
      * Busca um ciclista por sua identificação (CPF ou passaporte)
      *
-     * @param identificacao CPF ou passaporte do ciclista
-     * @return ResponseEntity<Ciclista> ciclista encontrado ou notFound
+     * @param identificacao CPF ou passaporte do ciclista (o ciclista vem do token)
+     * @param autorizacao token de sessão "Bearer ..." emitido no login
+     * @return ResponseEntity<CiclistaDTO> ciclista encontrado ou notFound
      */
 	@GetMapping("/{identificacao}")
-	public ResponseEntity<Ciclista> buscarCiclista(@PathVariable String identificacao) {
+	public ResponseEntity<CiclistaDTO> buscarCiclista(@PathVariable String identificacao,
+			@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String autorizacao) {
+		Long ciclistaId = resolverCiclista(autorizacao);
 		try {
-			Ciclista ciclista = ciclistaService.buscarCiclista(identificacao);
-			return ResponseEntity.ok(ciclista);
+			Ciclista ciclista = ciclistaService.buscarCiclistaPorId(ciclistaId);
+			return ResponseEntity.ok(CiclistaDTO.de(ciclista));
 		} catch (RuntimeException e) {
 			return ResponseEntity.notFound().build();
 		}
@@ -111,16 +120,19 @@ public class CiclistaController {
 	/**
      * Atualiza os dados de um ciclista existente
      *
-     * @param identificacao CPF ou passaporte do ciclista
+     * @param identificacao CPF ou passaporte do ciclista (o ciclista vem do token)
      * @param atualizacaoDTO novos dados do ciclista
-     * @return ResponseEntity<Ciclista> ciclista atualizado ou notFound
+     * @param autorizacao token de sessão "Bearer ..." emitido no login
+     * @return ResponseEntity<CiclistaDTO> ciclista atualizado ou notFound
      */
 	@PutMapping("/{identificacao}")
-	public ResponseEntity<Ciclista> atualizarCiclista(@PathVariable String identificacao,
-			@RequestBody CiclistaAtualizacaoDTO atualizacaoDTO) {
+	public ResponseEntity<CiclistaDTO> atualizarCiclista(@PathVariable String identificacao,
+			@RequestBody CiclistaAtualizacaoDTO atualizacaoDTO,
+			@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String autorizacao) {
+		Long ciclistaId = resolverCiclista(autorizacao);
 		try {
-			Ciclista ciclistaAtualizado = ciclistaService.atualizarCiclista(identificacao, atualizacaoDTO);
-			return ResponseEntity.ok(ciclistaAtualizado);
+			Ciclista ciclistaAtualizado = ciclistaService.atualizarCiclista(ciclistaId, atualizacaoDTO);
+			return ResponseEntity.ok(CiclistaDTO.de(ciclistaAtualizado));
 		} catch (RuntimeException e) {
 			return ResponseEntity.notFound().build();
 		}
@@ -129,15 +141,18 @@ public class CiclistaController {
 	/**
      * Adiciona um novo cartão de crédito ao ciclista
      *
-     * @param identificacao CPF ou passaporte do ciclista
+     * @param identificacao CPF ou passaporte do ciclista (o ciclista vem do token)
      * @param cartaoDTO dados do novo cartão
+     * @param autorizacao token de sessão "Bearer ..." emitido no login
      * @return ResponseEntity<CartaoCreditoDTO> cartão adicionado ou erro
      */
 	@PostMapping("/{identificacao}/cartoes")
 	public ResponseEntity<CartaoCreditoDTO> adicionarCartaoCredito(@PathVariable String identificacao,
-			@Valid @RequestBody CartaoCreditoDTO cartaoDTO) {
+			@Valid @RequestBody CartaoCreditoDTO cartaoDTO,
+			@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String autorizacao) {
+		Long ciclistaId = resolverCiclista(autorizacao);
 		try {
-			CartaoCreditoDTO novoCartao = ciclistaService.adicionarCartaoCredito(identificacao, cartaoDTO);
+			CartaoCreditoDTO novoCartao = ciclistaService.adicionarCartaoCredito(ciclistaId, cartaoDTO);
 			return ResponseEntity.ok(novoCartao);
 		} catch (RuntimeException e) {
 			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
@@ -148,14 +163,17 @@ public class CiclistaController {
      * Remove um cartão de crédito do ciclista
      * Não permite remover o cartão principal se houver apenas um cartão
      *
-     * @param identificacao CPF ou passaporte do ciclista
+     * @param identificacao CPF ou passaporte do ciclista (o ciclista vem do token)
      * @param cartaoId ID do cartão a ser removido
+     * @param autorizacao token de sessão "Bearer ..." emitido no login
      * @return ResponseEntity<Void> sucesso ou erro
      */
 	@DeleteMapping("/{identificacao}/cartoes/{cartaoId}")
-	public ResponseEntity<Void> removerCartaoCredito(@PathVariable String identificacao, @PathVariable Long cartaoId) {
+	public ResponseEntity<Void> removerCartaoCredito(@PathVariable String identificacao, @PathVariable Long cartaoId,
+			@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String autorizacao) {
+		Long ciclistaId = resolverCiclista(autorizacao);
 		try {
-			ciclistaService.removerCartaoCredito(identificacao, cartaoId);
+			ciclistaService.removerCartaoCredito(ciclistaId, cartaoId);
 			return ResponseEntity.ok().build();
 		} catch (RuntimeException e) {
 			throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
@@ -165,15 +183,18 @@ public class CiclistaController {
 	/**
      * Define um cartão como principal para cobranças
      *
-     * @param identificacao CPF ou passaporte do ciclista
+     * @param identificacao CPF ou passaporte do ciclista (o ciclista vem do token)
      * @param cartaoId ID do cartão a ser definido como principal
+     * @param autorizacao token de sessão "Bearer ..." emitido no login
      * @return ResponseEntity<Void> sucesso ou erro
      */
 	@PutMapping("/{identificacao}/cartoes/{cartaoId}/principal")
 	public ResponseEntity<Void> definirCartaoPrincipal(@PathVariable String identificacao,
-			@PathVariable Long cartaoId) {
+			@PathVariable Long cartaoId,
+			@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String autorizacao) {
+		Long ciclistaId = resolverCiclista(autorizacao);
 		try {
-			ciclistaService.definirCartaoPrincipal(identificacao, cartaoId);
+			ciclistaService.definirCartaoPrincipal(ciclistaId, cartaoId);
 			return ResponseEntity.ok().build();
 		} catch (RuntimeException e) {
 			throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
@@ -183,13 +204,16 @@ public class CiclistaController {
 	/**
      * Lista todos os cartões de crédito do ciclista
      *
-     * @param identificacao CPF ou passaporte do ciclista
-     * @return ResponseEntity<List<CartaoCredito>> lista de cartões ou erro
+     * @param identificacao CPF ou passaporte do ciclista (o ciclista vem do token)
+     * @param autorizacao token de sessão "Bearer ..." emitido no login
+     * @return ResponseEntity<List<CartaoCreditoDTO>> lista de cartões (sem CVV) ou erro
      */
 	@GetMapping("/{identificacao}/cartoes")
-	public ResponseEntity<List<CartaoCredito>> listarCartoes(@PathVariable String identificacao) {
+	public ResponseEntity<List<CartaoCreditoDTO>> listarCartoes(@PathVariable String identificacao,
+			@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String autorizacao) {
+		Long ciclistaId = resolverCiclista(autorizacao);
 		try {
-			List<CartaoCredito> cartoes = ciclistaService.listarCartoes(identificacao);
+			List<CartaoCreditoDTO> cartoes = ciclistaService.listarCartoes(ciclistaId);
 			return ResponseEntity.ok(cartoes);
 		} catch (RuntimeException e) {
 			throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
@@ -197,21 +221,41 @@ public class CiclistaController {
 	}
 
 	/**
-     * Retorna o histórico de empréstimos do ciclista
-     * Inclui empréstimos ativos e finalizados
+     * Indica se o ciclista tem cartão principal, sem listar os cartões
+     * Respondido pelo cache de cartões principais; usado antes da retirada
+     *
+     * @param identificacao CPF ou passaporte do ciclista (o ciclista vem do token)
+     * @param autorizacao token de sessão "Bearer ..." emitido no login
+     * @return ResponseEntity<Boolean> true se houver cartão principal
+     */
+	@GetMapping("/{identificacao}/cartoes/principal")
+	public ResponseEntity<Boolean> possuiCartaoPrincipal(@PathVariable String identificacao,
+			@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String autorizacao) {
+		Long ciclistaId = resolverCiclista(autorizacao);
+		try {
+			return ResponseEntity.ok(ciclistaService.possuiCartaoPrincipal(ciclistaId));
+		} catch (RuntimeException e) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+		}
+	}
+
+	/**
+     * Retorna o histórico de empréstimos do ciclista, do mais recente ao mais antigo
+     * Inclui empréstimos ativos e finalizados, paginados por cursor
      *
-     * @param identificacao CPF ou passaporte do ciclista
-     * @return ResponseEntity<List<EmprestimoDTO>> histórico de empréstimos ou notFound
+     * @param identificacao CPF ou passaporte do ciclista (o ciclista vem do token)
+     * @param cursor proximoCursor da página anterior (omitido na primeira página)
+     * @param limite tamanho da página (padrão 50, máximo 200)
+     * @param autorizacao token de sessão "Bearer ..." emitido no login
+     * @return ResponseEntity<PaginaDTO<EmprestimoDTO>> página do histórico ou notFound
      */
 	@GetMapping("/{identificacao}/emprestimos")
-	public ResponseEntity<List<EmprestimoDTO>> buscarHistoricoEmprestimos(@PathVariable String identificacao) {
+	public ResponseEntity<PaginaDTO<EmprestimoDTO>> buscarHistoricoEmprestimos(@PathVariable String identificacao,
+			@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limite,
+			@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String autorizacao) {
+		Long ciclistaId = resolverCiclista(autorizacao);
 		try {
-			System.out.println("Requisição de histórico de empréstimos para identificação: " + identificacao);
-			List<Emprestimo> emprestimos = ciclistaService.buscarHistoricoEmprestimos(identificacao);
-			List<EmprestimoDTO> emprestimosDTO = emprestimos.stream().map(this::convertToDTO)
-					.collect(Collectors.toList());
-			System.out.println("Número de empréstimos convertidos para DTO: " + emprestimosDTO.size());
-			return ResponseEntity.ok(emprestimosDTO);
+			return ResponseEntity.ok(ciclistaService.buscarHistoricoEmprestimos(ciclistaId, cursor, limite));
 		} catch (RuntimeException e) {
 			System.out.println("Erro ao buscar histórico de empréstimos: " + e.getMessage());
 			return ResponseEntity.notFound().build();
@@ -219,33 +263,36 @@ public class CiclistaController {
 	}
 
 	/**
-     * Converte um objeto Emprestimo para EmprestimoDTO
-     * Método utilitário para conversão de dados
+     * Retorna o extrato de cobranças do ciclista, do lançamento mais recente ao mais antigo
+     * Inclui capturas aprovadas e recusadas, paginadas por cursor
      *
-     * @param emprestimo objeto a ser convertido
-     * @return EmprestimoDTO objeto convertido
+     * @param identificacao CPF ou passaporte do ciclista (o ciclista vem do token)
+     * @param cursor ID do último lançamento recebido (omitido na primeira página)
+     * @param limite tamanho da página (padrão 50, máximo 200)
+     * @param autorizacao token de sessão "Bearer ..." emitido no login
+     * @return PaginaDTO<CobrancaDTO> página do extrato
      */
-	private EmprestimoDTO convertToDTO(Emprestimo emprestimo) {
-		EmprestimoDTO dto = new EmprestimoDTO();
-		dto.setId(emprestimo.getId());
-		dto.setCiclistaId(emprestimo.getCiclista().getId());
-		dto.setBicicletaId(emprestimo.getBicicleta().getId());
-		dto.setTrancaInicioId(emprestimo.getTrancaInicio().getId());
-		dto.setTotemInicioId(emprestimo.getTotemInicio().getId());
-		dto.setHoraInicio(emprestimo.getHoraInicio());
-		dto.setTaxaInicial(emprestimo.getTaxaInicial());
-		dto.setStatus(emprestimo.getStatus().toString());
-
-		if (emprestimo.getTrancaFim() != null) {
-			dto.setTrancaFimId(emprestimo.getTrancaFim().getId());
-		}
-		if (emprestimo.getTotemFim() != null) {
-			dto.setTotemFimId(emprestimo.getTotemFim().getId());
-		}
-		dto.setHoraFim(emprestimo.getHoraFim());
-		dto.setTaxaExtra(emprestimo.getTaxaExtra());
+	@GetMapping("/{identificacao}/cobrancas")
+	public PaginaDTO<CobrancaDTO> buscarCobrancas(@PathVariable String identificacao,
+			@RequestParam(required = false) Long cursor, @RequestParam(required = false) Integer limite,
+			@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String autorizacao) {
+		Long ciclistaId = resolverCiclista(autorizacao);
+		return livroCobrancasService.listarPorCiclista(ciclistaId, cursor, limite);
+	}
 
-		return dto;
+	/**
+     * Identifica o ciclista da requisição pelo token de sessão (verificado em memória)
+     *
+     * @param autorizacao cabeçalho Authorization (pode ser nulo)
+     * @return Long ID do ciclista
+     * @throws ResponseStatusException 401 se o token estiver ausente ou for inválido
+     */
+	private Long resolverCiclista(String autorizacao) {
+		try {
+			return ciclistaService.resolverSessao(autorizacao);
+		} catch (RuntimeException e) {
+			throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, e.getMessage());
+		}
 	}
 
 }
\ No newline at end of file
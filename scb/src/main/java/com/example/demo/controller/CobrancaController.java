@@ -0,0 +1,53 @@
+/**
+ * Controller REST responsável pela consulta do livro de cobranças
+ * Expõe os lançamentos e os totais de cada dia, para conciliação com o gateway
+ *
+ * @RestController Indica que esta classe é um controller REST
+ * @RequestMapping Define o path base "/api/cobrancas" para todos os endpoints
+ */
+package com.example.demo.controller;
+
+import com.example.demo.dto.CobrancaDTO;
+import com.example.demo.dto.PaginaDTO;
+import com.example.demo.repository.CobrancaRepository;
+import com.example.demo.service.LivroCobrancasService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/cobrancas")
+public class CobrancaController {
+
+	@Autowired
+	private LivroCobrancasService livroCobrancasService;
+
+	/**
+     * Lista os lançamentos de um dia em ordem de gravação, paginados por cursor
+     *
+     * @param data dia no formato yyyy-MM-dd
+     * @param cursor ID do último lançamento recebido (omitido na primeira página)
+     * @param limite tamanho da página (padrão 50, máximo 200)
+     * @return PaginaDTO<CobrancaDTO> página de lançamentos do dia
+     */
+	@GetMapping("/dia/{data}")
+	public PaginaDTO<CobrancaDTO> listarPorDia(@PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data,
+			@RequestParam(required = false) Long cursor, @RequestParam(required = false) Integer limite) {
+		return livroCobrancasService.listarPorDia(data, cursor, limite);
+	}
+
+	/**
+     * Retorna quantidade e valor total (em centavos) dos lançamentos de um dia, por status
+     *
+     * @param data dia no formato yyyy-MM-dd
+     * @return List<CobrancaRepository.TotalCobrancas> totais por status
+     */
+	@GetMapping("/dia/{data}/totais")
+	public List<CobrancaRepository.TotalCobrancas> totalizarDia(
+			@PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data) {
+		return livroCobrancasService.totalizarDia(data);
+	}
+}
@@ -11,8 +11,13 @@ import com.example.demo.dto.EmprestimoDTO;
 import com.example.demo.dto.EmprestimoRequestDTO;
 import com.example.demo.model.Emprestimo;
 import com.example.demo.repository.EmprestimoRepository;
+import com.example.demo.service.CiclistaService;
+import com.example.demo.service.DetectorAtrasosService;
 import com.example.demo.service.EmprestimoService;
+import com.example.demo.service.EmprestimosAtivosService;
+import com.example.demo.service.IdempotenciaService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -25,6 +30,21 @@ public class EmprestimoController {
     @Autowired
     private EmprestimoRepository emprestimoRepository;
 
+    @Autowired
+    private CiclistaService ciclistaService;
+
+    @Autowired
+    private EmprestimosAtivosService emprestimosAtivosService;
+
+    @Autowired
+    private IdempotenciaService idempotenciaService;
+
+    @Autowired
+    private DetectorAtrasosService detectorAtrasosService;
+
+    // Cabeçalho com a chave gerada pelo cliente para identificar repetições da mesma requisição
+    public static final String CABECALHO_IDEMPOTENCIA = "Idempotency-Key";
+
     /**
      * Inicia um novo empréstimo de bicicleta
      * Processo:
@@ -34,14 +54,22 @@ public class EmprestimoController {
      * 4. Libera a tranca
      * 5. Registra o empréstimo
      *
-     * @param requestDTO dados necessários para o empréstimo (identificação do ciclista e tranca)
+     * @param requestDTO dados necessários para o empréstimo (a tranca; a identificação do ciclista é ignorada)
+     * @param autorizacao token de sessão "Bearer ..." emitido no login
+     * @param chaveIdempotencia chave da requisição (opcional); repetições com a mesma chave
+     *                          devolvem o mesmo empréstimo, sem nova retirada ou cobrança, e a
+     *                          mesma chave com outra tranca é recusada
      * @return ResponseEntity<EmprestimoDTO> dados do empréstimo realizado ou erro
      */
     @PostMapping
-    public ResponseEntity<EmprestimoDTO> realizarEmprestimo(@RequestBody EmprestimoRequestDTO requestDTO) {
+    public ResponseEntity<EmprestimoDTO> realizarEmprestimo(@RequestBody EmprestimoRequestDTO requestDTO,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String autorizacao,
+            @RequestHeader(value = CABECALHO_IDEMPOTENCIA, required = false) String chaveIdempotencia) {
         try {
-            System.out.println("Iniciando empréstimo para identificação: " + requestDTO.getIdentificacaoCiclista());
-            EmprestimoDTO emprestimo = emprestimoService.realizarEmprestimo(requestDTO);
+            Long ciclistaId = ciclistaService.resolverSessao(autorizacao);
+            EmprestimoDTO emprestimo = idempotenciaService.executar("emprestimo", ciclistaId, chaveIdempotencia,
+                    "tranca=" + requestDTO.getTrancaId(),
+                    () -> emprestimoService.realizarEmprestimo(ciclistaId, requestDTO.getTrancaId()));
             return ResponseEntity.ok(emprestimo);
         } catch (RuntimeException e) {
             System.out.println("Erro ao realizar empréstimo: " + e.getMessage());
@@ -49,6 +77,28 @@ public class EmprestimoController {
         }
     }
 
+    /**
+     * Retorna quantos empréstimos em andamento passaram da duração padrão
+     * Valor da última varredura do detector de atrasos, sem consulta ao banco
+     *
+     * @return ResponseEntity<Long> quantidade de empréstimos atrasados
+     */
+    @GetMapping("/atrasados/quantidade")
+    public ResponseEntity<Long> contarEmprestimosAtrasados() {
+        return ResponseEntity.ok(detectorAtrasosService.quantidadeAtrasados());
+    }
+
+    /**
+     * Retorna quantas bicicletas estão emprestadas no momento
+     * Servido pelo registro de empréstimos ativos, sem consulta ao banco
+     *
+     * @return ResponseEntity<Integer> quantidade de bicicletas em uso
+     */
+    @GetMapping("/ativos/quantidade")
+    public ResponseEntity<Integer> contarEmprestimosAtivos() {
+        return ResponseEntity.ok(emprestimosAtivosService.bicicletasEmUso());
+    }
+
     /**
      * Busca informações de um empréstimo específico
      *
@@ -78,17 +128,26 @@ public class EmprestimoController {
      *
      * @param emprestimoId ID do empréstimo a ser finalizado
      * @param trancaId ID da tranca onde a bicicleta será devolvida
-     * @param identificacaoCiclista documento do ciclista (CPF ou passaporte)
+     * @param identificacaoCiclista ignorado; o ciclista vem do token
+     * @param autorizacao token de sessão "Bearer ..." emitido no login
+     * @param chaveIdempotencia chave da requisição (opcional); repetições com a mesma chave
+     *                          devolvem a mesma devolução, sem nova cobrança, e a mesma chave
+     *                          com outro empréstimo ou tranca é recusada
      * @return ResponseEntity<EmprestimoDTO> dados da devolução realizada ou erro
      */
     @PutMapping("/{emprestimoId}/devolucao")
     public ResponseEntity<EmprestimoDTO> finalizarEmprestimo(
             @PathVariable Long emprestimoId,
             @RequestParam Long trancaId,
-            @RequestParam String identificacaoCiclista) {
+            @RequestParam(required = false) String identificacaoCiclista,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String autorizacao,
+            @RequestHeader(value = CABECALHO_IDEMPOTENCIA, required = false) String chaveIdempotencia) {
         try {
-        	// O emprestimoId da URL é ignorado, usando apenas identificacaoCiclista
-            EmprestimoDTO emprestimo = emprestimoService.finalizarEmprestimo(null, trancaId, identificacaoCiclista);
+        	// O emprestimoId da URL é ignorado; vale o empréstimo ativo do ciclista
+            Long ciclistaId = ciclistaService.resolverSessao(autorizacao);
+            EmprestimoDTO emprestimo = idempotenciaService.executar("devolucao", ciclistaId, chaveIdempotencia,
+                    "emprestimo=" + emprestimoId + ";tranca=" + trancaId,
+                    () -> emprestimoService.finalizarEmprestimo(ciclistaId, trancaId));
             return ResponseEntity.ok(emprestimo);
         } catch (RuntimeException e) {
             System.out.println("Erro ao finalizar empréstimo: " + e.getMessage());
@@ -0,0 +1,47 @@
+/**
+ * Controller REST responsável pelo fluxo de eventos de estado
+ * Envia por Server-Sent Events cada mudança de status de tranca ou bicicleta,
+ * para painéis e dashboards acompanharem os totens sem recarregá-los
+ *
+ * @RestController Indica que esta classe é um controller REST
+ * @RequestMapping Define o path base "/api/eventos" para todos os endpoints
+ */
+package com.example.demo.controller;
+
+import com.example.demo.service.EventosEstadoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/eventos")
+public class EventoController {
+
+	@Autowired
+	private EventosEstadoService eventosEstadoService;
+
+	/**
+     * Assina o fluxo de eventos de trancas e bicicletas
+     * Eventos "estado" trazem o delta (EventoEstadoDTO); um evento "ressincronizar"
+     * indica que eventos foram descartados e o cliente deve recarregar o estado
+     *
+     * @param totemId totem de interesse (omitido para receber de todos)
+     * @return SseEmitter conexão SSE
+     */
+	@GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter assinar(@RequestParam(required = false) Long totemId) {
+		return eventosEstadoService.assinar(totemId);
+	}
+
+	/**
+     * Quantidade de assinantes conectados ao fluxo de eventos
+     *
+     * @return ResponseEntity<Integer> assinantes ativos
+     */
+	@GetMapping("/assinantes/quantidade")
+	public ResponseEntity<Integer> quantidadeAssinantes() {
+		return ResponseEntity.ok(eventosEstadoService.quantidadeAssinantes());
+	}
+}
@@ -0,0 +1,81 @@
+/**
+ * Controller REST responsável pelas reservas de bicicleta
+ * O ciclista reserva a bicicleta de uma tranca por alguns minutos antes de
+ * ir até o totem; a reserva expira sozinha se não for usada
+ *
+ * @RestController Indica que esta classe é um controller REST
+ * @RequestMapping Define o path base "/api/reservas" para todos os endpoints
+ */
+package com.example.demo.controller;
+
+import com.example.demo.dto.ReservaDTO;
+import com.example.demo.service.CiclistaService;
+import com.example.demo.service.ReservaService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/reservas")
+public class ReservaController {
+
+	@Autowired
+	private ReservaService reservaService;
+
+	@Autowired
+	private CiclistaService ciclistaService;
+
+	/**
+     * Reserva a bicicleta de uma tranca para o ciclista
+     *
+     * @param trancaId ID da tranca com a bicicleta desejada
+     * @param autorizacao token de sessão "Bearer ..." emitido no login
+     * @return ResponseEntity<ReservaDTO> reserva criada ou erro
+     */
+	@PostMapping
+	public ResponseEntity<ReservaDTO> reservar(@RequestParam Long trancaId,
+			@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String autorizacao) {
+		try {
+			Long ciclistaId = ciclistaService.resolverSessao(autorizacao);
+			return ResponseEntity.ok(reservaService.reservar(ciclistaId, trancaId));
+		} catch (RuntimeException e) {
+			return ResponseEntity.badRequest().build();
+		}
+	}
+
+	/**
+     * Busca a reserva ativa do ciclista
+     *
+     * @param autorizacao token de sessão "Bearer ..." emitido no login
+     * @return ResponseEntity<ReservaDTO> reserva ativa ou notFound
+     */
+	@GetMapping
+	public ResponseEntity<ReservaDTO> buscar(
+			@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String autorizacao) {
+		try {
+			Long ciclistaId = ciclistaService.resolverSessao(autorizacao);
+			return ResponseEntity.of(reservaService.buscarPorCiclista(ciclistaId));
+		} catch (RuntimeException e) {
+			return ResponseEntity.notFound().build();
+		}
+	}
+
+	/**
+     * Cancela a reserva ativa do ciclista
+     *
+     * @param autorizacao token de sessão "Bearer ..." emitido no login
+     * @return ResponseEntity<Void> sucesso ou notFound se não houver reserva
+     */
+	@DeleteMapping
+	public ResponseEntity<Void> cancelar(
+			@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String autorizacao) {
+		try {
+			Long ciclistaId = ciclistaService.resolverSessao(autorizacao);
+			reservaService.cancelar(ciclistaId);
+			return ResponseEntity.noContent().build();
+		} catch (RuntimeException e) {
+			return ResponseEntity.notFound().build();
+		}
+	}
+}
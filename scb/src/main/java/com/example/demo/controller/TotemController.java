@@ -8,16 +8,24 @@
  */
 package com.example.demo.controller;
 
+import com.example.demo.dto.DisponibilidadeTotemDTO;
+import com.example.demo.dto.PaginaDTO;
+import com.example.demo.dto.TotemDTO;
 import com.example.demo.model.Totem;
 import com.example.demo.model.Tranca;
+import com.example.demo.service.DisponibilidadeService;
+import com.example.demo.service.ReservaService;
+import com.example.demo.service.SessaoService;
 import com.example.demo.service.TotemService;
 import com.fasterxml.jackson.databind.JsonNode;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/totens")
@@ -26,44 +34,86 @@ public class TotemController {
 	@Autowired
 	private TotemService totemService;
 
+	@Autowired
+	private DisponibilidadeService disponibilidadeService;
+
+	@Autowired
+	private ReservaService reservaService;
+
+	@Autowired
+	private SessaoService sessaoService;
+
 	/**
-     * Lista todos os totens cadastrados no sistema
+     * Lista os totens cadastrados no sistema, paginados por cursor
      *
-     * @return List<Totem> lista de todos os totens disponíveis
+     * @param cursor ID do último totem recebido (omitido na primeira página)
+     * @param limite tamanho da página (padrão 50, máximo 200)
+     * @return PaginaDTO<TotemDTO> página de totens (sem trancas) e cursor da próxima
      */
 	@GetMapping
-	public List<Totem> listarTodos() {
-		return totemService.listarTodos();
+	public PaginaDTO<TotemDTO> listarTodos(@RequestParam(required = false) Long cursor,
+			@RequestParam(required = false) Integer limite) {
+		return totemService.listarPagina(cursor, limite);
+	}
+
+	/**
+     * Lista a disponibilidade de todos os totens
+     * Contagem de trancas por status e de bicicletas disponíveis,
+     * servida do índice em memória sem consultar o banco
+     *
+     * @return List<DisponibilidadeTotemDTO> resumo de cada totem
+     */
+	@GetMapping("/disponibilidade")
+	public List<DisponibilidadeTotemDTO> listarDisponibilidade() {
+		return disponibilidadeService.listar();
 	}
 
 	/**
      * Busca um totem específico por seu ID
-     * Inclui informações sobre suas trancas e bicicletas
+     * Inclui informações sobre suas trancas e bicicletas, com as reservadas marcadas
+     * Com uma sessão válida, a bicicleta reservada pelo próprio ciclista não vem marcada
      *
      * @param id identificador único do totem
-     * @return ResponseEntity<Totem> totem encontrado ou notFound
+     * @param autorizacao token de sessão "Bearer ..." (opcional)
+     * @return ResponseEntity<TotemDTO> totem encontrado ou notFound
      */
 	@GetMapping("/{id}")
-	public ResponseEntity<Totem> buscarPorId(@PathVariable Long id) {
+	public ResponseEntity<TotemDTO> buscarPorId(@PathVariable Long id,
+			@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String autorizacao) {
+		Long ciclistaId = ciclistaDaSessao(autorizacao);
 		try {
 			Totem totem = totemService.buscarPorId(id);
-			return ResponseEntity.ok(totem);
+			TotemDTO dto = TotemDTO.de(totem);
+			dto.getTrancas().forEach(t -> t.setReservada(reservaService.isReservadaParaOutro(t.getId(), ciclistaId)));
+			return ResponseEntity.ok(dto);
 		} catch (RuntimeException e) {
 			return ResponseEntity.notFound().build();
 		}
 	}
 
+	// Consulta anônima (sem token ou com token inválido): todas as reservas aparecem marcadas
+	private Long ciclistaDaSessao(String autorizacao) {
+		if (autorizacao == null || autorizacao.isBlank()) {
+			return null;
+		}
+		try {
+			return sessaoService.validar(autorizacao).getCiclistaId();
+		} catch (RuntimeException e) {
+			return null;
+		}
+	}
+
 	/**
      * Cadastra um novo totem no sistema
      * Valida a capacidade e localização do novo totem
      *
      * @param totem dados do novo totem a ser cadastrado
-     * @return ResponseEntity<Totem> totem criado com ID gerado
+     * @return ResponseEntity<TotemDTO> totem criado com ID gerado
      */
 	@PostMapping
-	public ResponseEntity<Totem> criar(@RequestBody Totem totem) {
+	public ResponseEntity<TotemDTO> criar(@RequestBody Totem totem) {
 		Totem novoTotem = totemService.salvar(totem);
-		return ResponseEntity.ok(novoTotem);
+		return ResponseEntity.ok(TotemDTO.de(novoTotem));
 	}
 
 	/**
@@ -72,15 +122,15 @@ public class TotemController {
      *
      * @param id ID do totem a ser atualizado
      * @param totem novos dados do totem
-     * @return ResponseEntity<Totem> totem atualizado ou erro
+     * @return ResponseEntity<TotemDTO> totem atualizado ou erro
      */
 	@PutMapping("/{id}")
-	public ResponseEntity<Totem> atualizar(@PathVariable Long id, @RequestBody Totem totem) {
+	public ResponseEntity<TotemDTO> atualizar(@PathVariable Long id, @RequestBody Totem totem) {
 		try {
 			System.out.println("Recebida requisição para atualizar Totem com ID: " + id);
 			Totem totemAtualizado = totemService.atualizar(id, totem);
 			System.out.println("Totem atualizado com sucesso");
-			return ResponseEntity.ok(totemAtualizado);
+			return ResponseEntity.ok(TotemDTO.de(totemAtualizado));
 		} catch (Exception e) {
 			System.out.println("Erro ao atualizar Totem: " + e.getMessage());
 			e.printStackTrace();
@@ -94,14 +144,14 @@ public class TotemController {
      *
      * @param id ID do totem a ser atualizado
      * @param totemParcial objeto contendo apenas os campos a serem atualizados
-     * @return ResponseEntity<Totem> totem atualizado ou erro
+     * @return ResponseEntity<TotemDTO> totem atualizado ou erro
      */
 	@PatchMapping("/{id}")
-	public ResponseEntity<Totem> atualizarParcial(@PathVariable Long id, @RequestBody Totem totemParcial) {
+	public ResponseEntity<TotemDTO> atualizarParcial(@PathVariable Long id, @RequestBody Totem totemParcial) {
 		try {
 			System.out.println("Recebida requisição PATCH para Totem ID: " + id);
 			Totem totemAtualizado = totemService.atualizarParcial(id, totemParcial);
-			return ResponseEntity.ok(totemAtualizado);
+			return ResponseEntity.ok(TotemDTO.de(totemAtualizado));
 		} catch (RuntimeException e) {
 			System.out.println("Erro ao atualizar Totem: " + e.getMessage());
 			return ResponseEntity.notFound().build();
@@ -129,11 +179,11 @@ public class TotemController {
      * Busca totens por localização
      *
      * @param localizacao texto contendo a localização desejada
-     * @return List<Totem> lista de totens na localização especificada
+     * @return List<TotemDTO> lista de totens na localização especificada
      */
 	@GetMapping("/localizacao/{localizacao}")
-	public List<Totem> buscarPorLocalizacao(@PathVariable String localizacao) {
-		return totemService.buscarPorLocalizacao(localizacao);
+	public List<TotemDTO> buscarPorLocalizacao(@PathVariable String localizacao) {
+		return totemService.buscarPorLocalizacao(localizacao).stream().map(TotemDTO::de).collect(Collectors.toList());
 	}
 
 	@PatchMapping("/{id}/capacidade")
@@ -161,13 +211,13 @@ public class TotemController {
      *
      * @param id ID do totem que receberá a nova tranca
      * @param tranca dados da tranca a ser adicionada
-     * @return ResponseEntity<Totem> totem atualizado com a nova tranca
+     * @return ResponseEntity<TotemDTO> totem atualizado com a nova tranca
      */
 	@PostMapping("/{id}/trancas")
-	public ResponseEntity<Totem> adicionarTranca(@PathVariable Long id, @RequestBody Tranca tranca) {
+	public ResponseEntity<TotemDTO> adicionarTranca(@PathVariable Long id, @RequestBody Tranca tranca) {
 		try {
 			Totem totemAtualizado = totemService.adicionarTranca(id, tranca);
-			return ResponseEntity.ok(totemAtualizado);
+			return ResponseEntity.ok(TotemDTO.de(totemAtualizado));
 		} catch (RuntimeException e) {
 			return ResponseEntity.badRequest().body(null);
 		}
@@ -11,15 +11,21 @@
  */
 package com.example.demo.controller;
 
+import com.example.demo.dto.PaginaDTO;
+import com.example.demo.dto.TrancaDTO;
 import com.example.demo.model.Tranca;
 import com.example.demo.model.StatusTranca;
 import com.example.demo.service.TrancaService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/trancas")
@@ -29,13 +35,16 @@ public class TrancaController {
 	private TrancaService trancaService;
 
 	/**
-     * Lista todas as trancas cadastradas no sistema
+     * Lista as trancas cadastradas no sistema, paginadas por cursor
      *
-     * @return List<Tranca> lista de todas as trancas
+     * @param cursor ID da última tranca recebida (omitido na primeira página)
+     * @param limite tamanho da página (padrão 50, máximo 200)
+     * @return PaginaDTO<TrancaDTO> página de trancas e cursor da próxima
      */
 	@GetMapping
-	public List<Tranca> listarTodas() {
-		return trancaService.listarTodas();
+	public PaginaDTO<TrancaDTO> listarTodas(@RequestParam(required = false) Long cursor,
+			@RequestParam(required = false) Integer limite) {
+		return trancaService.listarPagina(cursor, limite);
 	}
 
 	/**
@@ -43,39 +52,47 @@ public class TrancaController {
      * Inclui informações sobre bicicleta associada, se houver
      *
      * @param id identificador único da tranca
-     * @return ResponseEntity<Tranca> tranca encontrada ou notFound
+     * @return ResponseEntity<TrancaDTO> tranca encontrada ou notFound
      */
 	@GetMapping("/{id}")
-	public ResponseEntity<Tranca> buscarPorId(@PathVariable Long id) {
-		return trancaService.buscarPorId(id).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+	public ResponseEntity<TrancaDTO> buscarPorId(@PathVariable Long id) {
+		return trancaService.buscarPorId(id).map(tranca -> ResponseEntity.ok(TrancaDTO.de(tranca)))
+				.orElse(ResponseEntity.notFound().build());
 	}
 
 	/**
      * Cadastra uma nova tranca no sistema
      *
      * @param tranca dados da nova tranca a ser cadastrada
-     * @return Tranca tranca cadastrada com ID gerado
+     * @return TrancaDTO tranca cadastrada com ID gerado
      */
 	@PostMapping
-	public Tranca criar(@RequestBody Tranca tranca) {
-		return trancaService.salvar(tranca);
+	public TrancaDTO criar(@RequestBody Tranca tranca) {
+		return TrancaDTO.de(trancaService.salvar(tranca));
 	}
 
 	/**
      * Atualiza os dados de uma tranca existente
-     * Permite modificar número, status e associações
+     * Permite modificar número, status e associações; o corpo deve trazer a versão lida
      *
      * @param id ID da tranca a ser atualizada
-     * @param tranca novos dados da tranca
-     * @return ResponseEntity<Tranca> tranca atualizada ou notFound
+     * @param tranca novos dados da tranca, com a versão
+     * @return ResponseEntity<TrancaDTO> tranca atualizada ou notFound (400 sem versão, 409 se desatualizada)
      */
 	@PutMapping("/{id}")
-	public ResponseEntity<Tranca> atualizar(@PathVariable Long id, @RequestBody Tranca tranca) {
+	public ResponseEntity<TrancaDTO> atualizar(@PathVariable Long id, @RequestBody Tranca tranca) {
 		if (!trancaService.buscarPorId(id).isPresent()) {
 			return ResponseEntity.notFound().build();
 		}
 		tranca.setId(id);
-		return ResponseEntity.ok(trancaService.salvar(tranca));
+		try {
+			return ResponseEntity.ok(TrancaDTO.de(trancaService.salvar(tranca)));
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+		} catch (OptimisticLockingFailureException e) {
+			throw new ResponseStatusException(HttpStatus.CONFLICT,
+					"Tranca alterada por outra operação: busque a versão atual e tente novamente");
+		}
 	}
 
 	/**
@@ -84,13 +101,13 @@ public class TrancaController {
      *
      * @param trancaId ID da tranca que receberá a bicicleta
      * @param bicicletaId ID da bicicleta a ser associada
-     * @return ResponseEntity<Tranca> tranca atualizada com a bicicleta associada
+     * @return ResponseEntity<TrancaDTO> tranca atualizada com a bicicleta associada
      */
 	@PutMapping("/{trancaId}/bicicletas/{bicicletaId}")
-	public ResponseEntity<Tranca> associarBicicleta(@PathVariable Long trancaId, @PathVariable Long bicicletaId) {
+	public ResponseEntity<TrancaDTO> associarBicicleta(@PathVariable Long trancaId, @PathVariable Long bicicletaId) {
 		try {
 			Tranca trancaAtualizada = trancaService.associarBicicleta(trancaId, bicicletaId);
-			return ResponseEntity.ok(trancaAtualizada);
+			return ResponseEntity.ok(TrancaDTO.de(trancaAtualizada));
 		} catch (RuntimeException e) {
 			return ResponseEntity.notFound().build();
 		}
@@ -115,10 +132,10 @@ public class TrancaController {
      * Busca trancas por seu status atual
      *
      * @param status status desejado das trancas
-     * @return List<Tranca> lista de trancas com o status especificado
+     * @return List<TrancaDTO> lista de trancas com o status especificado
      */
 	@GetMapping("/status/{status}")
-	public List<Tranca> buscarPorStatus(@PathVariable StatusTranca status) {
+	public List<TrancaDTO> buscarPorStatus(@PathVariable StatusTranca status) {
 		return trancaService.buscarPorStatus(status);
 	}
 
@@ -127,11 +144,11 @@ public class TrancaController {
      * Inclui informações sobre ocupação e status
      *
      * @param totemId ID do totem
-     * @return List<Tranca> lista de trancas do totem
+     * @return List<TrancaDTO> lista de trancas do totem
      */
 	@GetMapping("/totem/{totemId}")
-	public List<Tranca> buscarPorTotem(@PathVariable Long totemId) {
-		return trancaService.buscarPorTotem(totemId);
+	public List<TrancaDTO> buscarPorTotem(@PathVariable Long totemId) {
+		return trancaService.buscarPorTotem(totemId).stream().map(TrancaDTO::de).collect(Collectors.toList());
 	}
 
 	/**
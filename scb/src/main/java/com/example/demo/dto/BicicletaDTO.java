@@ -0,0 +1,106 @@
+/**
+ * DTO de resposta com os dados de uma bicicleta
+ * Também usado como projeção nas consultas JPQL de listagem
+ */
+package com.example.demo.dto;
+
+import com.example.demo.model.Bicicleta;
+import com.example.demo.model.StatusBicicleta;
+
+public class BicicletaDTO {
+	private Long id;
+	private String modelo;
+	private String marca;
+	private Integer ano;
+	private String numero;
+	private StatusBicicleta status;
+
+	// Versão para controle de concorrência: deve ser reenviada no PUT (nula nas listagens)
+	private Long versao;
+
+	public BicicletaDTO() {
+	}
+
+	public BicicletaDTO(Long id, String modelo, String marca, Integer ano, String numero, StatusBicicleta status) {
+		this.id = id;
+		this.modelo = modelo;
+		this.marca = marca;
+		this.ano = ano;
+		this.numero = numero;
+		this.status = status;
+	}
+
+	/**
+	 * Converte uma bicicleta para DTO
+	 *
+	 * @param bicicleta bicicleta a ser convertida (pode ser nula)
+	 * @return BicicletaDTO dados da bicicleta ou null
+	 */
+	public static BicicletaDTO de(Bicicleta bicicleta) {
+		if (bicicleta == null) {
+			return null;
+		}
+		BicicletaDTO dto = new BicicletaDTO(bicicleta.getId(), bicicleta.getModelo(), bicicleta.getMarca(),
+				bicicleta.getAno(), bicicleta.getNumero(), bicicleta.getStatus());
+		dto.setVersao(bicicleta.getVersao());
+		return dto;
+	}
+
+	// Getters e setters
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getModelo() {
+		return modelo;
+	}
+
+	public void setModelo(String modelo) {
+		this.modelo = modelo;
+	}
+
+	public String getMarca() {
+		return marca;
+	}
+
+	public void setMarca(String marca) {
+		this.marca = marca;
+	}
+
+	public Integer getAno() {
+		return ano;
+	}
+
+	public void setAno(Integer ano) {
+		this.ano = ano;
+	}
+
+	public String getNumero() {
+		return numero;
+	}
+
+	public void setNumero(String numero) {
+		this.numero = numero;
+	}
+
+	public StatusBicicleta getStatus() {
+		return status;
+	}
+
+	public void setStatus(StatusBicicleta status) {
+		this.status = status;
+	}
+
+	public Long getVersao() {
+		return versao;
+	}
+
+	public void setVersao(Long versao) {
+		this.versao = versao;
+	}
+}
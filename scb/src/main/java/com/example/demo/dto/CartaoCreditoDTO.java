@@ -12,6 +12,18 @@ public class CartaoCreditoDTO {
 	private String cvv;
 	private boolean principal;
 
+	public CartaoCreditoDTO() {
+	}
+
+	// Usado pela projeção JPQL da listagem, que não traz o CVV
+	public CartaoCreditoDTO(Long id, String numero, String nomeTitular, String validade, boolean principal) {
+		this.id = id;
+		this.numero = numero;
+		this.nomeTitular = nomeTitular;
+		this.validade = validade;
+		this.principal = principal;
+	}
+
 	// Getters e setters
 	public Long getId() {
 		return id;
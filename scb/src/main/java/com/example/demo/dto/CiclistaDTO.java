@@ -0,0 +1,135 @@
+/**
+ * DTO de resposta com os dados de um ciclista
+ * Não expõe senha nem cartões; o documento é o CPF ou o passaporte, conforme o tipo
+ */
+package com.example.demo.dto;
+
+import com.example.demo.model.Brasileiro;
+import com.example.demo.model.Ciclista;
+import com.example.demo.model.Estrangeiro;
+import com.example.demo.model.StatusCiclista;
+
+import java.time.LocalDateTime;
+
+public class CiclistaDTO {
+	private Long id;
+	private String nome;
+	private String nascimento;
+	private String email;
+	private String telefone;
+	private LocalDateTime dataCadastro;
+	private StatusCiclista status;
+
+	// BRASILEIRO ou ESTRANGEIRO
+	private String tipo;
+	private String documento;
+	private String nacionalidade;
+
+	/**
+	 * Converte um ciclista para DTO
+	 *
+	 * @param ciclista ciclista a ser convertido
+	 * @return CiclistaDTO dados públicos do ciclista
+	 */
+	public static CiclistaDTO de(Ciclista ciclista) {
+		CiclistaDTO dto = new CiclistaDTO();
+		dto.setId(ciclista.getId());
+		dto.setNome(ciclista.getNome());
+		dto.setNascimento(ciclista.getNascimento());
+		dto.setEmail(ciclista.getEmail());
+		dto.setTelefone(ciclista.getTelefone());
+		dto.setDataCadastro(ciclista.getDataCadastro());
+		dto.setStatus(ciclista.getStatus());
+		if (ciclista instanceof Brasileiro) {
+			dto.setTipo("BRASILEIRO");
+			dto.setDocumento(((Brasileiro) ciclista).getCpf());
+		} else if (ciclista instanceof Estrangeiro) {
+			dto.setTipo("ESTRANGEIRO");
+			dto.setDocumento(((Estrangeiro) ciclista).getPassaporte());
+			dto.setNacionalidade(((Estrangeiro) ciclista).getNacionalidade());
+		}
+		return dto;
+	}
+
+	// Getters e setters
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getNome() {
+		return nome;
+	}
+
+	public void setNome(String nome) {
+		this.nome = nome;
+	}
+
+	public String getNascimento() {
+		return nascimento;
+	}
+
+	public void setNascimento(String nascimento) {
+		this.nascimento = nascimento;
+	}
+
+	public String getEmail() {
+		return email;
+	}
+
+	public void setEmail(String email) {
+		this.email = email;
+	}
+
+	public String getTelefone() {
+		return telefone;
+	}
+
+	public void setTelefone(String telefone) {
+		this.telefone = telefone;
+	}
+
+	public LocalDateTime getDataCadastro() {
+		return dataCadastro;
+	}
+
+	public void setDataCadastro(LocalDateTime dataCadastro) {
+		this.dataCadastro = dataCadastro;
+	}
+
+	public StatusCiclista getStatus() {
+		return status;
+	}
+
+	public void setStatus(StatusCiclista status) {
+		this.status = status;
+	}
+
+	public String getTipo() {
+		return tipo;
+	}
+
+	public void setTipo(String tipo) {
+		this.tipo = tipo;
+	}
+
+	public String getDocumento() {
+		return documento;
+	}
+
+	public void setDocumento(String documento) {
+		this.documento = documento;
+	}
+
+	public String getNacionalidade() {
+		return nacionalidade;
+	}
+
+	public void setNacionalidade(String nacionalidade) {
+		this.nacionalidade = nacionalidade;
+	}
+}
@@ -0,0 +1,101 @@
+/**
+ * DTO de resposta com um lançamento do livro de cobranças
+ * Também usado como projeção nas consultas JPQL do extrato e da conciliação
+ */
+package com.example.demo.dto;
+
+import com.example.demo.model.StatusCobranca;
+
+import java.time.LocalDateTime;
+
+public class CobrancaDTO {
+	private Long id;
+	private Long ciclistaId;
+	private Long cartaoId;
+	private Long emprestimoId;
+	private long valorCentavos;
+	private LocalDateTime criadoEm;
+	private StatusCobranca status;
+	private String transacaoId;
+
+	public CobrancaDTO() {
+	}
+
+	public CobrancaDTO(Long id, Long ciclistaId, Long cartaoId, Long emprestimoId, long valorCentavos,
+			LocalDateTime criadoEm, StatusCobranca status, String transacaoId) {
+		this.id = id;
+		this.ciclistaId = ciclistaId;
+		this.cartaoId = cartaoId;
+		this.emprestimoId = emprestimoId;
+		this.valorCentavos = valorCentavos;
+		this.criadoEm = criadoEm;
+		this.status = status;
+		this.transacaoId = transacaoId;
+	}
+
+	// Getters e setters
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public Long getCiclistaId() {
+		return ciclistaId;
+	}
+
+	public void setCiclistaId(Long ciclistaId) {
+		this.ciclistaId = ciclistaId;
+	}
+
+	public Long getCartaoId() {
+		return cartaoId;
+	}
+
+	public void setCartaoId(Long cartaoId) {
+		this.cartaoId = cartaoId;
+	}
+
+	public Long getEmprestimoId() {
+		return emprestimoId;
+	}
+
+	public void setEmprestimoId(Long emprestimoId) {
+		this.emprestimoId = emprestimoId;
+	}
+
+	public long getValorCentavos() {
+		return valorCentavos;
+	}
+
+	public void setValorCentavos(long valorCentavos) {
+		this.valorCentavos = valorCentavos;
+	}
+
+	public LocalDateTime getCriadoEm() {
+		return criadoEm;
+	}
+
+	public void setCriadoEm(LocalDateTime criadoEm) {
+		this.criadoEm = criadoEm;
+	}
+
+	public StatusCobranca getStatus() {
+		return status;
+	}
+
+	public void setStatus(StatusCobranca status) {
+		this.status = status;
+	}
+
+	public String getTransacaoId() {
+		return transacaoId;
+	}
+
+	public void setTransacaoId(String transacaoId) {
+		this.transacaoId = transacaoId;
+	}
+}
@@ -0,0 +1,92 @@
+/**
+ * DTO com o resumo de disponibilidade de um totem
+ * Servido a partir do índice em memória, sem consulta ao banco
+ */
+package com.example.demo.dto;
+
+public class DisponibilidadeTotemDTO {
+	private Long totemId;
+	private String localizacao;
+	private String descricao;
+
+	// Contagem de trancas por status
+	private long trancasLivres;
+	private long trancasOcupadas;
+	private long trancasEmManutencao;
+
+	// Bicicletas disponíveis para retirada (em trancas ocupadas), já sem as reservadas
+	private long bicicletasDisponiveis;
+
+	// Bicicletas seguradas por reservas ativas
+	private long bicicletasReservadas;
+
+	// Getters e setters
+
+	public Long getTotemId() {
+		return totemId;
+	}
+
+	public void setTotemId(Long totemId) {
+		this.totemId = totemId;
+	}
+
+	public String getLocalizacao() {
+		return localizacao;
+	}
+
+	public void setLocalizacao(String localizacao) {
+		this.localizacao = localizacao;
+	}
+
+	public String getDescricao() {
+		return descricao;
+	}
+
+	public void setDescricao(String descricao) {
+		this.descricao = descricao;
+	}
+
+	public long getTrancasLivres() {
+		return trancasLivres;
+	}
+
+	public void setTrancasLivres(long trancasLivres) {
+		this.trancasLivres = trancasLivres;
+	}
+
+	public long getTrancasOcupadas() {
+		return trancasOcupadas;
+	}
+
+	public void setTrancasOcupadas(long trancasOcupadas) {
+		this.trancasOcupadas = trancasOcupadas;
+	}
+
+	public long getTrancasEmManutencao() {
+		return trancasEmManutencao;
+	}
+
+	public void setTrancasEmManutencao(long trancasEmManutencao) {
+		this.trancasEmManutencao = trancasEmManutencao;
+	}
+
+	public long getBicicletasDisponiveis() {
+		return bicicletasDisponiveis;
+	}
+
+	public void setBicicletasDisponiveis(long bicicletasDisponiveis) {
+		this.bicicletasDisponiveis = bicicletasDisponiveis;
+	}
+
+	public long getTotalTrancas() {
+		return trancasLivres + trancasOcupadas + trancasEmManutencao;
+	}
+
+	public long getBicicletasReservadas() {
+		return bicicletasReservadas;
+	}
+
+	public void setBicicletasReservadas(long bicicletasReservadas) {
+		this.bicicletasReservadas = bicicletasReservadas;
+	}
+}
@@ -4,6 +4,8 @@
  */
 package com.example.demo.dto;
 
+import com.example.demo.model.StatusEmprestimo;
+
 import java.time.LocalDateTime;
 
 public class EmprestimoDTO {
@@ -25,6 +27,27 @@ public class EmprestimoDTO {
 	private Double taxaExtra;
 	private String status;
 
+	public EmprestimoDTO() {
+	}
+
+	// Usado pela projeção JPQL do histórico, que lê só as colunas do empréstimo, sem carregar as associações
+	public EmprestimoDTO(Long id, Long ciclistaId, Long bicicletaId, Long trancaInicioId, Long totemInicioId,
+			LocalDateTime horaInicio, Double taxaInicial, Long trancaFimId, Long totemFimId, LocalDateTime horaFim,
+			Double taxaExtra, StatusEmprestimo status) {
+		this.id = id;
+		this.ciclistaId = ciclistaId;
+		this.bicicletaId = bicicletaId;
+		this.trancaInicioId = trancaInicioId;
+		this.totemInicioId = totemInicioId;
+		this.horaInicio = horaInicio;
+		this.taxaInicial = taxaInicial;
+		this.trancaFimId = trancaFimId;
+		this.totemFimId = totemFimId;
+		this.horaFim = horaFim;
+		this.taxaExtra = taxaExtra;
+		this.status = status != null ? status.toString() : null;
+	}
+
 	// Getters e setters
 
 	public Long getId() {
@@ -0,0 +1,131 @@
+/**
+ * DTO com as estatísticas do cache de segundo nível e do cache de consultas
+ * Contadores acumulados desde a inicialização da aplicação
+ */
+package com.example.demo.dto;
+
+import java.util.List;
+
+public class EstatisticasCacheDTO {
+	// Totais do cache de entidades e coleções
+	private long acertos;
+	private long falhas;
+	private long insercoes;
+
+	// Totais do cache de consultas
+	private long acertosConsultas;
+	private long falhasConsultas;
+	private long insercoesConsultas;
+
+	private List<RegiaoCacheDTO> regioes;
+
+	// Getters e setters
+
+	public long getAcertos() {
+		return acertos;
+	}
+
+	public void setAcertos(long acertos) {
+		this.acertos = acertos;
+	}
+
+	public long getFalhas() {
+		return falhas;
+	}
+
+	public void setFalhas(long falhas) {
+		this.falhas = falhas;
+	}
+
+	public long getInsercoes() {
+		return insercoes;
+	}
+
+	public void setInsercoes(long insercoes) {
+		this.insercoes = insercoes;
+	}
+
+	public long getAcertosConsultas() {
+		return acertosConsultas;
+	}
+
+	public void setAcertosConsultas(long acertosConsultas) {
+		this.acertosConsultas = acertosConsultas;
+	}
+
+	public long getFalhasConsultas() {
+		return falhasConsultas;
+	}
+
+	public void setFalhasConsultas(long falhasConsultas) {
+		this.falhasConsultas = falhasConsultas;
+	}
+
+	public long getInsercoesConsultas() {
+		return insercoesConsultas;
+	}
+
+	public void setInsercoesConsultas(long insercoesConsultas) {
+		this.insercoesConsultas = insercoesConsultas;
+	}
+
+	public List<RegiaoCacheDTO> getRegioes() {
+		return regioes;
+	}
+
+	public void setRegioes(List<RegiaoCacheDTO> regioes) {
+		this.regioes = regioes;
+	}
+
+	/**
+	 * Estatísticas de uma região do cache (entidade, coleção ou consultas)
+	 */
+	public static class RegiaoCacheDTO {
+		private String nome;
+		private long acertos;
+		private long falhas;
+		private long insercoes;
+
+		public RegiaoCacheDTO() {
+		}
+
+		public RegiaoCacheDTO(String nome, long acertos, long falhas, long insercoes) {
+			this.nome = nome;
+			this.acertos = acertos;
+			this.falhas = falhas;
+			this.insercoes = insercoes;
+		}
+
+		public String getNome() {
+			return nome;
+		}
+
+		public void setNome(String nome) {
+			this.nome = nome;
+		}
+
+		public long getAcertos() {
+			return acertos;
+		}
+
+		public void setAcertos(long acertos) {
+			this.acertos = acertos;
+		}
+
+		public long getFalhas() {
+			return falhas;
+		}
+
+		public void setFalhas(long falhas) {
+			this.falhas = falhas;
+		}
+
+		public long getInsercoes() {
+			return insercoes;
+		}
+
+		public void setInsercoes(long insercoes) {
+			this.insercoes = insercoes;
+		}
+	}
+}
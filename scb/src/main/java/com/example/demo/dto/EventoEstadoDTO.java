@@ -0,0 +1,97 @@
+/**
+ * DTO de um evento de mudança de estado de tranca ou bicicleta
+ * Enviado pelo fluxo de eventos (SSE) apenas com o que mudou; o cliente
+ * aplica o delta sobre o estado que já tem, sem baixar o totem de novo
+ */
+package com.example.demo.dto;
+
+import com.example.demo.model.StatusBicicleta;
+import com.example.demo.model.StatusTranca;
+
+public class EventoEstadoDTO {
+	public static final String TIPO_TRANCA = "TRANCA";
+	public static final String TIPO_BICICLETA = "BICICLETA";
+
+	// Sequência crescente, também usada como ID do evento SSE
+	private long sequencia;
+	private String tipo;
+	private Long totemId;
+	private Long trancaId;
+
+	// Nulo em um evento de tranca indica que a tranca foi removida
+	private StatusTranca statusTranca;
+
+	private Long bicicletaId;
+	private StatusBicicleta statusBicicleta;
+
+	public EventoEstadoDTO() {
+	}
+
+	public EventoEstadoDTO(String tipo, Long totemId, Long trancaId, StatusTranca statusTranca, Long bicicletaId,
+			StatusBicicleta statusBicicleta) {
+		this.tipo = tipo;
+		this.totemId = totemId;
+		this.trancaId = trancaId;
+		this.statusTranca = statusTranca;
+		this.bicicletaId = bicicletaId;
+		this.statusBicicleta = statusBicicleta;
+	}
+
+	// Getters e setters
+
+	public long getSequencia() {
+		return sequencia;
+	}
+
+	public void setSequencia(long sequencia) {
+		this.sequencia = sequencia;
+	}
+
+	public String getTipo() {
+		return tipo;
+	}
+
+	public void setTipo(String tipo) {
+		this.tipo = tipo;
+	}
+
+	public Long getTotemId() {
+		return totemId;
+	}
+
+	public void setTotemId(Long totemId) {
+		this.totemId = totemId;
+	}
+
+	public Long getTrancaId() {
+		return trancaId;
+	}
+
+	public void setTrancaId(Long trancaId) {
+		this.trancaId = trancaId;
+	}
+
+	public StatusTranca getStatusTranca() {
+		return statusTranca;
+	}
+
+	public void setStatusTranca(StatusTranca statusTranca) {
+		this.statusTranca = statusTranca;
+	}
+
+	public Long getBicicletaId() {
+		return bicicletaId;
+	}
+
+	public void setBicicletaId(Long bicicletaId) {
+		this.bicicletaId = bicicletaId;
+	}
+
+	public StatusBicicleta getStatusBicicleta() {
+		return statusBicicleta;
+	}
+
+	public void setStatusBicicleta(StatusBicicleta statusBicicleta) {
+		this.statusBicicleta = statusBicicleta;
+	}
+}
@@ -19,6 +19,9 @@ public class LoginResponseDTO {
 	private boolean hasActiveEmprestimo;
 	private String currentBikeInfo;
 
+	// Token de sessão assinado, enviado como "Authorization: Bearer {token}"
+	private String token;
+
 	public Long getId() {
 		return id;
 	}
@@ -74,4 +77,12 @@ public class LoginResponseDTO {
 	public void setCurrentBikeInfo(String currentBikeInfo) {
 		this.currentBikeInfo = currentBikeInfo;
 	}
+
+	public String getToken() {
+		return token;
+	}
+
+	public void setToken(String token) {
+		this.token = token;
+	}
 }
\ No newline at end of file
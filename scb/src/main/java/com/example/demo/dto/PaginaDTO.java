@@ -0,0 +1,108 @@
+/**
+ * DTO para listagens paginadas por cursor (keyset)
+ * O cursor é a chave do último item da página; a próxima página começa
+ * logo após ele, então o custo é o mesmo em qualquer profundidade
+ * Para o cliente o cursor é opaco: na maioria das listagens é o ID, mas pode
+ * combinar mais de um campo (por exemplo, data e ID no histórico)
+ */
+package com.example.demo.dto;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class PaginaDTO<T> {
+	public static final int TAMANHO_PADRAO = 50;
+	public static final int TAMANHO_MAXIMO = 200;
+
+	private List<T> itens;
+	private String proximoCursor;
+	private int limite;
+
+	public PaginaDTO() {
+	}
+
+	public PaginaDTO(List<T> itens, String proximoCursor, int limite) {
+		this.itens = itens;
+		this.proximoCursor = proximoCursor;
+		this.limite = limite;
+	}
+
+	/**
+	 * Normaliza o tamanho de página pedido pelo cliente
+	 *
+	 * @param limite tamanho solicitado (pode ser nulo)
+	 * @return int tamanho entre 1 e TAMANHO_MAXIMO
+	 */
+	public static int limiteValido(Integer limite) {
+		if (limite == null || limite <= 0) {
+			return TAMANHO_PADRAO;
+		}
+		return Math.min(limite, TAMANHO_MAXIMO);
+	}
+
+	/**
+	 * Monta uma página a partir de uma consulta que buscou limite + 1 itens
+	 * O item excedente só indica que existe próxima página e é descartado
+	 *
+	 * @param resultado itens retornados pela consulta (até limite + 1)
+	 * @param limite tamanho da página
+	 * @param chave função que extrai o ID de um item, usado como cursor
+	 * @return PaginaDTO<T> página com o cursor do último item, ou sem cursor se for a última
+	 */
+	public static <T> PaginaDTO<T> de(List<T> resultado, int limite, Function<T, Long> chave) {
+		return comCursor(resultado, limite, item -> String.valueOf(chave.apply(item)));
+	}
+
+	/**
+	 * Monta uma página cujo cursor não é só o ID, a partir de uma consulta que buscou limite + 1 itens
+	 *
+	 * @param resultado itens retornados pela consulta (até limite + 1)
+	 * @param limite tamanho da página
+	 * @param cursor função que monta o cursor a partir de um item
+	 * @return PaginaDTO<T> página com o cursor do último item, ou sem cursor se for a última
+	 */
+	public static <T> PaginaDTO<T> comCursor(List<T> resultado, int limite, Function<T, String> cursor) {
+		if (resultado.size() <= limite) {
+			return new PaginaDTO<>(resultado, null, limite);
+		}
+		List<T> itens = resultado.subList(0, limite);
+		return new PaginaDTO<>(itens, cursor.apply(itens.get(limite - 1)), limite);
+	}
+
+	/**
+	 * Converte os itens da página mantendo cursor e limite
+	 *
+	 * @param conversor função de conversão de cada item
+	 * @return PaginaDTO<R> página convertida
+	 */
+	public <R> PaginaDTO<R> map(Function<T, R> conversor) {
+		return new PaginaDTO<>(itens.stream().map(conversor).collect(Collectors.toList()), proximoCursor, limite);
+	}
+
+	// Getters e setters
+
+	public List<T> getItens() {
+		return itens;
+	}
+
+	public void setItens(List<T> itens) {
+		this.itens = itens;
+	}
+
+	public String getProximoCursor() {
+		return proximoCursor;
+	}
+
+	public void setProximoCursor(String proximoCursor) {
+		this.proximoCursor = proximoCursor;
+	}
+
+	public int getLimite() {
+		return limite;
+	}
+
+	public void setLimite(int limite) {
+		this.limite = limite;
+	}
+}
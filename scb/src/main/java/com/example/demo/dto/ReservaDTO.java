@@ -0,0 +1,68 @@
+/**
+ * DTO de resposta com uma reserva de bicicleta
+ * A reserva vale até expiraEm; depois disso a bicicleta volta a ficar disponível
+ */
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+public class ReservaDTO {
+	private Long ciclistaId;
+	private Long trancaId;
+	private Long totemId;
+	private Long bicicletaId;
+	private LocalDateTime expiraEm;
+
+	public ReservaDTO() {
+	}
+
+	public ReservaDTO(Long ciclistaId, Long trancaId, Long totemId, Long bicicletaId, LocalDateTime expiraEm) {
+		this.ciclistaId = ciclistaId;
+		this.trancaId = trancaId;
+		this.totemId = totemId;
+		this.bicicletaId = bicicletaId;
+		this.expiraEm = expiraEm;
+	}
+
+	// Getters e setters
+
+	public Long getCiclistaId() {
+		return ciclistaId;
+	}
+
+	public void setCiclistaId(Long ciclistaId) {
+		this.ciclistaId = ciclistaId;
+	}
+
+	public Long getTrancaId() {
+		return trancaId;
+	}
+
+	public void setTrancaId(Long trancaId) {
+		this.trancaId = trancaId;
+	}
+
+	public Long getTotemId() {
+		return totemId;
+	}
+
+	public void setTotemId(Long totemId) {
+		this.totemId = totemId;
+	}
+
+	public Long getBicicletaId() {
+		return bicicletaId;
+	}
+
+	public void setBicicletaId(Long bicicletaId) {
+		this.bicicletaId = bicicletaId;
+	}
+
+	public LocalDateTime getExpiraEm() {
+		return expiraEm;
+	}
+
+	public void setExpiraEm(LocalDateTime expiraEm) {
+		this.expiraEm = expiraEm;
+	}
+}
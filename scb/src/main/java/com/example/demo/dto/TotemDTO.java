@@ -0,0 +1,89 @@
+/**
+ * DTO de resposta com os dados de um totem
+ * Nas listagens as trancas não são carregadas e o campo é omitido do JSON;
+ * na consulta de um totem específico vêm as trancas com suas bicicletas
+ */
+package com.example.demo.dto;
+
+import com.example.demo.model.Totem;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class TotemDTO {
+	private Long id;
+	private String localizacao;
+	private String descricao;
+	private Integer capacidadeMaxima;
+
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private List<TrancaDTO> trancas;
+
+	public TotemDTO() {
+	}
+
+	// Usado pela projeção JPQL das listagens, sem trancas
+	public TotemDTO(Long id, String localizacao, String descricao, Integer capacidadeMaxima) {
+		this.id = id;
+		this.localizacao = localizacao;
+		this.descricao = descricao;
+		this.capacidadeMaxima = capacidadeMaxima;
+	}
+
+	/**
+	 * Converte um totem para DTO, incluindo suas trancas
+	 * O totem deve ter sido carregado com o grafo Totem.trancas
+	 *
+	 * @param totem totem a ser convertido
+	 * @return TotemDTO dados do totem com trancas
+	 */
+	public static TotemDTO de(Totem totem) {
+		TotemDTO dto = new TotemDTO(totem.getId(), totem.getLocalizacao(), totem.getDescricao(),
+				totem.getCapacidadeMaxima());
+		dto.setTrancas(totem.getTrancas().stream().map(TrancaDTO::de).collect(Collectors.toList()));
+		return dto;
+	}
+
+	// Getters e setters
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getLocalizacao() {
+		return localizacao;
+	}
+
+	public void setLocalizacao(String localizacao) {
+		this.localizacao = localizacao;
+	}
+
+	public String getDescricao() {
+		return descricao;
+	}
+
+	public void setDescricao(String descricao) {
+		this.descricao = descricao;
+	}
+
+	public Integer getCapacidadeMaxima() {
+		return capacidadeMaxima;
+	}
+
+	public void setCapacidadeMaxima(Integer capacidadeMaxima) {
+		this.capacidadeMaxima = capacidadeMaxima;
+	}
+
+	public List<TrancaDTO> getTrancas() {
+		return trancas;
+	}
+
+	public void setTrancas(List<TrancaDTO> trancas) {
+		this.trancas = trancas;
+	}
+}
@@ -0,0 +1,118 @@
+/**
+ * DTO de resposta com os dados de uma tranca
+ * Traz apenas o ID do totem e, se houver, a bicicleta acoplada
+ */
+package com.example.demo.dto;
+
+import com.example.demo.model.StatusBicicleta;
+import com.example.demo.model.StatusTranca;
+import com.example.demo.model.Tranca;
+
+public class TrancaDTO {
+	private Long id;
+	private String numero;
+	private StatusTranca status;
+	private Long totemId;
+	private BicicletaDTO bicicleta;
+
+	// Bicicleta segurada por uma reserva ativa de outro ciclista (preenchido pelo controller)
+	private boolean reservada;
+
+	// Versão para controle de concorrência: deve ser reenviada no PUT (nula nas listagens)
+	private Long versao;
+
+	public TrancaDTO() {
+	}
+
+	public TrancaDTO(Long id, String numero, StatusTranca status, Long totemId, BicicletaDTO bicicleta) {
+		this.id = id;
+		this.numero = numero;
+		this.status = status;
+		this.totemId = totemId;
+		this.bicicleta = bicicleta;
+	}
+
+	/**
+	 * Construtor usado pela projeção JPQL, com a bicicleta em colunas planas
+	 * (LEFT JOIN: sem bicicleta acoplada, todas as colunas dela vêm nulas)
+	 */
+	public TrancaDTO(Long id, String numero, StatusTranca status, Long totemId, Long bicicletaId,
+			String bicicletaModelo, String bicicletaMarca, Integer bicicletaAno, String bicicletaNumero,
+			StatusBicicleta bicicletaStatus) {
+		this(id, numero, status, totemId, bicicletaId == null ? null
+				: new BicicletaDTO(bicicletaId, bicicletaModelo, bicicletaMarca, bicicletaAno, bicicletaNumero,
+						bicicletaStatus));
+	}
+
+	/**
+	 * Converte uma tranca para DTO
+	 * A bicicleta deve ter sido carregada junto (grafo Tranca.bicicleta)
+	 *
+	 * @param tranca tranca a ser convertida
+	 * @return TrancaDTO dados da tranca
+	 */
+	public static TrancaDTO de(Tranca tranca) {
+		TrancaDTO dto = new TrancaDTO(tranca.getId(), tranca.getNumero(), tranca.getStatus(),
+				tranca.getTotem() != null ? tranca.getTotem().getId() : null, BicicletaDTO.de(tranca.getBicicleta()));
+		dto.setVersao(tranca.getVersao());
+		return dto;
+	}
+
+	// Getters e setters
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getNumero() {
+		return numero;
+	}
+
+	public void setNumero(String numero) {
+		this.numero = numero;
+	}
+
+	public StatusTranca getStatus() {
+		return status;
+	}
+
+	public void setStatus(StatusTranca status) {
+		this.status = status;
+	}
+
+	public Long getTotemId() {
+		return totemId;
+	}
+
+	public void setTotemId(Long totemId) {
+		this.totemId = totemId;
+	}
+
+	public BicicletaDTO getBicicleta() {
+		return bicicleta;
+	}
+
+	public void setBicicleta(BicicletaDTO bicicleta) {
+		this.bicicleta = bicicleta;
+	}
+
+	public boolean isReservada() {
+		return reservada;
+	}
+
+	public void setReservada(boolean reservada) {
+		this.reservada = reservada;
+	}
+
+	public Long getVersao() {
+		return versao;
+	}
+
+	public void setVersao(Long versao) {
+		this.versao = versao;
+	}
+}
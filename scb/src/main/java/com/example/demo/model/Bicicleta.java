@@ -3,6 +3,9 @@
  * Controla o estado e informações de cada bicicleta disponível para empréstimo
  * 
  * @Entity Indica que é uma entidade JPA
+ * @Cache Mantida no cache de segundo nível; escrita passa pelo cache (READ_WRITE)
+ * @Table Índice único do número e índice de status
+ * @Version Controle de concorrência otimista: alterações simultâneas geram conflito
  * @NoArgsConstructor Lombok: gera construtor padrão
  */
 package com.example.demo.model;
@@ -10,8 +13,15 @@ package com.example.demo.model;
 import jakarta.persistence.*;
 import lombok.NoArgsConstructor;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 @NoArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(indexes = { @Index(name = "idx_bicicleta_numero", columnList = "numero", unique = true),
+		@Index(name = "idx_bicicleta_status", columnList = "status") })
 public class Bicicleta {
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -25,8 +35,8 @@ public class Bicicleta {
 	@Enumerated(EnumType.STRING)
 	private StatusBicicleta status;
 
-	@OneToOne(mappedBy = "bicicleta")
-	private Tranca tranca;
+	@Version
+	private Long versao;
 
 	// Getters e Setters
 	public Long getId() {
@@ -76,4 +86,12 @@ public class Bicicleta {
 	public void setStatus(StatusBicicleta status) {
 		this.status = status;
 	}
+
+	public Long getVersao() {
+		return versao;
+	}
+
+	public void setVersao(Long versao) {
+		this.versao = versao;
+	}
 }
\ No newline at end of file
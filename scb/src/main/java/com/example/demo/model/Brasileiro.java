@@ -22,6 +22,16 @@ public class Brasileiro extends Ciclista {
 	@Pattern(regexp = "\\d{11}", message = "CPF deve conter 11 dígitos numéricos")
 	private String cpf;
 
+	@Override
+	protected String documentoOriginal() {
+		return cpf;
+	}
+
+	@Override
+	protected TipoDocumento tipoDocumentoOriginal() {
+		return TipoDocumento.CPF;
+	}
+
 	public String getCpf() {
 		return cpf;
 	}
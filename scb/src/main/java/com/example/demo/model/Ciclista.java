@@ -5,9 +5,13 @@
  * @Entity Indica que é uma entidade JPA
  * @Inheritance Define estratégia de herança de tabela única
  * @DiscriminatorColumn Define coluna que diferencia os tipos de ciclista
+ * @Table Índices únicos de email, CPF e passaporte (colunas das subclasses ficam na mesma tabela)
+ *        e do documento normalizado, que resolve CPF ou passaporte em uma única busca
  */
 package com.example.demo.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
@@ -27,6 +31,10 @@ import jakarta.validation.constraints.Size;
 @Entity
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @DiscriminatorColumn(name = "tipo_ciclista")
+@Table(indexes = { @Index(name = "idx_ciclista_email", columnList = "email", unique = true),
+		@Index(name = "idx_ciclista_cpf", columnList = "cpf", unique = true),
+		@Index(name = "idx_ciclista_passaporte", columnList = "passaporte", unique = true),
+		@Index(name = "idx_ciclista_documento", columnList = "documento, tipo_documento", unique = true) })
 public abstract class Ciclista {
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -57,10 +65,46 @@ public abstract class Ciclista {
 	@OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
 	private List<CartaoCredito> cartoes = new ArrayList<>();
 
+	// Referência direta ao cartão principal, mantida pelo CartaoCreditoService junto com a flag do cartão
+	@JsonIgnore
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "cartao_principal_id")
+	private CartaoCredito cartaoPrincipal;
+
 	@NotNull(message = "Status do ciclista não pode ser nulo")
 	@Enumerated(EnumType.STRING)
 	private StatusCiclista status = StatusCiclista.ATIVO;
 
+	// Cópia normalizada do CPF ou passaporte, mantida pelas subclasses
+	private String documento;
+
+	@Enumerated(EnumType.STRING)
+	private TipoDocumento tipoDocumento;
+
+	/**
+	 * Normaliza um documento para busca: remove espaços e pontuação e usa maiúsculas
+	 *
+	 * @param documento CPF ou passaporte como informado
+	 * @return String documento normalizado, ou nulo
+	 */
+	public static String normalizarDocumento(String documento) {
+		return documento == null ? null : documento.replaceAll("[\\s.\\-/]", "").toUpperCase();
+	}
+
+	/**
+	 * Documento de identificação da subclasse (CPF ou passaporte), sem normalização
+	 */
+	protected abstract String documentoOriginal();
+
+	protected abstract TipoDocumento tipoDocumentoOriginal();
+
+	@PrePersist
+	@PreUpdate
+	private void sincronizarDocumento() {
+		documento = normalizarDocumento(documentoOriginal());
+		tipoDocumento = tipoDocumentoOriginal();
+	}
+
 	// Getters e Setters
 	public Long getId() {
 		return id;
@@ -126,6 +170,14 @@ public abstract class Ciclista {
 		this.cartoes = cartoes;
 	}
 
+	public CartaoCredito getCartaoPrincipal() {
+		return cartaoPrincipal;
+	}
+
+	public void setCartaoPrincipal(CartaoCredito cartaoPrincipal) {
+		this.cartaoPrincipal = cartaoPrincipal;
+	}
+
 	public StatusCiclista getStatus() {
 		return status;
 	}
@@ -134,4 +186,12 @@ public abstract class Ciclista {
 		this.status = status;
 	}
 
+	public String getDocumento() {
+		return documento;
+	}
+
+	public TipoDocumento getTipoDocumento() {
+		return tipoDocumento;
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,119 @@
+/**
+ * Lançamento do livro de cobranças: uma linha por tentativa de captura no gateway,
+ * e uma linha NAO_CAPTURADA quando o outbox desiste da cobrança
+ * Só recebe inserções; as referências são guardadas como IDs simples, sem
+ * relacionamentos, para que gravar e consultar não exija junções. O valor é
+ * guardado em centavos, sem arredondamentos de ponto flutuante.
+ *
+ * @Entity Indica que é uma entidade JPA
+ * @Table Índices por (ciclista, id) para o extrato do ciclista e por (data, id)
+ *        para a conciliação diária; transacaoId é único (nulo nas recusadas)
+ * @NoArgsConstructor Lombok: gera construtor padrão
+ */
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@NoArgsConstructor
+@Entity
+@Table(indexes = { @Index(name = "idx_cobranca_ciclista", columnList = "ciclista_id, id"),
+		@Index(name = "idx_cobranca_criado_em", columnList = "criado_em, id") })
+public class Cobranca {
+	// Sequência com alocação em blocos: os IDs são reservados de 50 em 50, sem uma consulta por lançamento
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cobranca_seq")
+	@SequenceGenerator(name = "cobranca_seq", sequenceName = "cobranca_seq", allocationSize = 50)
+	private Long id;
+
+	@Column(name = "ciclista_id", nullable = false)
+	private Long ciclistaId;
+
+	// Nulo apenas em NAO_CAPTURADA de ciclista que ficou sem cartão principal
+	@Column(name = "cartao_id")
+	private Long cartaoId;
+
+	@Column(name = "emprestimo_id")
+	private Long emprestimoId;
+
+	@Column(nullable = false)
+	private long valorCentavos;
+
+	@Column(name = "criado_em", nullable = false)
+	private LocalDateTime criadoEm;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false)
+	private StatusCobranca status;
+
+	// Transação no gateway (apenas para cobranças aprovadas); única, para não lançar a mesma captura duas vezes
+	@Column(unique = true)
+	private String transacaoId;
+
+	// Getters e Setters
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public Long getCiclistaId() {
+		return ciclistaId;
+	}
+
+	public void setCiclistaId(Long ciclistaId) {
+		this.ciclistaId = ciclistaId;
+	}
+
+	public Long getCartaoId() {
+		return cartaoId;
+	}
+
+	public void setCartaoId(Long cartaoId) {
+		this.cartaoId = cartaoId;
+	}
+
+	public Long getEmprestimoId() {
+		return emprestimoId;
+	}
+
+	public void setEmprestimoId(Long emprestimoId) {
+		this.emprestimoId = emprestimoId;
+	}
+
+	public long getValorCentavos() {
+		return valorCentavos;
+	}
+
+	public void setValorCentavos(long valorCentavos) {
+		this.valorCentavos = valorCentavos;
+	}
+
+	public LocalDateTime getCriadoEm() {
+		return criadoEm;
+	}
+
+	public void setCriadoEm(LocalDateTime criadoEm) {
+		this.criadoEm = criadoEm;
+	}
+
+	public StatusCobranca getStatus() {
+		return status;
+	}
+
+	public void setStatus(StatusCobranca status) {
+		this.status = status;
+	}
+
+	public String getTransacaoId() {
+		return transacaoId;
+	}
+
+	public void setTransacaoId(String transacaoId) {
+		this.transacaoId = transacaoId;
+	}
+}
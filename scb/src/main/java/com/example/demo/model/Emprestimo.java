@@ -3,6 +3,9 @@
  * Controla todo o ciclo de vida de um empréstimo, desde a retirada até a devolução
  * 
  * @Entity Indica que é uma entidade JPA
+ * @Table Índices de (ciclista, status) para o empréstimo ativo, de (ciclista, horaInicio) para o histórico
+ *        e de (status, horaInicio) para a varredura de atrasos
+ * @Version Controle de concorrência otimista: alterações simultâneas geram conflito
  * @NoArgsConstructor Lombok: gera construtor padrão
  */
 package com.example.demo.model;
@@ -14,6 +17,9 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = { @Index(name = "idx_emprestimo_ciclista_status", columnList = "ciclista_id, status"),
+		@Index(name = "idx_emprestimo_ciclista_inicio", columnList = "ciclista_id, hora_inicio, id"),
+		@Index(name = "idx_emprestimo_status_inicio", columnList = "status, hora_inicio, id") })
 @NoArgsConstructor
 public class Emprestimo {
 	@Id
@@ -58,6 +64,12 @@ public class Emprestimo {
 	@Enumerated(EnumType.STRING)
 	private StatusEmprestimo status;
 
+	// Momento em que o atraso foi notificado (nulo enquanto não notificado)
+	private LocalDateTime atrasoNotificadoEm;
+
+	@Version
+	private Long versao;
+
 	public Long getId() {
 		return id;
 	}
@@ -153,4 +165,20 @@ public class Emprestimo {
 	public void setStatus(StatusEmprestimo status) {
 		this.status = status;
 	}
+
+	public LocalDateTime getAtrasoNotificadoEm() {
+		return atrasoNotificadoEm;
+	}
+
+	public void setAtrasoNotificadoEm(LocalDateTime atrasoNotificadoEm) {
+		this.atrasoNotificadoEm = atrasoNotificadoEm;
+	}
+
+	public Long getVersao() {
+		return versao;
+	}
+
+	public void setVersao(Long versao) {
+		this.versao = versao;
+	}
 }
\ No newline at end of file
@@ -23,6 +23,16 @@ public class Estrangeiro extends Ciclista {
 	@NotBlank(message = "A nacionalidade não pode estar em branco")
 	private String nacionalidade;
 
+	@Override
+	protected String documentoOriginal() {
+		return passaporte;
+	}
+
+	@Override
+	protected TipoDocumento tipoDocumentoOriginal() {
+		return TipoDocumento.PASSAPORTE;
+	}
+
 	public String getPassaporte() {
 		return passaporte;
 	}
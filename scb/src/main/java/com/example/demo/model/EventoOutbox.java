@@ -0,0 +1,155 @@
+/**
+ * Representa um efeito colateral de um empréstimo a ser executado fora da transação
+ * (notificação, captura ou liquidação de pagamento). É gravado na mesma transação
+ * do empréstimo e processado depois, em lotes, pelo OutboxService.
+ *
+ * @Entity Indica que é uma entidade JPA
+ * @Table Índice de (status, id) para buscar os pendentes em ordem de criação
+ * @NoArgsConstructor Lombok: gera construtor padrão
+ */
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@NoArgsConstructor
+@Entity
+@Table(indexes = @Index(name = "idx_evento_outbox_status", columnList = "status, id"))
+public class EventoOutbox {
+	public static final int TAMANHO_ULTIMO_ERRO = 1000;
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Enumerated(EnumType.STRING)
+	private TipoEventoOutbox tipo;
+
+	@Enumerated(EnumType.STRING)
+	private StatusEventoOutbox status = StatusEventoOutbox.PENDENTE;
+
+	private Long emprestimoId;
+
+	// Valor da cobrança (apenas para eventos de cobrança)
+	private Double valor;
+
+	// Transação no gateway (apenas para eventos de liquidação)
+	private String referencia;
+
+	private int tentativas;
+
+	// Eventos com falha só voltam a ser processados a partir deste instante; em processamento,
+	// é o prazo após o qual o evento volta para a fila se o despachante parar sem registrar o resultado
+	private LocalDateTime proximaTentativaEm;
+
+	// Identifica o ciclo de despacho que reivindicou o evento (EM_PROCESSAMENTO)
+	@Column(length = 36)
+	private String reivindicacao;
+
+	// Mensagens de exceção do Hibernate/JDBC costumam passar de 255 caracteres; o serviço trunca no limite
+	@Column(length = EventoOutbox.TAMANHO_ULTIMO_ERRO)
+	private String ultimoErro;
+
+	private LocalDateTime criadoEm;
+
+	private LocalDateTime processadoEm;
+
+	// Getters e Setters
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public TipoEventoOutbox getTipo() {
+		return tipo;
+	}
+
+	public void setTipo(TipoEventoOutbox tipo) {
+		this.tipo = tipo;
+	}
+
+	public StatusEventoOutbox getStatus() {
+		return status;
+	}
+
+	public void setStatus(StatusEventoOutbox status) {
+		this.status = status;
+	}
+
+	public Long getEmprestimoId() {
+		return emprestimoId;
+	}
+
+	public void setEmprestimoId(Long emprestimoId) {
+		this.emprestimoId = emprestimoId;
+	}
+
+	public Double getValor() {
+		return valor;
+	}
+
+	public void setValor(Double valor) {
+		this.valor = valor;
+	}
+
+	public String getReferencia() {
+		return referencia;
+	}
+
+	public void setReferencia(String referencia) {
+		this.referencia = referencia;
+	}
+
+	public int getTentativas() {
+		return tentativas;
+	}
+
+	public void setTentativas(int tentativas) {
+		this.tentativas = tentativas;
+	}
+
+	public LocalDateTime getProximaTentativaEm() {
+		return proximaTentativaEm;
+	}
+
+	public void setProximaTentativaEm(LocalDateTime proximaTentativaEm) {
+		this.proximaTentativaEm = proximaTentativaEm;
+	}
+
+	public String getReivindicacao() {
+		return reivindicacao;
+	}
+
+	public void setReivindicacao(String reivindicacao) {
+		this.reivindicacao = reivindicacao;
+	}
+
+	public String getUltimoErro() {
+		return ultimoErro;
+	}
+
+	public void setUltimoErro(String ultimoErro) {
+		this.ultimoErro = ultimoErro;
+	}
+
+	public LocalDateTime getCriadoEm() {
+		return criadoEm;
+	}
+
+	public void setCriadoEm(LocalDateTime criadoEm) {
+		this.criadoEm = criadoEm;
+	}
+
+	public LocalDateTime getProcessadoEm() {
+		return processadoEm;
+	}
+
+	public void setProcessadoEm(LocalDateTime processadoEm) {
+		this.processadoEm = processadoEm;
+	}
+}
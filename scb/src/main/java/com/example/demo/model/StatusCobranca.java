@@ -0,0 +1,7 @@
+package com.example.demo.model;
+
+public enum StatusCobranca {
+	APROVADA, RECUSADA,
+	// O outbox esgotou as tentativas de captura: o valor segue devido e precisa ser cobrado à parte
+	NAO_CAPTURADA
+}
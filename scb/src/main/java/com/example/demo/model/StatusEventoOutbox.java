@@ -0,0 +1,5 @@
+package com.example.demo.model;
+
+public enum StatusEventoOutbox {
+	PENDENTE, EM_PROCESSAMENTO, PROCESSADO, FALHOU
+}
@@ -0,0 +1,5 @@
+package com.example.demo.model;
+
+public enum TipoEventoOutbox {
+	NOTIFICACAO_EMPRESTIMO, NOTIFICACAO_DEVOLUCAO, NOTIFICACAO_ATRASO, COBRANCA, LIQUIDACAO
+}
@@ -3,6 +3,8 @@
  * Um totem é um ponto de retirada/devolução que contém múltiplas trancas
  * 
  * @Entity Indica que é uma entidade JPA
+ * @NamedEntityGraph Plano de carga do totem com trancas e bicicletas em uma única consulta
+ * @Cache Mantida no cache de segundo nível; escrita passa pelo cache (READ_WRITE)
  * @NoArgsConstructor Lombok: gera construtor padrão
  */
 package com.example.demo.model;
@@ -12,6 +14,9 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
 import lombok.NoArgsConstructor;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -19,7 +24,14 @@ import com.fasterxml.jackson.annotation.JsonManagedReference;
 
 @NoArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NamedEntityGraph(name = Totem.GRAFO_TRANCAS,
+		attributeNodes = @NamedAttributeNode(value = "trancas", subgraph = "tranca.bicicleta"),
+		subgraphs = @NamedSubgraph(name = "tranca.bicicleta", attributeNodes = @NamedAttributeNode("bicicleta")))
 public class Totem {
+	public static final String GRAFO_TRANCAS = "Totem.trancas";
+
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
 	private Long id;
@@ -33,8 +45,9 @@ public class Totem {
 	private Integer capacidadeMaxima = 20;
 
 	@JsonManagedReference
-	@OneToMany(mappedBy = "totem", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
-	private List<Tranca> trancas = new ArrayList<>();;
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+	@OneToMany(mappedBy = "totem", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+	private List<Tranca> trancas = new ArrayList<>();
 
 	// Getters e Setters
 	public Long getId() {
@@ -3,6 +3,10 @@
  * Uma tranca é o dispositivo onde as bicicletas são acopladas
  * 
  * @Entity Indica que é uma entidade JPA
+ * @NamedEntityGraph Plano de carga da tranca junto com a bicicleta acoplada
+ * @Cache Mantida no cache de segundo nível; escrita passa pelo cache (READ_WRITE)
+ * @Table Índices de status e de (totem, status) para as consultas por totem
+ * @Version Controle de concorrência otimista: alterações simultâneas geram conflito
  * @NoArgsConstructor Lombok: gera construtor padrão
  */
 package com.example.demo.model;
@@ -12,9 +16,19 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
 import lombok.NoArgsConstructor;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 @NoArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(indexes = { @Index(name = "idx_tranca_status", columnList = "status"),
+		@Index(name = "idx_tranca_totem_status", columnList = "totem_id, status") })
+@NamedEntityGraph(name = Tranca.GRAFO_BICICLETA, attributeNodes = @NamedAttributeNode("bicicleta"))
 public class Tranca {
+	public static final String GRAFO_BICICLETA = "Tranca.bicicleta";
+
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
 	private Long id;
@@ -26,14 +40,17 @@ public class Tranca {
 	private StatusTranca status;
 
 	@JsonBackReference
-	@ManyToOne
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "totem_id")
 	private Totem totem;
 
-	@OneToOne(fetch = FetchType.EAGER)
+	@OneToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "bicicleta_id")
 	private Bicicleta bicicleta;
 
+	@Version
+	private Long versao;
+
 	// Getters e Setters
 	public Long getId() {
 		return id;
@@ -75,4 +92,11 @@ public class Tranca {
 		this.bicicleta = bicicleta;
 	}
 
+	public Long getVersao() {
+		return versao;
+	}
+
+	public void setVersao(Long versao) {
+		this.versao = versao;
+	}
 }
\ No newline at end of file
@@ -1,8 +1,12 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.BicicletaDTO;
 import com.example.demo.model.Bicicleta;
 import com.example.demo.model.StatusBicicleta;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,9 +14,19 @@ import java.util.Optional;
 
 @Repository
 public interface BicicletaRepository extends JpaRepository<Bicicleta, Long> {
+	String SELECT_BICICLETA_DTO = "SELECT new com.example.demo.dto.BicicletaDTO(b.id, b.modelo, b.marca, b.ano, "
+			+ "b.numero, b.status) FROM Bicicleta b ";
+
 	Optional<Bicicleta> findByNumero(String numero);
 
 	List<Bicicleta> findByStatus(StatusBicicleta status);
 
 	List<Bicicleta> findByMarca(String marca);
+
+	// Projeções das listagens, direto no DTO de resposta
+	@Query(SELECT_BICICLETA_DTO + "WHERE b.id > :cursor ORDER BY b.id")
+	List<BicicletaDTO> findResumosAposCursor(@Param("cursor") Long cursor, Pageable pageable);
+
+	@Query(SELECT_BICICLETA_DTO + "WHERE b.status = :status ORDER BY b.id")
+	List<BicicletaDTO> findResumosByStatus(@Param("status") StatusBicicleta status);
 }
\ No newline at end of file
@@ -1,16 +1,21 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.CartaoCreditoDTO;
 import com.example.demo.model.CartaoCredito;
 import com.example.demo.model.Ciclista;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
-import java.util.Optional;
 
 @Repository
 public interface CartaoCreditoRepository extends JpaRepository<CartaoCredito, Long> {
 	List<CartaoCredito> findByCiclista(Ciclista ciclista);
 
-	Optional<CartaoCredito> findByCiclistaAndPrincipal(Ciclista ciclista, boolean principal);
+	// Listagem sem CVV, projetada direto no DTO de resposta
+	@Query("SELECT new com.example.demo.dto.CartaoCreditoDTO(c.id, c.numero, c.nomeTitular, c.validade, c.principal) "
+			+ "FROM CartaoCredito c WHERE c.ciclista.id = :ciclistaId ORDER BY c.id")
+	List<CartaoCreditoDTO> findResumosByCiclistaId(@Param("ciclistaId") Long ciclistaId);
 }
\ No newline at end of file
@@ -1,20 +1,24 @@
 package com.example.demo.repository;
 
 import com.example.demo.model.Ciclista;
+import com.example.demo.model.TipoDocumento;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CiclistaRepository extends JpaRepository<Ciclista, Long> {
 	Optional<Ciclista> findByEmail(String email);
 
-	@Query("SELECT c FROM Ciclista c WHERE TYPE(c) = Brasileiro AND c.cpf = :cpf")
-	Optional<Ciclista> findByCpf(@Param("cpf") String cpf);
+	boolean existsByEmail(String email);
 
-	@Query("SELECT c FROM Ciclista c WHERE TYPE(c) = Estrangeiro AND c.passaporte = :passaporte")
-	Optional<Ciclista> findByPassaporte(@Param("passaporte") String passaporte);
+	boolean existsByDocumentoAndTipoDocumento(String documento, TipoDocumento tipoDocumento);
+
+	// Documento normalizado (CPF ou passaporte) em uma busca pelo índice; CPF tem precedência se ambos coincidirem
+	@Query("SELECT c FROM Ciclista c WHERE c.documento = :documento ORDER BY c.tipoDocumento")
+	List<Ciclista> findByDocumento(@Param("documento") String documento);
 }
\ No newline at end of file
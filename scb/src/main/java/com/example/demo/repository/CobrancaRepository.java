@@ -0,0 +1,47 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.CobrancaDTO;
+import com.example.demo.model.Cobranca;
+import com.example.demo.model.StatusCobranca;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CobrancaRepository extends JpaRepository<Cobranca, Long> {
+	String SELECT_COBRANCA_DTO = "SELECT new com.example.demo.dto.CobrancaDTO(c.id, c.ciclistaId, c.cartaoId, "
+			+ "c.emprestimoId, c.valorCentavos, c.criadoEm, c.status, c.transacaoId) FROM Cobranca c ";
+
+	// Extrato do ciclista, do mais recente para o mais antigo, pelo índice (ciclista_id, id)
+	@Query(SELECT_COBRANCA_DTO + "WHERE c.ciclistaId = :ciclistaId AND c.id < :cursor ORDER BY c.id DESC")
+	List<CobrancaDTO> findPorCiclista(@Param("ciclistaId") Long ciclistaId, @Param("cursor") Long cursor,
+			Pageable pageable);
+
+	// Lançamentos de um intervalo (um dia), em ordem de gravação, pelo índice (criado_em, id)
+	@Query(SELECT_COBRANCA_DTO + "WHERE c.criadoEm >= :inicio AND c.criadoEm < :fim AND c.id > :cursor ORDER BY c.id")
+	List<CobrancaDTO> findPorPeriodo(@Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim,
+			@Param("cursor") Long cursor, Pageable pageable);
+
+	boolean existsByTransacaoId(String transacaoId);
+
+	/**
+	 * Totais de um intervalo por status, para conciliação com o gateway
+	 * transacaoId é único, então cada transação do gateway já aparece uma só vez
+	 */
+	interface TotalCobrancas {
+		StatusCobranca getStatus();
+
+		Long getQuantidade();
+
+		Long getValorCentavos();
+	}
+
+	@Query("SELECT c.status AS status, COUNT(c) AS quantidade, SUM(c.valorCentavos) AS valorCentavos "
+			+ "FROM Cobranca c WHERE c.criadoEm >= :inicio AND c.criadoEm < :fim GROUP BY c.status")
+	List<TotalCobrancas> totalizarPorPeriodo(@Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
+}
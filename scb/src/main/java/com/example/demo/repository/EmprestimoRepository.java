@@ -1,16 +1,95 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.EmprestimoDTO;
 import com.example.demo.model.Emprestimo;
 import com.example.demo.model.StatusEmprestimo;
+import org.springframework.data.domain.Pageable;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import jakarta.persistence.QueryHint;
 
 @Repository
 public interface EmprestimoRepository extends JpaRepository<Emprestimo, Long> {
+
+	String SELECT_HISTORICO = "SELECT new com.example.demo.dto.EmprestimoDTO(e.id, e.ciclista.id, e.bicicleta.id, "
+			+ "e.trancaInicio.id, e.totemInicio.id, e.horaInicio, e.taxaInicial, tf.id, tof.id, e.horaFim, "
+			+ "e.taxaExtra, e.status) FROM Emprestimo e LEFT JOIN e.trancaFim tf LEFT JOIN e.totemFim tof ";
+
 	Optional<Emprestimo> findByCiclistaIdAndStatus(Long ciclistaId, StatusEmprestimo status);
 
-	List<Emprestimo> findByCiclistaId(Long ciclistaId);
+	boolean existsByCiclistaIdAndStatus(Long ciclistaId, StatusEmprestimo status);
+
+	// Empréstimo com as associações usadas na devolução, sem consultas adicionais
+	@Query("SELECT e FROM Emprestimo e JOIN FETCH e.ciclista JOIN FETCH e.bicicleta JOIN FETCH e.trancaInicio "
+			+ "JOIN FETCH e.totemInicio WHERE e.ciclista.id = :ciclistaId AND e.status = :status")
+	Optional<Emprestimo> findParaDevolucao(@Param("ciclistaId") Long ciclistaId,
+			@Param("status") StatusEmprestimo status);
+
+	// Empréstimo com o ciclista e o cartão principal dele, usado pelo outbox para notificar e cobrar
+	@Query("SELECT e FROM Emprestimo e JOIN FETCH e.ciclista c LEFT JOIN FETCH c.cartaoPrincipal WHERE e.id = :id")
+	Optional<Emprestimo> findComCartaoPrincipalById(@Param("id") Long id);
+
+	// Resumo dos empréstimos em um status, usado para reconstruir o registro de empréstimos ativos
+	@Query("SELECT e.id AS id, e.ciclista.id AS ciclistaId, b.id AS bicicletaId, b.numero AS bicicletaNumero, "
+			+ "e.horaInicio AS horaInicio FROM Emprestimo e JOIN e.bicicleta b WHERE e.status = :status")
+	List<ResumoEmprestimoAtivo> findResumosByStatus(@Param("status") StatusEmprestimo status);
+
+	/**
+	 * Projeção mínima de um empréstimo atrasado, para a varredura periódica
+	 */
+	interface EmprestimoAtrasado {
+		Long getId();
+
+		LocalDateTime getAtrasoNotificadoEm();
+	}
+
+	// Empréstimos iniciados antes do limite, lidos por cursor pelo índice (status, hora_inicio, id)
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "200"))
+	@Query("SELECT e.id AS id, e.atrasoNotificadoEm AS atrasoNotificadoEm FROM Emprestimo e "
+			+ "WHERE e.status = :status AND e.horaInicio < :limite ORDER BY e.horaInicio, e.id")
+	Stream<EmprestimoAtrasado> streamIniciadosAntesDe(@Param("status") StatusEmprestimo status,
+			@Param("limite") LocalDateTime limite);
+
+	// Marca o atraso como notificado; ignora os já notificados ou já devolvidos
+	@Modifying
+	@Query("UPDATE Emprestimo e SET e.atrasoNotificadoEm = :agora WHERE e.id IN :ids "
+			+ "AND e.atrasoNotificadoEm IS NULL AND e.status = :status")
+	int marcarAtrasoNotificado(@Param("ids") List<Long> ids, @Param("status") StatusEmprestimo status,
+			@Param("agora") LocalDateTime agora);
+
+	// Histórico do mais recente para o mais antigo, com keyset em (horaInicio, id)
+	// Projeção direto no DTO: só colunas da tabela de empréstimos, sem carregar ciclista, bicicleta, trancas e totens
+	@Query(SELECT_HISTORICO + "WHERE e.ciclista.id = :ciclistaId ORDER BY e.horaInicio DESC, e.id DESC")
+	List<EmprestimoDTO> findHistorico(@Param("ciclistaId") Long ciclistaId, Pageable pageable);
+
+	@Query(SELECT_HISTORICO + "WHERE e.ciclista.id = :ciclistaId AND (e.horaInicio < :horaInicio "
+			+ "OR (e.horaInicio = :horaInicio AND e.id < :id)) ORDER BY e.horaInicio DESC, e.id DESC")
+	List<EmprestimoDTO> findHistoricoAposCursor(@Param("ciclistaId") Long ciclistaId,
+			@Param("horaInicio") LocalDateTime horaInicio, @Param("id") Long id, Pageable pageable);
+
+	/**
+	 * Projeção com o mínimo necessário para indexar um empréstimo ativo
+	 */
+	interface ResumoEmprestimoAtivo {
+		Long getId();
+
+		Long getCiclistaId();
+
+		Long getBicicletaId();
+
+		String getBicicletaNumero();
+
+		LocalDateTime getHoraInicio();
+	}
 }
\ No newline at end of file
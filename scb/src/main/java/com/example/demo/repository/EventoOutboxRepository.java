@@ -0,0 +1,39 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.EventoOutbox;
+import com.example.demo.model.StatusEventoOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EventoOutboxRepository extends JpaRepository<EventoOutbox, Long> {
+	// IDs do próximo lote de eventos prontos, em ordem de criação, pelo índice (status, id)
+	@Query("SELECT e.id FROM EventoOutbox e WHERE e.status = :status AND e.proximaTentativaEm <= :agora ORDER BY e.id")
+	List<Long> findIdsProntos(@Param("status") StatusEventoOutbox status, @Param("agora") LocalDateTime agora,
+			Pageable pageable);
+
+	// Passa para EM_PROCESSAMENTO os eventos do lote que ainda estão pendentes; os que outro
+	// despachante já reivindicou não são alterados
+	@Modifying(clearAutomatically = true)
+	@Query("UPDATE EventoOutbox e SET e.status = com.example.demo.model.StatusEventoOutbox.EM_PROCESSAMENTO, "
+			+ "e.reivindicacao = :reivindicacao, e.proximaTentativaEm = :prazo "
+			+ "WHERE e.id IN :ids AND e.status = com.example.demo.model.StatusEventoOutbox.PENDENTE")
+	int reivindicar(@Param("ids") List<Long> ids, @Param("reivindicacao") String reivindicacao,
+			@Param("prazo") LocalDateTime prazo);
+
+	// Devolve para a fila os eventos cujo despachante parou sem registrar o resultado
+	@Modifying
+	@Query("UPDATE EventoOutbox e SET e.status = com.example.demo.model.StatusEventoOutbox.PENDENTE, "
+			+ "e.reivindicacao = NULL WHERE e.status = com.example.demo.model.StatusEventoOutbox.EM_PROCESSAMENTO "
+			+ "AND e.proximaTentativaEm <= :agora")
+	int liberarAbandonados(@Param("agora") LocalDateTime agora);
+
+	long countByStatus(StatusEventoOutbox status);
+}
@@ -1,14 +1,61 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.TotemDTO;
 import com.example.demo.model.Totem;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
+
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TotemRepository extends JpaRepository<Totem, Long> {
+	// Região do cache de consultas da topologia (totens e trancas)
+	String REGIAO_CONSULTAS = "consultas-topologia";
+
+	@Override
+	@EntityGraph(Totem.GRAFO_TRANCAS)
+	List<Totem> findAll();
+
+	@EntityGraph(Totem.GRAFO_TRANCAS)
+	@Query("SELECT t FROM Totem t WHERE t.id = :id")
+	Optional<Totem> findComTrancasById(@Param("id") Long id);
+
+	@EntityGraph(Totem.GRAFO_TRANCAS)
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = REGIAO_CONSULTAS) })
 	List<Totem> findByLocalizacao(String localizacao);
 
 	List<Totem> findByCapacidadeMaxima(Integer capacidadeMaxima);
-}
\ No newline at end of file
+
+	// Listagem paginada sem trancas, projetada direto no DTO de resposta
+	@Query("SELECT new com.example.demo.dto.TotemDTO(t.id, t.localizacao, t.descricao, t.capacidadeMaxima) "
+			+ "FROM Totem t WHERE t.id > :cursor ORDER BY t.id")
+	List<TotemDTO> findResumosAposCursor(@Param("cursor") Long cursor, Pageable pageable);
+
+	@Query("SELECT t.id AS id, t.localizacao AS localizacao, t.descricao AS descricao FROM Totem t")
+	List<ResumoTotem> findResumos();
+
+	@Query("SELECT t.id AS id, t.localizacao AS localizacao, t.descricao AS descricao FROM Totem t WHERE t.id = :id")
+	Optional<ResumoTotem> findResumoById(@Param("id") Long id);
+
+	/**
+	 * Projeção com os dados descritivos de um totem, sem trancas
+	 */
+	interface ResumoTotem {
+		Long getId();
+
+		String getLocalizacao();
+
+		String getDescricao();
+	}
+}
@@ -1,19 +1,86 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.TrancaDTO;
 import com.example.demo.model.Tranca;
+import com.example.demo.model.StatusBicicleta;
 import com.example.demo.model.StatusTranca;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
+
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TrancaRepository extends JpaRepository<Tranca, Long> {
+	String SELECT_TRANCA_DTO = "SELECT new com.example.demo.dto.TrancaDTO(t.id, t.numero, t.status, t.totem.id, "
+			+ "b.id, b.modelo, b.marca, b.ano, b.numero, b.status) FROM Tranca t LEFT JOIN t.bicicleta b ";
+
+	@Override
+	@EntityGraph(Tranca.GRAFO_BICICLETA)
+	List<Tranca> findAll();
+
+	@Override
+	@EntityGraph(Tranca.GRAFO_BICICLETA)
+	Optional<Tranca> findById(Long id);
+
+	@EntityGraph(Tranca.GRAFO_BICICLETA)
 	Optional<Tranca> findByNumero(String numero);
 
+	@EntityGraph(Tranca.GRAFO_BICICLETA)
 	List<Tranca> findByStatus(StatusTranca status);
 
+	@EntityGraph(Tranca.GRAFO_BICICLETA)
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = TotemRepository.REGIAO_CONSULTAS) })
 	List<Tranca> findByTotemId(Long totemId);
 
-}
\ No newline at end of file
+	// Projeções das listagens: tranca e bicicleta acoplada em colunas planas
+	@Query(SELECT_TRANCA_DTO + "WHERE t.id > :cursor ORDER BY t.id")
+	List<TrancaDTO> findResumosAposCursor(@Param("cursor") Long cursor, Pageable pageable);
+
+	@Query(SELECT_TRANCA_DTO + "WHERE t.status = :status ORDER BY t.id")
+	List<TrancaDTO> findResumosByStatus(@Param("status") StatusTranca status);
+
+	Optional<Tranca> findByBicicletaId(Long bicicletaId);
+
+	// Tranca, bicicleta e totem em uma consulta, com bloqueio das linhas até o fim da transação
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT t FROM Tranca t LEFT JOIN FETCH t.bicicleta LEFT JOIN FETCH t.totem WHERE t.id = :id")
+	Optional<Tranca> findParaOperacaoById(@Param("id") Long id);
+
+	@Query("SELECT t.totem.id AS totemId, t.status AS status, COUNT(t) AS trancas, "
+			+ "SUM(CASE WHEN b.status = :disponivel THEN 1 ELSE 0 END) AS bicicletasDisponiveis "
+			+ "FROM Tranca t LEFT JOIN t.bicicleta b WHERE t.totem IS NOT NULL GROUP BY t.totem.id, t.status")
+	List<ContagemTrancas> contarPorTotem(@Param("disponivel") StatusBicicleta disponivel);
+
+	@Query("SELECT t.totem.id AS totemId, t.status AS status, COUNT(t) AS trancas, "
+			+ "SUM(CASE WHEN b.status = :disponivel THEN 1 ELSE 0 END) AS bicicletasDisponiveis "
+			+ "FROM Tranca t LEFT JOIN t.bicicleta b WHERE t.totem.id = :totemId GROUP BY t.totem.id, t.status")
+	List<ContagemTrancas> contarPorTotem(@Param("totemId") Long totemId,
+			@Param("disponivel") StatusBicicleta disponivel);
+
+	/**
+	 * Projeção da contagem de trancas de um totem agrupada por status
+	 */
+	interface ContagemTrancas {
+		Long getTotemId();
+
+		StatusTranca getStatus();
+
+		Long getTrancas();
+
+		Long getBicicletasDisponiveis();
+	}
+
+}
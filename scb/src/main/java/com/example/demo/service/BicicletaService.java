@@ -6,10 +6,16 @@
  */
 package com.example.demo.service;
 
+import com.example.demo.dto.BicicletaDTO;
+import com.example.demo.dto.PaginaDTO;
 import com.example.demo.model.Bicicleta;
 import com.example.demo.model.StatusBicicleta;
+import com.example.demo.model.StatusTranca;
+import com.example.demo.model.Tranca;
 import com.example.demo.repository.BicicletaRepository;
+import com.example.demo.repository.TrancaRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,13 +28,30 @@ public class BicicletaService {
 	@Autowired
 	private BicicletaRepository bicicletaRepository;
 
+	@Autowired
+	private TrancaRepository trancaRepository;
+
+	@Autowired
+	private DisponibilidadeService disponibilidadeService;
+
+	@Autowired
+	private EventosEstadoService eventosEstadoService;
+
+	@Autowired
+	private ReservaService reservaService;
+
 	/**
-     * Lista todas as bicicletas cadastradas no sistema
+     * Lista as bicicletas em páginas ordenadas por ID
      * 
-     * @return List<Bicicleta> lista de todas as bicicletas
+     * @param cursor ID da última bicicleta da página anterior (nulo na primeira)
+     * @param limite tamanho da página
+     * @return PaginaDTO<BicicletaDTO> página de bicicletas
      */
-	public List<Bicicleta> listarTodas() {
-		return bicicletaRepository.findAll();
+	public PaginaDTO<BicicletaDTO> listarPagina(Long cursor, Integer limite) {
+		int tamanho = PaginaDTO.limiteValido(limite);
+		List<BicicletaDTO> bicicletas = bicicletaRepository.findResumosAposCursor(cursor != null ? cursor : 0L,
+				PageRequest.of(0, tamanho + 1));
+		return PaginaDTO.de(bicicletas, tamanho, BicicletaDTO::getId);
 	}
 
 	/**
@@ -56,10 +79,23 @@ public class BicicletaService {
      * 
      * @param bicicleta bicicleta a ser salva/atualizada
      * @return Bicicleta bicicleta salva com ID gerado
+     * @throws IllegalArgumentException se uma atualização não informar a versão
+     * @throws org.springframework.dao.OptimisticLockingFailureException se a versão informada estiver desatualizada
      */
 	@Transactional
 	public Bicicleta salvar(Bicicleta bicicleta) {
-		return bicicletaRepository.save(bicicleta);
+		boolean existente = bicicleta.getId() != null;
+		if (existente && bicicleta.getVersao() == null) {
+			// Sem a versão lida pelo cliente não há como detectar uma alteração concorrente
+			throw new IllegalArgumentException("Informe a versão da bicicleta para atualizá-la");
+		}
+		Bicicleta bicicletaSalva = bicicletaRepository.save(bicicleta);
+		if (existente) {
+			// O status pode ter mudado: recalcula o totem onde ela está acoplada
+			trancaRepository.findByBicicletaId(bicicletaSalva.getId()).filter(t -> t.getTotem() != null)
+					.ifPresent(t -> disponibilidadeService.recarregarTotem(t.getTotem().getId()));
+		}
+		return bicicletaSalva;
 	}
 	
 	/**
@@ -77,10 +113,10 @@ public class BicicletaService {
      * Lista bicicletas por seu status atual
      * 
      * @param status status desejado (DISPONIVEL, EM_USO, etc.)
-     * @return List<Bicicleta> lista de bicicletas no status especificado
+     * @return List<BicicletaDTO> lista de bicicletas no status especificado
      */
-	public List<Bicicleta> buscarPorStatus(StatusBicicleta status) {
-		return bicicletaRepository.findByStatus(status);
+	public List<BicicletaDTO> buscarPorStatus(StatusBicicleta status) {
+		return bicicletaRepository.findResumosByStatus(status);
 	}
 
 	/**
@@ -96,10 +132,41 @@ public class BicicletaService {
 		Optional<Bicicleta> bicicletaOpt = bicicletaRepository.findById(id);
 		if (bicicletaOpt.isPresent()) {
 			Bicicleta bicicleta = bicicletaOpt.get();
+			StatusBicicleta statusAnterior = bicicleta.getStatus();
 			bicicleta.setStatus(novoStatus);
 			bicicletaRepository.save(bicicleta);
+			if (statusAnterior != novoStatus) {
+				atualizarDisponibilidade(bicicleta, statusAnterior, novoStatus);
+			}
 			return true;
 		}
 		return false;
 	}
+
+	/**
+     * Reflete a mudança de status da bicicleta no índice de disponibilidade e no fluxo de eventos
+     * Só afeta a contagem se a bicicleta estiver acoplada a uma tranca ocupada
+     * Uma bicicleta reservada que deixa de estar disponível perde a reserva
+     * 
+     * @param bicicleta bicicleta alterada
+     * @param anterior status anterior
+     * @param novo novo status
+     */
+	private void atualizarDisponibilidade(Bicicleta bicicleta, StatusBicicleta anterior, StatusBicicleta novo) {
+		Optional<Tranca> trancaOpt = trancaRepository.findByBicicletaId(bicicleta.getId());
+		if (trancaOpt.isPresent()) {
+			eventosEstadoService.trancaAlterada(trancaOpt.get());
+			if (novo != StatusBicicleta.DISPONIVEL) {
+				Long trancaId = trancaOpt.get().getId();
+				TransacaoUtil.aposCommit(() -> reservaService.cancelarPorTranca(trancaId));
+			}
+		} else {
+			eventosEstadoService.bicicletaAlterada(bicicleta, null);
+		}
+		if (trancaOpt.isPresent() && trancaOpt.get().getStatus() == StatusTranca.OCUPADA
+				&& trancaOpt.get().getTotem() != null) {
+			long delta = (novo == StatusBicicleta.DISPONIVEL ? 1 : 0) - (anterior == StatusBicicleta.DISPONIVEL ? 1 : 0);
+			disponibilidadeService.ajustarBicicletasDisponiveis(trancaOpt.get().getTotem().getId(), delta);
+		}
+	}
 }
\ No newline at end of file
@@ -0,0 +1,106 @@
+/**
+ * Serviço responsável pelo cache de segundo nível da topologia das estações
+ * Totens, trancas e bicicletas ficam no cache do Hibernate (JCache/Caffeine);
+ * este serviço faz a invalidação explícita quando a topologia muda e expõe
+ * as estatísticas de acertos e falhas.
+ *
+ * As invalidações são aplicadas após o commit, para que outra transação não
+ * volte a popular o cache com o estado anterior à alteração.
+ *
+ * @Service Marca como um componente de serviço do Spring
+ */
+package com.example.demo.service;
+
+import com.example.demo.dto.EstatisticasCacheDTO;
+import com.example.demo.dto.EstatisticasCacheDTO.RegiaoCacheDTO;
+import com.example.demo.model.Totem;
+import com.example.demo.model.Tranca;
+import com.example.demo.repository.TotemRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+@Service
+public class CacheTopologiaService {
+
+	private static final String COLECAO_TRANCAS = Totem.class.getName() + ".trancas";
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	/**
+	 * Invalida um totem, sua coleção de trancas e as consultas da topologia
+	 *
+	 * @param totemId ID do totem alterado
+	 */
+	public void invalidarTotem(Long totemId) {
+		if (totemId == null) {
+			return;
+		}
+		TransacaoUtil.aposCommit(() -> {
+			org.hibernate.Cache cache = sessionFactory().getCache();
+			cache.evictEntityData(Totem.class, totemId);
+			cache.evictCollectionData(COLECAO_TRANCAS, totemId);
+			cache.evictQueryRegion(TotemRepository.REGIAO_CONSULTAS);
+		});
+	}
+
+	/**
+	 * Invalida uma tranca e a coleção de trancas dos totens envolvidos
+	 * Com a tranca mudando de totem, os dois totens devem ser informados
+	 *
+	 * @param trancaId ID da tranca alterada
+	 * @param totemIds IDs dos totens afetados (nulos são ignorados)
+	 */
+	public void invalidarTranca(Long trancaId, Long... totemIds) {
+		TransacaoUtil.aposCommit(() -> {
+			org.hibernate.Cache cache = sessionFactory().getCache();
+			cache.evictEntityData(Tranca.class, trancaId);
+			Arrays.stream(totemIds).filter(Objects::nonNull).distinct()
+					.forEach(totemId -> cache.evictCollectionData(COLECAO_TRANCAS, totemId));
+			cache.evictQueryRegion(TotemRepository.REGIAO_CONSULTAS);
+		});
+	}
+
+	/**
+	 * Coleta as estatísticas do cache de segundo nível e do cache de consultas
+	 *
+	 * @return EstatisticasCacheDTO totais e estatísticas por região
+	 */
+	public EstatisticasCacheDTO estatisticas() {
+		Statistics stats = sessionFactory().getStatistics();
+
+		EstatisticasCacheDTO dto = new EstatisticasCacheDTO();
+		dto.setAcertos(stats.getSecondLevelCacheHitCount());
+		dto.setFalhas(stats.getSecondLevelCacheMissCount());
+		dto.setInsercoes(stats.getSecondLevelCachePutCount());
+		dto.setAcertosConsultas(stats.getQueryCacheHitCount());
+		dto.setFalhasConsultas(stats.getQueryCacheMissCount());
+		dto.setInsercoesConsultas(stats.getQueryCachePutCount());
+
+		List<RegiaoCacheDTO> regioes = new ArrayList<>();
+		for (String nome : stats.getSecondLevelCacheRegionNames()) {
+			CacheRegionStatistics regiao = stats.getCacheRegionStatistics(nome);
+			if (regiao != null) {
+				regioes.add(new RegiaoCacheDTO(nome, regiao.getHitCount(), regiao.getMissCount(),
+						regiao.getPutCount()));
+			}
+		}
+		dto.setRegioes(regioes);
+		return dto;
+	}
+
+	private SessionFactory sessionFactory() {
+		return entityManagerFactory.unwrap(SessionFactory.class);
+	}
+}
@@ -2,20 +2,28 @@
  * Serviço responsável pelo gerenciamento de cartões de crédito
  * Implementa a lógica de cobranças e gestão de cartões dos ciclistas
  * 
+ * O cartão principal fica referenciado diretamente no Ciclista, e o vencimento
+ * dele é guardado em cache por ciclista: a pré-autorização da retirada e a
+ * cobrança não precisam procurar o cartão principal entre os cartões.
+ * 
  * @Service Marca como um componente de serviço do Spring
  */
 package com.example.demo.service;
 
+import com.example.demo.dto.CartaoCreditoDTO;
 import com.example.demo.model.CartaoCredito;
 import com.example.demo.model.Ciclista;
+import com.example.demo.model.Emprestimo;
 import com.example.demo.repository.CartaoCreditoRepository;
 import com.example.demo.repository.CiclistaRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class CartaoCreditoService {
@@ -26,67 +34,90 @@ public class CartaoCreditoService {
 	@Autowired
 	private CiclistaRepository ciclistaRepository;
 
+	@Autowired
+	private GatewayPagamento gatewayPagamento;
+
+	@Autowired
+	private LivroCobrancasService livroCobrancasService;
+
+	// Limite do cache de cartões principais
+	private static final int MAX_CICLISTAS_EM_CACHE = 10_000;
+
+	// Vencimento do cartão principal por ID do ciclista; vazio = sem cartão principal
+	private final Map<Long, Optional<YearMonth>> vencimentosPrincipais = MapaLimitado.lru(MAX_CICLISTAS_EM_CACHE);
+
 	/**
-	 * Processa uma cobrança no cartão de crédito do ciclista Utiliza o cartão
-	 * principal do ciclista para a cobrança
+	 * Pré-autorização local da retirada, sem chamada ao gateway
+	 * Confere se o ciclista tem cartão principal dentro da validade; a captura
+	 * do valor é feita depois, de forma assíncrona, pelo outbox. Nada é
+	 * reservado no gateway: uma captura que falha em todas as tentativas fica
+	 * lançada como NAO_CAPTURADA no livro de cobranças
 	 * 
-	 * @param ciclista ciclista que será cobrado
-	 * @param valor    valor a ser cobrado
-	 * @return boolean true se a cobrança foi realizada com sucesso
-	 * @throws RuntimeException se o ciclista não tiver cartão principal
+	 * @param ciclista ciclista já carregado pelo chamador
+	 * @throws RuntimeException se não houver cartão principal ou se ele estiver vencido
 	 */
-	@Transactional
-	public boolean realizarCobranca(Ciclista ciclista, double valor) {
-		CartaoCredito cartaoPrincipal = obterCartaoPrincipal(ciclista);
-		if (cartaoPrincipal == null) {
-			throw new RuntimeException("Ciclista não possui cartão de crédito principal");
+	public void preAutorizar(Ciclista ciclista) {
+		YearMonth vencimento = vencimentoPrincipal(ciclista)
+				.orElseThrow(() -> new RuntimeException("Ciclista não possui cartão de crédito principal"));
+		if (vencimento.isBefore(YearMonth.now())) {
+			throw new RuntimeException("Cartão de crédito principal vencido");
 		}
-		boolean cobrancaRealizada = processarCobranca(cartaoPrincipal, valor);
-		if (cobrancaRealizada) {
-			registrarCobranca(ciclista, cartaoPrincipal, valor);
-		}
-		return cobrancaRealizada;
 	}
 
 	/**
-	 * Obtém o cartão principal de um ciclista
+	 * Indica se o ciclista tem cartão principal
+	 * Consulta o cache; só carrega o ciclista na primeira vez
 	 * 
-	 * @param ciclista ciclista dono do cartão
-	 * @return CartaoCredito cartão principal do ciclista
-	 * @throws RuntimeException se não encontrar cartão principal
+	 * @param ciclistaId ID do ciclista
+	 * @return boolean true se houver cartão principal
 	 */
-	private CartaoCredito obterCartaoPrincipal(Ciclista ciclista) {
-		return cartaoCreditoRepository.findByCiclistaAndPrincipal(ciclista, true)
-				.orElseThrow(() -> new RuntimeException("Cartão principal não encontrado"));
+	public boolean possuiCartaoPrincipal(Long ciclistaId) {
+		Optional<YearMonth> vencimento = vencimentosPrincipais.get(ciclistaId);
+		if (vencimento == null) {
+			Ciclista ciclista = ciclistaRepository.findById(ciclistaId)
+					.orElseThrow(() -> new RuntimeException("Ciclista não encontrado"));
+			vencimento = vencimentoPrincipal(ciclista);
+		}
+		return vencimento.isPresent();
 	}
 
 	/**
-     * Simula o processamento de uma cobrança
-     * 
-     * @param cartao cartão onde será realizada a cobrança
-     * @param valor valor a ser cobrado
-     * @return boolean true indicando sucesso da cobrança
-     */
-	private boolean processarCobranca(CartaoCredito cartao, double valor) {
-		System.out.println("Processando cobrança de R$" + valor + " no cartão " + cartao.getNumero());
-
-		return true;
+	 * Captura uma cobrança no cartão principal do ciclista pelo gateway
+	 * Chamado pelo outbox sem transação aberta, para que a espera pelo gateway
+	 * não segure uma conexão do pool. A recusa é lançada aqui, em transação
+	 * própria; a aprovação é lançada pelo outbox na transação que conclui o evento
+	 * 
+	 * @param emprestimo empréstimo cobrado, com ciclista e cartão principal carregados
+	 * @param valor    valor a ser cobrado
+	 * @param referencia identificador único da cobrança, repassado ao gateway para idempotência
+	 * @return String identificador da transação no gateway, usado na liquidação
+	 * @throws RuntimeException se o ciclista não tiver cartão principal ou o gateway recusar
+	 */
+	public String capturarCobranca(Emprestimo emprestimo, double valor, String referencia) {
+		CartaoCredito cartaoPrincipal = emprestimo.getCiclista().getCartaoPrincipal();
+		if (cartaoPrincipal == null) {
+			throw new RuntimeException("Cartão principal não encontrado");
+		}
+		try {
+			return gatewayPagamento.capturar(cartaoPrincipal, valor, referencia);
+		} catch (RuntimeException e) {
+			livroCobrancasService.registrarRecusada(emprestimo, cartaoPrincipal, valor);
+			throw e;
+		}
 	}
 
 	/**
-     * Registra uma cobrança realizada
-     * 
-     * @param ciclista ciclista cobrado
-     * @param cartao cartão utilizado
-     * @param valor valor cobrado
-     */
-	private void registrarCobranca(Ciclista ciclista, CartaoCredito cartao, double valor) {
-		System.out.println("Cobrança de R$" + valor + " realizada para o ciclista " + ciclista.getNome() + " no cartão "
-				+ cartao.getNumero() + " em " + LocalDateTime.now());
+	 * Liquida uma cobrança já capturada
+	 * 
+	 * @param transacaoId identificador da transação no gateway
+	 */
+	public void liquidarCobranca(String transacaoId) {
+		gatewayPagamento.liquidar(transacaoId);
 	}
 
 	/**
      * Adiciona um novo cartão de crédito ao ciclista
+     * Se o cartão vier marcado como principal, passa a ser o principal do ciclista
      * 
      * @param ciclistaId ID do ciclista
      * @param cartao dados do novo cartão
@@ -98,28 +129,34 @@ public class CartaoCreditoService {
 		Ciclista ciclista = ciclistaRepository.findById(ciclistaId)
 				.orElseThrow(() -> new RuntimeException("Ciclista não encontrado"));
 
+		boolean principal = cartao.isPrincipal();
 		cartao.setCiclista(ciclista);
+		cartao.setPrincipal(false);
+		ciclista.getCartoes().add(cartao);
+		CartaoCredito cartaoSalvo = cartaoCreditoRepository.save(cartao);
 
-		if (cartao.isPrincipal()) {
-			cartaoCreditoRepository.findByCiclista(ciclista).forEach(c -> c.setPrincipal(false));
+		if (principal) {
+			tornarPrincipal(ciclista, cartaoSalvo);
 		}
-
-		return cartaoCreditoRepository.save(cartao);
+		return cartaoSalvo;
 	}
 
 	/**
      * Remove um cartão de crédito do ciclista
-     * Não permite remover o cartão principal se for o único
+     * Se for o principal, o ciclista fica sem cartão principal
      * 
      * @param ciclistaId ID do ciclista
      * @param cartaoId ID do cartão a ser removido
-     * @throws RuntimeException se o cartão for principal e único
+     * @throws RuntimeException se o ciclista não for encontrado
      */
 	@Transactional
 	public void removerCartao(Long ciclistaId, Long cartaoId) {
 		Ciclista ciclista = ciclistaRepository.findById(ciclistaId)
 				.orElseThrow(() -> new RuntimeException("Ciclista não encontrado"));
 
+		if (ciclista.getCartaoPrincipal() != null && ciclista.getCartaoPrincipal().getId().equals(cartaoId)) {
+			tornarPrincipal(ciclista, null);
+		}
 		ciclista.getCartoes().removeIf(c -> c.getId().equals(cartaoId));
 		ciclistaRepository.save(ciclista);
 	}
@@ -130,28 +167,70 @@ public class CartaoCreditoService {
      * 
      * @param ciclistaId ID do ciclista
      * @param cartaoId ID do cartão a ser definido como principal
-     * @throws RuntimeException se o ciclista não for encontrado
+     * @throws RuntimeException se o ciclista ou o cartão não forem encontrados
      */
 	@Transactional
 	public void definirCartaoPrincipal(Long ciclistaId, Long cartaoId) {
 		Ciclista ciclista = ciclistaRepository.findById(ciclistaId)
 				.orElseThrow(() -> new RuntimeException("Ciclista não encontrado"));
+		CartaoCredito cartao = ciclista.getCartoes().stream().filter(c -> c.getId().equals(cartaoId)).findFirst()
+				.orElseThrow(() -> new RuntimeException("Cartão não encontrado"));
 
-		ciclista.getCartoes().forEach(c -> c.setPrincipal(c.getId().equals(cartaoId)));
+		tornarPrincipal(ciclista, cartao);
 		ciclistaRepository.save(ciclista);
 	}
 
 	/**
-     * Lista todos os cartões de um ciclista
+     * Lista todos os cartões de um ciclista, sem o CVV
+     * O ciclista já deve ter sido validado pelo chamador
      * 
      * @param ciclistaId ID do ciclista
-     * @return List<CartaoCredito> lista de cartões do ciclista
-     * @throws RuntimeException se o ciclista não for encontrado
+     * @return List<CartaoCreditoDTO> lista de cartões do ciclista
      */
-	public List<CartaoCredito> listarCartoes(Long ciclistaId) {
-		Ciclista ciclista = ciclistaRepository.findById(ciclistaId)
-				.orElseThrow(() -> new RuntimeException("Ciclista não encontrado"));
-		return cartaoCreditoRepository.findByCiclista(ciclista);
+	public List<CartaoCreditoDTO> listarCartoes(Long ciclistaId) {
+		return cartaoCreditoRepository.findResumosByCiclistaId(ciclistaId);
+	}
+
+	/**
+	 * Troca o cartão principal do ciclista
+	 * Atualiza a flag dos cartões, a referência no ciclista e, após o commit, o cache
+	 * 
+	 * @param ciclista ciclista gerenciado
+	 * @param cartao novo cartão principal, ou nulo para nenhum
+	 */
+	private void tornarPrincipal(Ciclista ciclista, CartaoCredito cartao) {
+		ciclista.getCartoes().forEach(c -> c.setPrincipal(c == cartao));
+		if (cartao != null) {
+			cartao.setPrincipal(true);
+		}
+		ciclista.setCartaoPrincipal(cartao);
+
+		Long ciclistaId = ciclista.getId();
+		Optional<YearMonth> vencimento = Optional.ofNullable(cartao).map(c -> vencimento(c.getValidade()));
+		TransacaoUtil.aposCommit(() -> vencimentosPrincipais.put(ciclistaId, vencimento));
+	}
+
+	/**
+	 * Vencimento do cartão principal do ciclista, pelo cache ou pela referência no ciclista
+	 * 
+	 * @param ciclista ciclista carregado
+	 * @return Optional<YearMonth> vencimento, ou empty se não houver cartão principal
+	 */
+	private Optional<YearMonth> vencimentoPrincipal(Ciclista ciclista) {
+		Optional<YearMonth> vencimento = vencimentosPrincipais.get(ciclista.getId());
+		if (vencimento == null) {
+			vencimento = Optional.ofNullable(ciclista.getCartaoPrincipal()).map(c -> vencimento(c.getValidade()));
+			vencimentosPrincipais.put(ciclista.getId(), vencimento);
+		}
+		return vencimento;
+	}
+
+	/**
+	 * Converte a validade MM/YY no último mês de uso do cartão
+	 */
+	private static YearMonth vencimento(String validade) {
+		return YearMonth.of(2000 + Integer.parseInt(validade.substring(3, 5)),
+				Integer.parseInt(validade.substring(0, 2)));
 	}
 
-}
\ No newline at end of file
+}
@@ -1,15 +1,16 @@
 package com.example.demo.service;
 
 import com.example.demo.model.Ciclista;
-import com.example.demo.model.Emprestimo;
 import com.example.demo.model.Estrangeiro;
 import com.example.demo.dto.CartaoCreditoDTO;
 import com.example.demo.dto.CiclistaAtualizacaoDTO;
+import com.example.demo.dto.EmprestimoDTO;
 import com.example.demo.dto.LoginResponseDTO;
+import com.example.demo.dto.PaginaDTO;
 import com.example.demo.model.Brasileiro;
 import com.example.demo.model.CartaoCredito;
+import com.example.demo.model.TipoDocumento;
 import com.example.demo.repository.CiclistaRepository;
-import com.example.demo.repository.EmprestimoRepository;
 
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
@@ -20,6 +21,7 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.regex.Pattern;
 
@@ -37,11 +39,20 @@ public class CiclistaService {
 	private EmprestimoService emprestimoService;
 
 	@Autowired
-	private EmprestimoRepository emprestimoRepository;
+	private EmprestimosAtivosService emprestimosAtivosService;
 
 	@Autowired
 	private AuthService authService;
 
+	@Autowired
+	private SessaoService sessaoService;
+
+	// Limite do cache de identidade (documento normalizado -> ID do ciclista)
+	private static final int MAX_IDS_EM_CACHE = 10_000;
+
+	// LRU limitado; documentos não mudam após o cadastro, então o mapeamento não expira
+	private final Map<String, Long> idsPorDocumento = MapaLimitado.lru(MAX_IDS_EM_CACHE);
+
 	public Ciclista cadastrarCiclista(@Valid Ciclista ciclista) {
 		validarCiclista(ciclista);
 
@@ -73,16 +84,18 @@ public class CiclistaService {
 	private void validarCiclista(Ciclista ciclista) {
 		if (ciclista instanceof Brasileiro) {
 			Brasileiro brasileiro = (Brasileiro) ciclista;
-			if (ciclistaRepository.findByCpf(brasileiro.getCpf()).isPresent()) {
+			if (ciclistaRepository.existsByDocumentoAndTipoDocumento(
+					Ciclista.normalizarDocumento(brasileiro.getCpf()), TipoDocumento.CPF)) {
 				throw new RuntimeException("CPF já cadastrado");
 			}
 		} else if (ciclista instanceof Estrangeiro) {
 			Estrangeiro estrangeiro = (Estrangeiro) ciclista;
-			if (ciclistaRepository.findByPassaporte(estrangeiro.getPassaporte()).isPresent()) {
+			if (ciclistaRepository.existsByDocumentoAndTipoDocumento(
+					Ciclista.normalizarDocumento(estrangeiro.getPassaporte()), TipoDocumento.PASSAPORTE)) {
 				throw new RuntimeException("Passaporte já cadastrado");
 			}
 		}
-		if (ciclistaRepository.findByEmail(ciclista.getEmail()).isPresent()) {
+		if (ciclistaRepository.existsByEmail(ciclista.getEmail())) {
 			throw new RuntimeException("Email já cadastrado");
 		}
 	}
@@ -103,64 +116,106 @@ public class CiclistaService {
 			response.setDocumento(((Estrangeiro) ciclista).getPassaporte());
 		}
 
-		// Verifica se há empréstimo ativo
-		List<Emprestimo> emprestimos = emprestimoRepository.findByCiclistaId(ciclista.getId());
-		boolean hasActiveEmprestimo = emprestimos.stream().anyMatch(e -> e.getHoraFim() == null);
+		// Verifica se há empréstimo ativo no registro em memória, sem consultar o histórico
+		Optional<EmprestimosAtivosService.EmprestimoAtivo> emprestimoAtivo = emprestimosAtivosService
+				.buscarPorCiclista(ciclista.getId());
 
-		response.setHasActiveEmprestimo(hasActiveEmprestimo);
+		response.setHasActiveEmprestimo(emprestimoAtivo.isPresent());
+		emprestimoAtivo.ifPresent(e -> response.setCurrentBikeInfo("Bicicleta " + e.getBicicletaNumero()));
 
-		if (hasActiveEmprestimo) {
-			Emprestimo emprestimoAtivo = emprestimos.stream().filter(e -> e.getHoraFim() == null).findFirst().get();
-			response.setCurrentBikeInfo("Bicicleta " + emprestimoAtivo.getBicicleta().getNumero());
+		response.setToken(sessaoService.emitir(ciclista.getId(), ciclista.getTipoDocumento()));
+		if (ciclista.getDocumento() != null) {
+			idsPorDocumento.put(ciclista.getDocumento(), ciclista.getId());
 		}
 
 		return response;
 	}
 
+	/**
+	 * Resolve um ciclista pelo CPF ou passaporte
+	 * Com o ID já em cache, faz apenas a busca por chave primária; senão, uma
+	 * busca pelo índice do documento normalizado
+	 *
+	 * @param identificacao CPF ou passaporte, com ou sem pontuação
+	 * @return Ciclista ciclista encontrado
+	 */
 	public Ciclista buscarCiclista(String identificacao) {
-		System.out.println("Buscando ciclista com identificação: " + identificacao);
+		String documento = Ciclista.normalizarDocumento(identificacao);
+		if (documento == null || documento.isEmpty()) {
+			throw new RuntimeException("Ciclista não encontrado");
+		}
 
-		Optional<Ciclista> ciclista = ciclistaRepository.findByCpf(identificacao);
-		if (ciclista.isPresent()) {
-			System.out.println("Ciclista encontrado por CPF: " + ciclista.get().getId());
-			return ciclista.get();
+		Long idEmCache = idsPorDocumento.get(documento);
+		if (idEmCache != null) {
+			Optional<Ciclista> emCache = ciclistaRepository.findById(idEmCache);
+			if (emCache.isPresent()) {
+				return emCache.get();
+			}
+			idsPorDocumento.remove(documento);
 		}
 
-		ciclista = ciclistaRepository.findByPassaporte(identificacao);
-		if (ciclista.isPresent()) {
-			System.out.println("Ciclista encontrado por passaporte: " + ciclista.get().getId());
-			return ciclista.get();
+		List<Ciclista> encontrados = ciclistaRepository.findByDocumento(documento);
+		if (!encontrados.isEmpty()) {
+			Ciclista ciclista = encontrados.get(0);
+			idsPorDocumento.put(documento, ciclista.getId());
+			return ciclista;
 		}
 
 		System.out.println("Ciclista não encontrado para identificação: " + identificacao);
 		throw new RuntimeException("Ciclista não encontrado");
 	}
 
+	/**
+	 * Resolve quem está chamando pelo token de sessão emitido no login
+	 * O token é verificado em memória, sem acesso ao banco; o documento do
+	 * ciclista não substitui o token
+	 *
+	 * @param autorizacao cabeçalho Authorization com o token
+	 * @return Long ID do ciclista
+	 * @throws RuntimeException se o token estiver ausente, malformado, adulterado ou expirado
+	 */
+	public Long resolverSessao(String autorizacao) {
+		if (autorizacao == null || autorizacao.isBlank()) {
+			throw new RuntimeException("Sessão obrigatória");
+		}
+		return sessaoService.validar(autorizacao).getCiclistaId();
+	}
+
+	/**
+	 * Busca um ciclista pelo ID já resolvido (token de sessão ou cache de identidade)
+	 *
+	 * @param ciclistaId ID do ciclista
+	 * @return Ciclista ciclista encontrado
+	 */
+	public Ciclista buscarCiclistaPorId(Long ciclistaId) {
+		return ciclistaRepository.findById(ciclistaId)
+				.orElseThrow(() -> new RuntimeException("Ciclista não encontrado"));
+	}
+
 	@Transactional
-	public Ciclista atualizarCiclista(String identificacao, CiclistaAtualizacaoDTO atualizacaoDTO) {
-		return ciclistaRepository.findByCpf(identificacao).map(ciclistaExistente -> {
-			if (atualizacaoDTO.getNome() != null) {
-				if (atualizacaoDTO.getNome().length() > 100) {
-					throw new IllegalArgumentException("Nome não pode exceder 100 caracteres");
-				}
-				ciclistaExistente.setNome(atualizacaoDTO.getNome());
+	public Ciclista atualizarCiclista(Long ciclistaId, CiclistaAtualizacaoDTO atualizacaoDTO) {
+		Ciclista ciclistaExistente = buscarCiclistaPorId(ciclistaId);
+		if (atualizacaoDTO.getNome() != null) {
+			if (atualizacaoDTO.getNome().length() > 100) {
+				throw new IllegalArgumentException("Nome não pode exceder 100 caracteres");
 			}
-			if (atualizacaoDTO.getEmail() != null) {
-				if (!atualizacaoDTO.getEmail().equals(ciclistaExistente.getEmail())) {
-					if (ciclistaRepository.findByEmail(atualizacaoDTO.getEmail()).isPresent()) {
-						throw new IllegalArgumentException("E-mail já está em uso");
-					}
-					if (!isValidEmail(atualizacaoDTO.getEmail())) {
-						throw new IllegalArgumentException("Formato de e-mail inválido");
-					}
+			ciclistaExistente.setNome(atualizacaoDTO.getNome());
+		}
+		if (atualizacaoDTO.getEmail() != null) {
+			if (!atualizacaoDTO.getEmail().equals(ciclistaExistente.getEmail())) {
+				if (ciclistaRepository.existsByEmail(atualizacaoDTO.getEmail())) {
+					throw new IllegalArgumentException("E-mail já está em uso");
+				}
+				if (!isValidEmail(atualizacaoDTO.getEmail())) {
+					throw new IllegalArgumentException("Formato de e-mail inválido");
 				}
-				ciclistaExistente.setEmail(atualizacaoDTO.getEmail());
-			}
-			if (atualizacaoDTO.getTelefone() != null) {
-				ciclistaExistente.setTelefone(atualizacaoDTO.getTelefone());
 			}
-			return ciclistaRepository.save(ciclistaExistente);
-		}).orElseThrow(() -> new RuntimeException("Ciclista não encontrado"));
+			ciclistaExistente.setEmail(atualizacaoDTO.getEmail());
+		}
+		if (atualizacaoDTO.getTelefone() != null) {
+			ciclistaExistente.setTelefone(atualizacaoDTO.getTelefone());
+		}
+		return ciclistaRepository.save(ciclistaExistente);
 	}
 
 	private boolean isValidEmail(String email) {
@@ -170,24 +225,16 @@ public class CiclistaService {
 	}
 
 	@Transactional
-	public CartaoCreditoDTO adicionarCartaoCredito(String identificacao, CartaoCreditoDTO cartaoDTO) {
-		Ciclista ciclista = buscarCiclista(identificacao);
+	public CartaoCreditoDTO adicionarCartaoCredito(Long ciclistaId, CartaoCreditoDTO cartaoDTO) {
+		Ciclista ciclista = buscarCiclistaPorId(ciclistaId);
 		CartaoCredito cartao = new CartaoCredito();
 		cartao.setNumero(cartaoDTO.getNumero());
 		cartao.setNomeTitular(cartaoDTO.getNomeTitular());
 		cartao.setValidade(cartaoDTO.getValidade());
 		cartao.setCvv(cartaoDTO.getCvv());
 		cartao.setPrincipal(cartaoDTO.isPrincipal());
-		cartao.setCiclista(ciclista);
 
-		if (cartao.isPrincipal()) {
-			ciclista.getCartoes().forEach(c -> c.setPrincipal(false));
-		}
-
-		ciclista.getCartoes().add(cartao);
-		ciclistaRepository.save(ciclista);
-
-		return converterParaDTO(cartao);
+		return converterParaDTO(cartaoCreditoService.adicionarCartao(ciclista.getId(), cartao));
 	}
 
 	private CartaoCreditoDTO converterParaDTO(CartaoCredito cartao) {
@@ -202,28 +249,25 @@ public class CiclistaService {
 	}
 
 	@Transactional
-	public void removerCartaoCredito(String identificacao, Long cartaoId) {
-		Ciclista ciclista = buscarCiclista(identificacao);
-		cartaoCreditoService.removerCartao(ciclista.getId(), cartaoId);
+	public void removerCartaoCredito(Long ciclistaId, Long cartaoId) {
+		cartaoCreditoService.removerCartao(ciclistaId, cartaoId);
 	}
 
 	@Transactional
-	public void definirCartaoPrincipal(String identificacao, Long cartaoId) {
-		Ciclista ciclista = buscarCiclista(identificacao);
-		cartaoCreditoService.definirCartaoPrincipal(ciclista.getId(), cartaoId);
+	public void definirCartaoPrincipal(Long ciclistaId, Long cartaoId) {
+		cartaoCreditoService.definirCartaoPrincipal(ciclistaId, cartaoId);
+	}
+
+	public List<CartaoCreditoDTO> listarCartoes(Long ciclistaId) {
+		return cartaoCreditoService.listarCartoes(ciclistaId);
 	}
 
-	public List<CartaoCredito> listarCartoes(String identificacao) {
-		Ciclista ciclista = buscarCiclista(identificacao);
-		return cartaoCreditoService.listarCartoes(ciclista.getId());
+	public boolean possuiCartaoPrincipal(Long ciclistaId) {
+		return cartaoCreditoService.possuiCartaoPrincipal(ciclistaId);
 	}
 
-	public List<Emprestimo> buscarHistoricoEmprestimos(String identificacao) {
-		Ciclista ciclista = buscarCiclista(identificacao);
-		System.out.println("Buscando empréstimos para o ciclista: " + ciclista.getId());
-		List<Emprestimo> emprestimos = emprestimoRepository.findByCiclistaId(ciclista.getId());
-		System.out.println("Número de empréstimos encontrados: " + emprestimos.size());
-		return emprestimos;
+	public PaginaDTO<EmprestimoDTO> buscarHistoricoEmprestimos(Long ciclistaId, String cursor, Integer limite) {
+		return emprestimoService.buscarHistoricoEmprestimos(ciclistaId, cursor, limite);
 	}
 
 }
\ No newline at end of file
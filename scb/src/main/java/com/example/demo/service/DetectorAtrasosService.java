@@ -0,0 +1,135 @@
+/**
+ * Serviço responsável por detectar empréstimos acima da duração padrão
+ * A taxa extra só é calculada na devolução; esta varredura periódica avisa o
+ * ciclista assim que o empréstimo passa de DURACAO_PADRAO_HORAS e mantém a
+ * quantidade atual de empréstimos atrasados.
+ *
+ * A leitura é feita por cursor sobre o índice (status, hora_inicio, id), com
+ * uma projeção mínima, sem carregar entidades nem todos os empréstimos de uma
+ * vez. Os atrasos ainda não avisados são marcados e enviados ao outbox em
+ * lotes durante a própria leitura, cada lote em sua própria transação; assim
+ * a memória usada não passa de um lote. Cada empréstimo é avisado uma vez.
+ *
+ * @Service Marca como um componente de serviço do Spring
+ */
+package com.example.demo.service;
+
+import com.example.demo.model.StatusEmprestimo;
+import com.example.demo.model.TipoEventoOutbox;
+import com.example.demo.repository.EmprestimoRepository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+@Service
+public class DetectorAtrasosService {
+
+	private static final int TAMANHO_LOTE = 100;
+
+	@Autowired
+	private EmprestimoRepository emprestimoRepository;
+
+	@Autowired
+	private OutboxService outboxService;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private TransactionTemplate leitura;
+
+	private TransactionTemplate escrita;
+
+	private final AtomicLong atrasados = new AtomicLong();
+	private final AtomicLong avisados = new AtomicLong();
+
+	@PostConstruct
+	void inicializarLeitura() {
+		// O cursor do Stream só existe dentro de uma transação; somente leitura evita flush e snapshots
+		leitura = new TransactionTemplate(transactionManager);
+		leitura.setReadOnly(true);
+		// Cada lote é gravado enquanto a leitura ainda está aberta, então precisa de transação própria
+		escrita = new TransactionTemplate(transactionManager);
+		escrita.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+	}
+
+	/**
+	 * Varre os empréstimos em andamento iniciados antes do limite de duração
+	 * Atualiza a contagem de atrasados e avisa os que ainda não foram avisados
+	 */
+	@Scheduled(fixedDelayString = "${scb.atrasos.intervalo-ms:60000}")
+	public void verificar() {
+		LocalDateTime limite = LocalDateTime.now().minusHours(EmprestimoService.DURACAO_PADRAO_HORAS);
+		List<Long> lote = new ArrayList<>(TAMANHO_LOTE);
+
+		long total = leitura.execute(status -> {
+			long contagem = 0;
+			try (Stream<EmprestimoRepository.EmprestimoAtrasado> atrasos = emprestimoRepository
+					.streamIniciadosAntesDe(StatusEmprestimo.EM_ANDAMENTO, limite)) {
+				Iterator<EmprestimoRepository.EmprestimoAtrasado> it = atrasos.iterator();
+				while (it.hasNext()) {
+					EmprestimoRepository.EmprestimoAtrasado atraso = it.next();
+					contagem++;
+					if (atraso.getAtrasoNotificadoEm() == null) {
+						lote.add(atraso.getId());
+						if (lote.size() == TAMANHO_LOTE) {
+							avisados.addAndGet(avisar(lote));
+						}
+					}
+				}
+			}
+			if (!lote.isEmpty()) {
+				avisados.addAndGet(avisar(lote));
+			}
+			return contagem;
+		});
+		atrasados.set(total);
+	}
+
+	/**
+	 * Quantidade de empréstimos em andamento acima da duração padrão na última varredura
+	 *
+	 * @return long empréstimos atrasados
+	 */
+	public long quantidadeAtrasados() {
+		return atrasados.get();
+	}
+
+	/**
+	 * Quantidade de avisos de atraso enviados ao outbox desde a inicialização
+	 *
+	 * @return long avisos registrados
+	 */
+	public long quantidadeAvisados() {
+		return avisados.get();
+	}
+
+	/**
+	 * Marca um lote como avisado e registra as notificações no outbox, na mesma transação
+	 * Esvazia a lista ao final, para ser reaproveitada no próximo lote
+	 *
+	 * @param ids IDs dos empréstimos do lote
+	 * @return int quantidade de empréstimos avisados
+	 */
+	private int avisar(List<Long> ids) {
+		int quantidade = ids.size();
+		escrita.executeWithoutResult(status -> {
+			emprestimoRepository.marcarAtrasoNotificado(ids, StatusEmprestimo.EM_ANDAMENTO, LocalDateTime.now());
+			outboxService.registrarNotificacoes(TipoEventoOutbox.NOTIFICACAO_ATRASO, ids);
+		});
+		ids.clear();
+		return quantidade;
+	}
+}
@@ -0,0 +1,234 @@
+/**
+ * Serviço responsável pelo índice de disponibilidade dos totens
+ * Mantém em memória, por totem, a contagem de trancas por status e de
+ * bicicletas disponíveis, permitindo consultas sem acesso ao banco.
+ *
+ * O índice é reconstruído na inicialização e depois atualizado de forma
+ * incremental pelos serviços de tranca, bicicleta, totem e empréstimo.
+ * As alterações só são aplicadas após o commit da transação, para que um
+ * rollback não deixe o índice divergente do banco.
+ *
+ * Bicicletas reservadas não entram nas disponíveis; as reservas são contadas
+ * pelo ReservaService e descontadas na consulta.
+ *
+ * @Service Marca como um componente de serviço do Spring
+ */
+package com.example.demo.service;
+
+import com.example.demo.dto.DisponibilidadeTotemDTO;
+import com.example.demo.model.Bicicleta;
+import com.example.demo.model.StatusBicicleta;
+import com.example.demo.model.StatusTranca;
+import com.example.demo.repository.TotemRepository;
+import com.example.demo.repository.TrancaRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+@Service
+public class DisponibilidadeService {
+
+	private static final Logger logger = LoggerFactory.getLogger(DisponibilidadeService.class);
+
+	@Autowired
+	private TotemRepository totemRepository;
+
+	@Autowired
+	private TrancaRepository trancaRepository;
+
+	@Autowired
+	private ReservaService reservaService;
+
+	private final Map<Long, ContadoresTotem> contadores = new ConcurrentHashMap<>();
+
+	/**
+	 * Reconstrói o índice a partir do banco
+	 * Executado quando a aplicação termina de subir, após a carga inicial de dados
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void reconstruir() {
+		Map<Long, ContadoresTotem> novos = new ConcurrentHashMap<>();
+		for (TotemRepository.ResumoTotem resumo : totemRepository.findResumos()) {
+			ContadoresTotem c = new ContadoresTotem();
+			c.localizacao = resumo.getLocalizacao();
+			c.descricao = resumo.getDescricao();
+			novos.put(resumo.getId(), c);
+		}
+		for (TrancaRepository.ContagemTrancas contagem : trancaRepository.contarPorTotem(StatusBicicleta.DISPONIVEL)) {
+			novos.computeIfAbsent(contagem.getTotemId(), id -> new ContadoresTotem()).somar(contagem);
+		}
+		contadores.clear();
+		contadores.putAll(novos);
+		logger.info("Índice de disponibilidade reconstruído para {} totens", novos.size());
+	}
+
+	/**
+	 * Lista a disponibilidade de todos os totens, ordenada por ID
+	 *
+	 * @return List<DisponibilidadeTotemDTO> resumo de cada totem
+	 */
+	public List<DisponibilidadeTotemDTO> listar() {
+		return contadores.entrySet().stream().map(e -> e.getValue().paraDTO(e.getKey(), reservadas(e.getKey())))
+				.sorted(Comparator.comparing(DisponibilidadeTotemDTO::getTotemId)).collect(Collectors.toList());
+	}
+
+	/**
+	 * Busca a disponibilidade de um totem específico
+	 *
+	 * @param totemId ID do totem
+	 * @return Optional<DisponibilidadeTotemDTO> resumo do totem ou empty
+	 */
+	public Optional<DisponibilidadeTotemDTO> buscarPorTotem(Long totemId) {
+		ContadoresTotem c = contadores.get(totemId);
+		return c == null ? Optional.empty() : Optional.of(c.paraDTO(totemId, reservadas(totemId)));
+	}
+
+	private long reservadas(Long totemId) {
+		return reservaService.reservadasNoTotem(totemId);
+	}
+
+	/**
+	 * Indica se uma tranca oferece uma bicicleta para retirada
+	 *
+	 * @param status status da tranca
+	 * @param bicicleta bicicleta acoplada (pode ser nula)
+	 * @return boolean true se a tranca está ocupada por bicicleta disponível
+	 */
+	public static boolean bicicletaDisponivel(StatusTranca status, Bicicleta bicicleta) {
+		return status == StatusTranca.OCUPADA && bicicleta != null
+				&& bicicleta.getStatus() == StatusBicicleta.DISPONIVEL;
+	}
+
+	/**
+	 * Registra a mudança de estado de uma tranca
+	 * Status nulo representa a tranca ausente (antes de criada ou após removida)
+	 *
+	 * @param totemId ID do totem da tranca
+	 * @param statusAntes status anterior da tranca
+	 * @param disponivelAntes se antes oferecia bicicleta disponível
+	 * @param statusDepois novo status da tranca
+	 * @param disponivelDepois se agora oferece bicicleta disponível
+	 */
+	public void registrarMudanca(Long totemId, StatusTranca statusAntes, boolean disponivelAntes,
+			StatusTranca statusDepois, boolean disponivelDepois) {
+		if (totemId == null) {
+			return;
+		}
+		TransacaoUtil.aposCommit(() -> {
+			ContadoresTotem c = contadores.computeIfAbsent(totemId, id -> new ContadoresTotem());
+			if (statusAntes != null) {
+				c.doStatus(statusAntes).decrement();
+			}
+			if (statusDepois != null) {
+				c.doStatus(statusDepois).increment();
+			}
+			c.bicicletasDisponiveis.add((disponivelDepois ? 1 : 0) - (disponivelAntes ? 1 : 0));
+		});
+	}
+
+	/**
+	 * Ajusta a contagem de bicicletas disponíveis de um totem
+	 *
+	 * @param totemId ID do totem
+	 * @param delta variação na quantidade
+	 */
+	public void ajustarBicicletasDisponiveis(Long totemId, long delta) {
+		if (totemId == null || delta == 0) {
+			return;
+		}
+		TransacaoUtil.aposCommit(
+				() -> contadores.computeIfAbsent(totemId, id -> new ContadoresTotem()).bicicletasDisponiveis.add(delta));
+	}
+
+	/**
+	 * Remove um totem do índice
+	 *
+	 * @param totemId ID do totem removido
+	 */
+	public void removerTotem(Long totemId) {
+		TransacaoUtil.aposCommit(() -> contadores.remove(totemId));
+	}
+
+	/**
+	 * Recalcula dados e contagens de um único totem a partir do banco
+	 * Usado no cadastro e em alterações em lote, em que o delta não é conhecido
+	 *
+	 * @param totemId ID do totem
+	 */
+	public void recarregarTotem(Long totemId) {
+		if (totemId == null) {
+			return;
+		}
+		TransacaoUtil.aposCommit(() -> {
+			Optional<TotemRepository.ResumoTotem> resumo = totemRepository.findResumoById(totemId);
+			if (resumo.isEmpty()) {
+				contadores.remove(totemId);
+				return;
+			}
+			ContadoresTotem c = new ContadoresTotem();
+			c.localizacao = resumo.get().getLocalizacao();
+			c.descricao = resumo.get().getDescricao();
+			trancaRepository.contarPorTotem(totemId, StatusBicicleta.DISPONIVEL).forEach(c::somar);
+			contadores.put(totemId, c);
+		});
+	}
+
+	/**
+	 * Contadores de um totem
+	 * LongAdder evita contenção entre atualizações concorrentes do mesmo totem
+	 */
+	private static class ContadoresTotem {
+		private volatile String localizacao;
+		private volatile String descricao;
+		private final LongAdder livres = new LongAdder();
+		private final LongAdder ocupadas = new LongAdder();
+		private final LongAdder emManutencao = new LongAdder();
+		private final LongAdder bicicletasDisponiveis = new LongAdder();
+
+		private LongAdder doStatus(StatusTranca status) {
+			switch (status) {
+			case LIVRE:
+				return livres;
+			case OCUPADA:
+				return ocupadas;
+			default:
+				return emManutencao;
+			}
+		}
+
+		private void somar(TrancaRepository.ContagemTrancas contagem) {
+			if (contagem.getStatus() == null) {
+				return;
+			}
+			doStatus(contagem.getStatus()).add(contagem.getTrancas());
+			if (contagem.getStatus() == StatusTranca.OCUPADA && contagem.getBicicletasDisponiveis() != null) {
+				bicicletasDisponiveis.add(contagem.getBicicletasDisponiveis());
+			}
+		}
+
+		private DisponibilidadeTotemDTO paraDTO(Long totemId, long reservadas) {
+			DisponibilidadeTotemDTO dto = new DisponibilidadeTotemDTO();
+			dto.setTotemId(totemId);
+			dto.setLocalizacao(localizacao);
+			dto.setDescricao(descricao);
+			dto.setTrancasLivres(livres.sum());
+			dto.setTrancasOcupadas(ocupadas.sum());
+			dto.setTrancasEmManutencao(emManutencao.sum());
+			dto.setBicicletasDisponiveis(Math.max(0, bicicletasDisponiveis.sum() - reservadas));
+			dto.setBicicletasReservadas(reservadas);
+			return dto;
+		}
+	}
+}
@@ -8,20 +8,31 @@
 package com.example.demo.service;
 
 import com.example.demo.dto.EmprestimoDTO;
-import com.example.demo.dto.EmprestimoRequestDTO;
+import com.example.demo.dto.PaginaDTO;
 import com.example.demo.model.*;
 import com.example.demo.repository.EmprestimoRepository;
+import com.example.demo.repository.TrancaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 import java.time.Duration;
+import java.time.format.DateTimeParseException;
 
 @Service
 public class EmprestimoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmprestimoService.class);
+
     @Autowired
     private EmprestimoRepository emprestimoRepository;
     
@@ -29,30 +40,74 @@ public class EmprestimoService {
     private CiclistaService ciclistaService;
     
     @Autowired
-    private TrancaService trancaService;
-    
-    @Autowired
-    private BicicletaService bicicletaService;
+    private TrancaRepository trancaRepository;
     
     @Autowired
     @Lazy
     private CartaoCreditoService cartaoCreditoService;
     
     @Autowired
-    private NotificacaoService notificacaoService;
+    private OutboxService outboxService;
+
+    @Autowired
+    private DisponibilidadeService disponibilidadeService;
+
+    @Autowired
+    private EmprestimosAtivosService emprestimosAtivosService;
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private EventosEstadoService eventosEstadoService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
     private static final double TAXA_INICIAL = 10.0;
-    private static final double TAXA_EXTRA_POR_HORA = 5.0;
-    private static final long DURACAO_PADRAO_HORAS = 2;
+    // Visíveis no pacote: usados também na detecção e no aviso de atrasos
+    static final double TAXA_EXTRA_POR_HORA = 5.0;
+    static final long DURACAO_PADRAO_HORAS = 2;
+
+    // Retentativas em caso de conflito de versão entre retiradas/devoluções simultâneas
+    private static final int MAX_TENTATIVAS = 4;
+    private static final long ESPERA_BASE_MS = 20;
+
+    // Cursor do histórico: "horaInicio_id", a mesma chave da ordenação
+    private static final String SEPARADOR_CURSOR = "_";
 
     /**
-     * Busca o histórico de empréstimos de um ciclista
+     * Busca uma página do histórico de empréstimos de um ciclista
+     * Ordenado do mais recente para o mais antigo, com keyset em (horaInicio, id)
      * 
      * @param ciclistaId ID do ciclista
-     * @return List<Emprestimo> lista de todos os empréstimos do ciclista
+     * @param cursor "horaInicio_id" do último empréstimo da página anterior (nulo na primeira)
+     * @param limite tamanho da página
+     * @return PaginaDTO<EmprestimoDTO> página do histórico
+     * @throws RuntimeException se o cursor não estiver no formato esperado
      */
-    public List<Emprestimo> buscarHistoricoEmprestimos(Long ciclistaId) {
-        return emprestimoRepository.findByCiclistaId(ciclistaId);
+    public PaginaDTO<EmprestimoDTO> buscarHistoricoEmprestimos(Long ciclistaId, String cursor, Integer limite) {
+        int tamanho = PaginaDTO.limiteValido(limite);
+        PageRequest pagina = PageRequest.of(0, tamanho + 1);
+
+        List<EmprestimoDTO> emprestimos;
+        if (cursor == null) {
+            emprestimos = emprestimoRepository.findHistorico(ciclistaId, pagina);
+        } else {
+            // O cursor já traz a posição completa: nenhuma consulta extra, e só as linhas do próprio ciclista
+            int separador = cursor.lastIndexOf(SEPARADOR_CURSOR);
+            LocalDateTime horaInicio;
+            Long id;
+            try {
+                horaInicio = LocalDateTime.parse(cursor.substring(0, Math.max(separador, 0)));
+                id = Long.valueOf(cursor.substring(separador + 1));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new RuntimeException("Cursor de paginação inválido");
+            }
+            emprestimos = emprestimoRepository.findHistoricoAposCursor(ciclistaId, horaInicio, id, pagina);
+        }
+        return PaginaDTO.comCursor(emprestimos, tamanho,
+            e -> e.getHoraInicio() + SEPARADOR_CURSOR + e.getId());
     }
 
     /**
@@ -80,27 +135,58 @@ public class EmprestimoService {
     /**
      * Realiza um novo empréstimo de bicicleta.
      * Processo:
-     * 1. Valida ciclista e verifica empréstimos ativos
+     * 1. Valida ciclista e empréstimos ativos e pré-autoriza o cartão principal
      * 2. Verifica disponibilidade da bicicleta
-     * 3. Realiza cobrança inicial
-     * 4. Libera a tranca e atualiza status
-     * 5. Registra o empréstimo
-     * 6. Envia notificação
+     * 3. Libera a tranca e atualiza status
+     * 4. Registra o empréstimo
+     * 5. Agenda no outbox a captura da taxa inicial e a notificação
+     * 
+     * Em caso de conflito com outra operação na mesma tranca ou bicicleta,
+     * a transação é refeita do início (com nova validação) até MAX_TENTATIVAS vezes
+     * 
+     * A regra de um empréstimo por ciclista é garantida pela reserva no registro
+     * de empréstimos ativos, obtida antes da transação e desfeita se ela falhar
+     * 
+     * Uma bicicleta reservada só pode ser retirada pelo dono da reserva; a
+     * reserva do ciclista, se houver, é encerrada após a retirada
      * 
-     * @param requestDTO dados necessários para o empréstimo
+     * @param ciclistaId ID do ciclista, já resolvido pelo chamador
+     * @param trancaId ID da tranca de retirada
      * @return EmprestimoDTO dados do empréstimo realizado
      * @throws RuntimeException em caso de falha em qualquer etapa
      */
-    @Transactional
-    public EmprestimoDTO realizarEmprestimo(EmprestimoRequestDTO requestDTO) {
-        Ciclista ciclista = ciclistaService.buscarCiclista(requestDTO.getIdentificacaoCiclista());
-        
-        if (emprestimoRepository.findByCiclistaIdAndStatus(
-                ciclista.getId(), StatusEmprestimo.EM_ANDAMENTO).isPresent()) {
+    public EmprestimoDTO realizarEmprestimo(Long ciclistaId, Long trancaId) {
+        EmprestimosAtivosService.EmprestimoAtivo reserva = emprestimosAtivosService.reservar(ciclistaId);
+        if (reserva == null) {
             throw new RuntimeException("Ciclista já possui um empréstimo em andamento");
         }
+        try {
+            EmprestimoDTO emprestimo = comRetentativa("empréstimo", () -> executarEmprestimo(ciclistaId, trancaId));
+            reservaService.concluir(ciclistaId);
+            return emprestimo;
+        } catch (RuntimeException e) {
+            emprestimosAtivosService.liberar(reserva);
+            throw e;
+        }
+    }
+
+    /**
+     * Executa uma tentativa de empréstimo dentro da transação corrente
+     * Tranca, bicicleta e totem vêm de uma única consulta com bloqueio, e as
+     * entidades gerenciadas são alteradas diretamente, sem novas buscas.
+     * A cobrança só é agendada no outbox: se outra requisição levou a mesma
+     * bicicleta, o conflito desfaz a transação inteira e nada é cobrado
+     * 
+     * @param ciclistaId ID do ciclista
+     * @param trancaId ID da tranca de retirada
+     * @return EmprestimoDTO dados do empréstimo realizado
+     */
+    private EmprestimoDTO executarEmprestimo(Long ciclistaId, Long trancaId) {
+        Ciclista ciclista = ciclistaService.buscarCiclistaPorId(ciclistaId);
+        // Pré-autorização local; a captura é assíncrona, pelo outbox
+        cartaoCreditoService.preAutorizar(ciclista);
 
-        Tranca tranca = trancaService.buscarPorId(requestDTO.getTrancaId())
+        Tranca tranca = trancaRepository.findParaOperacaoById(trancaId)
             .orElseThrow(() -> new RuntimeException("Tranca não encontrada"));
         
         Totem totem = tranca.getTotem();
@@ -108,16 +194,17 @@ public class EmprestimoService {
         if (tranca.getStatus() != StatusTranca.OCUPADA) {
             throw new RuntimeException("Não há bicicleta disponível nesta tranca");
         }
+        reservaService.verificarRetirada(ciclistaId, trancaId);
 
         Bicicleta bicicleta = tranca.getBicicleta();
         if (bicicleta == null) {
             throw new RuntimeException("Bicicleta não encontrada na tranca");
         }
 
-        boolean pagamentoRealizado = cartaoCreditoService.realizarCobranca(ciclista, TAXA_INICIAL);
-        if (!pagamentoRealizado) {
-            throw new RuntimeException("Não foi possível realizar o pagamento");
-        }
+        boolean estavaDisponivel = DisponibilidadeService.bicicletaDisponivel(tranca.getStatus(), bicicleta);
+        bicicleta.setStatus(StatusBicicleta.EM_USO);
+        tranca.setBicicleta(null);
+        tranca.setStatus(StatusTranca.LIVRE);
 
         Emprestimo emprestimo = new Emprestimo();
         emprestimo.setCiclista(ciclista);
@@ -129,14 +216,18 @@ public class EmprestimoService {
         emprestimo.setStatus(StatusEmprestimo.EM_ANDAMENTO);
 
         emprestimo = emprestimoRepository.save(emprestimo);
+        emprestimosAtivosService.registrarInicio(emprestimo);
 
-        bicicleta.setStatus(StatusBicicleta.EM_USO);
-        bicicletaService.atualizarStatus(bicicleta.getId(), StatusBicicleta.EM_USO);
-
-        tranca.setBicicleta(null);
-        trancaService.atualizarStatus(tranca.getId(), StatusTranca.LIVRE);
+        if (totem != null) {
+            disponibilidadeService.registrarMudanca(totem.getId(), StatusTranca.OCUPADA, estavaDisponivel,
+                    StatusTranca.LIVRE, false);
+        }
+        eventosEstadoService.trancaAlterada(tranca);
+        eventosEstadoService.bicicletaAlterada(bicicleta, totem != null ? totem.getId() : null);
 
-        notificacaoService.notificarEmprestimoRealizado(emprestimo);
+        // Cobrança e notificação ficam no outbox, gravadas nesta mesma transação
+        outboxService.registrarCobranca(emprestimo, TAXA_INICIAL);
+        outboxService.registrarNotificacao(TipoEventoOutbox.NOTIFICACAO_EMPRESTIMO, emprestimo);
 
         System.out.println("Empréstimo realizado com sucesso para ciclista: " + ciclista.getNome());
         return convertToDTO(emprestimo);
@@ -147,34 +238,45 @@ public class EmprestimoService {
      * Processo:
      * 1. Valida empréstimo ativo do ciclista
      * 2. Verifica disponibilidade da tranca
-     * 3. Calcula e cobra taxas extras (se aplicável)
-     * 4. Atualiza status da bicicleta e tranca
-     * 5. Registra a devolução
-     * 6. Envia notificação
+     * 3. Atualiza status da bicicleta e tranca
+     * 4. Registra a devolução
+     * 5. Calcula as taxas extras e agenda sua cobrança no outbox (se aplicável)
+     * 6. Agenda a notificação no outbox
      * 
-     * @param emprestimoId ID do empréstimo (opcional)
+     * @param ciclistaId ID do ciclista, já resolvido pelo chamador
      * @param trancaId ID da tranca para devolução
-     * @param identificacaoCiclista documento do ciclista
      * @return EmprestimoDTO dados do empréstimo finalizado
      * @throws RuntimeException em caso de falha em qualquer etapa
      */
-    @Transactional
-    public EmprestimoDTO finalizarEmprestimo(Long emprestimoId, Long trancaId, String identificacaoCiclista) {
-        System.out.println("Iniciando finalização do empréstimo para ciclista: " + identificacaoCiclista);
-
-        // Valida ciclista
-        Ciclista ciclista = ciclistaService.buscarCiclista(identificacaoCiclista);
-        System.out.println("Buscando empréstimo ativo para ciclista ID: " + ciclista.getId());
+    public EmprestimoDTO finalizarEmprestimo(Long ciclistaId, Long trancaId) {
+        if (!emprestimosAtivosService.possuiEmprestimo(ciclistaId)) {
+            throw new RuntimeException("Nenhum empréstimo em andamento encontrado para este ciclista");
+        }
+        return comRetentativa("devolução", () -> executarDevolucao(ciclistaId, trancaId));
+    }
 
-        // Buscar empréstimo ativo 
+    /**
+     * Executa uma tentativa de devolução dentro da transação corrente
+     * O empréstimo vem com suas associações em uma consulta e a tranca de destino
+     * com bloqueio em outra; as entidades gerenciadas são alteradas diretamente.
+     * A cobrança extra vai para o outbox na mesma transação, de modo que uma
+     * devolução concorrente desfeita por conflito não cobre duas vezes
+     * 
+     * @param ciclistaId ID do ciclista
+     * @param trancaId ID da tranca para devolução
+     * @return EmprestimoDTO dados do empréstimo finalizado
+     */
+    private EmprestimoDTO executarDevolucao(Long ciclistaId, Long trancaId) {
+        // Buscar empréstimo ativo (o ciclista vem junto, sem consulta separada)
         Emprestimo emprestimo = emprestimoRepository
-            .findByCiclistaIdAndStatus(ciclista.getId(), StatusEmprestimo.EM_ANDAMENTO)
+            .findParaDevolucao(ciclistaId, StatusEmprestimo.EM_ANDAMENTO)
             .orElseThrow(() -> new RuntimeException("Nenhum empréstimo em andamento encontrado para este ciclista"));
 
+        Ciclista ciclista = emprestimo.getCiclista();
         System.out.println("Empréstimo ativo encontrado - ID: " + emprestimo.getId());
 
         // Busca e valida tranca
-        Tranca trancaFim = trancaService.buscarPorId(trancaId)
+        Tranca trancaFim = trancaRepository.findParaOperacaoById(trancaId)
                 .orElseThrow(() -> new RuntimeException("Tranca não encontrada"));
 
         if (trancaFim.getStatus() != StatusTranca.LIVRE) {
@@ -193,25 +295,34 @@ public class EmprestimoService {
         emprestimo.setTrancaFim(trancaFim);
         emprestimo.setTotemFim(trancaFim.getTotem());
 
-        // Processa cobrança extra
+        // Calcula cobrança extra
         long horasDeUso = Duration.between(emprestimo.getHoraInicio(), horaFim).toHours();
+        double taxaExtra = 0;
         if (horasDeUso > DURACAO_PADRAO_HORAS) {
             long horasExtras = horasDeUso - DURACAO_PADRAO_HORAS;
-            double taxaExtra = horasExtras * TAXA_EXTRA_POR_HORA;
+            taxaExtra = horasExtras * TAXA_EXTRA_POR_HORA;
             emprestimo.setTaxaExtra(taxaExtra);
-            cartaoCreditoService.realizarCobranca(ciclista, taxaExtra);
         }
 
         // Atualiza status
         emprestimo.setStatus(StatusEmprestimo.CONCLUIDO);
         bicicleta.setStatus(StatusBicicleta.DISPONIVEL);
-        
-        // Salva alterações
-        bicicletaService.atualizarStatus(bicicleta.getId(), StatusBicicleta.DISPONIVEL);
-        trancaService.associarBicicleta(trancaId, bicicleta.getId());
-        emprestimo = emprestimoRepository.save(emprestimo);
+        trancaFim.setBicicleta(bicicleta);
+        trancaFim.setStatus(StatusTranca.OCUPADA);
+
+        emprestimosAtivosService.registrarFim(emprestimo);
 
-        notificacaoService.notificarDevolucaoRealizada(emprestimo);
+        if (taxaExtra > 0) {
+            outboxService.registrarCobranca(emprestimo, taxaExtra);
+        }
+
+        if (trancaFim.getTotem() != null) {
+            disponibilidadeService.registrarMudanca(trancaFim.getTotem().getId(), StatusTranca.LIVRE, false,
+                    StatusTranca.OCUPADA, true);
+        }
+        eventosEstadoService.trancaAlterada(trancaFim);
+
+        outboxService.registrarNotificacao(TipoEventoOutbox.NOTIFICACAO_DEVOLUCAO, emprestimo);
 
         System.out.println("Empréstimo " + emprestimo.getId() + 
                          " finalizado com sucesso por ciclista: " + ciclista.getNome() +
@@ -219,6 +330,46 @@ public class EmprestimoService {
         return convertToDTO(emprestimo);
     }
 
+    /**
+     * Executa a operação em uma transação própria, refazendo-a em caso de conflito
+     * de concorrência (versão desatualizada ou bloqueio de linha)
+     * A espera entre tentativas cresce exponencialmente, com variação aleatória
+     * para que as requisições em conflito não colidam de novo ao mesmo tempo
+     * 
+     * @param operacao nome da operação, usado na mensagem de erro
+     * @param acao operação a ser executada
+     * @return T resultado da operação
+     * @throws RuntimeException se o conflito persistir após MAX_TENTATIVAS
+     */
+    private <T> T comRetentativa(String operacao, Supplier<T> acao) {
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                return transactionTemplate.execute(status -> acao.get());
+            } catch (ConcurrencyFailureException e) {
+                if (tentativa >= MAX_TENTATIVAS) {
+                    throw new RuntimeException("Conflito ao processar " + operacao + ", tente novamente", e);
+                }
+                logger.debug("Conflito de concorrência ({}, tentativa {})", operacao, tentativa);
+                aguardar(tentativa);
+            }
+        }
+    }
+
+    /**
+     * Aguarda antes de uma nova tentativa (backoff exponencial com jitter)
+     * 
+     * @param tentativa número da tentativa que falhou
+     */
+    private void aguardar(int tentativa) {
+        long limite = ESPERA_BASE_MS << (tentativa - 1);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(limite / 2, limite + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Operação interrompida", e);
+        }
+    }
+
     /**
      * Converte um objeto Emprestimo para EmprestimoDTO
      * 
@@ -0,0 +1,196 @@
+/**
+ * Serviço responsável pelo registro em memória dos empréstimos em andamento
+ * Indexa cada empréstimo ativo por ciclista e por bicicleta, respondendo em
+ * tempo constante se um ciclista tem empréstimo, quem está com uma bicicleta
+ * e quantas bicicletas estão em uso.
+ *
+ * O registro é reconstruído na inicialização e depois mantido pelo
+ * EmprestimoService, com as alterações aplicadas só após o commit. A regra de
+ * um empréstimo por ciclista é garantida por uma reserva atômica feita antes
+ * da transação, sem consulta ao banco.
+ *
+ * @Service Marca como um componente de serviço do Spring
+ */
+package com.example.demo.service;
+
+import com.example.demo.model.Emprestimo;
+import com.example.demo.model.StatusEmprestimo;
+import com.example.demo.repository.EmprestimoRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class EmprestimosAtivosService {
+
+	private static final Logger logger = LoggerFactory.getLogger(EmprestimosAtivosService.class);
+
+	@Autowired
+	private EmprestimoRepository emprestimoRepository;
+
+	private final Map<Long, EmprestimoAtivo> porCiclista = new ConcurrentHashMap<>();
+	private final Map<Long, EmprestimoAtivo> porBicicleta = new ConcurrentHashMap<>();
+
+	/**
+	 * Reconstrói o registro a partir dos empréstimos em andamento no banco
+	 * Executado quando a aplicação termina de subir
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void reconstruir() {
+		porCiclista.clear();
+		porBicicleta.clear();
+		for (EmprestimoRepository.ResumoEmprestimoAtivo resumo : emprestimoRepository
+				.findResumosByStatus(StatusEmprestimo.EM_ANDAMENTO)) {
+			EmprestimoAtivo ativo = new EmprestimoAtivo(resumo.getId(), resumo.getCiclistaId(),
+					resumo.getBicicletaId(), resumo.getBicicletaNumero(), resumo.getHoraInicio());
+			porCiclista.put(ativo.getCiclistaId(), ativo);
+			porBicicleta.put(ativo.getBicicletaId(), ativo);
+		}
+		logger.info("Registro de empréstimos ativos reconstruído: {} bicicletas em uso", porBicicleta.size());
+	}
+
+	/**
+	 * Indica se o ciclista tem empréstimo em andamento (ou uma retirada em curso)
+	 *
+	 * @param ciclistaId ID do ciclista
+	 * @return boolean true se houver empréstimo ou reserva
+	 */
+	public boolean possuiEmprestimo(Long ciclistaId) {
+		return porCiclista.containsKey(ciclistaId);
+	}
+
+	/**
+	 * Busca o empréstimo em andamento do ciclista
+	 * Retiradas ainda não confirmadas não são retornadas
+	 *
+	 * @param ciclistaId ID do ciclista
+	 * @return Optional<EmprestimoAtivo> empréstimo ativo ou empty
+	 */
+	public Optional<EmprestimoAtivo> buscarPorCiclista(Long ciclistaId) {
+		EmprestimoAtivo ativo = porCiclista.get(ciclistaId);
+		return ativo == null || ativo.isReserva() ? Optional.empty() : Optional.of(ativo);
+	}
+
+	/**
+	 * Busca o empréstimo em andamento de uma bicicleta
+	 *
+	 * @param bicicletaId ID da bicicleta
+	 * @return Optional<EmprestimoAtivo> empréstimo ativo ou empty se a bicicleta não está em uso
+	 */
+	public Optional<EmprestimoAtivo> buscarPorBicicleta(Long bicicletaId) {
+		return Optional.ofNullable(porBicicleta.get(bicicletaId));
+	}
+
+	/**
+	 * Quantidade de bicicletas atualmente emprestadas
+	 *
+	 * @return int bicicletas em uso
+	 */
+	public int bicicletasEmUso() {
+		return porBicicleta.size();
+	}
+
+	/**
+	 * Reserva a vaga de empréstimo do ciclista antes de iniciar a retirada
+	 * Atômico: de duas retiradas simultâneas do mesmo ciclista, só uma obtém a reserva
+	 *
+	 * @param ciclistaId ID do ciclista
+	 * @return EmprestimoAtivo reserva obtida, ou nulo se o ciclista já tem empréstimo
+	 */
+	public EmprestimoAtivo reservar(Long ciclistaId) {
+		EmprestimoAtivo reserva = new EmprestimoAtivo(null, ciclistaId, null, null, null);
+		return porCiclista.putIfAbsent(ciclistaId, reserva) == null ? reserva : null;
+	}
+
+	/**
+	 * Desfaz uma reserva cuja retirada falhou
+	 * Não afeta o registro se a retirada já tiver sido confirmada
+	 *
+	 * @param reserva reserva obtida em reservar
+	 */
+	public void liberar(EmprestimoAtivo reserva) {
+		porCiclista.remove(reserva.getCiclistaId(), reserva);
+	}
+
+	/**
+	 * Registra um empréstimo iniciado, substituindo a reserva do ciclista
+	 *
+	 * @param emprestimo empréstimo recém-criado
+	 */
+	public void registrarInicio(Emprestimo emprestimo) {
+		EmprestimoAtivo ativo = new EmprestimoAtivo(emprestimo.getId(), emprestimo.getCiclista().getId(),
+				emprestimo.getBicicleta().getId(), emprestimo.getBicicleta().getNumero(), emprestimo.getHoraInicio());
+		TransacaoUtil.aposCommit(() -> {
+			porCiclista.put(ativo.getCiclistaId(), ativo);
+			porBicicleta.put(ativo.getBicicletaId(), ativo);
+		});
+	}
+
+	/**
+	 * Remove um empréstimo finalizado do registro
+	 *
+	 * @param emprestimo empréstimo devolvido
+	 */
+	public void registrarFim(Emprestimo emprestimo) {
+		Long ciclistaId = emprestimo.getCiclista().getId();
+		Long bicicletaId = emprestimo.getBicicleta().getId();
+		TransacaoUtil.aposCommit(() -> {
+			porCiclista.remove(ciclistaId);
+			porBicicleta.remove(bicicletaId);
+		});
+	}
+
+	/**
+	 * Empréstimo em andamento, como mantido no registro
+	 * Sem ID de empréstimo, representa a reserva de uma retirada ainda em curso
+	 */
+	public static class EmprestimoAtivo {
+		private final Long emprestimoId;
+		private final Long ciclistaId;
+		private final Long bicicletaId;
+		private final String bicicletaNumero;
+		private final LocalDateTime horaInicio;
+
+		public EmprestimoAtivo(Long emprestimoId, Long ciclistaId, Long bicicletaId, String bicicletaNumero,
+				LocalDateTime horaInicio) {
+			this.emprestimoId = emprestimoId;
+			this.ciclistaId = ciclistaId;
+			this.bicicletaId = bicicletaId;
+			this.bicicletaNumero = bicicletaNumero;
+			this.horaInicio = horaInicio;
+		}
+
+		public boolean isReserva() {
+			return emprestimoId == null;
+		}
+
+		public Long getEmprestimoId() {
+			return emprestimoId;
+		}
+
+		public Long getCiclistaId() {
+			return ciclistaId;
+		}
+
+		public Long getBicicletaId() {
+			return bicicletaId;
+		}
+
+		public String getBicicletaNumero() {
+			return bicicletaNumero;
+		}
+
+		public LocalDateTime getHoraInicio() {
+			return horaInicio;
+		}
+	}
+}
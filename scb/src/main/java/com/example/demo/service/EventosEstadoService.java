@@ -0,0 +1,206 @@
+/**
+ * Serviço responsável pelo fluxo de eventos de estado de trancas e bicicletas
+ * Os serviços de tranca e empréstimo avisam cada mudança; após o commit, um
+ * evento compacto (delta) é entregue a todos os assinantes interessados via
+ * Server-Sent Events, opcionalmente filtrado por totem.
+ *
+ * Cada assinante tem uma fila limitada a CAPACIDADE_FILA eventos, esvaziada
+ * por um pool pequeno de threads de envio. Se um cliente lento deixa a fila
+ * encher, os eventos pendentes dele são descartados e ele recebe um evento
+ * "ressincronizar", indicando que deve recarregar o estado completo. Assim um
+ * cliente lento nunca faz a memória do servidor crescer.
+ *
+ * Ouvintes no mesmo processo (o quiosque local) recebem os mesmos eventos
+ * diretamente, na thread que fez o commit, sem passar pelo SSE.
+ *
+ * @Service Marca como um componente de serviço do Spring
+ */
+package com.example.demo.service;
+
+import com.example.demo.dto.EventoEstadoDTO;
+import com.example.demo.model.Bicicleta;
+import com.example.demo.model.Tranca;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+@Service
+public class EventosEstadoService {
+
+	private static final Logger logger = LoggerFactory.getLogger(EventosEstadoService.class);
+
+	private static final int CAPACIDADE_FILA = 256;
+	private static final long TEMPO_LIMITE_MS = 30 * 60_000;
+	private static final int THREADS_ENVIO = 2;
+
+	private final AtomicLong sequencia = new AtomicLong();
+	private final Set<Assinante> assinantes = ConcurrentHashMap.newKeySet();
+	private final List<Consumer<EventoEstadoDTO>> ouvintes = new CopyOnWriteArrayList<>();
+	private final ExecutorService envio = Executors.newFixedThreadPool(THREADS_ENVIO, r -> {
+		Thread thread = new Thread(r, "scb-eventos");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	@PreDestroy
+	void encerrar() {
+		envio.shutdownNow();
+		assinantes.forEach(a -> a.emitter.complete());
+	}
+
+	/**
+	 * Cria uma assinatura do fluxo de eventos
+	 *
+	 * @param totemId totem de interesse, ou nulo para todos
+	 * @return SseEmitter conexão SSE do assinante
+	 */
+	public SseEmitter assinar(Long totemId) {
+		SseEmitter emitter = new SseEmitter(TEMPO_LIMITE_MS);
+		Assinante assinante = new Assinante(emitter, totemId);
+		assinantes.add(assinante);
+		emitter.onCompletion(() -> assinantes.remove(assinante));
+		emitter.onTimeout(() -> assinantes.remove(assinante));
+		emitter.onError(e -> assinantes.remove(assinante));
+		return emitter;
+	}
+
+	/**
+	 * Registra um ouvinte no mesmo processo
+	 * O ouvinte roda na thread que fez o commit, então deve ser rápido
+	 *
+	 * @param ouvinte recebe cada evento publicado
+	 */
+	public void ouvir(Consumer<EventoEstadoDTO> ouvinte) {
+		ouvintes.add(ouvinte);
+	}
+
+	/**
+	 * Quantidade de assinantes conectados
+	 *
+	 * @return int assinantes ativos
+	 */
+	public int quantidadeAssinantes() {
+		return assinantes.size();
+	}
+
+	/**
+	 * Avisa o novo estado de uma tranca (e da bicicleta acoplada, se houver)
+	 * Deve ser chamado depois da alteração, dentro da transação
+	 *
+	 * @param tranca tranca alterada
+	 */
+	public void trancaAlterada(Tranca tranca) {
+		Bicicleta bicicleta = tranca.getBicicleta();
+		publicarAposCommit(new EventoEstadoDTO(EventoEstadoDTO.TIPO_TRANCA,
+				tranca.getTotem() != null ? tranca.getTotem().getId() : null, tranca.getId(), tranca.getStatus(),
+				bicicleta != null ? bicicleta.getId() : null, bicicleta != null ? bicicleta.getStatus() : null));
+	}
+
+	/**
+	 * Avisa a remoção de uma tranca
+	 *
+	 * @param tranca tranca removida
+	 */
+	public void trancaRemovida(Tranca tranca) {
+		publicarAposCommit(new EventoEstadoDTO(EventoEstadoDTO.TIPO_TRANCA,
+				tranca.getTotem() != null ? tranca.getTotem().getId() : null, tranca.getId(), null, null, null));
+	}
+
+	/**
+	 * Avisa o novo status de uma bicicleta fora de tranca (retirada)
+	 *
+	 * @param bicicleta bicicleta alterada
+	 * @param totemId totem de onde ela saiu
+	 */
+	public void bicicletaAlterada(Bicicleta bicicleta, Long totemId) {
+		publicarAposCommit(new EventoEstadoDTO(EventoEstadoDTO.TIPO_BICICLETA, totemId, null, null,
+				bicicleta.getId(), bicicleta.getStatus()));
+	}
+
+	private void publicarAposCommit(EventoEstadoDTO evento) {
+		if (assinantes.isEmpty() && ouvintes.isEmpty()) {
+			return;
+		}
+		TransacaoUtil.aposCommit(() -> publicar(evento));
+	}
+
+	private void publicar(EventoEstadoDTO evento) {
+		evento.setSequencia(sequencia.incrementAndGet());
+		for (Assinante assinante : assinantes) {
+			if (assinante.totemId == null || assinante.totemId.equals(evento.getTotemId())) {
+				assinante.enfileirar(evento);
+			}
+		}
+		for (Consumer<EventoEstadoDTO> ouvinte : ouvintes) {
+			try {
+				ouvinte.accept(evento);
+			} catch (RuntimeException e) {
+				logger.warn("Erro em ouvinte de eventos de estado", e);
+			}
+		}
+	}
+
+	/**
+	 * Conexão de um assinante, com sua fila limitada de eventos a enviar
+	 */
+	private class Assinante {
+		private final SseEmitter emitter;
+		private final Long totemId;
+		private final BlockingQueue<EventoEstadoDTO> fila = new ArrayBlockingQueue<>(CAPACIDADE_FILA);
+		private final AtomicBoolean envioAgendado = new AtomicBoolean();
+		private volatile boolean transbordou;
+
+		private Assinante(SseEmitter emitter, Long totemId) {
+			this.emitter = emitter;
+			this.totemId = totemId;
+		}
+
+		private void enfileirar(EventoEstadoDTO evento) {
+			if (!fila.offer(evento)) {
+				// Cliente lento: descarta o atraso e pede que recarregue o estado
+				transbordou = true;
+				fila.clear();
+			}
+			if (envioAgendado.compareAndSet(false, true)) {
+				envio.execute(this::enviarPendentes);
+			}
+		}
+
+		private void enviarPendentes() {
+			try {
+				do {
+					if (transbordou) {
+						transbordou = false;
+						emitter.send(SseEmitter.event().name("ressincronizar").data(sequencia.get()));
+					}
+					EventoEstadoDTO evento;
+					while ((evento = fila.poll()) != null) {
+						emitter.send(SseEmitter.event().id(String.valueOf(evento.getSequencia())).name("estado")
+								.data(evento));
+					}
+					envioAgendado.set(false);
+				} while ((!fila.isEmpty() || transbordou) && envioAgendado.compareAndSet(false, true));
+			} catch (IOException | IllegalStateException e) {
+				assinantes.remove(this);
+				emitter.completeWithError(e);
+			}
+		}
+	}
+}
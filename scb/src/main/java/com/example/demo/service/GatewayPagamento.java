@@ -0,0 +1,33 @@
+/**
+ * Contrato do gateway de pagamento usado pelo pipeline de cobranças
+ * A captura é chamada pelo outbox, fora da transação do empréstimo, e a
+ * liquidação em um evento seguinte. Implementações reais substituem o
+ * SimuladorGatewayPagamento definindo scb.pagamento.gateway com outro valor.
+ */
+package com.example.demo.service;
+
+import com.example.demo.model.CartaoCredito;
+
+public interface GatewayPagamento {
+
+	/**
+	 * Captura um valor no cartão
+	 * Chamadas repetidas com a mesma referência devem devolver a mesma transação,
+	 * para que uma nova tentativa após falha de commit não cobre duas vezes
+	 *
+	 * @param cartao cartão a ser cobrado
+	 * @param valor valor a ser capturado
+	 * @param referencia identificador único da cobrança no sistema
+	 * @return String identificador da transação no gateway
+	 * @throws RuntimeException se a captura for recusada ou o gateway estiver indisponível
+	 */
+	String capturar(CartaoCredito cartao, double valor, String referencia);
+
+	/**
+	 * Liquida uma transação capturada
+	 *
+	 * @param transacaoId identificador devolvido na captura
+	 * @throws RuntimeException se a liquidação falhar
+	 */
+	void liquidar(String transacaoId);
+}
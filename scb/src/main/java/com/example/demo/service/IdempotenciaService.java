@@ -0,0 +1,126 @@
+/**
+ * Serviço responsável pela idempotência de operações repetidas pelo cliente
+ * Guarda, por chave de idempotência, o resultado de uma operação bem-sucedida
+ * durante um tempo limitado. Uma repetição com a mesma chave devolve o
+ * resultado guardado sem executar a operação de novo (e sem nova cobrança).
+ *
+ * Repetições simultâneas aguardam a execução em andamento. Falhas não são
+ * guardadas: a chave é liberada e a próxima tentativa executa normalmente.
+ * Cada chave guarda também uma impressão dos dados da requisição, e reutilizar
+ * a chave com outros dados é recusado. No máximo MAX_CHAVES ficam guardadas.
+ *
+ * @Service Marca como um componente de serviço do Spring
+ */
+package com.example.demo.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+@Service
+public class IdempotenciaService {
+
+	// Máximo de chaves guardadas; acima disso as mais antigas são descartadas
+	private static final int MAX_CHAVES = 10_000;
+
+	@Value("${scb.idempotencia.validade-minutos:10}")
+	private long validadeMinutos;
+
+	// Em ordem de criação, para descartar as mais antigas ao atingir o limite
+	private final Map<String, Entrada> entradas = MapaLimitado.porInsercao(MAX_CHAVES);
+
+	/**
+	 * Executa a operação uma única vez por chave do cliente, operação e ciclista
+	 * A mesma chave em outra operação ou de outro ciclista não reaproveita um resultado alheio
+	 *
+	 * @param operacao nome da operação (por exemplo "emprestimo")
+	 * @param ciclistaId ID do ciclista que fez a requisição
+	 * @param chaveCliente chave enviada pelo cliente; nula ou vazia executa sem idempotência
+	 * @param requisicao impressão dos dados da requisição (tranca, empréstimo)
+	 * @param acao operação a ser executada
+	 * @return T resultado da operação, executada agora ou guardada de uma execução anterior
+	 * @throws IllegalArgumentException se a chave já foi usada com outros dados de requisição
+	 * @throws RuntimeException a falha da operação, se ela falhar
+	 */
+	public <T> T executar(String operacao, Long ciclistaId, String chaveCliente, String requisicao,
+			Supplier<T> acao) {
+		if (chaveCliente == null || chaveCliente.isBlank()) {
+			return acao.get();
+		}
+		return executar(operacao + ":" + ciclistaId + ":" + chaveCliente, requisicao, acao);
+	}
+
+	/**
+	 * Executa a operação uma única vez por chave dentro da validade
+	 *
+	 * @param chave chave de idempotência já qualificada pelo chamador (operação e ciclista); nula
+	 *              executa sem idempotência
+	 * @param requisicao impressão dos dados da requisição; uma repetição com outra impressão é recusada
+	 * @param acao operação a ser executada
+	 * @return T resultado da operação, executada agora ou guardada de uma execução anterior
+	 * @throws IllegalArgumentException se a chave já foi usada com outros dados de requisição
+	 * @throws RuntimeException a falha da operação, se ela falhar
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T executar(String chave, String requisicao, Supplier<T> acao) {
+		if (chave == null || chave.isBlank()) {
+			return acao.get();
+		}
+
+		long agora = System.currentTimeMillis();
+		Entrada nova = new Entrada(agora + validadeMinutos * 60_000, requisicao);
+		Entrada atual = entradas.compute(chave, (k, existente) -> existente != null && existente.expiraEm > agora
+				? existente : nova);
+
+		if (atual != nova) {
+			// Mesma chave com outros dados: devolver o resultado guardado esconderia o erro do cliente
+			if (!Objects.equals(atual.requisicao, requisicao)) {
+				throw new IllegalArgumentException("Chave de idempotência já usada em outra requisição");
+			}
+			return (T) aguardar(atual);
+		}
+
+		try {
+			T resultado = acao.get();
+			nova.resultado.complete(resultado);
+			return resultado;
+		} catch (RuntimeException e) {
+			// Falha não é guardada: libera a chave para uma nova tentativa
+			entradas.remove(chave, nova);
+			nova.resultado.completeExceptionally(e);
+			throw e;
+		}
+	}
+
+	private Object aguardar(Entrada entrada) {
+		try {
+			return entrada.resultado.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Operação interrompida", e);
+		} catch (ExecutionException | CompletionException e) {
+			Throwable causa = e.getCause();
+			throw causa instanceof RuntimeException ? (RuntimeException) causa : new RuntimeException(causa);
+		}
+	}
+
+	/**
+	 * Resultado (possivelmente ainda em execução) associado a uma chave
+	 */
+	private static class Entrada {
+		private final long expiraEm;
+		private final String requisicao;
+		private final CompletableFuture<Object> resultado = new CompletableFuture<>();
+
+		private Entrada(long expiraEm, String requisicao) {
+			this.expiraEm = expiraEm;
+			this.requisicao = requisicao;
+		}
+	}
+}
@@ -0,0 +1,144 @@
+/**
+ * Serviço responsável pelo livro de cobranças (ledger)
+ * Cada tentativa de captura vira um lançamento. A captura aprovada é gravada
+ * na mesma transação que conclui o evento de cobrança do outbox: se o evento
+ * for desfeito, o lançamento também é, e se for confirmado, o lançamento já
+ * está no banco. Cada lançamento é uma única inserção. A captura recusada é
+ * gravada em transação própria, pois o evento não é concluído. Quando o outbox esgota as
+ * tentativas, o valor devido é lançado como NAO_CAPTURADA.
+ *
+ * Uma captura repetida pelo outbox recebe do gateway a mesma transação; o
+ * lançamento aprovado é gravado uma única vez por transacaoId (restrição
+ * única na tabela), de modo que os totais contam cada transação uma vez.
+ *
+ * @Service Marca como um componente de serviço do Spring
+ */
+package com.example.demo.service;
+
+import com.example.demo.dto.CobrancaDTO;
+import com.example.demo.dto.PaginaDTO;
+import com.example.demo.model.CartaoCredito;
+import com.example.demo.model.Cobranca;
+import com.example.demo.model.Emprestimo;
+import com.example.demo.model.StatusCobranca;
+import com.example.demo.repository.CobrancaRepository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+public class LivroCobrancasService {
+
+	@Autowired
+	private CobrancaRepository cobrancaRepository;
+
+	/**
+	 * Lança uma captura aprovada no livro
+	 * Deve ser chamado dentro da transação que conclui o evento de cobrança; uma captura
+	 * repetida (mesma transação no gateway) não gera novo lançamento
+	 *
+	 * @param emprestimo empréstimo cobrado
+	 * @param cartao cartão utilizado
+	 * @param valor valor da cobrança em reais
+	 * @param transacaoId transação no gateway
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void registrarAprovada(Emprestimo emprestimo, CartaoCredito cartao, double valor, String transacaoId) {
+		if (cobrancaRepository.existsByTransacaoId(transacaoId)) {
+			return;
+		}
+		cobrancaRepository.save(novaCobranca(emprestimo, cartao, valor, StatusCobranca.APROVADA, transacaoId));
+	}
+
+	/**
+	 * Lança uma captura recusada no livro
+	 * Grava em transação própria, já que o evento não será concluído
+	 *
+	 * @param emprestimo empréstimo cobrado
+	 * @param cartao cartão utilizado
+	 * @param valor valor da cobrança em reais
+	 */
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public void registrarRecusada(Emprestimo emprestimo, CartaoCredito cartao, double valor) {
+		cobrancaRepository.save(novaCobranca(emprestimo, cartao, valor, StatusCobranca.RECUSADA, null));
+	}
+
+	/**
+	 * Lança como devida uma cobrança que o outbox desistiu de capturar
+	 * Deve ser chamado na transação que marca o evento de cobrança como FALHOU
+	 *
+	 * @param emprestimo empréstimo cobrado, com ciclista e cartão principal carregados
+	 * @param valor valor não capturado em reais
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void registrarNaoCapturada(Emprestimo emprestimo, double valor) {
+		cobrancaRepository.save(novaCobranca(emprestimo, emprestimo.getCiclista().getCartaoPrincipal(), valor,
+				StatusCobranca.NAO_CAPTURADA, null));
+	}
+
+	private Cobranca novaCobranca(Emprestimo emprestimo, CartaoCredito cartao, double valor, StatusCobranca status,
+			String transacaoId) {
+		Cobranca cobranca = new Cobranca();
+		cobranca.setCiclistaId(emprestimo.getCiclista().getId());
+		cobranca.setCartaoId(cartao != null ? cartao.getId() : null);
+		cobranca.setEmprestimoId(emprestimo.getId());
+		cobranca.setValorCentavos(emCentavos(valor));
+		cobranca.setCriadoEm(LocalDateTime.now());
+		cobranca.setStatus(status);
+		cobranca.setTransacaoId(transacaoId);
+		return cobranca;
+	}
+
+	/**
+	 * Extrato de cobranças do ciclista, do lançamento mais recente para o mais antigo
+	 *
+	 * @param ciclistaId ID do ciclista
+	 * @param cursor ID do último lançamento da página anterior (nulo na primeira)
+	 * @param limite tamanho da página
+	 * @return PaginaDTO<CobrancaDTO> página do extrato
+	 */
+	public PaginaDTO<CobrancaDTO> listarPorCiclista(Long ciclistaId, Long cursor, Integer limite) {
+		int tamanho = PaginaDTO.limiteValido(limite);
+		List<CobrancaDTO> cobrancas = cobrancaRepository.findPorCiclista(ciclistaId,
+				cursor != null ? cursor : Long.MAX_VALUE, PageRequest.of(0, tamanho + 1));
+		return PaginaDTO.de(cobrancas, tamanho, CobrancaDTO::getId);
+	}
+
+	/**
+	 * Lançamentos de um dia, em ordem de gravação, para conciliação
+	 *
+	 * @param data dia consultado
+	 * @param cursor ID do último lançamento da página anterior (nulo na primeira)
+	 * @param limite tamanho da página
+	 * @return PaginaDTO<CobrancaDTO> página de lançamentos do dia
+	 */
+	public PaginaDTO<CobrancaDTO> listarPorDia(LocalDate data, Long cursor, Integer limite) {
+		int tamanho = PaginaDTO.limiteValido(limite);
+		List<CobrancaDTO> cobrancas = cobrancaRepository.findPorPeriodo(data.atStartOfDay(),
+				data.plusDays(1).atStartOfDay(), cursor != null ? cursor : 0L, PageRequest.of(0, tamanho + 1));
+		return PaginaDTO.de(cobrancas, tamanho, CobrancaDTO::getId);
+	}
+
+	/**
+	 * Quantidade e valor total dos lançamentos de um dia, por status
+	 *
+	 * @param data dia consultado
+	 * @return List<CobrancaRepository.TotalCobrancas> totais por status
+	 */
+	public List<CobrancaRepository.TotalCobrancas> totalizarDia(LocalDate data) {
+		return cobrancaRepository.totalizarPorPeriodo(data.atStartOfDay(), data.plusDays(1).atStartOfDay());
+	}
+
+	private static long emCentavos(double valor) {
+		return BigDecimal.valueOf(valor).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+	}
+}
@@ -0,0 +1,49 @@
+/**
+ * Mapa em memória com número máximo de entradas
+ * Ao passar do limite, descarta a entrada mais antiga: a menos usada
+ * recentemente (LRU) ou a primeira inserida, conforme a ordem escolhida.
+ * Usado pelos caches e registros em memória dos serviços, que não podem
+ * crescer sem limite.
+ */
+package com.example.demo.service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+final class MapaLimitado<K, V> extends LinkedHashMap<K, V> {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int maximo;
+
+	private MapaLimitado(int maximo, boolean ordemDeAcesso) {
+		super(256, 0.75f, ordemDeAcesso);
+		this.maximo = maximo;
+	}
+
+	/**
+	 * Mapa sincronizado que descarta a entrada usada há mais tempo
+	 *
+	 * @param maximo quantidade máxima de entradas
+	 * @return Map<K, V> mapa limitado
+	 */
+	static <K, V> Map<K, V> lru(int maximo) {
+		return Collections.synchronizedMap(new MapaLimitado<>(maximo, true));
+	}
+
+	/**
+	 * Mapa sincronizado que descarta a entrada inserida há mais tempo
+	 *
+	 * @param maximo quantidade máxima de entradas
+	 * @return Map<K, V> mapa limitado
+	 */
+	static <K, V> Map<K, V> porInsercao(int maximo) {
+		return Collections.synchronizedMap(new MapaLimitado<>(maximo, false));
+	}
+
+	@Override
+	protected boolean removeEldestEntry(Map.Entry<K, V> maisAntiga) {
+		return size() > maximo;
+	}
+}
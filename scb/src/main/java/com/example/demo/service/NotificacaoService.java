@@ -1,7 +1,7 @@
 /**
  * Serviço responsável pelo envio de notificações do sistema
  * Gerencia todas as comunicações com os ciclistas sobre eventos
- * de empréstimo, devolução e cobranças.
+ * de empréstimo, devolução, atraso e cobranças.
  * 
  * @Service Marca como um componente de serviço do Spring
  */
@@ -12,6 +12,8 @@ import com.example.demo.model.Emprestimo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 @Service
@@ -91,6 +93,36 @@ public class NotificacaoService {
 		enviarNotificacao(emprestimo.getCiclista().getEmail(), mensagem);
 	}
 
+	/**
+     * Envia aviso de empréstimo acima da duração padrão
+     * Inclui informações sobre:
+     * - Dados do ciclista
+     * - Data/hora de início e horas de uso
+     * - Bicicleta emprestada
+     * - Taxa extra acumulada até o momento
+     *
+     * @param emprestimo empréstimo em andamento e atrasado
+     */
+	public void notificarAtraso(Emprestimo emprestimo) {
+		long horasDeUso = Duration.between(emprestimo.getHoraInicio(), LocalDateTime.now()).toHours();
+		long horasExtras = Math.max(0, horasDeUso - EmprestimoService.DURACAO_PADRAO_HORAS);
+
+		String mensagem = String.format("""
+				========= EMPRÉSTIMO EM ATRASO =========
+				Ciclista: %s
+				Email: %s
+				Data/Hora Início: %s
+				Horas de uso: %d (padrão: %d)
+				Bicicleta: %d
+				Taxa extra até agora: R$ %.2f
+				========================================
+				""", emprestimo.getCiclista().getNome(), emprestimo.getCiclista().getEmail(),
+				emprestimo.getHoraInicio().format(formatter), horasDeUso, EmprestimoService.DURACAO_PADRAO_HORAS,
+				emprestimo.getBicicleta().getId(), horasExtras * EmprestimoService.TAXA_EXTRA_POR_HORA);
+
+		enviarNotificacao(emprestimo.getCiclista().getEmail(), mensagem);
+	}
+
 	/**
      * "Envia" uma notificação para o email especificado, apenas loga a mensagem.
      *
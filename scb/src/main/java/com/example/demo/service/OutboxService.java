@@ -0,0 +1,330 @@
+/**
+ * Serviço responsável pela caixa de saída (outbox) de notificações e cobranças
+ * Retirada e devolução apenas gravam os eventos na própria transação; um
+ * despachante em segundo plano os processa depois, em lotes, fora do caminho
+ * crítico do empréstimo. Como o evento é gravado junto com o empréstimo, um
+ * rollback descarta ambos e um commit garante que o evento será processado.
+ *
+ * Cada evento é processado em transação própria, com os eventos de um lote
+ * distribuídos entre workers para que a latência do gateway de pagamento não
+ * se acumule. Em caso de falha, o evento é reagendado com espera exponencial
+ * (1s, 2s, 4s...) até MAX_TENTATIVAS, e então é marcado como FALHOU.
+ *
+ * Antes de processar um lote, o despachante o reivindica em uma transação
+ * curta: um UPDATE condicional passa para EM_PROCESSAMENTO apenas os eventos
+ * ainda PENDENTE, e só esses são processados. Assim dois nós atrás de um
+ * balanceador, ou dois ciclos sobrepostos, nunca executam o mesmo evento. Um
+ * evento reivindicado por um nó que parou volta para a fila após
+ * PRAZO_PROCESSAMENTO_MINUTOS.
+ *
+ * Cobranças seguem em duas etapas: a captura (COBRANCA) e, quando ela é aceita,
+ * a liquidação (LIQUIDACAO). A captura usa o ID do evento como referência no
+ * gateway, de modo que repetir uma captura já aceita não cobra o ciclista duas
+ * vezes. Se as tentativas se esgotarem, o valor fica lançado no livro como
+ * NAO_CAPTURADA.
+ *
+ * As chamadas externas (gateway e notificações) são feitas sem transação
+ * aberta; só depois uma transação curta grava o que elas produziram (lançamento
+ * aprovado, evento de liquidação) junto com a conclusão do evento.
+ *
+ * @Service Marca como um componente de serviço do Spring
+ */
+package com.example.demo.service;
+
+import com.example.demo.model.Emprestimo;
+import com.example.demo.model.EventoOutbox;
+import com.example.demo.model.StatusEmprestimo;
+import com.example.demo.model.StatusEventoOutbox;
+import com.example.demo.model.TipoEventoOutbox;
+import com.example.demo.repository.EmprestimoRepository;
+import com.example.demo.repository.EventoOutboxRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@Service
+public class OutboxService {
+
+	private static final Logger logger = LoggerFactory.getLogger(OutboxService.class);
+
+	@Autowired
+	private EventoOutboxRepository eventoOutboxRepository;
+
+	@Autowired
+	private EmprestimoRepository emprestimoRepository;
+
+	@Autowired
+	private NotificacaoService notificacaoService;
+
+	@Autowired
+	@Lazy
+	private CartaoCreditoService cartaoCreditoService;
+
+	@Autowired
+	private LivroCobrancasService livroCobrancasService;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private static final int TAMANHO_LOTE = 100;
+	private static final int MAX_TENTATIVAS = 5;
+
+	// Prazo para registrar o resultado de um evento reivindicado; depois disso ele volta para a fila
+	private static final long PRAZO_PROCESSAMENTO_MINUTOS = 5;
+
+	@Value("${scb.outbox.workers:4}")
+	private int workers;
+
+	private ExecutorService executor;
+
+	@PostConstruct
+	void iniciarWorkers() {
+		executor = Executors.newFixedThreadPool(Math.max(1, workers));
+	}
+
+	@PreDestroy
+	void encerrarWorkers() {
+		executor.shutdown();
+	}
+
+	/**
+	 * Registra uma notificação a ser enviada após o commit
+	 * Deve ser chamado dentro da transação do empréstimo
+	 *
+	 * @param tipo NOTIFICACAO_EMPRESTIMO ou NOTIFICACAO_DEVOLUCAO
+	 * @param emprestimo empréstimo já persistido
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void registrarNotificacao(TipoEventoOutbox tipo, Emprestimo emprestimo) {
+		registrar(tipo, emprestimo, null);
+	}
+
+	/**
+	 * Registra uma cobrança a ser processada após o commit
+	 * Deve ser chamado dentro da transação do empréstimo
+	 *
+	 * @param emprestimo empréstimo já persistido
+	 * @param valor valor a ser cobrado
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void registrarCobranca(Emprestimo emprestimo, double valor) {
+		registrar(TipoEventoOutbox.COBRANCA, emprestimo, valor);
+	}
+
+	/**
+	 * Registra a mesma notificação para vários empréstimos
+	 * Deve ser chamado dentro da transação que originou as notificações
+	 *
+	 * @param tipo tipo de notificação
+	 * @param emprestimoIds IDs dos empréstimos
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void registrarNotificacoes(TipoEventoOutbox tipo, List<Long> emprestimoIds) {
+		emprestimoIds.forEach(id -> registrar(tipo, id, null));
+	}
+
+	private void registrar(TipoEventoOutbox tipo, Emprestimo emprestimo, Double valor) {
+		registrar(tipo, emprestimo.getId(), valor);
+	}
+
+	private void registrar(TipoEventoOutbox tipo, Long emprestimoId, Double valor) {
+		EventoOutbox evento = new EventoOutbox();
+		evento.setTipo(tipo);
+		evento.setEmprestimoId(emprestimoId);
+		evento.setValor(valor);
+		evento.setCriadoEm(LocalDateTime.now());
+		evento.setProximaTentativaEm(evento.getCriadoEm());
+		eventoOutboxRepository.save(evento);
+	}
+
+	/**
+	 * Processa os eventos pendentes em lotes, do mais antigo para o mais novo
+	 * Só considera eventos cuja próxima tentativa já venceu. Continua no mesmo
+	 * ciclo enquanto houver lotes cheios sem falhas; eventos que falharam ficam
+	 * para depois da espera
+	 */
+	@Scheduled(initialDelayString = "${scb.outbox.intervalo-ms:500}",
+			fixedDelayString = "${scb.outbox.intervalo-ms:500}")
+	public void despachar() {
+		transactionTemplate.executeWithoutResult(
+				status -> eventoOutboxRepository.liberarAbandonados(LocalDateTime.now()));
+		boolean continuar = true;
+		while (continuar) {
+			List<Long> prontos = eventoOutboxRepository.findIdsProntos(StatusEventoOutbox.PENDENTE,
+					LocalDateTime.now(), PageRequest.of(0, TAMANHO_LOTE));
+			if (prontos.isEmpty()) {
+				return;
+			}
+			boolean semFalhas = processarLote(reivindicar(prontos));
+			// Eventos reivindicados por outro despachante já saíram da consulta: a próxima traz os seguintes
+			continuar = prontos.size() == TAMANHO_LOTE && semFalhas;
+		}
+	}
+
+	/**
+	 * Reivindica os eventos para este ciclo em uma transação curta
+	 *
+	 * @param ids eventos prontos encontrados na consulta
+	 * @return List<EventoOutbox> eventos reivindicados agora, sem os que outro despachante levou antes
+	 */
+	List<EventoOutbox> reivindicar(List<Long> ids) {
+		String reivindicacao = UUID.randomUUID().toString();
+		LocalDateTime prazo = LocalDateTime.now().plusMinutes(PRAZO_PROCESSAMENTO_MINUTOS);
+		return transactionTemplate.execute(status -> {
+			if (eventoOutboxRepository.reivindicar(ids, reivindicacao, prazo) == 0) {
+				return List.<EventoOutbox>of();
+			}
+			return eventoOutboxRepository.findAllById(ids).stream()
+					.filter(e -> reivindicacao.equals(e.getReivindicacao()))
+					.sorted(Comparator.comparing(EventoOutbox::getId))
+					.toList();
+		});
+	}
+
+	/**
+	 * Processa um lote nos workers e aguarda todos terminarem
+	 *
+	 * @param lote eventos pendentes
+	 * @return boolean true se todos foram processados com sucesso
+	 */
+	private boolean processarLote(List<EventoOutbox> lote) {
+		List<Callable<Boolean>> tarefas = lote.stream().<Callable<Boolean>>map(e -> () -> processar(e)).toList();
+		boolean semFalhas = true;
+		try {
+			for (Future<Boolean> resultado : executor.invokeAll(tarefas)) {
+				semFalhas &= resultado.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		} catch (ExecutionException e) {
+			logger.error("Erro inesperado no processamento do outbox", e.getCause());
+			return false;
+		}
+		return semFalhas;
+	}
+
+	/**
+	 * Executa um evento e registra o resultado em transação própria
+	 *
+	 * @param evento evento reivindicado
+	 * @return boolean true se processado com sucesso
+	 */
+	private boolean processar(EventoOutbox evento) {
+		try {
+			Runnable gravacoes = executar(evento);
+			transactionTemplate.executeWithoutResult(status -> {
+				gravacoes.run();
+				evento.setStatus(StatusEventoOutbox.PROCESSADO);
+				evento.setProcessadoEm(LocalDateTime.now());
+				eventoOutboxRepository.save(evento);
+			});
+			return true;
+		} catch (RuntimeException e) {
+			evento.setStatus(StatusEventoOutbox.PENDENTE);
+			evento.setReivindicacao(null);
+			evento.setTentativas(evento.getTentativas() + 1);
+			evento.setUltimoErro(truncar(e.getMessage()));
+			boolean desistiu = evento.getTentativas() >= MAX_TENTATIVAS;
+			if (desistiu) {
+				evento.setStatus(StatusEventoOutbox.FALHOU);
+			} else {
+				// Espera exponencial: 1s, 2s, 4s, 8s
+				evento.setProximaTentativaEm(LocalDateTime.now().plusSeconds(1L << (evento.getTentativas() - 1)));
+			}
+			logger.warn("Falha ao processar evento {} ({}, tentativa {}): {}", evento.getId(), evento.getTipo(),
+					evento.getTentativas(), e.getMessage());
+			try {
+				transactionTemplate.executeWithoutResult(status -> {
+					eventoOutboxRepository.save(evento);
+					if (desistiu && evento.getTipo() == TipoEventoOutbox.COBRANCA) {
+						emprestimoRepository.findComCartaoPrincipalById(evento.getEmprestimoId()).ifPresent(
+								emprestimo -> livroCobrancasService.registrarNaoCapturada(emprestimo, evento.getValor()));
+					}
+				});
+			} catch (RuntimeException erroRegistro) {
+				// O evento segue reivindicado e volta para a fila após o prazo; a falha original já está no log
+				logger.error("Falha ao registrar tentativa do evento {}", evento.getId(), erroRegistro);
+			}
+			return false;
+		}
+	}
+
+	private static String truncar(String mensagem) {
+		if (mensagem == null || mensagem.length() <= EventoOutbox.TAMANHO_ULTIMO_ERRO) {
+			return mensagem;
+		}
+		return mensagem.substring(0, EventoOutbox.TAMANHO_ULTIMO_ERRO);
+	}
+
+	/**
+	 * Executa o efeito do evento, sem transação aberta
+	 *
+	 * @param evento evento reivindicado
+	 * @return Runnable gravações a fazer na transação que conclui o evento
+	 */
+	private Runnable executar(EventoOutbox evento) {
+		if (evento.getTipo() == TipoEventoOutbox.LIQUIDACAO) {
+			cartaoCreditoService.liquidarCobranca(evento.getReferencia());
+			return () -> {
+			};
+		}
+		Emprestimo emprestimo = emprestimoRepository.findComCartaoPrincipalById(evento.getEmprestimoId())
+				.orElseThrow(() -> new RuntimeException("Empréstimo não encontrado"));
+		switch (evento.getTipo()) {
+		case NOTIFICACAO_EMPRESTIMO:
+			notificacaoService.notificarEmprestimoRealizado(emprestimo);
+			break;
+		case NOTIFICACAO_DEVOLUCAO:
+			notificacaoService.notificarDevolucaoRealizada(emprestimo);
+			break;
+		case NOTIFICACAO_ATRASO:
+			// Devolvido antes do envio: o aviso já não faz sentido
+			if (emprestimo.getStatus() == StatusEmprestimo.EM_ANDAMENTO) {
+				notificacaoService.notificarAtraso(emprestimo);
+			}
+			break;
+		case COBRANCA:
+			String transacaoId = cartaoCreditoService.capturarCobranca(emprestimo, evento.getValor(),
+					"cobranca-" + evento.getId());
+			return () -> {
+				livroCobrancasService.registrarAprovada(emprestimo, emprestimo.getCiclista().getCartaoPrincipal(),
+						evento.getValor(), transacaoId);
+				EventoOutbox liquidacao = new EventoOutbox();
+				liquidacao.setTipo(TipoEventoOutbox.LIQUIDACAO);
+				liquidacao.setEmprestimoId(emprestimo.getId());
+				liquidacao.setValor(evento.getValor());
+				liquidacao.setReferencia(transacaoId);
+				liquidacao.setCriadoEm(LocalDateTime.now());
+				liquidacao.setProximaTentativaEm(liquidacao.getCriadoEm());
+				eventoOutboxRepository.save(liquidacao);
+			};
+		default:
+			break;
+		}
+		return () -> {
+		};
+	}
+}
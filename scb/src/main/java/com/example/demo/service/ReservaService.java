@@ -0,0 +1,244 @@
+/**
+ * Serviço responsável pelas reservas de bicicleta
+ * Uma reserva segura a bicicleta de uma tranca para um ciclista por alguns
+ * minutos, enquanto ele vai até o totem. Durante esse tempo a retirada dessa
+ * tranca só é permitida ao dono da reserva, e a bicicleta deixa de ser
+ * contada como disponível.
+ *
+ * As reservas ficam apenas em memória. A expiração usa uma roda de
+ * temporização: cada reserva agenda o próprio vencimento em O(1), sem
+ * varredura periódica das reservas nem consulta ao banco.
+ *
+ * @Service Marca como um componente de serviço do Spring
+ */
+package com.example.demo.service;
+
+import com.example.demo.dto.ReservaDTO;
+import com.example.demo.model.Tranca;
+import com.example.demo.repository.TrancaRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class ReservaService {
+
+	private static final Logger logger = LoggerFactory.getLogger(ReservaService.class);
+
+	// Roda de 1 segundo por posição e 512 posições (uma volta a cada ~8,5 minutos)
+	private static final long TIQUE_MS = 1000;
+	private static final int POSICOES = 512;
+
+	@Autowired
+	private TrancaRepository trancaRepository;
+
+	@Autowired
+	private EmprestimosAtivosService emprestimosAtivosService;
+
+	@Value("${scb.reservas.validade-minutos:10}")
+	private long validadeMinutos;
+
+	private RodaTemporizacao roda;
+
+	private final Map<Long, Reserva> porTranca = new ConcurrentHashMap<>();
+	private final Map<Long, Reserva> porCiclista = new ConcurrentHashMap<>();
+	private final Map<Long, AtomicInteger> reservadasPorTotem = new ConcurrentHashMap<>();
+
+	@PostConstruct
+	void iniciarRoda() {
+		roda = new RodaTemporizacao("scb-reservas", TIQUE_MS, POSICOES);
+	}
+
+	@PreDestroy
+	void encerrarRoda() {
+		roda.encerrar();
+	}
+
+	/**
+	 * Reserva a bicicleta de uma tranca para o ciclista
+	 * Um ciclista tem no máximo uma reserva, e não pode reservar com empréstimo em andamento
+	 *
+	 * @param ciclistaId ID do ciclista
+	 * @param trancaId ID da tranca com a bicicleta desejada
+	 * @return ReservaDTO reserva criada
+	 * @throws RuntimeException se a bicicleta não estiver disponível ou já estiver reservada
+	 */
+	public ReservaDTO reservar(Long ciclistaId, Long trancaId) {
+		if (emprestimosAtivosService.possuiEmprestimo(ciclistaId)) {
+			throw new RuntimeException("Ciclista já possui um empréstimo em andamento");
+		}
+		Tranca tranca = trancaRepository.findById(trancaId)
+				.orElseThrow(() -> new RuntimeException("Tranca não encontrada"));
+		if (!DisponibilidadeService.bicicletaDisponivel(tranca.getStatus(), tranca.getBicicleta())) {
+			throw new RuntimeException("Não há bicicleta disponível nesta tranca");
+		}
+
+		long validadeMs = validadeMinutos * 60_000;
+		Reserva reserva = new Reserva(ciclistaId, trancaId, tranca.getTotem() != null ? tranca.getTotem().getId() : null,
+				tranca.getBicicleta().getId(), LocalDateTime.now().plusMinutes(validadeMinutos));
+		reserva.expiracao = roda.agendar(validadeMs, () -> expirar(reserva));
+
+		if (porCiclista.putIfAbsent(ciclistaId, reserva) != null) {
+			reserva.expiracao.cancelar();
+			throw new RuntimeException("Ciclista já possui uma reserva");
+		}
+		if (porTranca.putIfAbsent(trancaId, reserva) != null) {
+			porCiclista.remove(ciclistaId, reserva);
+			reserva.expiracao.cancelar();
+			throw new RuntimeException("Bicicleta já reservada");
+		}
+		if (reserva.totemId != null) {
+			reservadasPorTotem.computeIfAbsent(reserva.totemId, id -> new AtomicInteger()).incrementAndGet();
+		}
+		logger.debug("Bicicleta {} reservada para o ciclista {}", reserva.bicicletaId, ciclistaId);
+		return reserva.paraDTO();
+	}
+
+	/**
+	 * Cancela a reserva do ciclista
+	 *
+	 * @param ciclistaId ID do ciclista
+	 * @throws RuntimeException se o ciclista não tiver reserva
+	 */
+	public void cancelar(Long ciclistaId) {
+		Reserva reserva = porCiclista.get(ciclistaId);
+		if (reserva == null) {
+			throw new RuntimeException("Ciclista não possui reserva");
+		}
+		reserva.expiracao.cancelar();
+		remover(reserva);
+	}
+
+	/**
+	 * Cancela a reserva da bicicleta de uma tranca, se houver
+	 * Usado quando a tranca ou a bicicleta mudam e a reserva deixa de valer
+	 *
+	 * @param trancaId ID da tranca
+	 */
+	public void cancelarPorTranca(Long trancaId) {
+		Reserva reserva = porTranca.get(trancaId);
+		if (reserva != null) {
+			reserva.expiracao.cancelar();
+			remover(reserva);
+		}
+	}
+
+	/**
+	 * Busca a reserva ativa do ciclista
+	 *
+	 * @param ciclistaId ID do ciclista
+	 * @return Optional<ReservaDTO> reserva ou empty
+	 */
+	public Optional<ReservaDTO> buscarPorCiclista(Long ciclistaId) {
+		return Optional.ofNullable(porCiclista.get(ciclistaId)).map(Reserva::paraDTO);
+	}
+
+	/**
+	 * Confere se a tranca pode ser usada pelo ciclista na retirada
+	 *
+	 * @param ciclistaId ID do ciclista que está retirando
+	 * @param trancaId ID da tranca
+	 * @throws RuntimeException se a bicicleta estiver reservada para outro ciclista
+	 */
+	public void verificarRetirada(Long ciclistaId, Long trancaId) {
+		Reserva reserva = porTranca.get(trancaId);
+		if (reserva != null && !reserva.ciclistaId.equals(ciclistaId)) {
+			throw new RuntimeException("Bicicleta reservada para outro ciclista");
+		}
+	}
+
+	/**
+	 * Encerra a reserva do ciclista após uma retirada confirmada (nesta ou em outra tranca)
+	 *
+	 * @param ciclistaId ID do ciclista
+	 */
+	public void concluir(Long ciclistaId) {
+		Reserva reserva = porCiclista.get(ciclistaId);
+		if (reserva != null) {
+			reserva.expiracao.cancelar();
+			remover(reserva);
+		}
+	}
+
+	/**
+	 * Indica se a bicicleta da tranca está reservada para alguém que não o ciclista
+	 * A bicicleta reservada continua disponível para o próprio dono da reserva
+	 *
+	 * @param trancaId ID da tranca
+	 * @param ciclistaId ID do ciclista que está consultando, ou nulo se anônimo
+	 * @return boolean true se houver reserva ativa de outro ciclista
+	 */
+	public boolean isReservadaParaOutro(Long trancaId, Long ciclistaId) {
+		Reserva reserva = porTranca.get(trancaId);
+		return reserva != null && !reserva.ciclistaId.equals(ciclistaId);
+	}
+
+	/**
+	 * Quantidade de bicicletas reservadas em um totem
+	 *
+	 * @param totemId ID do totem
+	 * @return int reservas ativas no totem
+	 */
+	public int reservadasNoTotem(Long totemId) {
+		AtomicInteger reservadas = reservadasPorTotem.get(totemId);
+		return reservadas == null ? 0 : reservadas.get();
+	}
+
+	private void expirar(Reserva reserva) {
+		if (remover(reserva)) {
+			logger.debug("Reserva da bicicleta {} expirou", reserva.bicicletaId);
+		}
+	}
+
+	/**
+	 * Remove a reserva dos índices uma única vez, mesmo com expiração e cancelamento simultâneos
+	 *
+	 * @return boolean true se esta chamada removeu a reserva
+	 */
+	private boolean remover(Reserva reserva) {
+		if (!porTranca.remove(reserva.trancaId, reserva)) {
+			return false;
+		}
+		porCiclista.remove(reserva.ciclistaId, reserva);
+		if (reserva.totemId != null) {
+			reservadasPorTotem.get(reserva.totemId).decrementAndGet();
+		}
+		return true;
+	}
+
+	/**
+	 * Reserva ativa, com o vencimento agendado na roda
+	 */
+	private static class Reserva {
+		private final Long ciclistaId;
+		private final Long trancaId;
+		private final Long totemId;
+		private final Long bicicletaId;
+		private final LocalDateTime expiraEm;
+		private volatile RodaTemporizacao.Tarefa expiracao;
+
+		private Reserva(Long ciclistaId, Long trancaId, Long totemId, Long bicicletaId, LocalDateTime expiraEm) {
+			this.ciclistaId = ciclistaId;
+			this.trancaId = trancaId;
+			this.totemId = totemId;
+			this.bicicletaId = bicicletaId;
+			this.expiraEm = expiraEm;
+		}
+
+		private ReservaDTO paraDTO() {
+			return new ReservaDTO(ciclistaId, trancaId, totemId, bicicletaId, expiraEm);
+		}
+	}
+}
@@ -0,0 +1,141 @@
+/**
+ * Roda de temporização com hash (hashed timing wheel)
+ * Os prazos são distribuídos em uma roda de N posições; a cada tique uma
+ * única thread avança uma posição e executa só as tarefas dali que já
+ * venceram. Agendar e cancelar custam O(1), independente de quantas tarefas
+ * estão pendentes, e nada é consultado periodicamente fora da própria roda.
+ *
+ * A precisão é de um tique: uma tarefa roda entre o prazo pedido e o prazo
+ * mais um tique. As ações rodam na thread da roda e devem ser curtas.
+ */
+package com.example.demo.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RodaTemporizacao {
+
+	private static final Logger logger = LoggerFactory.getLogger(RodaTemporizacao.class);
+
+	private final long tiqueMs;
+	private final List<Set<Tarefa>> posicoes;
+	private final AtomicLong tiqueAtual = new AtomicLong();
+	private final ScheduledExecutorService relogio;
+
+	/**
+	 * Cria a roda e inicia o relógio
+	 *
+	 * @param nome nome da thread do relógio
+	 * @param tiqueMs duração de um tique em milissegundos
+	 * @param tamanho quantidade de posições da roda
+	 */
+	public RodaTemporizacao(String nome, long tiqueMs, int tamanho) {
+		this.tiqueMs = tiqueMs;
+		this.posicoes = new ArrayList<>(tamanho);
+		for (int i = 0; i < tamanho; i++) {
+			posicoes.add(ConcurrentHashMap.newKeySet());
+		}
+		this.relogio = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, nome);
+			thread.setDaemon(true);
+			return thread;
+		});
+		relogio.scheduleAtFixedRate(this::avancar, tiqueMs, tiqueMs, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Agenda uma ação para daqui a atrasoMs
+	 * Se o relógio avançar até o tique alvo entre o cálculo da posição e a
+	 * inclusão da tarefa, a roda já passou por ela: a tarefa vai direto para
+	 * a thread da roda em vez de esperar uma volta inteira
+	 *
+	 * @param atrasoMs prazo em milissegundos
+	 * @param acao ação a executar no vencimento
+	 * @return Tarefa handle para cancelamento
+	 */
+	public Tarefa agendar(long atrasoMs, Runnable acao) {
+		long tiques = Math.max(1, (atrasoMs + tiqueMs - 1) / tiqueMs);
+		long alvo = tiqueAtual.get() + tiques;
+		Tarefa tarefa = new Tarefa(alvo, acao, posicoes.get((int) (alvo % posicoes.size())));
+		tarefa.posicao.add(tarefa);
+		// avancar incrementa o tique antes de percorrer a posição; se ainda não passou do alvo, ela verá a tarefa
+		if (tiqueAtual.get() >= alvo) {
+			relogio.execute(() -> {
+				tarefa.posicao.remove(tarefa);
+				executar(tarefa);
+			});
+		}
+		return tarefa;
+	}
+
+	/**
+	 * Para o relógio; tarefas pendentes não são executadas
+	 */
+	public void encerrar() {
+		relogio.shutdownNow();
+	}
+
+	private void avancar() {
+		long tique = tiqueAtual.incrementAndGet();
+		Iterator<Tarefa> it = posicoes.get((int) (tique % posicoes.size())).iterator();
+		while (it.hasNext()) {
+			Tarefa tarefa = it.next();
+			// Tarefas de voltas futuras ficam na posição até o seu tique
+			if (tarefa.tiqueAlvo <= tique) {
+				it.remove();
+				executar(tarefa);
+			}
+		}
+	}
+
+	/**
+	 * Executa a tarefa uma única vez, ainda que avancar e agendar a alcancem juntos
+	 */
+	private void executar(Tarefa tarefa) {
+		if (tarefa.pendente.compareAndSet(true, false)) {
+			try {
+				tarefa.acao.run();
+			} catch (RuntimeException e) {
+				logger.error("Erro em tarefa agendada", e);
+			}
+		}
+	}
+
+	/**
+	 * Tarefa agendada na roda
+	 */
+	public static class Tarefa {
+		private final long tiqueAlvo;
+		private final Runnable acao;
+		private final Set<Tarefa> posicao;
+		private final AtomicBoolean pendente = new AtomicBoolean(true);
+
+		private Tarefa(long tiqueAlvo, Runnable acao, Set<Tarefa> posicao) {
+			this.tiqueAlvo = tiqueAlvo;
+			this.acao = acao;
+			this.posicao = posicao;
+		}
+
+		/**
+		 * Cancela a tarefa, se ainda não executou
+		 *
+		 * @return boolean true se a execução foi evitada
+		 */
+		public boolean cancelar() {
+			boolean cancelada = pendente.compareAndSet(true, false);
+			posicao.remove(this);
+			return cancelada;
+		}
+	}
+}
@@ -0,0 +1,172 @@
+/**
+ * Serviço responsável pelos tokens de sessão dos ciclistas
+ * O token é emitido no login e carrega o ID do ciclista, o tipo de documento
+ * e a validade, assinados com HMAC-SHA256. A verificação é feita em memória,
+ * sem consulta ao banco para saber quem está chamando.
+ *
+ * Formato: {id}.{tipo}.{expiraEmSegundos}.{assinatura em Base64 URL}
+ *
+ * @Service Marca como um componente de serviço do Spring
+ */
+package com.example.demo.service;
+
+import com.example.demo.model.TipoDocumento;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+@Service
+public class SessaoService {
+
+	private static final Logger logger = LoggerFactory.getLogger(SessaoService.class);
+
+	private static final String ALGORITMO = "HmacSHA256";
+	private static final String PREFIXO_BEARER = "Bearer ";
+
+	// Perfil dos nós de API (ativado com --spring.profiles.active=server)
+	private static final String PERFIL_SERVIDOR = "server";
+
+	// Chave em Base64; se vazia, uma chave aleatória é gerada a cada inicialização (exceto no perfil "server")
+	@Value("${scb.sessao.chave:}")
+	private String chaveConfigurada;
+
+	@Autowired
+	private Environment environment;
+
+	@Value("${scb.sessao.validade-minutos:480}")
+	private long validadeMinutos;
+
+	private SecretKeySpec chave;
+
+	// Mac não é thread-safe: uma instância por thread evita recriá-lo a cada verificação
+	private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::novoMac);
+
+	@PostConstruct
+	void inicializarChave() {
+		byte[] bytes;
+		if (chaveConfigurada == null || chaveConfigurada.isBlank()) {
+			// Nós de API atrás de um balanceador precisam da mesma chave, e um reinício não pode
+			// invalidar as sessões abertas: no perfil "server" a chave é obrigatória
+			if (environment.acceptsProfiles(Profiles.of(PERFIL_SERVIDOR))) {
+				throw new IllegalStateException("Configure scb.sessao.chave (Base64, 32 bytes) para o perfil "
+						+ PERFIL_SERVIDOR);
+			}
+			bytes = new byte[32];
+			new SecureRandom().nextBytes(bytes);
+			logger.warn("Chave de sessão gerada na inicialização; tokens emitidos antes deixam de valer");
+		} else {
+			bytes = Base64.getDecoder().decode(chaveConfigurada.trim());
+		}
+		chave = new SecretKeySpec(bytes, ALGORITMO);
+	}
+
+	/**
+	 * Emite um token de sessão para o ciclista
+	 *
+	 * @param ciclistaId ID do ciclista autenticado
+	 * @param tipo tipo de documento do ciclista
+	 * @return String token assinado
+	 */
+	public String emitir(Long ciclistaId, TipoDocumento tipo) {
+		long expiraEm = Instant.now().plus(Duration.ofMinutes(validadeMinutos)).getEpochSecond();
+		String conteudo = ciclistaId + "." + tipo + "." + expiraEm;
+		return conteudo + "." + assinar(conteudo);
+	}
+
+	/**
+	 * Verifica assinatura e validade de um token
+	 * Aceita o token puro ou o valor do cabeçalho Authorization ("Bearer ...")
+	 *
+	 * @param token token emitido no login
+	 * @return Sessao dados do ciclista contidos no token
+	 * @throws RuntimeException se o token estiver malformado, adulterado ou expirado
+	 */
+	public Sessao validar(String token) {
+		if (token == null) {
+			throw new RuntimeException("Sessão inválida");
+		}
+		if (token.startsWith(PREFIXO_BEARER)) {
+			token = token.substring(PREFIXO_BEARER.length());
+		}
+		int ultimoPonto = token.lastIndexOf('.');
+		if (ultimoPonto < 0) {
+			throw new RuntimeException("Sessão inválida");
+		}
+		String conteudo = token.substring(0, ultimoPonto);
+		byte[] esperada = assinar(conteudo).getBytes(StandardCharsets.US_ASCII);
+		byte[] recebida = token.substring(ultimoPonto + 1).getBytes(StandardCharsets.US_ASCII);
+		if (!MessageDigest.isEqual(esperada, recebida)) {
+			throw new RuntimeException("Sessão inválida");
+		}
+
+		String[] partes = conteudo.split("\\.");
+		if (partes.length != 3) {
+			throw new RuntimeException("Sessão inválida");
+		}
+		Instant expiraEm = Instant.ofEpochSecond(Long.parseLong(partes[2]));
+		if (Instant.now().isAfter(expiraEm)) {
+			throw new RuntimeException("Sessão expirada");
+		}
+		return new Sessao(Long.valueOf(partes[0]), TipoDocumento.valueOf(partes[1]), expiraEm);
+	}
+
+	private String assinar(String conteudo) {
+		byte[] assinatura = macs.get().doFinal(conteudo.getBytes(StandardCharsets.UTF_8));
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(assinatura);
+	}
+
+	private Mac novoMac() {
+		try {
+			Mac mac = Mac.getInstance(ALGORITMO);
+			mac.init(chave);
+			return mac;
+		} catch (GeneralSecurityException e) {
+			throw new RuntimeException("Erro ao inicializar assinatura de sessão", e);
+		}
+	}
+
+	/**
+	 * Dados de uma sessão válida
+	 */
+	public static class Sessao {
+		private final Long ciclistaId;
+		private final TipoDocumento tipo;
+		private final Instant expiraEm;
+
+		public Sessao(Long ciclistaId, TipoDocumento tipo, Instant expiraEm) {
+			this.ciclistaId = ciclistaId;
+			this.tipo = tipo;
+			this.expiraEm = expiraEm;
+		}
+
+		public Long getCiclistaId() {
+			return ciclistaId;
+		}
+
+		public TipoDocumento getTipo() {
+			return tipo;
+		}
+
+		public Instant getExpiraEm() {
+			return expiraEm;
+		}
+	}
+}
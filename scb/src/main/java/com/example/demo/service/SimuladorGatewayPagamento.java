@@ -0,0 +1,66 @@
+/**
+ * Gateway de pagamento simulado, para desenvolvimento e testes
+ * Aplica uma latência fixa a cada chamada e falha aleatoriamente com a
+ * taxa configurada, permitindo exercitar as retentativas do pipeline.
+ *
+ * @Component Ativo quando scb.pagamento.gateway=simulado (padrão)
+ */
+package com.example.demo.service;
+
+import com.example.demo.model.CartaoCredito;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Component
+@ConditionalOnProperty(name = "scb.pagamento.gateway", havingValue = "simulado", matchIfMissing = true)
+public class SimuladorGatewayPagamento implements GatewayPagamento {
+
+	private static final Logger logger = LoggerFactory.getLogger(SimuladorGatewayPagamento.class);
+
+	@Value("${scb.pagamento.simulador.latencia-ms:0}")
+	private long latenciaMs;
+
+	// Probabilidade (0 a 1) de uma chamada falhar
+	@Value("${scb.pagamento.simulador.taxa-falha:0}")
+	private double taxaFalha;
+
+	// Transações já capturadas, por referência, para responder repetições de forma idempotente
+	private final Map<String, String> capturas = new ConcurrentHashMap<>();
+
+	@Override
+	public String capturar(CartaoCredito cartao, double valor, String referencia) {
+		simularChamada();
+		String transacaoId = capturas.computeIfAbsent(referencia, r -> UUID.randomUUID().toString());
+		logger.debug("Captura de R${} no cartão {} (transação {})", valor, cartao.getNumero(), transacaoId);
+		return transacaoId;
+	}
+
+	@Override
+	public void liquidar(String transacaoId) {
+		simularChamada();
+		logger.debug("Transação {} liquidada", transacaoId);
+	}
+
+	private void simularChamada() {
+		if (latenciaMs > 0) {
+			try {
+				Thread.sleep(latenciaMs);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException("Chamada ao gateway interrompida", e);
+			}
+		}
+		if (taxaFalha > 0 && ThreadLocalRandom.current().nextDouble() < taxaFalha) {
+			throw new RuntimeException("Gateway de pagamento indisponível (falha simulada)");
+		}
+	}
+}
@@ -7,12 +7,15 @@
  */
 package com.example.demo.service;
 
+import com.example.demo.dto.PaginaDTO;
+import com.example.demo.dto.TotemDTO;
 import com.example.demo.model.Totem;
 import com.example.demo.model.Tranca;
 import com.example.demo.repository.TotemRepository;
 import com.example.demo.repository.TrancaRepository;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,13 +31,25 @@ public class TotemService {
 	@Autowired
 	private TrancaRepository trancaRepository;
 
+	@Autowired
+	private DisponibilidadeService disponibilidadeService;
+
+	@Autowired
+	private CacheTopologiaService cacheTopologiaService;
+
 	/**
-	 * Lista todos os totens cadastrados no sistema
+	 * Lista os totens em páginas ordenadas por ID
+	 * Apenas os dados do totem, sem trancas, projetados em uma única consulta
 	 *
-	 * @return List<Totem> lista de todos os totens
+	 * @param cursor ID do último totem da página anterior (nulo na primeira)
+	 * @param limite tamanho da página
+	 * @return PaginaDTO<TotemDTO> página de totens
 	 */
-	public List<Totem> listarTodos() {
-		return totemRepository.findAll();
+	public PaginaDTO<TotemDTO> listarPagina(Long cursor, Integer limite) {
+		int tamanho = PaginaDTO.limiteValido(limite);
+		List<TotemDTO> totens = totemRepository.findResumosAposCursor(cursor != null ? cursor : 0L,
+				PageRequest.of(0, tamanho + 1));
+		return PaginaDTO.de(totens, tamanho, TotemDTO::getId);
 	}
 
 	/**
@@ -46,7 +61,7 @@ public class TotemService {
 	 */
 	@Transactional
 	public Totem buscarPorId(Long id) {
-		return totemRepository.findById(id).orElseThrow(() -> new RuntimeException("Totem não encontrado"));
+		return totemRepository.findComTrancasById(id).orElseThrow(() -> new RuntimeException("Totem não encontrado"));
 	}
 
 	/**
@@ -57,7 +72,9 @@ public class TotemService {
 	 */
 	@Transactional
 	public Totem salvar(Totem totem) {
-		return totemRepository.save(totem);
+		Totem totemSalvo = totemRepository.save(totem);
+		disponibilidadeService.recarregarTotem(totemSalvo.getId());
+		return totemSalvo;
 	}
 
 	/**
@@ -69,6 +86,7 @@ public class TotemService {
 	@Transactional
 	public void deletar(Long id) {
 		totemRepository.deleteById(id);
+		disponibilidadeService.removerTotem(id);
 	}
 
 	/**
@@ -91,7 +109,8 @@ public class TotemService {
 	 */
 	@Transactional
 	public Totem adicionarTranca(Long totemId, Tranca tranca) {
-		Totem totem = totemRepository.findById(totemId).orElseThrow(() -> new RuntimeException("Totem não encontrado"));
+		Totem totem = totemRepository.findComTrancasById(totemId)
+				.orElseThrow(() -> new RuntimeException("Totem não encontrado"));
 
 		if (totem.getTrancas().size() >= totem.getCapacidadeMaxima()) {
 			throw new IllegalStateException("Capacidade máxima do Totem atingida");
@@ -101,7 +120,9 @@ public class TotemService {
 		tranca = trancaRepository.save(tranca);
 
 		totem.addTranca(tranca);
-		return totemRepository.save(totem);
+		Totem totemAtualizado = totemRepository.save(totem);
+		disponibilidadeService.recarregarTotem(totemId);
+		return totemAtualizado;
 	}
 
 	/**
@@ -115,7 +136,7 @@ public class TotemService {
 	 */
 	@Transactional
 	public Totem atualizar(Long id, Totem totemAtualizado) {
-		Totem totemExistente = totemRepository.findById(id)
+		Totem totemExistente = totemRepository.findComTrancasById(id)
 				.orElseThrow(() -> new RuntimeException("Totem não encontrado com ID: " + id));
 
 		if (totemAtualizado.getLocalizacao() == null || totemAtualizado.getLocalizacao().trim().isEmpty()) {
@@ -133,7 +154,10 @@ public class TotemService {
 
 		atualizarTrancas(totemExistente, totemAtualizado.getTrancas());
 
-		return totemRepository.save(totemExistente);
+		Totem totemSalvo = totemRepository.save(totemExistente);
+		disponibilidadeService.recarregarTotem(id);
+		cacheTopologiaService.invalidarTotem(id);
+		return totemSalvo;
 	}
 
 	/**
@@ -191,7 +215,7 @@ public class TotemService {
 	@Transactional
 	public Totem atualizarParcial(Long id, Totem totemParcial) {
 		System.out.println("Iniciando atualização parcial para Totem ID: " + id);
-		Totem totemExistente = totemRepository.findById(id)
+		Totem totemExistente = totemRepository.findComTrancasById(id)
 				.orElseThrow(() -> new RuntimeException("Totem não encontrado com ID: " + id));
 
 		System.out.println("Totem encontrado. Atualizando campos...");
@@ -216,6 +240,8 @@ public class TotemService {
 		}
 
 		Totem totemAtualizado = totemRepository.save(totemExistente);
+		disponibilidadeService.recarregarTotem(id);
+		cacheTopologiaService.invalidarTotem(id);
 		System.out.println("Totem atualizado. ID: " + totemAtualizado.getId());
 		return totemAtualizado;
 	}
@@ -10,6 +10,8 @@
  */
 package com.example.demo.service;
 
+import com.example.demo.dto.PaginaDTO;
+import com.example.demo.dto.TrancaDTO;
 import com.example.demo.model.Tranca;
 import com.example.demo.model.Bicicleta;
 import com.example.demo.model.StatusBicicleta;
@@ -20,6 +22,7 @@ import com.example.demo.repository.TotemRepository;
 import com.example.demo.repository.TrancaRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -39,15 +42,30 @@ public class TrancaService {
 	@Autowired
 	private BicicletaRepository bicicletaRepository;
 
+	@Autowired
+	private DisponibilidadeService disponibilidadeService;
+
+	@Autowired
+	private CacheTopologiaService cacheTopologiaService;
+
+	@Autowired
+	private EventosEstadoService eventosEstadoService;
+
+	@Autowired
+	private ReservaService reservaService;
+
 	/**
-     * Lista todas as trancas cadastradas no sistema
+     * Lista as trancas em páginas ordenadas por ID
      *
-     * @return List<Tranca> lista de todas as trancas
+     * @param cursor ID da última tranca da página anterior (nulo na primeira)
+     * @param limite tamanho da página
+     * @return PaginaDTO<TrancaDTO> página de trancas com suas bicicletas
      */
-	public List<Tranca> listarTodas() {
-		List<Tranca> trancas = trancaRepository.findAll();
-		System.out.println("Número de trancas encontradas: " + trancas.size());
-		return trancas;
+	public PaginaDTO<TrancaDTO> listarPagina(Long cursor, Integer limite) {
+		int tamanho = PaginaDTO.limiteValido(limite);
+		List<TrancaDTO> trancas = trancaRepository.findResumosAposCursor(cursor != null ? cursor : 0L,
+				PageRequest.of(0, tamanho + 1));
+		return PaginaDTO.de(trancas, tamanho, TrancaDTO::getId);
 	}
 
 	/**
@@ -86,14 +104,22 @@ public class TrancaService {
      *
      * @param tranca tranca a ser salva/atualizada
      * @return Tranca tranca salva com ID gerado
-     * @throws IllegalArgumentException se houver violação de unicidade
+     * @throws IllegalArgumentException se houver violação de unicidade ou uma atualização não informar a versão
+     * @throws org.springframework.dao.OptimisticLockingFailureException se a versão informada estiver desatualizada
      */
 	@Transactional
 	public Tranca salvar(Tranca tranca) {
 		System.out.println("Salvando tranca: " + tranca);
 
+		boolean nova = tranca.getId() == null;
+		if (!nova && tranca.getVersao() == null) {
+			// Sem a versão lida pelo cliente não há como detectar uma alteração concorrente
+			throw new IllegalArgumentException("Informe a versão da tranca para atualizá-la");
+		}
+
 		// Verificação prévia
-		if (trancaRepository.findByNumero(tranca.getNumero()).isPresent()) {
+		if (trancaRepository.findByNumero(tranca.getNumero()).filter(t -> !t.getId().equals(tranca.getId()))
+				.isPresent()) {
 			throw new IllegalArgumentException("Já existe uma Tranca com o número: " + tranca.getNumero());
 		}
 
@@ -107,6 +133,17 @@ public class TrancaService {
 		try {
 			Tranca trancaSalva = trancaRepository.save(tranca);
 			System.out.println("Tranca salva: " + trancaSalva);
+			if (trancaSalva.getTotem() != null) {
+				Long totemId = trancaSalva.getTotem().getId();
+				if (nova) {
+					StatusTranca status = trancaSalva.getStatus();
+					disponibilidadeService.registrarMudanca(totemId, null, false, status,
+							DisponibilidadeService.bicicletaDisponivel(status, trancaSalva.getBicicleta()));
+				} else {
+					disponibilidadeService.recarregarTotem(totemId);
+				}
+			}
+			eventosEstadoService.trancaAlterada(trancaSalva);
 			return trancaSalva;
 		} catch (DataIntegrityViolationException e) {
 			// Captura violações de unicidade que possam ter passado pela verificação prévia
@@ -130,19 +167,23 @@ public class TrancaService {
 			Totem totem = tranca.getTotem();
 			totem.getTrancas().remove(tranca);
 			totemRepository.save(totem);
+			disponibilidadeService.registrarMudanca(totem.getId(), tranca.getStatus(),
+					DisponibilidadeService.bicicletaDisponivel(tranca.getStatus(), tranca.getBicicleta()), null, false);
 		}
 
+		eventosEstadoService.trancaRemovida(tranca);
 		trancaRepository.delete(tranca);
+		TransacaoUtil.aposCommit(() -> reservaService.cancelarPorTranca(id));
 	}
 
 	/**
      * Lista trancas por seu status atual
      *
      * @param status status desejado (LIVRE, OCUPADA, etc.)
-     * @return List<Tranca> lista de trancas no status especificado
+     * @return List<TrancaDTO> lista de trancas no status especificado
      */
-	public List<Tranca> buscarPorStatus(StatusTranca status) {
-		return trancaRepository.findByStatus(status);
+	public List<TrancaDTO> buscarPorStatus(StatusTranca status) {
+		return trancaRepository.findResumosByStatus(status);
 	}
 
 	/**
@@ -158,6 +199,7 @@ public class TrancaService {
 	/**
      * Atualiza o status de uma tranca
      * Usado durante empréstimos, devoluções e manutenções
+     * Se a bicicleta deixa de estar disponível, a reserva dela é cancelada
      *
      * @param id ID da tranca
      * @param novoStatus novo status a ser definido
@@ -168,8 +210,18 @@ public class TrancaService {
 		Optional<Tranca> trancaOpt = trancaRepository.findById(id);
 		if (trancaOpt.isPresent()) {
 			Tranca tranca = trancaOpt.get();
+			StatusTranca statusAnterior = tranca.getStatus();
 			tranca.setStatus(novoStatus);
 			trancaRepository.save(tranca);
+			if (tranca.getTotem() != null) {
+				disponibilidadeService.registrarMudanca(tranca.getTotem().getId(), statusAnterior,
+						DisponibilidadeService.bicicletaDisponivel(statusAnterior, tranca.getBicicleta()), novoStatus,
+						DisponibilidadeService.bicicletaDisponivel(novoStatus, tranca.getBicicleta()));
+			}
+			if (!DisponibilidadeService.bicicletaDisponivel(novoStatus, tranca.getBicicleta())) {
+				TransacaoUtil.aposCommit(() -> reservaService.cancelarPorTranca(id));
+			}
+			eventosEstadoService.trancaAlterada(tranca);
 			return true;
 		}
 		return false;
@@ -188,6 +240,7 @@ public class TrancaService {
 	public Tranca atualizarParcial(Long id, Map<String, Object> updates) {
 		Tranca tranca = trancaRepository.findById(id)
 				.orElseThrow(() -> new RuntimeException("Tranca não encontrada com ID: " + id));
+		Long totemAnteriorId = tranca.getTotem() != null ? tranca.getTotem().getId() : null;
 
 		if (updates.containsKey("numero")) {
 			tranca.setNumero((String) updates.get("numero"));
@@ -202,12 +255,26 @@ public class TrancaService {
 			tranca.setTotem(totem);
 		}
 
-		return trancaRepository.save(tranca);
+		Tranca trancaAtualizada = trancaRepository.save(tranca);
+
+		// Status e totem podem mudar juntos: recalcula os totens envolvidos
+		Long totemAtualId = trancaAtualizada.getTotem() != null ? trancaAtualizada.getTotem().getId() : null;
+		disponibilidadeService.recarregarTotem(totemAnteriorId);
+		if (totemAtualId != null && !totemAtualId.equals(totemAnteriorId)) {
+			disponibilidadeService.recarregarTotem(totemAtualId);
+		}
+		cacheTopologiaService.invalidarTranca(id, totemAnteriorId, totemAtualId);
+		if (updates.containsKey("status") || updates.containsKey("totemId")) {
+			TransacaoUtil.aposCommit(() -> reservaService.cancelarPorTranca(id));
+		}
+		eventosEstadoService.trancaAlterada(trancaAtualizada);
+		return trancaAtualizada;
 	}
 
 	/**
      * Associa uma bicicleta a uma tranca
      * Atualiza o status tanto da tranca quanto da bicicleta
+     * A reserva da bicicleta que estava na tranca é cancelada
      *
      * @param trancaId ID da tranca
      * @param bicicletaId ID da bicicleta
@@ -222,6 +289,9 @@ public class TrancaService {
 		Bicicleta bicicleta = bicicletaRepository.findById(bicicletaId)
 				.orElseThrow(() -> new RuntimeException("Bicicleta não encontrada com ID: " + bicicletaId));
 
+		StatusTranca statusAnterior = tranca.getStatus();
+		boolean disponivelAntes = DisponibilidadeService.bicicletaDisponivel(statusAnterior, tranca.getBicicleta());
+
 		tranca.setBicicleta(bicicleta);
 		tranca.setStatus(StatusTranca.OCUPADA);
 		bicicleta.setStatus(StatusBicicleta.DISPONIVEL);
@@ -231,6 +301,13 @@ public class TrancaService {
 		Tranca trancaAtualizada = trancaRepository.save(tranca);
 		bicicletaRepository.save(bicicleta);
 
+		if (trancaAtualizada.getTotem() != null) {
+			disponibilidadeService.registrarMudanca(trancaAtualizada.getTotem().getId(), statusAnterior,
+					disponivelAntes, StatusTranca.OCUPADA, true);
+		}
+		TransacaoUtil.aposCommit(() -> reservaService.cancelarPorTranca(trancaId));
+		eventosEstadoService.trancaAlterada(trancaAtualizada);
+
 		System.out.println("Tranca após associação: " + trancaAtualizada);
 		System.out.println("Bicicleta associada: " + trancaAtualizada.getBicicleta());
 
@@ -0,0 +1,34 @@
+/**
+ * Utilitário para adiar ações até o fim da transação corrente
+ * Usado pelos serviços que mantêm índices, caches e eventos em memória: as
+ * alterações só são aplicadas depois que o banco confirma a transação.
+ */
+package com.example.demo.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+final class TransacaoUtil {
+
+	private TransacaoUtil() {
+	}
+
+	/**
+	 * Executa a ação após o commit da transação corrente
+	 * Sem transação ativa, executa imediatamente
+	 *
+	 * @param acao ação a executar
+	 */
+	static void aposCommit(Runnable acao) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					acao.run();
+				}
+			});
+		} else {
+			acao.run();
+		}
+	}
+}
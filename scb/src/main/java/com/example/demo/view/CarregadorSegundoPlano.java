@@ -0,0 +1,172 @@
+/*
+ Carregamento de dados em segundo plano para os painéis
+ Executa as chamadas aos controllers fora da Event Dispatch Thread, em um pool
+ limitado, e aplica o resultado de volta na EDT. Cada carga tem uma chave
+ (por exemplo, "totens"): uma nova carga com a mesma chave substitui a anterior,
+ que é cancelada se ainda estiver na fila e tem o resultado descartado se já
+ estiver em execução. Assim, vários cliques em "Atualizar" resultam em uma só
+ atualização da tela, sempre com os dados do pedido mais recente.
+
+ Operações de escrita (empréstimo, devolução, cadastro) não são canceladas:
+ enquanto uma estiver em andamento, novas execuções com a mesma chave são
+ ignoradas, evitando envios em dobro.
+
+ Todos os métodos públicos devem ser chamados na EDT.
+ */
+package com.example.demo.view;
+
+import javax.swing.SwingUtilities;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+public class CarregadorSegundoPlano {
+	private static final int THREADS = 2;
+	private static final int CAPACIDADE_FILA = 32;
+
+	private final ThreadPoolExecutor executor;
+
+	// Carga mais recente de cada chave; acessado apenas na EDT
+	private final Map<String, Carga<?>> cargas = new HashMap<>();
+
+	// Avisado na EDT sempre que muda a quantidade de cargas em andamento
+	private final IntConsumer aoMudarQuantidade;
+
+	/**
+	 * @param aoMudarQuantidade recebe a quantidade de cargas em andamento, para o indicador de carregamento
+	 */
+	public CarregadorSegundoPlano(IntConsumer aoMudarQuantidade) {
+		this.aoMudarQuantidade = aoMudarQuantidade;
+		this.executor = new ThreadPoolExecutor(THREADS, THREADS, 30, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(CAPACIDADE_FILA), r -> {
+					Thread thread = new Thread(r, "scb-carregador");
+					thread.setDaemon(true);
+					return thread;
+				});
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Agenda uma leitura, substituindo a leitura anterior com a mesma chave
+	 *
+	 * @param chave identifica o que está sendo carregado
+	 * @param busca chamada executada em segundo plano
+	 * @param aplicar atualização da tela, executada na EDT com o resultado
+	 * @param aoFalhar tratamento de erro, executado na EDT
+	 */
+	public <T> void carregar(String chave, Callable<T> busca, Consumer<T> aplicar, Consumer<Exception> aoFalhar) {
+		Carga<?> anterior = cargas.get(chave);
+		if (anterior != null) {
+			anterior.cancelar();
+		}
+		iniciar(new Carga<>(chave, busca, aplicar, aoFalhar, true));
+	}
+
+	/**
+	 * Agenda uma operação de escrita, a menos que outra com a mesma chave esteja em andamento
+	 *
+	 * @param chave identifica a operação
+	 * @param acao chamada executada em segundo plano
+	 * @param aoConcluir continuação executada na EDT com o resultado
+	 * @param aoFalhar tratamento de erro, executado na EDT
+	 * @return boolean true se a operação foi agendada, false se já havia uma em andamento
+	 */
+	public <T> boolean executar(String chave, Callable<T> acao, Consumer<T> aoConcluir, Consumer<Exception> aoFalhar) {
+		if (cargas.containsKey(chave)) {
+			return false;
+		}
+		iniciar(new Carga<>(chave, acao, aoConcluir, aoFalhar, false));
+		return true;
+	}
+
+	/**
+	 * Indica se há carga em andamento com a chave
+	 *
+	 * @param chave chave da carga
+	 * @return boolean true se houver carga em andamento
+	 */
+	public boolean emAndamento(String chave) {
+		return cargas.containsKey(chave);
+	}
+
+	/**
+	 * Cancela todas as leituras em andamento, descartando seus resultados
+	 * Usado ao encerrar a sessão; operações de escrita seguem até o fim
+	 */
+	public void cancelarLeituras() {
+		cargas.values().removeIf(carga -> {
+			if (carga.cancelavel) {
+				carga.cancelar();
+				return true;
+			}
+			return false;
+		});
+		aoMudarQuantidade.accept(cargas.size());
+	}
+
+	private void iniciar(Carga<?> carga) {
+		cargas.put(carga.chave, carga);
+		try {
+			executor.execute(carga.tarefa);
+		} catch (RejectedExecutionException e) {
+			cargas.remove(carga.chave, carga);
+			carga.aoFalhar.accept(new RuntimeException("Sistema ocupado, tente novamente em instantes"));
+		}
+		aoMudarQuantidade.accept(cargas.size());
+	}
+
+	// Executado na EDT; só aplica o resultado se a carga não foi substituída
+	private <T> void concluir(Carga<T> carga, T resultado, Exception erro) {
+		if (!cargas.remove(carga.chave, carga)) {
+			return;
+		}
+		aoMudarQuantidade.accept(cargas.size());
+		if (erro != null) {
+			carga.aoFalhar.accept(erro);
+		} else {
+			carga.aplicar.accept(resultado);
+		}
+	}
+
+	/**
+	 * Uma carga agendada: a chamada em segundo plano e suas continuações na EDT
+	 */
+	private class Carga<T> {
+		private final String chave;
+		private final Consumer<T> aplicar;
+		private final Consumer<Exception> aoFalhar;
+		private final boolean cancelavel;
+		private final FutureTask<Void> tarefa;
+
+		private Carga(String chave, Callable<T> busca, Consumer<T> aplicar, Consumer<Exception> aoFalhar,
+				boolean cancelavel) {
+			this.chave = chave;
+			this.aplicar = aplicar;
+			this.aoFalhar = aoFalhar;
+			this.cancelavel = cancelavel;
+			this.tarefa = new FutureTask<>(() -> {
+				try {
+					T resultado = busca.call();
+					SwingUtilities.invokeLater(() -> concluir(this, resultado, null));
+				} catch (Exception e) {
+					SwingUtilities.invokeLater(() -> concluir(this, null, e));
+				}
+				return null;
+			});
+		}
+
+		// Retira da fila se ainda não começou; se já começou, o resultado é descartado em concluir
+		private void cancelar() {
+			if (tarefa.cancel(false)) {
+				executor.remove(tarefa);
+			}
+		}
+	}
+}
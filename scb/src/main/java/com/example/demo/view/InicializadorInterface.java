@@ -0,0 +1,52 @@
+/*
+ Ponto de entrada da interface gráfica do quiosque
+ Concentra tudo o que depende de AWT/Swing na inicialização, para que o
+ ScbApplication só referencie o pacote view quando de fato vai abrir a
+ interface. No modo servidor este arquivo nunca é carregado.
+ */
+package com.example.demo.view;
+
+import com.example.demo.view.cliente.ClienteScb;
+import com.example.demo.view.cliente.ClienteScbLocal;
+import com.example.demo.view.cliente.ClienteScbRemoto;
+
+import org.springframework.context.ApplicationContext;
+
+import javax.swing.SwingUtilities;
+import javax.swing.UIManager;
+
+public final class InicializadorInterface {
+
+	private InicializadorInterface() {
+	}
+
+	/**
+	 * Interface no mesmo processo do servidor, chamando os controllers diretamente
+	 *
+	 * @param springContext contexto do Spring já inicializado
+	 */
+	public static void iniciarLocal(ApplicationContext springContext) {
+		iniciar(new ClienteScbLocal(springContext));
+	}
+
+	/**
+	 * Quiosque leve: toda a comunicação vai para o servidor remoto
+	 *
+	 * @param servidor endereço do servidor SCB
+	 */
+	public static void iniciarRemoto(String servidor) {
+		iniciar(new ClienteScbRemoto(servidor));
+	}
+
+	// Inicializa a interface gráfica na Event Dispatch Thread
+	private static void iniciar(ClienteScb cliente) {
+		SwingUtilities.invokeLater(() -> {
+			try {
+				UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
+				new WindowManager(cliente);
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		});
+	}
+}
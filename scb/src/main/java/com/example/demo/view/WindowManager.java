@@ -1,16 +1,21 @@
 /*
  Gerenciador central do front-end
  Responsável pelo gerenciamento de navegação, estado da sessão e coordenação entre
- views e controllers
+ as views e o servidor, acessado pelo ClienteScb (local ou remoto)
+ Os painéis são criados na primeira navegação até eles, e as leituras repetidas
+ passam por um cache curto (ClienteScbComCache)
  */
 package com.example.demo.view;
 
 import javax.swing.*;
 import java.awt.*;
-import org.springframework.context.ApplicationContext;
-import com.example.demo.controller.CiclistaController;
-import com.example.demo.controller.TotemController;
-import com.example.demo.controller.EmprestimoController;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import com.example.demo.view.cliente.ClienteScb;
+import com.example.demo.view.cliente.ClienteScbComCache;
 import com.example.demo.view.panels.*;
 import com.example.demo.view.frames.MainFrame;
 
@@ -28,12 +33,11 @@ public class WindowManager {
 	private MainFrame mainFrame;
 	private CardLayout cardLayout;
 	private JPanel contentPanel;
-	private ApplicationContext springContext;
+	private JProgressBar carregandoBar;
+	private CarregadorSegundoPlano carregador;
 
-	// Controllers
-	private CiclistaController ciclistaController;
-	private TotemController totemController;
-	private EmprestimoController emprestimoController;
+	// Acesso ao servidor, com cache das leituras repetidas
+	private final ClienteScbComCache cliente;
 
 	// Dados da sessão atual
 	private String currentUserEmail;
@@ -42,80 +46,94 @@ public class WindowManager {
 	private String currentBikeInfo;
 	private String currentUserDocument;
 	private Long currentEmprestimoId;
+	private String currentSessionToken;
 
-	// Painéis da interface
-	private LoginPanel loginPanel;
-	private CadastroPanel cadastroPanel;
-	private DashboardPanel dashboardPanel;
-	private TotemListPanel totemListPanel;
-	private EmprestimoPanel emprestimoPanel;
-	private DevolucaoPanel devolucaoPanel;
-	private PerfilPanel perfilPanel;
+	// Painéis da interface: como criar cada um e os já criados; acessados apenas na EDT
+	private final Map<String, Supplier<JPanel>> fabricasPaineis = new HashMap<>();
+	private final Map<String, JPanel> paineis = new HashMap<>();
 
 	/**
-	 * Construtor que inicializa o gerenciador com o contexto do Spring
+	 * Construtor que inicializa o gerenciador com o cliente do servidor
 	 * 
-	 * @param springContext Contexto do Spring para injeção de dependências
+	 * @param cliente acesso ao servidor, no mesmo processo ou remoto
 	 */
-	public WindowManager(ApplicationContext springContext) {
-		this.springContext = springContext;
-		initializeControllers();
+	public WindowManager(ClienteScb cliente) {
+		this.cliente = new ClienteScbComCache(cliente);
 		initializeWindow();
 	}
 
-	// Inicializa os controllers necessários através do contexto do Spring
-	private void initializeControllers() {
-		ciclistaController = springContext.getBean(CiclistaController.class);
-		totemController = springContext.getBean(TotemController.class);
-		emprestimoController = springContext.getBean(EmprestimoController.class);
-	}
-
 	// Configura a janela principal e inicializa todos os componentes da interface
 	private void initializeWindow() {
 		mainFrame = new MainFrame();
 		cardLayout = new CardLayout();
 		contentPanel = new JPanel(cardLayout);
-		mainFrame.setContentPane(contentPanel);
+
+		// Indicador exibido enquanto houver dados sendo carregados em segundo plano
+		carregandoBar = new JProgressBar();
+		carregandoBar.setIndeterminate(true);
+		carregandoBar.setString("Carregando...");
+		carregandoBar.setStringPainted(true);
+		carregandoBar.setVisible(false);
+		carregador = new CarregadorSegundoPlano(this::atualizarIndicadorCarregamento);
+
+		JPanel rootPanel = new JPanel(new BorderLayout());
+		rootPanel.add(contentPanel, BorderLayout.CENTER);
+		rootPanel.add(carregandoBar, BorderLayout.SOUTH);
+		mainFrame.setContentPane(rootPanel);
 
 		initializePanels();
-		addPanelsToContent();
 
 		showLogin();
 		mainFrame.setVisible(true);
 	}
 
-	// Inicializa todos os painéis da aplicação com suas dependências
+	// Registra como criar cada painel; a criação fica para a primeira navegação até ele
 	private void initializePanels() {
-		loginPanel = new LoginPanel(this, ciclistaController);
-		cadastroPanel = new CadastroPanel(this, ciclistaController);
-		dashboardPanel = new DashboardPanel(this, ciclistaController);
-		totemListPanel = new TotemListPanel(this, totemController);
-		emprestimoPanel = new EmprestimoPanel(this, emprestimoController, totemController, ciclistaController);
-		devolucaoPanel = new DevolucaoPanel(this, emprestimoController, totemController);
-		perfilPanel = new PerfilPanel(this, ciclistaController);
-	}
-
-	// Adiciona todos os painéis ao ContentPanel
-	private void addPanelsToContent() {
-		contentPanel.add(loginPanel, LOGIN_PANEL);
-		contentPanel.add(cadastroPanel, CADASTRO_PANEL);
-		contentPanel.add(dashboardPanel, DASHBOARD_PANEL);
-		contentPanel.add(totemListPanel, TOTEM_LIST_PANEL);
-		contentPanel.add(emprestimoPanel, EMPRESTIMO_PANEL);
-		contentPanel.add(devolucaoPanel, DEVOLUCAO_PANEL);
-		contentPanel.add(perfilPanel, PERFIL_PANEL);
+		fabricasPaineis.put(LOGIN_PANEL, () -> new LoginPanel(this, cliente));
+		fabricasPaineis.put(CADASTRO_PANEL, () -> new CadastroPanel(this, cliente));
+		fabricasPaineis.put(DASHBOARD_PANEL, () -> new DashboardPanel(this));
+		fabricasPaineis.put(TOTEM_LIST_PANEL, () -> new TotemListPanel(this, cliente));
+		fabricasPaineis.put(EMPRESTIMO_PANEL, () -> new EmprestimoPanel(this, cliente));
+		fabricasPaineis.put(DEVOLUCAO_PANEL, () -> new DevolucaoPanel(this, cliente));
+		fabricasPaineis.put(PERFIL_PANEL, () -> new PerfilPanel(this, cliente));
+	}
+
+	/**
+	 * Retorna o painel, criando-o e adicionando-o ao ContentPanel no primeiro acesso
+	 *
+	 * @param nome identificador do painel no CardLayout
+	 * @return P o painel
+	 */
+	@SuppressWarnings("unchecked")
+	private <P extends JPanel> P painel(String nome) {
+		JPanel painel = paineis.get(nome);
+		if (painel == null) {
+			painel = fabricasPaineis.get(nome).get();
+			paineis.put(nome, painel);
+			contentPanel.add(painel, nome);
+		}
+		return (P) painel;
+	}
+
+	// Exibe o painel, criando-o se for a primeira vez
+	private <P extends JPanel> P mostrar(String nome) {
+		P painel = painel(nome);
+		cardLayout.show(contentPanel, nome);
+		return painel;
 	}
 
 	// Navega para a tela de login e reseta os dados da sessão
 	public void showLogin() {
+		carregador.cancelarLeituras();
+		cliente.limpar();
 		resetSessionData();
-		cardLayout.show(contentPanel, LOGIN_PANEL);
+		mostrar(LOGIN_PANEL);
 		mainFrame.setTitle("SCB - Login");
 	}
 
 	// Navega para a tela de cadastro
 	public void showCadastro() {
-		cardLayout.show(contentPanel, CADASTRO_PANEL);
+		mostrar(CADASTRO_PANEL);
 		mainFrame.setTitle("SCB - Cadastro");
 	}
 
@@ -126,14 +144,14 @@ public class WindowManager {
 			showLogin();
 			return;
 		}
-		cardLayout.show(contentPanel, DASHBOARD_PANEL);
+		mostrar(DASHBOARD_PANEL);
 		mainFrame.setTitle("SCB - Painel Principal");
 		updateDashboardInfo(); // Garante que as informações estão atualizadas
 	}
 
 	// Navega para a lista de totens e atualiza os dados
 	public void showTotemList() {
-		cardLayout.show(contentPanel, TOTEM_LIST_PANEL);
+		TotemListPanel totemListPanel = mostrar(TOTEM_LIST_PANEL);
 		mainFrame.setTitle("SCB - Lista de Totens");
 		totemListPanel.refreshTotemList();
 	}
@@ -144,8 +162,9 @@ public class WindowManager {
 			showError("Você já possui uma bicicleta em uso.");
 			return;
 		}
-		cardLayout.show(contentPanel, EMPRESTIMO_PANEL);
+		EmprestimoPanel emprestimoPanel = mostrar(EMPRESTIMO_PANEL);
 		mainFrame.setTitle("SCB - Novo Empréstimo");
+		emprestimoPanel.loadTotens();
 	}
 
 	// Navega para a tela de devolução após validar que há um empréstimo ativo
@@ -154,7 +173,7 @@ public class WindowManager {
 			showError("Você não possui nenhuma bicicleta em uso.");
 			return;
 		}
-		cardLayout.show(contentPanel, DEVOLUCAO_PANEL);
+		DevolucaoPanel devolucaoPanel = mostrar(DEVOLUCAO_PANEL);
 		mainFrame.setTitle("SCB - Devolução");
 		devolucaoPanel.carregarDados();
 	}
@@ -166,14 +185,15 @@ public class WindowManager {
 			showLogin();
 			return;
 		}
-		cardLayout.show(contentPanel, PERFIL_PANEL);
+		PerfilPanel perfilPanel = mostrar(PERFIL_PANEL);
 		mainFrame.setTitle("SCB - Meu Perfil");
 		perfilPanel.carregarDados();
 	}
 
 	// Processa o login e atualiza o estado da sessão
 	public void handleLoginSuccess(String userEmail, String userName, String userDocument, boolean hasEmprestimo,
-			String bikeInfo) {
+			String bikeInfo, String sessionToken) {
+		this.currentSessionToken = sessionToken;
 		this.currentUserEmail = userEmail;
 		this.currentUserName = userName;
 		this.currentUserDocument = userDocument;
@@ -189,11 +209,13 @@ public class WindowManager {
 		currentUserDocument = null;
 		hasActiveEmprestimo = false;
 		currentBikeInfo = null;
+		currentSessionToken = null;
 	}
 
 	// Atualiza as informações exibidas no dashboard
 	private void updateDashboardInfo() {
 		if (currentUserEmail != null) {
+			DashboardPanel dashboardPanel = painel(DASHBOARD_PANEL);
 			dashboardPanel.setUserName(currentUserName);
 			dashboardPanel.updateEmprestimoStatus(hasActiveEmprestimo, currentBikeInfo);
 		}
@@ -212,6 +234,11 @@ public class WindowManager {
 		return currentUserDocument;
 	}
 
+	// Cabeçalho Authorization com o token da sessão, ou nulo se não houver token
+	public String getAuthorization() {
+		return currentSessionToken != null ? "Bearer " + currentSessionToken : null;
+	}
+
 	public boolean hasActiveEmprestimo() {
 		return hasActiveEmprestimo;
 	}
@@ -229,6 +256,52 @@ public class WindowManager {
 		return currentEmprestimoId;
 	}
 
+	/**
+	 * Carrega dados em segundo plano e aplica o resultado na EDT
+	 * Uma nova carga com a mesma chave substitui a anterior, cujo resultado é descartado
+	 *
+	 * @param chave identifica o que está sendo carregado
+	 * @param busca chamada ao controller, executada fora da EDT
+	 * @param aplicar atualização da tela com o resultado
+	 * @param mensagemErro prefixo da mensagem exibida em caso de falha
+	 */
+	public <T> void carregar(String chave, Callable<T> busca, Consumer<T> aplicar, String mensagemErro) {
+		carregador.carregar(chave, busca, aplicar, e -> showError(mensagemErro + ": " + e.getMessage()));
+	}
+
+	public <T> void carregar(String chave, Callable<T> busca, Consumer<T> aplicar, Consumer<Exception> aoFalhar) {
+		carregador.carregar(chave, busca, aplicar, aoFalhar);
+	}
+
+	/**
+	 * Executa uma operação de escrita em segundo plano e continua na EDT
+	 * Ignorada se já houver uma operação com a mesma chave em andamento
+	 *
+	 * @param chave identifica a operação
+	 * @param acao chamada ao controller, executada fora da EDT
+	 * @param aoConcluir continuação com o resultado
+	 * @param mensagemErro prefixo da mensagem exibida em caso de falha
+	 * @return boolean true se a operação foi iniciada
+	 */
+	public <T> boolean executar(String chave, Callable<T> acao, Consumer<T> aoConcluir, String mensagemErro) {
+		return carregador.executar(chave, acao, aoConcluir, e -> showError(mensagemErro + ": " + e.getMessage()));
+	}
+
+	public <T> boolean executar(String chave, Callable<T> acao, Consumer<T> aoConcluir, Consumer<Exception> aoFalhar) {
+		return carregador.executar(chave, acao, aoConcluir, aoFalhar);
+	}
+
+	// Faz a próxima leitura da disponibilidade dos totens ir ao servidor (botão "Atualizar")
+	public void descartarCacheTotens() {
+		cliente.invalidarTotens();
+	}
+
+	// Exibe o indicador e o cursor de espera enquanto houver cargas em andamento
+	private void atualizarIndicadorCarregamento(int emAndamento) {
+		carregandoBar.setVisible(emAndamento > 0);
+		mainFrame.setCursor(emAndamento > 0 ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : Cursor.getDefaultCursor());
+	}
+
 	// Exibe mensagem de erro
 	public void showError(String message) {
 		JOptionPane.showMessageDialog(mainFrame, message, "Erro", JOptionPane.ERROR_MESSAGE);
@@ -262,14 +335,14 @@ public class WindowManager {
 	public void updateUserInfo(String email, String name) {
 		this.currentUserEmail = email;
 		this.currentUserName = name;
-		dashboardPanel.setUserName(name);
+		this.<DashboardPanel>painel(DASHBOARD_PANEL).setUserName(name);
 	}
 
 	// Atualiza o status do empréstimo e reflete as mudanças na interface
 	public void updateEmprestimoStatus(boolean hasEmprestimo, String bikeInfo) {
 		this.hasActiveEmprestimo = hasEmprestimo;
 		this.currentBikeInfo = bikeInfo;
-		dashboardPanel.updateEmprestimoStatus(hasEmprestimo, bikeInfo);
+		this.<DashboardPanel>painel(DASHBOARD_PANEL).updateEmprestimoStatus(hasEmprestimo, bikeInfo);
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,88 @@
+/*
+ Cliente usado pelos painéis para falar com o servidor do SCB
+ Reúne as operações de ciclistas, totens e empréstimos de que a interface
+ precisa, sem que os painéis saibam se o servidor roda no mesmo processo
+ (ClienteScbLocal) ou em outra máquina (ClienteScbRemoto).
+
+ Todas as chamadas são bloqueantes e devem ser feitas fora da EDT (pelo
+ carregador do WindowManager). Falhas são lançadas como RuntimeException com
+ a mensagem do servidor; buscas por ID retornam nulo quando não encontram.
+ */
+package com.example.demo.view.cliente;
+
+import com.example.demo.dto.CartaoCreditoDTO;
+import com.example.demo.dto.CiclistaAtualizacaoDTO;
+import com.example.demo.dto.CiclistaDTO;
+import com.example.demo.dto.DisponibilidadeTotemDTO;
+import com.example.demo.dto.EmprestimoDTO;
+import com.example.demo.dto.EmprestimoRequestDTO;
+import com.example.demo.dto.LoginDTO;
+import com.example.demo.dto.LoginResponseDTO;
+import com.example.demo.dto.PaginaDTO;
+import com.example.demo.dto.TotemDTO;
+import com.example.demo.model.Brasileiro;
+import com.example.demo.model.Estrangeiro;
+
+import java.util.List;
+
+public interface ClienteScb {
+
+	// Ciclistas
+
+	LoginResponseDTO login(LoginDTO loginDTO);
+
+	CiclistaDTO cadastrarBrasileiro(Brasileiro brasileiro);
+
+	CiclistaDTO cadastrarEstrangeiro(Estrangeiro estrangeiro);
+
+	/**
+	 * @return CiclistaDTO ciclista encontrado, ou nulo se não existir
+	 */
+	CiclistaDTO buscarCiclista(String identificacao, String autorizacao);
+
+	CiclistaDTO atualizarCiclista(String identificacao, CiclistaAtualizacaoDTO atualizacaoDTO, String autorizacao);
+
+	List<CartaoCreditoDTO> listarCartoes(String identificacao, String autorizacao);
+
+	CartaoCreditoDTO adicionarCartaoCredito(String identificacao, CartaoCreditoDTO cartaoDTO, String autorizacao);
+
+	void removerCartaoCredito(String identificacao, Long cartaoId, String autorizacao);
+
+	void definirCartaoPrincipal(String identificacao, Long cartaoId, String autorizacao);
+
+	boolean possuiCartaoPrincipal(String identificacao, String autorizacao);
+
+	PaginaDTO<EmprestimoDTO> buscarHistoricoEmprestimos(String identificacao, String cursor, Integer limite,
+			String autorizacao);
+
+	// Totens
+
+	List<DisponibilidadeTotemDTO> listarDisponibilidade();
+
+	/**
+	 * @param autorizacao sessão do ciclista, para não marcar a bicicleta reservada por ele (opcional)
+	 * @return TotemDTO totem com suas trancas, ou nulo se não existir
+	 */
+	TotemDTO buscarTotem(Long totemId, String autorizacao);
+
+	// Empréstimos
+
+	EmprestimoDTO realizarEmprestimo(EmprestimoRequestDTO requestDTO, String autorizacao, String chaveIdempotencia);
+
+	/**
+	 * @return EmprestimoDTO empréstimo encontrado, ou nulo se não existir
+	 */
+	EmprestimoDTO buscarEmprestimo(Long emprestimoId);
+
+	EmprestimoDTO finalizarEmprestimo(Long emprestimoId, Long trancaId, String identificacao, String autorizacao,
+			String chaveIdempotencia);
+
+	// Eventos
+
+	/**
+	 * Assina as mudanças de estado de trancas e bicicletas feitas no servidor
+	 *
+	 * @param aoAlterarEstado chamado fora da EDT a cada mudança, ou quando eventos podem ter sido perdidos
+	 */
+	void assinarEventos(Runnable aoAlterarEstado);
+}
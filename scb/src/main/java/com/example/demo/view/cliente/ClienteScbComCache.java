@@ -0,0 +1,245 @@
+/*
+ Cache de curta duração na frente do ClienteScb
+ Guarda por alguns segundos as leituras que os painéis repetem a cada
+ navegação: a disponibilidade dos totens e os cartões e o histórico do
+ ciclista. As demais chamadas vão direto para o servidor.
+
+ Uma entrada deixa de valer ao expirar, quando o servidor avisa uma mudança
+ de tranca ou bicicleta (disponibilidade), ou quando o próprio quiosque faz
+ uma alteração bem ou malsucedida (cartões, empréstimo e devolução). Leituras
+ em andamento durante uma invalidação não são guardadas, para que um
+ resultado antigo não volte ao cache. As chaves incluem o token da sessão e
+ tudo é descartado ao encerrar a sessão.
+ */
+package com.example.demo.view.cliente;
+
+import com.example.demo.dto.CartaoCreditoDTO;
+import com.example.demo.dto.CiclistaAtualizacaoDTO;
+import com.example.demo.dto.CiclistaDTO;
+import com.example.demo.dto.DisponibilidadeTotemDTO;
+import com.example.demo.dto.EmprestimoDTO;
+import com.example.demo.dto.EmprestimoRequestDTO;
+import com.example.demo.dto.LoginDTO;
+import com.example.demo.dto.LoginResponseDTO;
+import com.example.demo.dto.PaginaDTO;
+import com.example.demo.dto.TotemDTO;
+import com.example.demo.model.Brasileiro;
+import com.example.demo.model.Estrangeiro;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+public class ClienteScbComCache implements ClienteScb {
+	private static final long VALIDADE_MS = 15_000;
+
+	private static final String DISPONIBILIDADE = "disponibilidade";
+	private static final String CARTOES = "cartoes";
+	private static final String HISTORICO = "historico";
+
+	private final ClienteScb cliente;
+
+	// Chave: tipo, identificação do ciclista e demais argumentos da chamada
+	private final Map<List<Object>, Entrada> entradas = new ConcurrentHashMap<>();
+
+	// Incrementada a cada invalidação; leituras iniciadas antes dela não são guardadas
+	private final AtomicLong versao = new AtomicLong();
+
+	/**
+	 * @param cliente cliente que acessa o servidor
+	 */
+	public ClienteScbComCache(ClienteScb cliente) {
+		this.cliente = cliente;
+		cliente.assinarEventos(() -> invalidar(DISPONIBILIDADE, null));
+	}
+
+	/**
+	 * Descarta todas as entradas, por exemplo ao encerrar a sessão
+	 */
+	public void limpar() {
+		versao.incrementAndGet();
+		entradas.clear();
+	}
+
+	/**
+	 * Descarta a disponibilidade dos totens, para o botão "Atualizar" buscar do servidor
+	 */
+	public void invalidarTotens() {
+		invalidar(DISPONIBILIDADE, null);
+	}
+
+	// Ciclistas
+
+	@Override
+	public LoginResponseDTO login(LoginDTO loginDTO) {
+		return cliente.login(loginDTO);
+	}
+
+	@Override
+	public CiclistaDTO cadastrarBrasileiro(Brasileiro brasileiro) {
+		return cliente.cadastrarBrasileiro(brasileiro);
+	}
+
+	@Override
+	public CiclistaDTO cadastrarEstrangeiro(Estrangeiro estrangeiro) {
+		return cliente.cadastrarEstrangeiro(estrangeiro);
+	}
+
+	@Override
+	public CiclistaDTO buscarCiclista(String identificacao, String autorizacao) {
+		return cliente.buscarCiclista(identificacao, autorizacao);
+	}
+
+	@Override
+	public CiclistaDTO atualizarCiclista(String identificacao, CiclistaAtualizacaoDTO atualizacaoDTO,
+			String autorizacao) {
+		return cliente.atualizarCiclista(identificacao, atualizacaoDTO, autorizacao);
+	}
+
+	@Override
+	public List<CartaoCreditoDTO> listarCartoes(String identificacao, String autorizacao) {
+		return buscar(Arrays.asList(CARTOES, identificacao, autorizacao),
+				() -> cliente.listarCartoes(identificacao, autorizacao));
+	}
+
+	@Override
+	public CartaoCreditoDTO adicionarCartaoCredito(String identificacao, CartaoCreditoDTO cartaoDTO,
+			String autorizacao) {
+		try {
+			return cliente.adicionarCartaoCredito(identificacao, cartaoDTO, autorizacao);
+		} finally {
+			invalidar(CARTOES, identificacao);
+		}
+	}
+
+	@Override
+	public void removerCartaoCredito(String identificacao, Long cartaoId, String autorizacao) {
+		try {
+			cliente.removerCartaoCredito(identificacao, cartaoId, autorizacao);
+		} finally {
+			invalidar(CARTOES, identificacao);
+		}
+	}
+
+	@Override
+	public void definirCartaoPrincipal(String identificacao, Long cartaoId, String autorizacao) {
+		try {
+			cliente.definirCartaoPrincipal(identificacao, cartaoId, autorizacao);
+		} finally {
+			invalidar(CARTOES, identificacao);
+		}
+	}
+
+	@Override
+	public boolean possuiCartaoPrincipal(String identificacao, String autorizacao) {
+		return cliente.possuiCartaoPrincipal(identificacao, autorizacao);
+	}
+
+	@Override
+	public PaginaDTO<EmprestimoDTO> buscarHistoricoEmprestimos(String identificacao, String cursor, Integer limite,
+			String autorizacao) {
+		return buscar(Arrays.asList(HISTORICO, identificacao, cursor, limite, autorizacao),
+				() -> cliente.buscarHistoricoEmprestimos(identificacao, cursor, limite, autorizacao));
+	}
+
+	// Totens
+
+	@Override
+	public List<DisponibilidadeTotemDTO> listarDisponibilidade() {
+		return buscar(Arrays.asList(DISPONIBILIDADE, null), cliente::listarDisponibilidade);
+	}
+
+	// Usado antes de retirar ou devolver, então sempre vem do servidor
+	@Override
+	public TotemDTO buscarTotem(Long totemId, String autorizacao) {
+		return cliente.buscarTotem(totemId, autorizacao);
+	}
+
+	// Empréstimos
+
+	@Override
+	public EmprestimoDTO realizarEmprestimo(EmprestimoRequestDTO requestDTO, String autorizacao,
+			String chaveIdempotencia) {
+		try {
+			return cliente.realizarEmprestimo(requestDTO, autorizacao, chaveIdempotencia);
+		} finally {
+			invalidar(DISPONIBILIDADE, null);
+			invalidar(HISTORICO, null);
+		}
+	}
+
+	@Override
+	public EmprestimoDTO buscarEmprestimo(Long emprestimoId) {
+		return cliente.buscarEmprestimo(emprestimoId);
+	}
+
+	@Override
+	public EmprestimoDTO finalizarEmprestimo(Long emprestimoId, Long trancaId, String identificacao,
+			String autorizacao, String chaveIdempotencia) {
+		try {
+			return cliente.finalizarEmprestimo(emprestimoId, trancaId, identificacao, autorizacao, chaveIdempotencia);
+		} finally {
+			invalidar(DISPONIBILIDADE, null);
+			invalidar(HISTORICO, null);
+		}
+	}
+
+	// Eventos
+
+	@Override
+	public void assinarEventos(Runnable aoAlterarEstado) {
+		cliente.assinarEventos(aoAlterarEstado);
+	}
+
+	/**
+	 * Devolve a entrada válida da chave ou faz a leitura e a guarda
+	 *
+	 * @param chave tipo, identificação e argumentos da leitura
+	 * @param leitura chamada ao servidor
+	 * @return T valor em cache ou lido agora
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> T buscar(List<Object> chave, Supplier<T> leitura) {
+		Entrada entrada = entradas.get(chave);
+		long agora = System.currentTimeMillis();
+		if (entrada != null && entrada.expiraEm > agora) {
+			return (T) entrada.valor;
+		}
+		long versaoLeitura = versao.get();
+		T valor = leitura.get();
+		if (valor != null) {
+			entradas.put(chave, new Entrada(valor, agora + VALIDADE_MS));
+			// Uma invalidação durante a leitura pode ter vindo antes do put: desfaz
+			if (versao.get() != versaoLeitura) {
+				entradas.remove(chave);
+			}
+		}
+		return valor;
+	}
+
+	/**
+	 * Descarta as entradas de um tipo
+	 *
+	 * @param tipo tipo das entradas
+	 * @param identificacao ciclista das entradas, ou nulo para todos
+	 */
+	private void invalidar(String tipo, String identificacao) {
+		versao.incrementAndGet();
+		entradas.keySet().removeIf(chave -> chave.get(0).equals(tipo)
+				&& (identificacao == null || Objects.equals(chave.get(1), identificacao)));
+	}
+
+	private static final class Entrada {
+		private final Object valor;
+		private final long expiraEm;
+
+		private Entrada(Object valor, long expiraEm) {
+			this.valor = valor;
+			this.expiraEm = expiraEm;
+		}
+	}
+}
@@ -0,0 +1,170 @@
+/*
+ Cliente que chama os controllers no mesmo processo
+ Usado quando o quiosque sobe junto com o servidor: os controllers vêm do
+ contexto do Spring e as respostas são convertidas no contrato do ClienteScb
+ (corpo da resposta, RuntimeException em erro, nulo em busca sem resultado).
+ */
+package com.example.demo.view.cliente;
+
+import com.example.demo.controller.CiclistaController;
+import com.example.demo.controller.EmprestimoController;
+import com.example.demo.controller.TotemController;
+import com.example.demo.dto.CartaoCreditoDTO;
+import com.example.demo.dto.CiclistaAtualizacaoDTO;
+import com.example.demo.dto.CiclistaDTO;
+import com.example.demo.dto.DisponibilidadeTotemDTO;
+import com.example.demo.dto.EmprestimoDTO;
+import com.example.demo.dto.EmprestimoRequestDTO;
+import com.example.demo.dto.LoginDTO;
+import com.example.demo.dto.LoginResponseDTO;
+import com.example.demo.dto.PaginaDTO;
+import com.example.demo.dto.TotemDTO;
+import com.example.demo.model.Brasileiro;
+import com.example.demo.model.Estrangeiro;
+import com.example.demo.service.EventosEstadoService;
+
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+public class ClienteScbLocal implements ClienteScb {
+	private final CiclistaController ciclistaController;
+	private final TotemController totemController;
+	private final EmprestimoController emprestimoController;
+	private final EventosEstadoService eventosEstadoService;
+
+	/**
+	 * @param springContext contexto do Spring de onde vêm os controllers
+	 */
+	public ClienteScbLocal(ApplicationContext springContext) {
+		this.ciclistaController = springContext.getBean(CiclistaController.class);
+		this.totemController = springContext.getBean(TotemController.class);
+		this.emprestimoController = springContext.getBean(EmprestimoController.class);
+		this.eventosEstadoService = springContext.getBean(EventosEstadoService.class);
+	}
+
+	@Override
+	public LoginResponseDTO login(LoginDTO loginDTO) {
+		return corpo(() -> ciclistaController.login(loginDTO));
+	}
+
+	@Override
+	public CiclistaDTO cadastrarBrasileiro(Brasileiro brasileiro) {
+		return corpo(() -> ciclistaController.cadastrarBrasileiro(brasileiro));
+	}
+
+	@Override
+	public CiclistaDTO cadastrarEstrangeiro(Estrangeiro estrangeiro) {
+		return corpo(() -> ciclistaController.cadastrarEstrangeiro(estrangeiro));
+	}
+
+	@Override
+	public CiclistaDTO buscarCiclista(String identificacao, String autorizacao) {
+		return corpoOuNulo(() -> ciclistaController.buscarCiclista(identificacao, autorizacao));
+	}
+
+	@Override
+	public CiclistaDTO atualizarCiclista(String identificacao, CiclistaAtualizacaoDTO atualizacaoDTO,
+			String autorizacao) {
+		return corpo(() -> ciclistaController.atualizarCiclista(identificacao, atualizacaoDTO, autorizacao));
+	}
+
+	@Override
+	public List<CartaoCreditoDTO> listarCartoes(String identificacao, String autorizacao) {
+		return corpo(() -> ciclistaController.listarCartoes(identificacao, autorizacao));
+	}
+
+	@Override
+	public CartaoCreditoDTO adicionarCartaoCredito(String identificacao, CartaoCreditoDTO cartaoDTO,
+			String autorizacao) {
+		return corpo(() -> ciclistaController.adicionarCartaoCredito(identificacao, cartaoDTO, autorizacao));
+	}
+
+	@Override
+	public void removerCartaoCredito(String identificacao, Long cartaoId, String autorizacao) {
+		corpo(() -> ciclistaController.removerCartaoCredito(identificacao, cartaoId, autorizacao));
+	}
+
+	@Override
+	public void definirCartaoPrincipal(String identificacao, Long cartaoId, String autorizacao) {
+		corpo(() -> ciclistaController.definirCartaoPrincipal(identificacao, cartaoId, autorizacao));
+	}
+
+	@Override
+	public boolean possuiCartaoPrincipal(String identificacao, String autorizacao) {
+		return Boolean.TRUE.equals(corpo(() -> ciclistaController.possuiCartaoPrincipal(identificacao, autorizacao)));
+	}
+
+	@Override
+	public PaginaDTO<EmprestimoDTO> buscarHistoricoEmprestimos(String identificacao, String cursor, Integer limite,
+			String autorizacao) {
+		return corpo(() -> ciclistaController.buscarHistoricoEmprestimos(identificacao, cursor, limite, autorizacao));
+	}
+
+	@Override
+	public List<DisponibilidadeTotemDTO> listarDisponibilidade() {
+		return totemController.listarDisponibilidade();
+	}
+
+	@Override
+	public TotemDTO buscarTotem(Long totemId, String autorizacao) {
+		return corpoOuNulo(() -> totemController.buscarPorId(totemId, autorizacao));
+	}
+
+	@Override
+	public EmprestimoDTO realizarEmprestimo(EmprestimoRequestDTO requestDTO, String autorizacao,
+			String chaveIdempotencia) {
+		return corpo(() -> emprestimoController.realizarEmprestimo(requestDTO, autorizacao, chaveIdempotencia));
+	}
+
+	@Override
+	public EmprestimoDTO buscarEmprestimo(Long emprestimoId) {
+		return corpoOuNulo(() -> emprestimoController.buscarEmprestimo(emprestimoId));
+	}
+
+	@Override
+	public EmprestimoDTO finalizarEmprestimo(Long emprestimoId, Long trancaId, String identificacao,
+			String autorizacao, String chaveIdempotencia) {
+		return corpo(() -> emprestimoController.finalizarEmprestimo(emprestimoId, trancaId, identificacao,
+				autorizacao, chaveIdempotencia));
+	}
+
+	// No mesmo processo os eventos chegam direto do serviço, sem SSE
+	@Override
+	public void assinarEventos(Runnable aoAlterarEstado) {
+		eventosEstadoService.ouvir(evento -> aoAlterarEstado.run());
+	}
+
+	/**
+	 * Executa a chamada ao controller e devolve o corpo da resposta
+	 *
+	 * @param chamada chamada ao controller
+	 * @return T corpo da resposta (nulo em respostas sem corpo)
+	 * @throws RuntimeException com a mensagem do controller, se a resposta não for 2xx
+	 */
+	private <T> T corpo(Supplier<ResponseEntity<T>> chamada) {
+		ResponseEntity<T> resposta = executar(chamada);
+		if (!resposta.getStatusCode().is2xxSuccessful()) {
+			throw new RuntimeException("Requisição recusada pelo servidor (" + resposta.getStatusCode().value() + ")");
+		}
+		return resposta.getBody();
+	}
+
+	// Buscas sem resultado devolvem nulo em vez de erro
+	private <T> T corpoOuNulo(Supplier<ResponseEntity<T>> chamada) {
+		ResponseEntity<T> resposta = executar(chamada);
+		return resposta.getStatusCode().is2xxSuccessful() ? resposta.getBody() : null;
+	}
+
+	// Erros lançados pelo controller chegam aos painéis só com a mensagem, como no cliente remoto
+	private <T> ResponseEntity<T> executar(Supplier<ResponseEntity<T>> chamada) {
+		try {
+			return chamada.get();
+		} catch (ResponseStatusException e) {
+			throw new RuntimeException(e.getReason() != null ? e.getReason() : e.getStatusCode().toString(), e);
+		}
+	}
+}
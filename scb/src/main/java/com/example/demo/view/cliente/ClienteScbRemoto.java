@@ -0,0 +1,373 @@
+/*
+ Cliente que chama a API REST de um servidor SCB remoto
+ Permite que vários quiosques leves compartilhem um único servidor (e um
+ único banco), em vez de cada quiosque subir o próprio servidor com H2.
+
+ Usa um único HttpClient por quiosque: as conexões HTTP/1.1 ficam abertas
+ (keep-alive) e são reaproveitadas entre requisições, e os envios são
+ assíncronos, em um pool próprio de poucas threads. Uma requisição que falha
+ por erro de rede (por exemplo, conexão ociosa fechada pelo servidor) é
+ repetida uma vez quando é segura: leituras e operações com chave de
+ idempotência, que o cliente gera quando o painel não informa uma.
+
+ Os eventos de estado chegam por uma conexão SSE (/api/eventos) mantida por
+ uma thread própria, que reconecta após quedas.
+ */
+package com.example.demo.view.cliente;
+
+import com.example.demo.controller.EmprestimoController;
+import com.example.demo.dto.CartaoCreditoDTO;
+import com.example.demo.dto.CiclistaAtualizacaoDTO;
+import com.example.demo.dto.CiclistaDTO;
+import com.example.demo.dto.DisponibilidadeTotemDTO;
+import com.example.demo.dto.EmprestimoDTO;
+import com.example.demo.dto.EmprestimoRequestDTO;
+import com.example.demo.dto.LoginDTO;
+import com.example.demo.dto.LoginResponseDTO;
+import com.example.demo.dto.PaginaDTO;
+import com.example.demo.dto.TotemDTO;
+import com.example.demo.model.Brasileiro;
+import com.example.demo.model.Estrangeiro;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+public class ClienteScbRemoto implements ClienteScb {
+	private static final Duration TEMPO_CONEXAO = Duration.ofSeconds(5);
+	private static final Duration TEMPO_RESPOSTA = Duration.ofSeconds(30);
+	private static final int THREADS_ENVIO = 4;
+	private static final long ESPERA_RECONEXAO_MS = 5_000;
+
+	private static final TypeReference<List<CartaoCreditoDTO>> LISTA_CARTOES = new TypeReference<>() {
+	};
+	private static final TypeReference<List<DisponibilidadeTotemDTO>> LISTA_DISPONIBILIDADE = new TypeReference<>() {
+	};
+	private static final TypeReference<PaginaDTO<EmprestimoDTO>> PAGINA_EMPRESTIMOS = new TypeReference<>() {
+	};
+
+	private final String urlBase;
+	private final HttpClient http;
+	private final ObjectMapper json;
+
+	/**
+	 * @param urlBase endereço do servidor, por exemplo "http://servidor:8080"
+	 */
+	public ClienteScbRemoto(String urlBase) {
+		this.urlBase = urlBase.endsWith("/") ? urlBase.substring(0, urlBase.length() - 1) : urlBase;
+		this.http = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(TEMPO_CONEXAO)
+				.executor(Executors.newFixedThreadPool(THREADS_ENVIO, r -> {
+					Thread thread = new Thread(r, "scb-cliente-http");
+					thread.setDaemon(true);
+					return thread;
+				}))
+				.build();
+		// Mesmo formato do servidor: datas em ISO-8601 e campos calculados (getters sem setter) ignorados
+		this.json = JsonMapper.builder()
+				.findAndAddModules()
+				.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+				.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+				.build();
+	}
+
+	// Ciclistas
+
+	@Override
+	public LoginResponseDTO login(LoginDTO loginDTO) {
+		return ler(enviar(requisicao("/api/ciclistas/login", null).POST(corpo(loginDTO)), false),
+				LoginResponseDTO.class);
+	}
+
+	@Override
+	public CiclistaDTO cadastrarBrasileiro(Brasileiro brasileiro) {
+		return ler(enviar(requisicao("/api/ciclistas/brasileiro", null).POST(corpo(brasileiro)), false),
+				CiclistaDTO.class);
+	}
+
+	@Override
+	public CiclistaDTO cadastrarEstrangeiro(Estrangeiro estrangeiro) {
+		return ler(enviar(requisicao("/api/ciclistas/estrangeiro", null).POST(corpo(estrangeiro)), false),
+				CiclistaDTO.class);
+	}
+
+	@Override
+	public CiclistaDTO buscarCiclista(String identificacao, String autorizacao) {
+		HttpResponse<String> resposta = enviar(requisicao("/api/ciclistas/" + caminho(identificacao), autorizacao)
+				.GET(), true);
+		return resposta.statusCode() == 404 ? null : ler(resposta, CiclistaDTO.class);
+	}
+
+	@Override
+	public CiclistaDTO atualizarCiclista(String identificacao, CiclistaAtualizacaoDTO atualizacaoDTO,
+			String autorizacao) {
+		return ler(enviar(requisicao("/api/ciclistas/" + caminho(identificacao), autorizacao)
+				.PUT(corpo(atualizacaoDTO)), true), CiclistaDTO.class);
+	}
+
+	@Override
+	public List<CartaoCreditoDTO> listarCartoes(String identificacao, String autorizacao) {
+		return ler(enviar(requisicao("/api/ciclistas/" + caminho(identificacao) + "/cartoes", autorizacao).GET(),
+				true), LISTA_CARTOES);
+	}
+
+	@Override
+	public CartaoCreditoDTO adicionarCartaoCredito(String identificacao, CartaoCreditoDTO cartaoDTO,
+			String autorizacao) {
+		return ler(enviar(requisicao("/api/ciclistas/" + caminho(identificacao) + "/cartoes", autorizacao)
+				.POST(corpo(cartaoDTO)), false), CartaoCreditoDTO.class);
+	}
+
+	@Override
+	public void removerCartaoCredito(String identificacao, Long cartaoId, String autorizacao) {
+		verificar(enviar(requisicao("/api/ciclistas/" + caminho(identificacao) + "/cartoes/" + cartaoId,
+				autorizacao).DELETE(), true));
+	}
+
+	@Override
+	public void definirCartaoPrincipal(String identificacao, Long cartaoId, String autorizacao) {
+		verificar(enviar(requisicao("/api/ciclistas/" + caminho(identificacao) + "/cartoes/" + cartaoId
+				+ "/principal", autorizacao).PUT(HttpRequest.BodyPublishers.noBody()), true));
+	}
+
+	@Override
+	public boolean possuiCartaoPrincipal(String identificacao, String autorizacao) {
+		return Boolean.TRUE.equals(ler(enviar(requisicao("/api/ciclistas/" + caminho(identificacao)
+				+ "/cartoes/principal", autorizacao).GET(), true), Boolean.class));
+	}
+
+	@Override
+	public PaginaDTO<EmprestimoDTO> buscarHistoricoEmprestimos(String identificacao, String cursor, Integer limite,
+			String autorizacao) {
+		StringBuilder caminho = new StringBuilder("/api/ciclistas/").append(caminho(identificacao))
+				.append("/emprestimos?");
+		if (cursor != null) {
+			caminho.append("cursor=").append(parametro(cursor)).append('&');
+		}
+		if (limite != null) {
+			caminho.append("limite=").append(limite);
+		}
+		return ler(enviar(requisicao(caminho.toString(), autorizacao).GET(), true), PAGINA_EMPRESTIMOS);
+	}
+
+	// Totens
+
+	@Override
+	public List<DisponibilidadeTotemDTO> listarDisponibilidade() {
+		return ler(enviar(requisicao("/api/totens/disponibilidade", null).GET(), true), LISTA_DISPONIBILIDADE);
+	}
+
+	@Override
+	public TotemDTO buscarTotem(Long totemId, String autorizacao) {
+		HttpResponse<String> resposta = enviar(requisicao("/api/totens/" + totemId, autorizacao).GET(), true);
+		return resposta.statusCode() == 404 ? null : ler(resposta, TotemDTO.class);
+	}
+
+	// Empréstimos
+
+	@Override
+	public EmprestimoDTO realizarEmprestimo(EmprestimoRequestDTO requestDTO, String autorizacao,
+			String chaveIdempotencia) {
+		return ler(enviar(requisicao("/api/emprestimos", autorizacao)
+				.header(EmprestimoController.CABECALHO_IDEMPOTENCIA, chaveOuNova(chaveIdempotencia))
+				.POST(corpo(requestDTO)), true), EmprestimoDTO.class);
+	}
+
+	@Override
+	public EmprestimoDTO buscarEmprestimo(Long emprestimoId) {
+		HttpResponse<String> resposta = enviar(requisicao("/api/emprestimos/" + emprestimoId, null).GET(), true);
+		// O servidor responde 400 para empréstimo inexistente
+		return resposta.statusCode() == 400 || resposta.statusCode() == 404 ? null
+				: ler(resposta, EmprestimoDTO.class);
+	}
+
+	@Override
+	public EmprestimoDTO finalizarEmprestimo(Long emprestimoId, Long trancaId, String identificacao,
+			String autorizacao, String chaveIdempotencia) {
+		String caminho = "/api/emprestimos/" + emprestimoId + "/devolucao?trancaId=" + trancaId
+				+ (identificacao != null ? "&identificacaoCiclista=" + parametro(identificacao) : "");
+		return ler(enviar(requisicao(caminho, autorizacao)
+				.header(EmprestimoController.CABECALHO_IDEMPOTENCIA, chaveOuNova(chaveIdempotencia))
+				.PUT(HttpRequest.BodyPublishers.noBody()), true), EmprestimoDTO.class);
+	}
+
+	// Eventos
+
+	@Override
+	public void assinarEventos(Runnable aoAlterarEstado) {
+		Thread thread = new Thread(() -> ouvirEventos(aoAlterarEstado), "scb-cliente-eventos");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Mantém a conexão SSE aberta, avisando cada evento recebido
+	 * Ao cair a conexão, avisa também (eventos podem ter sido perdidos) e reconecta após uma espera
+	 *
+	 * @param aoAlterarEstado chamado a cada evento
+	 */
+	private void ouvirEventos(Runnable aoAlterarEstado) {
+		HttpRequest requisicao = HttpRequest.newBuilder(URI.create(urlBase + "/api/eventos"))
+				.header("Accept", "text/event-stream")
+				.GET()
+				.build();
+		while (!Thread.currentThread().isInterrupted()) {
+			try {
+				HttpResponse<Stream<String>> resposta = http.send(requisicao,
+						HttpResponse.BodyHandlers.ofLines());
+				try (Stream<String> linhas = resposta.body()) {
+					if (resposta.statusCode() == 200) {
+						linhas.filter(linha -> linha.startsWith("event:")).forEach(linha -> aoAlterarEstado.run());
+					}
+				}
+			} catch (IOException | UncheckedIOException e) {
+				// Servidor fora do ar: tenta de novo após a espera, sem poluir o console a cada tentativa
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			aoAlterarEstado.run();
+			try {
+				Thread.sleep(ESPERA_RECONEXAO_MS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	// Infraestrutura HTTP
+
+	private HttpRequest.Builder requisicao(String caminho, String autorizacao) {
+		HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(urlBase + caminho))
+				.timeout(TEMPO_RESPOSTA)
+				.header("Accept", "application/json")
+				.header("Content-Type", "application/json");
+		if (autorizacao != null) {
+			builder.header("Authorization", autorizacao);
+		}
+		return builder;
+	}
+
+	/**
+	 * Envia a requisição de forma assíncrona e aguarda a resposta
+	 * Erros de rede são repetidos uma vez se a requisição puder ser repetida com segurança
+	 *
+	 * @param builder requisição montada
+	 * @param repetivel true para leituras e operações com chave de idempotência
+	 * @return HttpResponse<String> resposta com o corpo em texto
+	 * @throws RuntimeException se o servidor não puder ser alcançado
+	 */
+	private HttpResponse<String> enviar(HttpRequest.Builder builder, boolean repetivel) {
+		HttpRequest requisicao = builder.build();
+		try {
+			return aguardar(http.sendAsync(requisicao, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8)));
+		} catch (IOException e) {
+			if (!repetivel) {
+				throw new RuntimeException("Falha de comunicação com o servidor: " + e.getMessage(), e);
+			}
+			try {
+				return aguardar(http.sendAsync(requisicao, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8)));
+			} catch (IOException e2) {
+				throw new RuntimeException("Falha de comunicação com o servidor: " + e2.getMessage(), e2);
+			}
+		}
+	}
+
+	private HttpResponse<String> aguardar(CompletableFuture<HttpResponse<String>> envio) throws IOException {
+		try {
+			return envio.get();
+		} catch (InterruptedException e) {
+			envio.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Requisição interrompida", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new RuntimeException("Falha de comunicação com o servidor: " + e.getCause().getMessage(), e);
+		}
+	}
+
+	private HttpRequest.BodyPublisher corpo(Object valor) {
+		try {
+			return HttpRequest.BodyPublishers.ofByteArray(json.writeValueAsBytes(valor));
+		} catch (JsonProcessingException e) {
+			throw new RuntimeException("Erro ao montar requisição", e);
+		}
+	}
+
+	private <T> T ler(HttpResponse<String> resposta, Class<T> tipo) {
+		verificar(resposta);
+		try {
+			return resposta.body().isEmpty() ? null : json.readValue(resposta.body(), tipo);
+		} catch (JsonProcessingException e) {
+			throw new RuntimeException("Resposta inválida do servidor", e);
+		}
+	}
+
+	private <T> T ler(HttpResponse<String> resposta, TypeReference<T> tipo) {
+		verificar(resposta);
+		try {
+			return resposta.body().isEmpty() ? null : json.readValue(resposta.body(), tipo);
+		} catch (JsonProcessingException e) {
+			throw new RuntimeException("Resposta inválida do servidor", e);
+		}
+	}
+
+	/**
+	 * Converte respostas de erro em exceção, com a mensagem enviada pelo servidor quando houver
+	 *
+	 * @param resposta resposta recebida
+	 * @throws RuntimeException se o status não for 2xx
+	 */
+	private void verificar(HttpResponse<String> resposta) {
+		int status = resposta.statusCode();
+		if (status >= 200 && status < 300) {
+			return;
+		}
+		String mensagem = null;
+		try {
+			JsonNode erro = resposta.body().isEmpty() ? null : json.readTree(resposta.body());
+			if (erro != null && erro.hasNonNull("message") && !erro.get("message").asText().isBlank()) {
+				mensagem = erro.get("message").asText();
+			}
+		} catch (JsonProcessingException e) {
+			// Corpo de erro fora do formato padrão: fica só o status
+		}
+		throw new RuntimeException(mensagem != null ? mensagem : "Requisição recusada pelo servidor (" + status + ")");
+	}
+
+	// Uma chave por operação: repetições desta mesma chamada não retiram nem cobram de novo
+	private static String chaveOuNova(String chaveIdempotencia) {
+		return chaveIdempotencia != null ? chaveIdempotencia : UUID.randomUUID().toString();
+	}
+
+	private static String caminho(String segmento) {
+		return URLEncoder.encode(segmento, StandardCharsets.UTF_8).replace("+", "%20");
+	}
+
+	private static String parametro(String valor) {
+		return URLEncoder.encode(valor, StandardCharsets.UTF_8);
+	}
+}
@@ -3,21 +3,22 @@ package com.example.demo.view.panels;
 import javax.swing.*;
 import java.awt.*;
 import java.text.ParseException;
+import java.util.concurrent.Callable;
 import javax.swing.text.MaskFormatter;
 import com.example.demo.view.WindowManager;
+import com.example.demo.view.cliente.ClienteScb;
 import com.example.demo.view.utils.ColorScheme;
 
 import lombok.NoArgsConstructor;
 
-import com.example.demo.controller.CiclistaController;
+import com.example.demo.dto.CiclistaDTO;
 import com.example.demo.model.Brasileiro;
 import com.example.demo.model.Estrangeiro;
-import org.springframework.http.ResponseEntity;
 
 @NoArgsConstructor
 public class CadastroPanel extends JPanel {
 	private WindowManager windowManager;
-	private CiclistaController ciclistaController;
+	private ClienteScb cliente;
 
 	// Campos do formulário
 	private JTextField nomeField;
@@ -37,11 +38,11 @@ public class CadastroPanel extends JPanel {
      * Construtor do painel de cadastro
      * 
      * @param windowManager gerenciador de janelas do sistema
-     * @param ciclistaController controlador de operações do ciclista
+     * @param cliente acesso ao servidor
      */
-	public CadastroPanel(WindowManager windowManager, CiclistaController ciclistaController) {
+	public CadastroPanel(WindowManager windowManager, ClienteScb cliente) {
 		this.windowManager = windowManager;
-		this.ciclistaController = ciclistaController;
+		this.cliente = cliente;
 		setupUI();
 	}
 
@@ -246,41 +247,37 @@ public class CadastroPanel extends JPanel {
 			return;
 		}
 
-		try {
-			ResponseEntity<?> response;
-			if ("Brasileiro".equals(tipoSelecionado)) {
-				Brasileiro brasileiro = new Brasileiro();
-				brasileiro.setNome(nomeField.getText());
-				brasileiro.setNascimento(nascimentoField.getText());
-				brasileiro.setEmail(emailField.getText());
-				brasileiro.setTelefone(telefoneField.getText());
-				brasileiro.setSenha(senha);
-				brasileiro.setCpf(documentoField.getText());
-
-				response = ciclistaController.cadastrarBrasileiro(brasileiro);
-			} else {
-				Estrangeiro estrangeiro = new Estrangeiro();
-				estrangeiro.setNome(nomeField.getText());
-				estrangeiro.setNascimento(nascimentoField.getText());
-				estrangeiro.setEmail(emailField.getText());
-				estrangeiro.setTelefone(telefoneField.getText());
-				estrangeiro.setSenha(senha);
-				estrangeiro.setPassaporte(documentoField.getText());
-				estrangeiro.setNacionalidade(nacionalidadeCombo.getSelectedItem().toString());
-
-				response = ciclistaController.cadastrarEstrangeiro(estrangeiro);
-			}
-
-			if (response.getStatusCode().is2xxSuccessful()) {
-				JOptionPane.showMessageDialog(this, "Cadastro realizado com sucesso!", "Sucesso",
-						JOptionPane.INFORMATION_MESSAGE);
-				limparCampos();
-				windowManager.showLogin();
-			}
-		} catch (Exception e) {
-			JOptionPane.showMessageDialog(this, "Erro ao realizar cadastro: " + e.getMessage(), "Erro",
-					JOptionPane.ERROR_MESSAGE);
+		Callable<CiclistaDTO> cadastro;
+		if ("Brasileiro".equals(tipoSelecionado)) {
+			Brasileiro brasileiro = new Brasileiro();
+			brasileiro.setNome(nomeField.getText());
+			brasileiro.setNascimento(nascimentoField.getText());
+			brasileiro.setEmail(emailField.getText());
+			brasileiro.setTelefone(telefoneField.getText());
+			brasileiro.setSenha(senha);
+			brasileiro.setCpf(documentoField.getText());
+
+			cadastro = () -> cliente.cadastrarBrasileiro(brasileiro);
+		} else {
+			Estrangeiro estrangeiro = new Estrangeiro();
+			estrangeiro.setNome(nomeField.getText());
+			estrangeiro.setNascimento(nascimentoField.getText());
+			estrangeiro.setEmail(emailField.getText());
+			estrangeiro.setTelefone(telefoneField.getText());
+			estrangeiro.setSenha(senha);
+			estrangeiro.setPassaporte(documentoField.getText());
+			estrangeiro.setNacionalidade(nacionalidadeCombo.getSelectedItem().toString());
+
+			cadastro = () -> cliente.cadastrarEstrangeiro(estrangeiro);
 		}
+
+		windowManager.executar("cadastro", cadastro, ciclista -> {
+			JOptionPane.showMessageDialog(this, "Cadastro realizado com sucesso!", "Sucesso",
+					JOptionPane.INFORMATION_MESSAGE);
+			limparCampos();
+			windowManager.showLogin();
+		}, e -> JOptionPane.showMessageDialog(this, "Erro ao realizar cadastro: " + e.getMessage(), "Erro",
+				JOptionPane.ERROR_MESSAGE));
 	}
 
 	/**
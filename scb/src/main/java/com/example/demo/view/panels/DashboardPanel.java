@@ -4,13 +4,11 @@ import javax.swing.*;
 import java.awt.*;
 import com.example.demo.view.WindowManager;
 import com.example.demo.view.utils.ColorScheme;
-import com.example.demo.controller.CiclistaController;
 import lombok.NoArgsConstructor;
 
 @NoArgsConstructor
 public class DashboardPanel extends JPanel {
 	private WindowManager windowManager;
-	private CiclistaController ciclistaController;
 
 	// Painéis de conteúdo
 	private JPanel menuPanel;
@@ -25,11 +23,9 @@ public class DashboardPanel extends JPanel {
      * Construtor do painel dashboard
      * 
      * @param windowManager gerenciador de janelas do sistema
-     * @param ciclistaController controlador de operações do ciclista
      */
-	public DashboardPanel(WindowManager windowManager, CiclistaController ciclistaController) {
+	public DashboardPanel(WindowManager windowManager) {
 		this.windowManager = windowManager;
-		this.ciclistaController = ciclistaController;
 		setupUI();
 	}
 
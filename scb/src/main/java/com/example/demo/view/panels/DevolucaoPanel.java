@@ -7,19 +7,18 @@ import java.awt.*;
 import java.time.LocalDateTime;
 import java.time.Duration;
 import java.time.format.DateTimeFormatter;
+import java.util.UUID;
 import com.example.demo.view.WindowManager;
+import com.example.demo.view.cliente.ClienteScb;
 import com.example.demo.view.utils.ColorScheme;
-import com.example.demo.controller.EmprestimoController;
-import com.example.demo.controller.TotemController;
 import com.example.demo.model.*;
-import com.example.demo.dto.EmprestimoDTO;
-import org.springframework.http.ResponseEntity;
-import java.util.List;
+import com.example.demo.dto.DisponibilidadeTotemDTO;
+import com.example.demo.dto.TotemDTO;
+import com.example.demo.dto.TrancaDTO;
 
 public class DevolucaoPanel extends JPanel {
 	private WindowManager windowManager;
-	private EmprestimoController emprestimoController;
-	private TotemController totemController;
+	private ClienteScb cliente;
 
 	private JLabel tempoCorrido;
 	private JLabel taxaExtra;
@@ -36,14 +35,11 @@ public class DevolucaoPanel extends JPanel {
      * Construtor do painel de devolução
      * 
      * @param windowManager gerenciador de janelas do sistema
-     * @param emprestimoController controlador de empréstimos
-     * @param totemController controlador de totens
+     * @param cliente acesso ao servidor
      */
-	public DevolucaoPanel(WindowManager windowManager, EmprestimoController emprestimoController,
-			TotemController totemController) {
+	public DevolucaoPanel(WindowManager windowManager, ClienteScb cliente) {
 		this.windowManager = windowManager;
-		this.emprestimoController = emprestimoController;
-		this.totemController = totemController;
+		this.cliente = cliente;
 		setupUI();
 		iniciarTimer();
 	}
@@ -147,36 +143,36 @@ public class DevolucaoPanel extends JPanel {
      * Busca informações do servidor e atualiza a interface
      */
 	public void carregarDados() {
-		try {
-			Long emprestimoId = windowManager.getCurrentEmprestimoId();
-			if (emprestimoId == null) {
-				return; // Se não houver empréstimo ativo, apenas retorna
-			}
-
-			ResponseEntity<EmprestimoDTO> response = emprestimoController.buscarEmprestimo(emprestimoId);
+		Long emprestimoId = windowManager.getCurrentEmprestimoId();
+		if (emprestimoId == null) {
+			return; // Se não houver empréstimo ativo, apenas retorna
+		}
 
-			if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-				EmprestimoDTO emprestimo = response.getBody();
+		windowManager.carregar("devolucao-emprestimo", () -> cliente.buscarEmprestimo(emprestimoId), emprestimo -> {
+			if (emprestimo != null) {
 				horaInicio = emprestimo.getHoraInicio();
 				taxaInicial = emprestimo.getTaxaInicial();
 
 				atualizarInfoTempo();
-
-				// Carregar totens
-				List<Totem> totens = totemController.listarTodos();
-				totemComboBox.removeAllItems();
-
-				for (Totem totem : totens) {
-					totemComboBox.addItem(new TotemComboItem(totem));
-				}
 			} else {
 				windowManager.showError("Não foi possível encontrar o empréstimo");
 				windowManager.showDashboard();
 			}
-		} catch (Exception e) {
-			windowManager.showError("Erro ao carregar dados: " + e.getMessage());
-			windowManager.showDashboard();
-		}
+		}, this::falhaAoCarregar);
+
+		// Carregar totens
+		windowManager.carregar("devolucao-totens", cliente::listarDisponibilidade, totens -> {
+			totemComboBox.removeAllItems();
+			for (DisponibilidadeTotemDTO totem : totens) {
+				totemComboBox.addItem(new TotemComboItem(totem));
+			}
+		}, this::falhaAoCarregar);
+	}
+
+	// Sem os dados do empréstimo não há como devolver: volta ao painel principal
+	private void falhaAoCarregar(Exception e) {
+		windowManager.showError("Erro ao carregar dados: " + e.getMessage());
+		windowManager.showDashboard();
 	}
 
 	/**
@@ -184,25 +180,23 @@ public class DevolucaoPanel extends JPanel {
      * Atualiza a tabela com as trancas livres
      */
 	private void carregarTrancas() {
-		trancasTableModel.setRowCount(0);
 		TotemComboItem selectedTotem = (TotemComboItem) totemComboBox.getSelectedItem();
+		if (selectedTotem == null) {
+			trancasTableModel.setRowCount(0);
+			return;
+		}
 
-		if (selectedTotem != null) {
-			try {
-				ResponseEntity<Totem> response = totemController.buscarPorId(selectedTotem.getId());
-				if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-					Totem totem = response.getBody();
-					for (Tranca tranca : totem.getTrancas()) {
-						if (tranca.getStatus() == StatusTranca.LIVRE) {
-							trancasTableModel.addRow(new Object[] { tranca.getNumero(), tranca.getStatus(),
-									"Posição " + tranca.getNumero() });
-						}
+		windowManager.carregar("devolucao-trancas", () -> cliente.buscarTotem(selectedTotem.getId(), null), totem -> {
+			trancasTableModel.setRowCount(0);
+			if (totem != null) {
+				for (TrancaDTO tranca : totem.getTrancas()) {
+					if (tranca.getStatus() == StatusTranca.LIVRE) {
+						trancasTableModel.addRow(new Object[] { tranca.getNumero(), tranca.getStatus(),
+								"Posição " + tranca.getNumero() });
 					}
 				}
-			} catch (Exception e) {
-				windowManager.showError("Erro ao carregar trancas: " + e.getMessage());
 			}
-		}
+		}, "Erro ao carregar trancas");
 	}
 
 	/**
@@ -216,42 +210,47 @@ public class DevolucaoPanel extends JPanel {
 	        return;
 	    }
 
-	    try {
-	        String numeroTranca = (String) trancasTableModel.getValueAt(selectedRow, 0);
-	        TotemComboItem selectedTotem = (TotemComboItem) totemComboBox.getSelectedItem();
+	    String numeroTranca = (String) trancasTableModel.getValueAt(selectedRow, 0);
+	    TotemComboItem selectedTotem = (TotemComboItem) totemComboBox.getSelectedItem();
 
-	        if (selectedTotem == null) {
-	            windowManager.showError("Selecione um totem para devolução");
-	            return;
-	        }
+	    if (selectedTotem == null) {
+	        windowManager.showError("Selecione um totem para devolução");
+	        return;
+	    }
 
-	        ResponseEntity<Totem> response = totemController.buscarPorId(selectedTotem.getId());
-	        if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-	            Totem totem = response.getBody();
-	            Tranca tranca = totem.getTrancas().stream()
-	                .filter(t -> t.getNumero().equals(numeroTranca))
-	                .findFirst()
-	                .orElseThrow(() -> new RuntimeException("Tranca não encontrada"));
-
-	            // Realizar a devolução - agora passando a identificação do ciclista
-	            ResponseEntity<EmprestimoDTO> devolucaoResponse = emprestimoController
-	                .finalizarEmprestimo(
-	                    windowManager.getCurrentEmprestimoId(), 
-	                    tranca.getId(),
-	                    windowManager.getCurrentUserDocument()  // Adicionado identificação do ciclista
-	                );
-
-	            if (devolucaoResponse.getStatusCode().is2xxSuccessful()) {
-	                windowManager.updateEmprestimoStatus(false, null);
-	                windowManager.setCurrentEmprestimoId(null);
-
-	                windowManager.showSuccess("Bicicleta devolvida com sucesso!");
-	                windowManager.showDashboard();
-	            }
+	    Long emprestimoId = windowManager.getCurrentEmprestimoId();
+	    String userDocument = windowManager.getCurrentUserDocument();
+	    String authorization = windowManager.getAuthorization();
+	    // Uma chave por devolução: a repetição após erro de rede não cobra de novo
+	    String chaveIdempotencia = UUID.randomUUID().toString();
+
+	    // Busca da tranca e devolução em segundo plano; cliques repetidos são ignorados
+	    windowManager.executar("devolucao", () -> {
+	        TotemDTO totem = cliente.buscarTotem(selectedTotem.getId(), authorization);
+	        if (totem == null) {
+	            throw new RuntimeException("Totem não encontrado");
 	        }
-	    } catch (Exception e) {
-	        windowManager.showError("Erro ao realizar devolução: " + e.getMessage());
-	    }
+	        TrancaDTO tranca = totem.getTrancas().stream()
+	            .filter(t -> t.getNumero().equals(numeroTranca))
+	            .findFirst()
+	            .orElseThrow(() -> new RuntimeException("Tranca não encontrada"));
+
+	        // Realizar a devolução - agora passando a identificação do ciclista
+	        return cliente
+	            .finalizarEmprestimo(
+	                emprestimoId, 
+	                tranca.getId(),
+	                userDocument,  // Adicionado identificação do ciclista
+	                authorization,
+	                chaveIdempotencia
+	            );
+	    }, emprestimo -> {
+	        windowManager.updateEmprestimoStatus(false, null);
+	        windowManager.setCurrentEmprestimoId(null);
+
+	        windowManager.showSuccess("Bicicleta devolvida com sucesso!");
+	        windowManager.showDashboard();
+	    }, "Erro ao realizar devolução");
 	}
 
 	/**
@@ -291,20 +290,19 @@ public class DevolucaoPanel extends JPanel {
      * Formata a exibição dos totens com informações relevantes
      */
 	private static class TotemComboItem {
-		private final Totem totem;
+		private final DisponibilidadeTotemDTO totem;
 
-		public TotemComboItem(Totem totem) {
+		public TotemComboItem(DisponibilidadeTotemDTO totem) {
 			this.totem = totem;
 		}
 
 		public Long getId() {
-			return totem.getId();
+			return totem.getTotemId();
 		}
 
 		@Override
 		public String toString() {
-			return String.format("%s - %d trancas livres", totem.getLocalizacao(),
-					totem.getTrancas().stream().filter(t -> t.getStatus() == StatusTranca.LIVRE).count());
+			return String.format("%s - %d trancas livres", totem.getLocalizacao(), totem.getTrancasLivres());
 		}
 	}
 
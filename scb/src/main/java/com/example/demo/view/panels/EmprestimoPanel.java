@@ -1,30 +1,27 @@
 package com.example.demo.view.panels;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 
-import org.springframework.http.ResponseEntity;
-
 import java.awt.*;
+import java.util.UUID;
 import com.example.demo.view.WindowManager;
+import com.example.demo.view.cliente.ClienteScb;
+import com.example.demo.view.tabelas.ModeloTabelaLista;
 import com.example.demo.view.utils.ColorScheme;
-import com.example.demo.controller.EmprestimoController;
-import com.example.demo.controller.TotemController;
-import com.example.demo.controller.CiclistaController;
-import com.example.demo.dto.EmprestimoDTO;
 import com.example.demo.dto.EmprestimoRequestDTO;
+import com.example.demo.dto.DisponibilidadeTotemDTO;
+import com.example.demo.dto.BicicletaDTO;
+import com.example.demo.dto.TotemDTO;
+import com.example.demo.dto.TrancaDTO;
 import com.example.demo.model.*;
-import java.util.List;
 
 public class EmprestimoPanel extends JPanel {
 	private WindowManager windowManager;
-	private EmprestimoController emprestimoController;
-	private TotemController totemController;
-	private CiclistaController ciclistaController;
+	private ClienteScb cliente;
 
 	private JTable bicicletasTable;
-	private DefaultTableModel tableModel;
+	private ModeloTabelaLista<TrancaDTO> tableModel;
 	private JComboBox<TotemComboItem> totemComboBox;
 	private JLabel statusLabel;
 
@@ -32,16 +29,11 @@ public class EmprestimoPanel extends JPanel {
      * Construtor do painel de empréstimo
      * 
      * @param windowManager gerenciador de janelas do sistema
-     * @param emprestimoController controlador de empréstimos
-     * @param totemController controlador de totens
-     * @param ciclistaController controlador de ciclistas
+     * @param cliente acesso ao servidor
      */
-	public EmprestimoPanel(WindowManager windowManager, EmprestimoController emprestimoController,
-			TotemController totemController, CiclistaController ciclistaController) {
+	public EmprestimoPanel(WindowManager windowManager, ClienteScb cliente) {
 		this.windowManager = windowManager;
-		this.emprestimoController = emprestimoController;
-		this.totemController = totemController;
-		this.ciclistaController = ciclistaController;
+		this.cliente = cliente;
 		setupUI();
 	}
 
@@ -94,11 +86,23 @@ public class EmprestimoPanel extends JPanel {
 		headerPanel.add(selectionPanel, BorderLayout.SOUTH);
 
 		// Tabela de bicicletas
-		String[] columns = { "Nº Tranca", "Nº Bicicleta", "Marca", "Modelo", "Ano" };
-		tableModel = new DefaultTableModel(columns, 0) {
+		// Cada linha é uma tranca ocupada por bicicleta disponível
+		tableModel = new ModeloTabelaLista<>("Nº Tranca", "Nº Bicicleta", "Marca", "Modelo", "Ano") {
 			@Override
-			public boolean isCellEditable(int row, int column) {
-				return false;
+			protected Object valorColuna(TrancaDTO tranca, int coluna) {
+				BicicletaDTO bicicleta = tranca.getBicicleta();
+				switch (coluna) {
+				case 0:
+					return tranca.getNumero();
+				case 1:
+					return bicicleta.getNumero();
+				case 2:
+					return bicicleta.getMarca();
+				case 3:
+					return bicicleta.getModelo();
+				default:
+					return bicicleta.getAno();
+				}
 			}
 		};
 
@@ -140,25 +144,19 @@ public class EmprestimoPanel extends JPanel {
 		add(headerPanel, BorderLayout.NORTH);
 		add(tablePanel, BorderLayout.CENTER);
 		add(buttonPanel, BorderLayout.SOUTH);
-
-		// Carregar totens inicialmente
-		loadTotens();
 	}
 
 	/**
      * Carrega a lista de totens disponíveis
      * Atualiza o combobox com os totens e suas bicicletas disponíveis
      */
-	private void loadTotens() {
-		totemComboBox.removeAllItems();
-		try {
-			List<Totem> totens = totemController.listarTodos();
-			for (Totem totem : totens) {
+	public void loadTotens() {
+		windowManager.carregar("emprestimo-totens", cliente::listarDisponibilidade, totens -> {
+			totemComboBox.removeAllItems();
+			for (DisponibilidadeTotemDTO totem : totens) {
 				totemComboBox.addItem(new TotemComboItem(totem));
 			}
-		} catch (Exception e) {
-			windowManager.showError("Erro ao carregar totens: " + e.getMessage());
-		}
+		}, "Erro ao carregar totens");
 	}
 
 	/**
@@ -166,28 +164,29 @@ public class EmprestimoPanel extends JPanel {
      * Atualiza a tabela com as bicicletas e seus detalhes
      */
 	private void loadBicicletas() {
-		tableModel.setRowCount(0);
 		TotemComboItem selectedTotem = (TotemComboItem) totemComboBox.getSelectedItem();
+		if (selectedTotem == null) {
+			tableModel.setItens(null);
+			return;
+		}
 
-		if (selectedTotem != null) {
-			try {
-				Totem totem = totemController.buscarPorId(selectedTotem.getId()).getBody();
+		statusLabel.setText("Carregando bicicletas...");
+		statusLabel.setForeground(ColorScheme.PRIMARY);
+		// Com a sessão, a bicicleta reservada pelo próprio ciclista vem sem a marca de reservada
+		String authorization = windowManager.getAuthorization();
+		windowManager.carregar("emprestimo-bicicletas",
+				() -> cliente.buscarTotem(selectedTotem.getId(), authorization), totem -> {
 				if (totem != null) {
-					for (Tranca tranca : totem.getTrancas()) {
-						if (tranca.getStatus() == StatusTranca.OCUPADA && tranca.getBicicleta() != null
-								&& tranca.getBicicleta().getStatus() == StatusBicicleta.DISPONIVEL) {
-
-							Bicicleta bicicleta = tranca.getBicicleta();
-							tableModel.addRow(new Object[] { tranca.getNumero(), bicicleta.getNumero(),
-									bicicleta.getMarca(), bicicleta.getModelo(), bicicleta.getAno() });
-						}
-					}
+					tableModel.setItens(totem.getTrancas().stream()
+							.filter(tranca -> tranca.getStatus() == StatusTranca.OCUPADA && tranca.getBicicleta() != null
+									&& tranca.getBicicleta().getStatus() == StatusBicicleta.DISPONIVEL
+									&& !tranca.isReservada())
+							.toList());
 					updateStatus();
+				} else {
+					tableModel.setItens(null);
 				}
-			} catch (Exception e) {
-				windowManager.showError("Erro ao carregar bicicletas: " + e.getMessage());
-			}
-		}
+			}, "Erro ao carregar bicicletas");
 	}
 
 	/**
@@ -215,63 +214,77 @@ public class EmprestimoPanel extends JPanel {
      */
 	private void realizarEmprestimo() {
 		// Verificar se tem cartão principal
-		try {
-			String userEmail = windowManager.getCurrentUserEmail();
-			String userDocument = windowManager.getCurrentUserDocument();
-			List<CartaoCredito> cartoes = ciclistaController.listarCartoes(userDocument).getBody();
-			boolean temCartaoPrincipal = cartoes != null && cartoes.stream().anyMatch(CartaoCredito::isPrincipal);
-
-			if (!temCartaoPrincipal) {
-				int option = JOptionPane
-						.showConfirmDialog(this,
+		String userDocument = windowManager.getCurrentUserDocument();
+		String authorization = windowManager.getAuthorization();
+		windowManager.carregar("emprestimo-cartao",
+				() -> cliente.possuiCartaoPrincipal(userDocument, authorization), temCartaoPrincipal -> {
+					if (!temCartaoPrincipal) {
+						int option = JOptionPane.showConfirmDialog(this,
 								"É necessário ter um cartão de crédito principal para realizar empréstimos.\n"
 										+ "Deseja adicionar um cartão agora?",
 								"Cartão Necessário", JOptionPane.YES_NO_OPTION);
-				if (option == JOptionPane.YES_OPTION) {
-					windowManager.showPerfil();
-				}
-				return;
-			}
-
-			int selectedRow = bicicletasTable.getSelectedRow();
-			if (selectedRow == -1) {
-				windowManager.showError("Selecione uma bicicleta para realizar o empréstimo");
-				return;
-			}
-
-			String numeroTranca = (String) tableModel.getValueAt(selectedRow, 0);
-			String numeroBicicleta = (String) tableModel.getValueAt(selectedRow, 1);
+						if (option == JOptionPane.YES_OPTION) {
+							windowManager.showPerfil();
+						}
+						return;
+					}
+					confirmarEmprestimo(userDocument, authorization);
+				}, "Erro ao realizar empréstimo");
+	}
 
-			int confirm = JOptionPane.showConfirmDialog(this,
-					"Confirmar empréstimo da bicicleta " + numeroBicicleta + "?\n"
-							+ "Será cobrada uma taxa inicial de R$ 10,00",
-					"Confirmação de Empréstimo", JOptionPane.YES_NO_OPTION);
+	/**
+     * Confirma com o usuário a bicicleta selecionada e envia o empréstimo
+     * A busca da tranca e o empréstimo são feitos em segundo plano
+     *
+     * @param userDocument documento do ciclista logado
+     * @param authorization cabeçalho Authorization da sessão
+     */
+	private void confirmarEmprestimo(String userDocument, String authorization) {
+		int selectedRow = bicicletasTable.getSelectedRow();
+		if (selectedRow == -1) {
+			windowManager.showError("Selecione uma bicicleta para realizar o empréstimo");
+			return;
+		}
 
-			if (confirm == JOptionPane.YES_OPTION) {
-				TotemComboItem selectedTotem = (TotemComboItem) totemComboBox.getSelectedItem();
-				Totem totem = totemController.buscarPorId(selectedTotem.getId()).getBody();
+		TrancaDTO trancaSelecionada = tableModel.getItem(selectedRow);
+		String numeroTranca = trancaSelecionada.getNumero();
+		String numeroBicicleta = trancaSelecionada.getBicicleta().getNumero();
 
-				// Encontrar o ID da tranca
-				Long trancaId = totem.getTrancas().stream().filter(t -> t.getNumero().equals(numeroTranca)).findFirst()
-						.map(Tranca::getId).orElseThrow(() -> new RuntimeException("Tranca não encontrada"));
+		int confirm = JOptionPane.showConfirmDialog(this,
+				"Confirmar empréstimo da bicicleta " + numeroBicicleta + "?\n"
+						+ "Será cobrada uma taxa inicial de R$ 10,00",
+				"Confirmação de Empréstimo", JOptionPane.YES_NO_OPTION);
 
-				EmprestimoRequestDTO requestDTO = new EmprestimoRequestDTO();
-				requestDTO.setIdentificacaoCiclista(windowManager.getCurrentUserDocument());
-				requestDTO.setTrancaId(trancaId);
+		if (confirm != JOptionPane.YES_OPTION) {
+			return;
+		}
 
-				ResponseEntity<EmprestimoDTO> response = emprestimoController.realizarEmprestimo(requestDTO);
+		TotemComboItem selectedTotem = (TotemComboItem) totemComboBox.getSelectedItem();
+		// Uma chave por confirmação: a repetição após erro de rede não faz nova retirada nem cobrança
+		String chaveIdempotencia = UUID.randomUUID().toString();
+		windowManager.executar("emprestimo", () -> {
+			TotemDTO totem = cliente.buscarTotem(selectedTotem.getId(), authorization);
+			if (totem == null) {
+				throw new RuntimeException("Totem não encontrado");
+			}
 
-				if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-					EmprestimoDTO emprestimo = response.getBody();
-					windowManager.updateEmprestimoStatus(true, "Bicicleta " + numeroBicicleta);
-					windowManager.setCurrentEmprestimoId(emprestimo.getId()); // Salvar o ID
-					windowManager.showSuccess("Empréstimo realizado com sucesso!");
-					windowManager.showDashboard();
-				}
+			// Encontrar o ID da tranca
+			Long trancaId = totem.getTrancas().stream().filter(t -> t.getNumero().equals(numeroTranca)).findFirst()
+					.map(TrancaDTO::getId).orElseThrow(() -> new RuntimeException("Tranca não encontrada"));
+
+			EmprestimoRequestDTO requestDTO = new EmprestimoRequestDTO();
+			requestDTO.setIdentificacaoCiclista(userDocument);
+			requestDTO.setTrancaId(trancaId);
+
+			return cliente.realizarEmprestimo(requestDTO, authorization, chaveIdempotencia);
+		}, emprestimo -> {
+			if (emprestimo != null) {
+				windowManager.updateEmprestimoStatus(true, "Bicicleta " + numeroBicicleta);
+				windowManager.setCurrentEmprestimoId(emprestimo.getId()); // Salvar o ID
+				windowManager.showSuccess("Empréstimo realizado com sucesso!");
+				windowManager.showDashboard();
 			}
-		} catch (Exception e) {
-			windowManager.showError("Erro ao realizar empréstimo: " + e.getMessage());
-		}
+		}, "Erro ao realizar empréstimo");
 	}
 
 	/**
@@ -279,24 +292,19 @@ public class EmprestimoPanel extends JPanel {
      * Formata a exibição dos totens com informações de localização e disponibilidade
      */
 	private static class TotemComboItem {
-		private final Totem totem;
+		private final DisponibilidadeTotemDTO totem;
 
-		public TotemComboItem(Totem totem) {
+		public TotemComboItem(DisponibilidadeTotemDTO totem) {
 			this.totem = totem;
 		}
 
 		public Long getId() {
-			return totem.getId();
+			return totem.getTotemId();
 		}
 
 		@Override
 		public String toString() {
-			return totem.getLocalizacao() + " - "
-					+ totem.getTrancas().stream()
-							.filter(t -> t.getStatus() == StatusTranca.OCUPADA && t.getBicicleta() != null
-									&& t.getBicicleta().getStatus() == StatusBicicleta.DISPONIVEL)
-							.count()
-					+ " bicicletas disponíveis";
+			return totem.getLocalizacao() + " - " + totem.getBicicletasDisponiveis() + " bicicletas disponíveis";
 		}
 	}
 }
\ No newline at end of file
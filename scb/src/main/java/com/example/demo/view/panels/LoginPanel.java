@@ -3,20 +3,18 @@ package com.example.demo.view.panels;
 import javax.swing.*;
 import java.awt.*;
 import com.example.demo.view.WindowManager;
+import com.example.demo.view.cliente.ClienteScb;
 import com.example.demo.view.utils.ColorScheme;
 
 import lombok.NoArgsConstructor;
 
-import com.example.demo.controller.CiclistaController;
 import com.example.demo.dto.LoginDTO;
 import com.example.demo.dto.LoginResponseDTO;
 
-import org.springframework.http.ResponseEntity;
-
 @NoArgsConstructor
 public class LoginPanel extends JPanel {
 	private WindowManager windowManager;
-	private CiclistaController ciclistaController;
+	private ClienteScb cliente;
 	private JTextField emailField;
 	private JPasswordField senhaField;
 
@@ -24,11 +22,11 @@ public class LoginPanel extends JPanel {
      * Construtor do painel de login
      * 
      * @param windowManager gerenciador de janelas do sistema
-     * @param ciclistaController controlador de operações do ciclista
+     * @param cliente acesso ao servidor
      */
-	public LoginPanel(WindowManager windowManager, CiclistaController ciclistaController) {
+	public LoginPanel(WindowManager windowManager, ClienteScb cliente) {
 		this.windowManager = windowManager;
-		this.ciclistaController = ciclistaController;
+		this.cliente = cliente;
 		setupUI();
 	}
 
@@ -120,25 +118,20 @@ public class LoginPanel extends JPanel {
 			return;
 		}
 
-		try {
-			LoginDTO loginDTO = new LoginDTO();
-			loginDTO.setEmail(email);
-			loginDTO.setSenha(senha);
-
-			ResponseEntity<LoginResponseDTO> response = ciclistaController.login(loginDTO);
+		LoginDTO loginDTO = new LoginDTO();
+		loginDTO.setEmail(email);
+		loginDTO.setSenha(senha);
 
-			if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-				LoginResponseDTO loginResponse = response.getBody();
+		windowManager.executar("login", () -> cliente.login(loginDTO), loginResponse -> {
+			if (loginResponse != null) {
 				limparCampos();
 
 				// Atualiza o estado do WindowManager e navega para o dashboard
 				windowManager.handleLoginSuccess(loginResponse.getEmail(), loginResponse.getNome(),
 						loginResponse.getDocumento(), loginResponse.isHasActiveEmprestimo(),
-						loginResponse.getCurrentBikeInfo());
+						loginResponse.getCurrentBikeInfo(), loginResponse.getToken());
 			}
-		} catch (Exception e) {
-			JOptionPane.showMessageDialog(this, "Email ou senha inválidos", "Erro", JOptionPane.ERROR_MESSAGE);
-		}
+		}, e -> JOptionPane.showMessageDialog(this, "Email ou senha inválidos", "Erro", JOptionPane.ERROR_MESSAGE));
 	}
 
 	/**
@@ -4,25 +4,22 @@ import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 
-import org.springframework.http.ResponseEntity;
-
 import java.awt.*;
 import java.time.format.DateTimeFormatter;
 
 import com.example.demo.view.WindowManager;
+import com.example.demo.view.cliente.ClienteScb;
+import com.example.demo.view.tabelas.ModeloTabelaPaginada;
 import com.example.demo.view.utils.ColorScheme;
-import com.example.demo.controller.CiclistaController;
 import com.example.demo.dto.CiclistaAtualizacaoDTO;
 import com.example.demo.dto.EmprestimoDTO;
 import com.example.demo.dto.CartaoCreditoDTO;
-import com.example.demo.model.CartaoCredito;
-import com.example.demo.model.Ciclista;
 
 import java.util.List;
 
 public class PerfilPanel extends JPanel {
 	private WindowManager windowManager;
-	private CiclistaController ciclistaController;
+	private ClienteScb cliente;
 
 	// Campos de informação pessoal
 	private JTextField nomeField;
@@ -35,8 +32,11 @@ public class PerfilPanel extends JPanel {
 	private JTable cartoesTable;
 	private DefaultTableModel cartoesTableModel;
 
+	// Histórico carregado por páginas conforme a rolagem
+	private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
 	private JTable historicoTable;
-	private DefaultTableModel historicoTableModel;
+	private ModeloTabelaPaginada<EmprestimoDTO> historicoTableModel;
 
 	// Painéis
 	private JPanel infoPanel;
@@ -46,11 +46,11 @@ public class PerfilPanel extends JPanel {
      * Construtor do painel de perfil
      * 
      * @param windowManager gerenciador de janelas do sistema
-     * @param ciclistaController controlador de operações do ciclista
+     * @param cliente acesso ao servidor
      */
-	public PerfilPanel(WindowManager windowManager, CiclistaController ciclistaController) {
+	public PerfilPanel(WindowManager windowManager, ClienteScb cliente) {
 		this.windowManager = windowManager;
-		this.ciclistaController = ciclistaController;
+		this.cliente = cliente;
 		setupUI();
 	}
 
@@ -275,12 +275,26 @@ public class PerfilPanel extends JPanel {
 				"Histórico de Empréstimos"));
 
 		// Configurar tabela de histórico
-		String[] columns = { "Data/Hora Início", "Local Retirada", "Data/Hora Fim", "Local Devolução", "Valor Inicial",
-				"Valor Extra", "Status" };
-		historicoTableModel = new DefaultTableModel(columns, 0) {
+		historicoTableModel = new ModeloTabelaPaginada<>(windowManager, "perfil-historico", "Data/Hora Início",
+				"Local Retirada", "Data/Hora Fim", "Local Devolução", "Valor Inicial", "Valor Extra", "Status") {
 			@Override
-			public boolean isCellEditable(int row, int column) {
-				return false;
+			protected Object valorColuna(EmprestimoDTO emprestimo, int coluna) {
+				switch (coluna) {
+				case 0:
+					return emprestimo.getHoraInicio().format(FORMATO_DATA);
+				case 1:
+					return "Totem " + emprestimo.getTotemInicioId();
+				case 2:
+					return emprestimo.getHoraFim() != null ? emprestimo.getHoraFim().format(FORMATO_DATA) : "-";
+				case 3:
+					return emprestimo.getTotemFimId() != null ? "Totem " + emprestimo.getTotemFimId() : "-";
+				case 4:
+					return String.format("R$ %.2f", emprestimo.getTaxaInicial());
+				case 5:
+					return emprestimo.getTaxaExtra() != null ? String.format("R$ %.2f", emprestimo.getTaxaExtra()) : "-";
+				default:
+					return emprestimo.getStatus();
+				}
 			}
 		};
 
@@ -293,53 +307,41 @@ public class PerfilPanel extends JPanel {
 		header.setForeground(Color.BLACK);
 		header.setFont(new Font("Arial", Font.BOLD, 12));
 
-		// Adicionar tabela ao painel com scroll
-		panel.add(new JScrollPane(historicoTable), BorderLayout.CENTER);
+		// Adicionar tabela ao painel com scroll; a rolagem busca as próximas páginas
+		JScrollPane historicoScroll = new JScrollPane(historicoTable);
+		historicoTableModel.acompanharRolagem(historicoScroll);
+		panel.add(historicoScroll, BorderLayout.CENTER);
 
 		// Botão de atualizar
+		JPanel historicoBtnPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+		historicoBtnPanel.setBackground(ColorScheme.BACKGROUND);
+
 		JButton refreshButton = new JButton("Atualizar Histórico");
 		refreshButton.setBackground(ColorScheme.PRIMARY);
 		refreshButton.setForeground(Color.WHITE);
 		refreshButton.addActionListener(e -> carregarHistorico());
 
-		panel.add(refreshButton, BorderLayout.SOUTH);
+		historicoBtnPanel.add(refreshButton);
+
+		panel.add(historicoBtnPanel, BorderLayout.SOUTH);
 
 		return panel;
 	}
 
 	/**
      * Carrega o histórico de empréstimos do usuário
-     * Atualiza a tabela com os dados mais recentes do servidor
+     * Limpa a tabela e busca a primeira página, com os empréstimos mais recentes;
+     * as seguintes são buscadas conforme a tabela é rolada
      */
 	private void carregarHistorico() {
-		try {
-			String documento = windowManager.getCurrentUserDocument();
-			if (documento == null)
-				return;
-
-			// Limpar tabela atual
-			historicoTableModel.setRowCount(0);
-
-			// Buscar histórico
-			List<EmprestimoDTO> historico = ciclistaController.buscarHistoricoEmprestimos(documento).getBody();
-
-			if (historico != null) {
-				DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+		String documento = windowManager.getCurrentUserDocument();
+		if (documento == null)
+			return;
 
-				for (EmprestimoDTO emprestimo : historico) {
-					historicoTableModel.addRow(new Object[] { emprestimo.getHoraInicio().format(formatter),
-							"Totem " + emprestimo.getTotemInicioId(),
-							emprestimo.getHoraFim() != null ? emprestimo.getHoraFim().format(formatter) : "-",
-							emprestimo.getTotemFimId() != null ? "Totem " + emprestimo.getTotemFimId() : "-",
-							String.format("R$ %.2f", emprestimo.getTaxaInicial()),
-							emprestimo.getTaxaExtra() != null ? String.format("R$ %.2f", emprestimo.getTaxaExtra())
-									: "-",
-							emprestimo.getStatus() });
-				}
-			}
-		} catch (Exception e) {
-			windowManager.showError("Erro ao carregar histórico: " + e.getMessage());
-		}
+		String authorization = windowManager.getAuthorization();
+		historicoTableModel.recarregar(
+				cursor -> cliente.buscarHistoricoEmprestimos(documento, cursor, null, authorization),
+				"Erro ao carregar histórico");
 	}
 
 	/**
@@ -347,37 +349,44 @@ public class PerfilPanel extends JPanel {
      * Atualiza todos os campos e tabelas com as informações mais recentes
      */
 	public void carregarDados() {
-		try {
-			String documento = windowManager.getCurrentUserDocument();
-			if (documento == null || documento.isEmpty()) {
-				windowManager.showError("Usuário não autenticado");
-				windowManager.showLogin();
-				return;
-			}
-
-			ResponseEntity<Ciclista> response = ciclistaController.buscarCiclista(documento);
-			if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-				Ciclista ciclista = response.getBody();
-
-				nomeField.setText(ciclista.getNome());
-				emailField.setText(ciclista.getEmail());
-				telefoneField.setText(ciclista.getTelefone() != null ? ciclista.getTelefone() : "");
-				documentoLabel.setText(documento);
-
-				// Carregar cartões
-				List<CartaoCredito> cartoes = ciclistaController.listarCartoes(documento).getBody();
-				atualizarTabelaCartoes(cartoes);
-				carregarHistorico();
-			} else {
-				// Se não encontrar o ciclista, usar os dados do WindowManager
-				nomeField.setText(windowManager.getCurrentUserName());
-				emailField.setText(windowManager.getCurrentUserEmail());
-				documentoLabel.setText(documento);
-			}
-		} catch (Exception e) {
-			windowManager.showError("Erro ao carregar dados: " + e.getMessage());
-			windowManager.showDashboard();
+		String documento = windowManager.getCurrentUserDocument();
+		if (documento == null || documento.isEmpty()) {
+			windowManager.showError("Usuário não autenticado");
+			windowManager.showLogin();
+			return;
 		}
+
+		String authorization = windowManager.getAuthorization();
+		windowManager.carregar("perfil-dados", () -> cliente.buscarCiclista(documento, authorization),
+				ciclista -> {
+					if (ciclista != null) {
+						nomeField.setText(ciclista.getNome());
+						emailField.setText(ciclista.getEmail());
+						telefoneField.setText(ciclista.getTelefone() != null ? ciclista.getTelefone() : "");
+						documentoLabel.setText(documento);
+
+						carregarCartoes();
+						carregarHistorico();
+					} else {
+						// Se não encontrar o ciclista, usar os dados do WindowManager
+						nomeField.setText(windowManager.getCurrentUserName());
+						emailField.setText(windowManager.getCurrentUserEmail());
+						documentoLabel.setText(documento);
+					}
+				}, e -> {
+					windowManager.showError("Erro ao carregar dados: " + e.getMessage());
+					windowManager.showDashboard();
+				});
+	}
+
+	/**
+     * Carrega os cartões do usuário e atualiza a tabela
+     */
+	private void carregarCartoes() {
+		String documento = windowManager.getCurrentUserDocument();
+		String authorization = windowManager.getAuthorization();
+		windowManager.carregar("perfil-cartoes", () -> cliente.listarCartoes(documento, authorization),
+				this::atualizarTabelaCartoes, "Erro ao carregar cartões");
 	}
 
 	/**
@@ -433,17 +442,17 @@ public class PerfilPanel extends JPanel {
 				atualizacaoDTO.setTelefone(novoTelefone);
 			}
 
-			ResponseEntity<?> response = ciclistaController.atualizarCiclista(windowManager.getCurrentUserDocument(),
-					atualizacaoDTO);
-
-			if (response.getStatusCode().is2xxSuccessful()) {
-				// Atualizar dados na sessão do WindowManager
-				windowManager.updateUserInfo(novoEmail, novoNome);
-
-				windowManager.showSuccess("Dados atualizados com sucesso!");
-				toggleEditMode(false);
-				carregarDados();
-			}
+			String documento = windowManager.getCurrentUserDocument();
+			String authorization = windowManager.getAuthorization();
+			windowManager.executar("perfil-salvar",
+					() -> cliente.atualizarCiclista(documento, atualizacaoDTO, authorization), ciclista -> {
+						// Atualizar dados na sessão do WindowManager
+						windowManager.updateUserInfo(novoEmail, novoNome);
+
+						windowManager.showSuccess("Dados atualizados com sucesso!");
+						toggleEditMode(false);
+						carregarDados();
+					}, "Erro ao atualizar dados");
 		} catch (Exception e) {
 			windowManager.showError("Erro ao atualizar dados: " + e.getMessage());
 		}
@@ -454,10 +463,10 @@ public class PerfilPanel extends JPanel {
      * 
      * @param cartoes lista de cartões a serem exibidos
      */
-	private void atualizarTabelaCartoes(List<CartaoCredito> cartoes) {
+	private void atualizarTabelaCartoes(List<CartaoCreditoDTO> cartoes) {
 		cartoesTableModel.setRowCount(0);
 		if (cartoes != null) {
-			for (CartaoCredito cartao : cartoes) {
+			for (CartaoCreditoDTO cartao : cartoes) {
 				cartoesTableModel
 						.addRow(new Object[] { "•••• " + cartao.getNumero().substring(cartao.getNumero().length() - 4),
 								cartao.getNomeTitular(), cartao.getValidade(), cartao.isPrincipal() ? "Sim" : "Não" });
@@ -534,11 +543,15 @@ public class PerfilPanel extends JPanel {
 	                return;
 	            }
 				
-				ciclistaController.adicionarCartaoCredito(windowManager.getCurrentUserDocument(), cartaoDTO);
-
-				dialog.dispose();
-				carregarDados();
-				windowManager.showSuccess("Cartão adicionado com sucesso!");
+				String documento = windowManager.getCurrentUserDocument();
+				String authorization = windowManager.getAuthorization();
+				windowManager.executar("perfil-cartao",
+						() -> cliente.adicionarCartaoCredito(documento, cartaoDTO, authorization),
+						cartao -> {
+							dialog.dispose();
+							carregarCartoes();
+							windowManager.showSuccess("Cartão adicionado com sucesso!");
+						}, "Erro ao adicionar cartão");
 			} catch (Exception ex) {
 				windowManager.showError("Erro ao adicionar cartão: " + ex.getMessage());
 			}
@@ -565,22 +578,24 @@ public class PerfilPanel extends JPanel {
 			return;
 		}
 
-		try {
+		String documento = windowManager.getCurrentUserDocument();
+		String authorization = windowManager.getAuthorization();
+		windowManager.executar("perfil-cartao", () -> {
 			// Obter todos os cartões para encontrar o ID do selecionado
-			List<CartaoCredito> cartoes = ciclistaController.listarCartoes(windowManager.getCurrentUserDocument())
-					.getBody();
+			List<CartaoCreditoDTO> cartoes = cliente.listarCartoes(documento, authorization);
 
 			if (cartoes != null && selectedRow < cartoes.size()) {
-				CartaoCredito cartaoSelecionado = cartoes.get(selectedRow);
-				ciclistaController.definirCartaoPrincipal(windowManager.getCurrentUserDocument(),
-						cartaoSelecionado.getId());
-
-				carregarDados(); // Recarrega os dados para atualizar a tabela
+				CartaoCreditoDTO cartaoSelecionado = cartoes.get(selectedRow);
+				cliente.definirCartaoPrincipal(documento, cartaoSelecionado.getId(), authorization);
+				return true;
+			}
+			return false;
+		}, definido -> {
+			if (definido) {
+				carregarCartoes(); // Recarrega os cartões para atualizar a tabela
 				windowManager.showSuccess("Cartão definido como principal com sucesso!");
 			}
-		} catch (Exception e) {
-			windowManager.showError("Erro ao definir cartão principal: " + e.getMessage());
-		}
+		}, "Erro ao definir cartão principal");
 	}
 
 	/**
@@ -606,21 +621,23 @@ public class PerfilPanel extends JPanel {
 				"Confirmar Remoção", JOptionPane.YES_NO_OPTION);
 
 		if (confirm == JOptionPane.YES_OPTION) {
-			try {
-				List<CartaoCredito> cartoes = ciclistaController.listarCartoes(windowManager.getCurrentUserDocument())
-						.getBody();
+			String documento = windowManager.getCurrentUserDocument();
+			String authorization = windowManager.getAuthorization();
+			windowManager.executar("perfil-cartao", () -> {
+				List<CartaoCreditoDTO> cartoes = cliente.listarCartoes(documento, authorization);
 
 				if (cartoes != null && selectedRow < cartoes.size()) {
-					CartaoCredito cartaoSelecionado = cartoes.get(selectedRow);
-					ciclistaController.removerCartaoCredito(windowManager.getCurrentUserDocument(),
-							cartaoSelecionado.getId());
-
-					carregarDados(); // Recarrega os dados para atualizar a tabela
+					CartaoCreditoDTO cartaoSelecionado = cartoes.get(selectedRow);
+					cliente.removerCartaoCredito(documento, cartaoSelecionado.getId(), authorization);
+					return true;
+				}
+				return false;
+			}, removido -> {
+				if (removido) {
+					carregarCartoes(); // Recarrega os cartões para atualizar a tabela
 					windowManager.showSuccess("Cartão removido com sucesso!");
 				}
-			} catch (Exception e) {
-				windowManager.showError("Erro ao remover cartão: " + e.getMessage());
-			}
+			}, "Erro ao remover cartão");
 		}
 	}
 
@@ -6,16 +6,20 @@ import javax.swing.table.JTableHeader;
 import javax.swing.table.TableRowSorter;
 import java.awt.*;
 import com.example.demo.view.WindowManager;
+import com.example.demo.view.cliente.ClienteScb;
+import com.example.demo.view.tabelas.ModeloTabelaLista;
 import com.example.demo.view.utils.ColorScheme;
-import com.example.demo.controller.TotemController;
+import com.example.demo.dto.BicicletaDTO;
+import com.example.demo.dto.DisponibilidadeTotemDTO;
+import com.example.demo.dto.TotemDTO;
+import com.example.demo.dto.TrancaDTO;
 import com.example.demo.model.*;
-import java.util.List;
 
 public class TotemListPanel extends JPanel {
 	private WindowManager windowManager;
-	private TotemController totemController;
+	private ClienteScb cliente;
 	private JTable totemTable;
-	private DefaultTableModel tableModel;
+	private ModeloTabelaLista<DisponibilidadeTotemDTO> tableModel;
 	private JTable trancasTable;
 	private DefaultTableModel trancasTableModel;
 	private JLabel detailsLabel;
@@ -25,11 +29,11 @@ public class TotemListPanel extends JPanel {
      * Construtor do painel de listagem de totens
      * 
      * @param windowManager gerenciador de janelas do sistema
-     * @param totemController controlador de operações com totens
+     * @param cliente acesso ao servidor
      */
-	public TotemListPanel(WindowManager windowManager, TotemController totemController) {
+	public TotemListPanel(WindowManager windowManager, ClienteScb cliente) {
 		this.windowManager = windowManager;
-		this.totemController = totemController;
+		this.cliente = cliente;
 		setupUI();
 	}
 
@@ -61,7 +65,10 @@ public class TotemListPanel extends JPanel {
 		JButton refreshButton = new JButton("Atualizar");
 		refreshButton.setBackground(ColorScheme.PRIMARY);
 		refreshButton.setForeground(Color.WHITE);
-		refreshButton.addActionListener(e -> refreshTotemList());
+		refreshButton.addActionListener(e -> {
+			windowManager.descartarCacheTotens();
+			refreshTotemList();
+		});
 
 		JButton backButton = new JButton("Voltar");
 		backButton.setBackground(ColorScheme.SECONDARY);
@@ -76,11 +83,21 @@ public class TotemListPanel extends JPanel {
 		headerPanel.add(actionPanel, BorderLayout.EAST);
 
 		// Configuração da tabela de totens
-		String[] columns = { "ID", "Localização", "Descrição", "Trancas Totais", "Trancas Livres" };
-		tableModel = new DefaultTableModel(columns, 0) {
+		tableModel = new ModeloTabelaLista<>("ID", "Localização", "Descrição", "Trancas Totais", "Trancas Livres") {
 			@Override
-			public boolean isCellEditable(int row, int column) {
-				return false;
+			protected Object valorColuna(DisponibilidadeTotemDTO totem, int coluna) {
+				switch (coluna) {
+				case 0:
+					return totem.getTotemId();
+				case 1:
+					return totem.getLocalizacao();
+				case 2:
+					return totem.getDescricao();
+				case 3:
+					return totem.getTotalTrancas();
+				default:
+					return totem.getTrancasLivres();
+				}
 			}
 		};
 
@@ -94,7 +111,7 @@ public class TotemListPanel extends JPanel {
 		header.setFont(new Font("Arial", Font.BOLD, 12));
 
 		// Adiciona ordenação à tabela
-		TableRowSorter<DefaultTableModel> sorter = new TableRowSorter<>(tableModel);
+		TableRowSorter<ModeloTabelaLista<DisponibilidadeTotemDTO>> sorter = new TableRowSorter<>(tableModel);
 		totemTable.setRowSorter(sorter);
 
 		// Campo de busca funcionando
@@ -169,21 +186,8 @@ public class TotemListPanel extends JPanel {
      * Carrega todos os totens disponíveis e suas informações atualizadas
      */
 	public void refreshTotemList() {
-		tableModel.setRowCount(0);
-		try {
-			List<Totem> totens = totemController.listarTodos();
-			for (Totem totem : totens) {
-				int totalTrancas = totem.getTrancas().size();
-				long trancasLivres = totem.getTrancas().stream().filter(t -> t.getStatus() == StatusTranca.LIVRE)
-						.count();
-
-				tableModel.addRow(new Object[] { totem.getId(), totem.getLocalizacao(), totem.getDescricao(),
-						totalTrancas, trancasLivres });
-			}
-		} catch (Exception e) {
-			JOptionPane.showMessageDialog(this, "Erro ao carregar totens: " + e.getMessage(), "Erro",
-					JOptionPane.ERROR_MESSAGE);
-		}
+		windowManager.carregar("totens", cliente::listarDisponibilidade, tableModel::setItens,
+				"Erro ao carregar totens");
 	}
 
 	/**
@@ -194,17 +198,14 @@ public class TotemListPanel extends JPanel {
 		int selectedRow = totemTable.getSelectedRow();
 		if (selectedRow >= 0) {
 			selectedRow = totemTable.convertRowIndexToModel(selectedRow);
-			Long totemId = (Long) tableModel.getValueAt(selectedRow, 0);
-			try {
-				Totem totem = totemController.buscarPorId(totemId).getBody();
+			Long totemId = tableModel.getItem(selectedRow).getTotemId();
+			detailsLabel.setText("Carregando detalhes do totem...");
+			windowManager.carregar("totem-detalhes", () -> cliente.buscarTotem(totemId, null), totem -> {
 				if (totem != null) {
 					detailsLabel.setText("Detalhes do Totem: " + totem.getLocalizacao());
 					updateTrancasTable(totem);
 				}
-			} catch (Exception e) {
-				JOptionPane.showMessageDialog(this, "Erro ao carregar detalhes do totem: " + e.getMessage(), "Erro",
-						JOptionPane.ERROR_MESSAGE);
-			}
+			}, "Erro ao carregar detalhes do totem");
 		}
 	}
 
@@ -213,10 +214,10 @@ public class TotemListPanel extends JPanel {
      * 
      * @param totem totem cujas trancas serão exibidas
      */
-	private void updateTrancasTable(Totem totem) {
+	private void updateTrancasTable(TotemDTO totem) {
 		trancasTableModel.setRowCount(0);
-		for (Tranca tranca : totem.getTrancas()) {
-			Bicicleta bicicleta = tranca.getBicicleta();
+		for (TrancaDTO tranca : totem.getTrancas()) {
+			BicicletaDTO bicicleta = tranca.getBicicleta();
 
 			trancasTableModel.addRow(new Object[] { tranca.getNumero(), tranca.getStatus(),
 					bicicleta != null ? bicicleta.getNumero() : "Livre", bicicleta != null ? bicicleta.getMarca() : "-",
@@ -0,0 +1,70 @@
+/*
+ Modelo de tabela apoiado diretamente em uma lista de DTOs
+ Substitui o DefaultTableModel com addRow linha a linha: a lista recebida do
+ servidor é usada como está, sem cópia para Object[], a tabela é avisada uma
+ única vez por carga e cada célula é calculada só quando a JTable a desenha.
+ */
+package com.example.demo.view.tabelas;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.List;
+
+public abstract class ModeloTabelaLista<T> extends AbstractTableModel {
+	private final String[] colunas;
+	private List<T> itens = List.of();
+
+	/**
+	 * @param colunas títulos das colunas
+	 */
+	protected ModeloTabelaLista(String... colunas) {
+		this.colunas = colunas;
+	}
+
+	/**
+	 * Valor exibido em uma célula
+	 *
+	 * @param item item da linha
+	 * @param coluna índice da coluna
+	 * @return Object valor da célula
+	 */
+	protected abstract Object valorColuna(T item, int coluna);
+
+	/**
+	 * Substitui todas as linhas da tabela
+	 * A lista não é copiada nem alterada, então pode vir de um cache compartilhado
+	 *
+	 * @param itens novas linhas, ou nulo para esvaziar a tabela
+	 */
+	public void setItens(List<T> itens) {
+		this.itens = itens != null ? itens : List.of();
+		fireTableDataChanged();
+	}
+
+	/**
+	 * @param linha índice da linha no modelo
+	 * @return T item exibido na linha
+	 */
+	public T getItem(int linha) {
+		return itens.get(linha);
+	}
+
+	@Override
+	public int getRowCount() {
+		return itens.size();
+	}
+
+	@Override
+	public int getColumnCount() {
+		return colunas.length;
+	}
+
+	@Override
+	public String getColumnName(int coluna) {
+		return colunas[coluna];
+	}
+
+	@Override
+	public Object getValueAt(int linha, int coluna) {
+		return valorColuna(itens.get(linha), coluna);
+	}
+}
@@ -0,0 +1,158 @@
+/*
+ Modelo de tabela carregado por páginas, conforme a rolagem
+ Busca a primeira página da API paginada por cursor e só pede a próxima
+ quando a rolagem se aproxima do fim das linhas já recebidas. Assim um
+ histórico com milhares de registros abre com uma única página, e as
+ células são formatadas apenas para as linhas que a JTable desenha.
+
+ As páginas são buscadas pelo carregador do WindowManager, fora da EDT, com
+ uma chave própria: recarregar descarta uma página ainda em andamento. Todos
+ os métodos públicos devem ser chamados na EDT.
+ */
+package com.example.demo.view.tabelas;
+
+import com.example.demo.dto.PaginaDTO;
+import com.example.demo.view.WindowManager;
+
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.table.AbstractTableModel;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+public abstract class ModeloTabelaPaginada<T> extends AbstractTableModel {
+	// A próxima página é pedida quando faltam estas linhas para o fim da parte carregada
+	private static final int MARGEM_LINHAS = 20;
+
+	private final WindowManager windowManager;
+	private final String chave;
+	private final String[] colunas;
+	private final List<T> itens = new ArrayList<>();
+
+	private Function<String, PaginaDTO<T>> buscarPagina;
+	private String mensagemErro;
+	private String proximoCursor;
+	private boolean fim = true;
+	private boolean carregando;
+	private JTable tabela;
+
+	/**
+	 * @param windowManager gerenciador que executa as buscas em segundo plano
+	 * @param chave chave das cargas deste modelo no carregador
+	 * @param colunas títulos das colunas
+	 */
+	protected ModeloTabelaPaginada(WindowManager windowManager, String chave, String... colunas) {
+		this.windowManager = windowManager;
+		this.chave = chave;
+		this.colunas = colunas;
+	}
+
+	/**
+	 * Valor exibido em uma célula
+	 *
+	 * @param item item da linha
+	 * @param coluna índice da coluna
+	 * @return Object valor da célula
+	 */
+	protected abstract Object valorColuna(T item, int coluna);
+
+	/**
+	 * Passa a acompanhar a rolagem da tabela para buscar as próximas páginas
+	 *
+	 * @param rolagem JScrollPane que contém a tabela deste modelo
+	 */
+	public void acompanharRolagem(JScrollPane rolagem) {
+		this.tabela = (JTable) rolagem.getViewport().getView();
+		rolagem.getViewport().addChangeListener(e -> verificarRolagem());
+	}
+
+	/**
+	 * Esvazia a tabela e busca a primeira página
+	 *
+	 * @param buscarPagina busca da página a partir do cursor (nulo na primeira), executada fora da EDT
+	 * @param mensagemErro prefixo da mensagem exibida em caso de falha
+	 */
+	public void recarregar(Function<String, PaginaDTO<T>> buscarPagina, String mensagemErro) {
+		this.buscarPagina = buscarPagina;
+		this.mensagemErro = mensagemErro;
+		int linhas = itens.size();
+		itens.clear();
+		proximoCursor = null;
+		fim = false;
+		if (linhas > 0) {
+			fireTableRowsDeleted(0, linhas - 1);
+		}
+		carregarPagina();
+	}
+
+	/**
+	 * @param linha índice da linha no modelo
+	 * @return T item exibido na linha
+	 */
+	public T getItem(int linha) {
+		return itens.get(linha);
+	}
+
+	private void carregarPagina() {
+		Function<String, PaginaDTO<T>> busca = buscarPagina;
+		String cursor = proximoCursor;
+		carregando = true;
+		windowManager.carregar(chave, () -> busca.apply(cursor), pagina -> {
+			carregando = false;
+			if (pagina == null || pagina.getItens() == null) {
+				fim = true;
+				return;
+			}
+			int inicio = itens.size();
+			itens.addAll(pagina.getItens());
+			proximoCursor = pagina.getProximoCursor();
+			fim = proximoCursor == null;
+			if (itens.size() > inicio) {
+				fireTableRowsInserted(inicio, itens.size() - 1);
+			}
+			// A página pode não ter enchido a área visível
+			verificarRolagem();
+		}, e -> {
+			// Para de buscar sozinho até o próximo recarregar, para não repetir o erro a cada rolagem
+			carregando = false;
+			fim = true;
+			windowManager.showError(mensagemErro + ": " + e.getMessage());
+		});
+	}
+
+	// Busca a próxima página se a última linha visível estiver perto do fim da parte carregada
+	private void verificarRolagem() {
+		if (tabela == null || !tabela.isShowing() || carregando || fim || buscarPagina == null) {
+			return;
+		}
+		Rectangle visivel = tabela.getVisibleRect();
+		int ultimaVisivel = tabela.rowAtPoint(new Point(visivel.x, visivel.y + visivel.height - 1));
+		// -1: a área visível vai além da última linha
+		if (ultimaVisivel == -1 || ultimaVisivel >= itens.size() - MARGEM_LINHAS) {
+			carregarPagina();
+		}
+	}
+
+	@Override
+	public int getRowCount() {
+		return itens.size();
+	}
+
+	@Override
+	public int getColumnCount() {
+		return colunas.length;
+	}
+
+	@Override
+	public String getColumnName(int coluna) {
+		return colunas[coluna];
+	}
+
+	@Override
+	public Object getValueAt(int linha, int coluna) {
+		return valorColuna(itens.get(linha), coluna);
+	}
+}
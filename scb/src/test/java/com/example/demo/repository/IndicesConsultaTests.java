@@ -0,0 +1,81 @@
+package com.example.demo.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Verifica no plano de execução do H2 que as consultas de busca usam os
+ * índices declarados nas entidades, e não uma varredura da tabela
+ */
+@DataJpaTest
+class IndicesConsultaTests {
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Test
+	void ciclistaPorEmailCpfEPassaporte() {
+		assertUsaIndice("SELECT id FROM ciclista WHERE email = 'a@b.com'", "IDX_CICLISTA_EMAIL");
+		assertUsaIndice("SELECT id FROM ciclista WHERE tipo_ciclista = 'BRASILEIRO' AND cpf = '12345678901'",
+				"IDX_CICLISTA_CPF");
+		assertUsaIndice("SELECT id FROM ciclista WHERE tipo_ciclista = 'ESTRANGEIRO' AND passaporte = 'X1'",
+				"IDX_CICLISTA_PASSAPORTE");
+		assertUsaIndice("SELECT id FROM ciclista WHERE documento = '12345678901' ORDER BY tipo_documento",
+				"IDX_CICLISTA_DOCUMENTO");
+	}
+
+	@Test
+	void bicicletaPorNumeroEStatus() {
+		assertUsaIndice("SELECT id FROM bicicleta WHERE numero = 'B1-01'", "IDX_BICICLETA_NUMERO");
+		assertUsaIndice("SELECT id FROM bicicleta WHERE status = 'DISPONIVEL'", "IDX_BICICLETA_STATUS");
+	}
+
+	@Test
+	void trancaPorStatusETotem() {
+		assertUsaIndice("SELECT id FROM tranca WHERE status = 'LIVRE'", "IDX_TRANCA_STATUS");
+		assertUsaIndice("SELECT id FROM tranca WHERE totem_id = 1 AND status = 'LIVRE'", "IDX_TRANCA_TOTEM_STATUS");
+		assertUsaIndice("SELECT id FROM tranca WHERE totem_id = 1", null);
+	}
+
+	@Test
+	void emprestimoAtivoEHistoricoDoCiclista() {
+		assertUsaIndice("SELECT id FROM emprestimo WHERE ciclista_id = 1 AND status = 'EM_ANDAMENTO'",
+				"IDX_EMPRESTIMO_CICLISTA_STATUS");
+		assertUsaIndice("SELECT id FROM emprestimo WHERE ciclista_id = 1 ORDER BY hora_inicio DESC, id DESC", null);
+	}
+
+	@Test
+	void emprestimosAtrasados() {
+		assertUsaIndice("SELECT id FROM emprestimo WHERE status = 'EM_ANDAMENTO' "
+				+ "AND hora_inicio < TIMESTAMP '2024-01-01 00:00:00' ORDER BY hora_inicio, id",
+				"IDX_EMPRESTIMO_STATUS_INICIO");
+	}
+
+	@Test
+	void cobrancasPorCiclistaEPorDia() {
+		assertUsaIndice("SELECT id FROM cobranca WHERE ciclista_id = 1 AND id < 100 ORDER BY id DESC",
+				"IDX_COBRANCA_CICLISTA");
+		assertUsaIndice("SELECT id FROM cobranca WHERE criado_em >= TIMESTAMP '2024-01-01 00:00:00' "
+				+ "AND criado_em < TIMESTAMP '2024-01-02 00:00:00'", "IDX_COBRANCA_CRIADO_EM");
+	}
+
+	/**
+	 * Executa EXPLAIN e confere o índice escolhido pelo otimizador
+	 *
+	 * @param sql consulta equivalente à gerada pelo repositório
+	 * @param indice nome do índice esperado, ou nulo para aceitar qualquer índice
+	 */
+	private void assertUsaIndice(String sql, String indice) {
+		String plano = String.valueOf(entityManager.createNativeQuery("EXPLAIN " + sql).getSingleResult())
+				.toUpperCase();
+		assertThat(plano).as(sql).doesNotContain("TABLESCAN");
+		if (indice != null) {
+			assertThat(plano).as(sql).contains(indice);
+		}
+	}
+}
@@ -0,0 +1,193 @@
+package com.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.example.demo.dto.EmprestimoDTO;
+import com.example.demo.model.Bicicleta;
+import com.example.demo.model.Brasileiro;
+import com.example.demo.model.Ciclista;
+import com.example.demo.model.Emprestimo;
+import com.example.demo.model.StatusBicicleta;
+import com.example.demo.model.StatusTranca;
+import com.example.demo.model.Totem;
+import com.example.demo.model.Tranca;
+import com.example.demo.repository.EmprestimoRepository;
+import com.example.demo.repository.TrancaRepository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Verifica a retirada concorrente: dois ciclistas na mesma tranca resultam
+ * em um único empréstimo, o conflito de bloqueio é refeito um número
+ * limitado de vezes e o ciclista que não conseguiu a bicicleta é liberado
+ * no registro de empréstimos ativos
+ */
+@ExtendWith(MockitoExtension.class)
+class EmprestimoServiceTests {
+
+	private static final Long TRANCA = 10L;
+
+	// Mesmo valor de EmprestimoService.MAX_TENTATIVAS
+	private static final int MAX_TENTATIVAS = 4;
+
+	@Mock
+	private EmprestimoRepository emprestimoRepository;
+
+	@Mock
+	private CiclistaService ciclistaService;
+
+	@Mock
+	private TrancaRepository trancaRepository;
+
+	@Mock
+	private CartaoCreditoService cartaoCreditoService;
+
+	@Mock
+	private OutboxService outboxService;
+
+	@Mock
+	private DisponibilidadeService disponibilidadeService;
+
+	@Mock
+	private ReservaService reservaService;
+
+	@Mock
+	private EventosEstadoService eventosEstadoService;
+
+	@Spy
+	private EmprestimosAtivosService emprestimosAtivosService = new EmprestimosAtivosService();
+
+	@Spy
+	private TransactionTemplate transactionTemplate = new TransactionTemplate(new TransacoesEmMemoria());
+
+	@InjectMocks
+	private EmprestimoService emprestimoService;
+
+	@Test
+	void duasRetiradasNaMesmaTrancaSoUmaConclui() throws Exception {
+		Tranca tranca = trancaComBicicleta();
+		ReentrantLock linha = new ReentrantLock();
+		CountDownLatch conflito = new CountDownLatch(1);
+		AtomicInteger leituras = new AtomicInteger();
+
+		when(ciclistaService.buscarCiclistaPorId(anyLong())).thenAnswer(inv -> ciclista(inv.getArgument(0)));
+		// Bloqueio da linha até o fim da transação; quem não o obtém falha como em um tempo de espera esgotado
+		when(trancaRepository.findParaOperacaoById(TRANCA)).thenAnswer(inv -> {
+			leituras.incrementAndGet();
+			if (!linha.tryLock()) {
+				conflito.countDown();
+				throw new CannotAcquireLockException("Tranca bloqueada por outra retirada");
+			}
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					linha.unlock();
+				}
+			});
+			return tranca;
+		});
+		// A retirada que obteve o bloqueio só termina depois que a outra esbarrou nele
+		when(emprestimoRepository.save(any(Emprestimo.class))).thenAnswer(inv -> {
+			assertThat(conflito.await(10, TimeUnit.SECONDS)).isTrue();
+			Emprestimo emprestimo = inv.getArgument(0);
+			emprestimo.setId(100L);
+			return emprestimo;
+		});
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		List<EmprestimoDTO> concluidas = new ArrayList<>();
+		List<Throwable> recusadas = new ArrayList<>();
+		try {
+			List<Future<EmprestimoDTO>> retiradas = List.of(
+					executor.submit(() -> emprestimoService.realizarEmprestimo(1L, TRANCA)),
+					executor.submit(() -> emprestimoService.realizarEmprestimo(2L, TRANCA)));
+			for (Future<EmprestimoDTO> retirada : retiradas) {
+				try {
+					concluidas.add(retirada.get(10, TimeUnit.SECONDS));
+				} catch (ExecutionException e) {
+					recusadas.add(e.getCause());
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(concluidas).hasSize(1);
+		// O perdedor refez a transação após o conflito e encontrou a tranca já livre
+		assertThat(recusadas).singleElement().extracting(Throwable::getMessage)
+				.isEqualTo("Não há bicicleta disponível nesta tranca");
+		assertThat(leituras.get()).isBetween(3, 1 + MAX_TENTATIVAS);
+
+		Long vencedor = concluidas.get(0).getCiclistaId();
+		Long perdedor = vencedor.equals(1L) ? 2L : 1L;
+		assertThat(emprestimosAtivosService.buscarPorCiclista(vencedor)).isPresent();
+		assertThat(emprestimosAtivosService.possuiEmprestimo(perdedor)).isFalse();
+		assertThat(tranca.getStatus()).isEqualTo(StatusTranca.LIVRE);
+		verify(outboxService, times(1)).registrarCobranca(any(Emprestimo.class), anyDouble());
+	}
+
+	@Test
+	void conflitoPersistenteDesisteNoLimiteELiberaOCiclista() {
+		when(ciclistaService.buscarCiclistaPorId(1L)).thenReturn(ciclista(1L));
+		when(trancaRepository.findParaOperacaoById(TRANCA))
+				.thenThrow(new CannotAcquireLockException("Tranca bloqueada por outra retirada"));
+
+		assertThatThrownBy(() -> emprestimoService.realizarEmprestimo(1L, TRANCA))
+				.hasMessage("Conflito ao processar empréstimo, tente novamente");
+
+		verify(trancaRepository, times(MAX_TENTATIVAS)).findParaOperacaoById(TRANCA);
+		verifyNoInteractions(emprestimoRepository, outboxService);
+		// A vaga de empréstimo reservada antes da transação foi devolvida
+		assertThat(emprestimosAtivosService.possuiEmprestimo(1L)).isFalse();
+	}
+
+	private static Ciclista ciclista(Long id) {
+		Brasileiro ciclista = new Brasileiro();
+		ciclista.setId(id);
+		ciclista.setNome("Ciclista " + id);
+		return ciclista;
+	}
+
+	private static Tranca trancaComBicicleta() {
+		Totem totem = new Totem();
+		totem.setId(1L);
+		Bicicleta bicicleta = new Bicicleta();
+		bicicleta.setId(50L);
+		bicicleta.setNumero("B1-01");
+		bicicleta.setStatus(StatusBicicleta.DISPONIVEL);
+		Tranca tranca = new Tranca();
+		tranca.setId(TRANCA);
+		tranca.setStatus(StatusTranca.OCUPADA);
+		tranca.setTotem(totem);
+		tranca.setBicicleta(bicicleta);
+		return tranca;
+	}
+}
@@ -0,0 +1,105 @@
+package com.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.demo.model.Bicicleta;
+import com.example.demo.model.Brasileiro;
+import com.example.demo.model.Emprestimo;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifica o registro de empréstimos ativos: a vaga do ciclista é obtida
+ * por uma única retirada simultânea, as alterações só valem após o commit e
+ * uma retirada desfeita libera a vaga sem deixar rastro no registro
+ */
+class EmprestimosAtivosServiceTests {
+
+	private final EmprestimosAtivosService emprestimosAtivosService = new EmprestimosAtivosService();
+	private final TransactionTemplate transactionTemplate = new TransactionTemplate(new TransacoesEmMemoria());
+
+	@Test
+	void retiradasSimultaneasDoMesmoCiclistaObtemUmaUnicaVaga() throws Exception {
+		int retiradas = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(retiradas);
+		CountDownLatch largada = new CountDownLatch(1);
+		try {
+			List<Future<EmprestimosAtivosService.EmprestimoAtivo>> reservas = new ArrayList<>();
+			for (int i = 0; i < retiradas; i++) {
+				reservas.add(executor.submit(() -> {
+					largada.await();
+					return emprestimosAtivosService.reservar(1L);
+				}));
+			}
+			largada.countDown();
+
+			List<EmprestimosAtivosService.EmprestimoAtivo> obtidas = new ArrayList<>();
+			for (Future<EmprestimosAtivosService.EmprestimoAtivo> reserva : reservas) {
+				obtidas.add(reserva.get(10, TimeUnit.SECONDS));
+			}
+			assertThat(obtidas).filteredOn(Objects::nonNull).hasSize(1);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void retiradaDesfeitaNaoEntraNoRegistroELiberaAVaga() {
+		EmprestimosAtivosService.EmprestimoAtivo reserva = emprestimosAtivosService.reservar(1L);
+
+		assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+			emprestimosAtivosService.registrarInicio(emprestimo(1L, 50L));
+			throw new RuntimeException("Conflito na tranca");
+		})).hasMessage("Conflito na tranca");
+
+		// A transação desfeita não alterou o registro; a vaga ainda é da retirada em curso
+		assertThat(emprestimosAtivosService.buscarPorBicicleta(50L)).isEmpty();
+		assertThat(emprestimosAtivosService.buscarPorCiclista(1L)).isEmpty();
+		assertThat(emprestimosAtivosService.possuiEmprestimo(1L)).isTrue();
+
+		emprestimosAtivosService.liberar(reserva);
+		assertThat(emprestimosAtivosService.possuiEmprestimo(1L)).isFalse();
+		assertThat(emprestimosAtivosService.bicicletasEmUso()).isZero();
+	}
+
+	@Test
+	void retiradaConfirmadaSubstituiAVagaENaoELiberada() {
+		EmprestimosAtivosService.EmprestimoAtivo reserva = emprestimosAtivosService.reservar(1L);
+
+		transactionTemplate.executeWithoutResult(
+				status -> emprestimosAtivosService.registrarInicio(emprestimo(1L, 50L)));
+		assertThat(emprestimosAtivosService.buscarPorCiclista(1L)).isPresent();
+		assertThat(emprestimosAtivosService.buscarPorBicicleta(50L)).isPresent();
+
+		// Liberar a vaga depois do commit não remove o empréstimo que a substituiu
+		emprestimosAtivosService.liberar(reserva);
+		assertThat(emprestimosAtivosService.buscarPorCiclista(1L)).isPresent();
+		assertThat(emprestimosAtivosService.reservar(1L)).isNull();
+	}
+
+	private static Emprestimo emprestimo(Long ciclistaId, Long bicicletaId) {
+		Brasileiro ciclista = new Brasileiro();
+		ciclista.setId(ciclistaId);
+		Bicicleta bicicleta = new Bicicleta();
+		bicicleta.setId(bicicletaId);
+		bicicleta.setNumero("B1-01");
+		Emprestimo emprestimo = new Emprestimo();
+		emprestimo.setId(100L);
+		emprestimo.setCiclista(ciclista);
+		emprestimo.setBicicleta(bicicleta);
+		emprestimo.setHoraInicio(LocalDateTime.now());
+		return emprestimo;
+	}
+}
@@ -0,0 +1,129 @@
+package com.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Verifica que uma chave de idempotência executa a operação uma única vez,
+ * inclusive com repetições simultâneas, sem guardar falhas nem misturar
+ * chaves de ciclistas ou operações diferentes, recusando a mesma chave com
+ * outros dados e mantendo o total de chaves limitado
+ */
+class IdempotenciaServiceTests {
+
+	private static final String TRANCA_1 = "tranca=1";
+
+	private final IdempotenciaService idempotenciaService = new IdempotenciaService();
+	private final AtomicInteger execucoes = new AtomicInteger();
+
+	@BeforeEach
+	void iniciar() {
+		ReflectionTestUtils.setField(idempotenciaService, "validadeMinutos", 10L);
+	}
+
+	@Test
+	void chamadasSimultaneasComAMesmaChaveExecutamUmaVez() throws Exception {
+		int chamadas = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(chamadas);
+		CountDownLatch largada = new CountDownLatch(1);
+		try {
+			List<Future<String>> resultados = new ArrayList<>();
+			for (int i = 0; i < chamadas; i++) {
+				resultados.add(executor.submit(() -> {
+					largada.await();
+					return idempotenciaService.executar("emprestimo", 1L, "chave", TRANCA_1, () -> {
+						// Operação lenta: as demais chamadas chegam enquanto ela está em andamento
+						dormir(200);
+						return "emprestimo-" + execucoes.incrementAndGet();
+					});
+				}));
+			}
+			largada.countDown();
+
+			for (Future<String> resultado : resultados) {
+				assertThat(resultado.get(10, TimeUnit.SECONDS)).isEqualTo("emprestimo-1");
+			}
+			assertThat(execucoes.get()).isEqualTo(1);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void falhaNaoEGuardadaENovaTentativaExecuta() {
+		assertThatThrownBy(() -> idempotenciaService.executar("emprestimo", 1L, "chave", TRANCA_1, () -> {
+			execucoes.incrementAndGet();
+			throw new RuntimeException("Pagamento recusado");
+		})).hasMessage("Pagamento recusado");
+
+		assertThat(idempotenciaService.executar("emprestimo", 1L, "chave", TRANCA_1, this::executar)).isEqualTo(2);
+		// Depois do sucesso, a mesma chave devolve o resultado guardado
+		assertThat(idempotenciaService.executar("emprestimo", 1L, "chave", TRANCA_1, this::executar)).isEqualTo(2);
+		assertThat(execucoes.get()).isEqualTo(2);
+	}
+
+	@Test
+	void mesmaChaveDeCiclistasOuOperacoesDiferentesExecutaSeparadamente() {
+		assertThat(idempotenciaService.executar("emprestimo", 1L, "chave", TRANCA_1, this::executar)).isEqualTo(1);
+		assertThat(idempotenciaService.executar("emprestimo", 2L, "chave", TRANCA_1, this::executar)).isEqualTo(2);
+		assertThat(idempotenciaService.executar("devolucao", 1L, "chave", TRANCA_1, this::executar)).isEqualTo(3);
+
+		assertThat(idempotenciaService.executar("emprestimo", 1L, "chave", TRANCA_1, this::executar)).isEqualTo(1);
+		assertThat(idempotenciaService.executar("emprestimo", 2L, "chave", TRANCA_1, this::executar)).isEqualTo(2);
+		assertThat(execucoes.get()).isEqualTo(3);
+	}
+
+	@Test
+	void mesmaChaveComOutraRequisicaoERecusada() {
+		assertThat(idempotenciaService.executar("emprestimo", 1L, "chave", TRANCA_1, this::executar)).isEqualTo(1);
+
+		assertThatThrownBy(() -> idempotenciaService.executar("emprestimo", 1L, "chave", "tranca=2", this::executar))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThat(execucoes.get()).isEqualTo(1);
+	}
+
+	@Test
+	void chavesMaisAntigasSaoDescartadasNoLimite() {
+		idempotenciaService.executar("emprestimo", 1L, "primeira", TRANCA_1, this::executar);
+		for (int i = 0; i < 10_000; i++) {
+			idempotenciaService.executar("emprestimo", 1L, "chave-" + i, TRANCA_1, () -> 0);
+		}
+
+		// A primeira chave saiu para abrir espaço: a repetição executa de novo
+		assertThat(idempotenciaService.executar("emprestimo", 1L, "primeira", TRANCA_1, this::executar)).isEqualTo(2);
+		// As mais recentes continuam guardadas
+		assertThat(idempotenciaService.executar("emprestimo", 1L, "chave-9999", TRANCA_1, this::executar)).isZero();
+	}
+
+	@Test
+	void semChaveSempreExecuta() {
+		idempotenciaService.executar("emprestimo", 1L, null, TRANCA_1, this::executar);
+		idempotenciaService.executar("emprestimo", 1L, " ", TRANCA_1, this::executar);
+		assertThat(execucoes.get()).isEqualTo(2);
+	}
+
+	private Integer executar() {
+		return execucoes.incrementAndGet();
+	}
+
+	private static void dormir(long ms) {
+		try {
+			Thread.sleep(ms);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package com.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+import com.example.demo.model.EventoOutbox;
+import com.example.demo.model.StatusEventoOutbox;
+import com.example.demo.model.TipoEventoOutbox;
+import com.example.demo.repository.EventoOutboxRepository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Verifica que dois despachantes sobre os mesmos eventos pendentes (dois nós,
+ * ou dois ciclos sobrepostos) executam cada evento uma única vez
+ */
+// Intervalo longo: o despachante agendado não roda durante o teste
+@SpringBootTest(properties = "scb.outbox.intervalo-ms=3600000")
+class OutboxServiceTests {
+
+	private static final int EVENTOS = 250;
+
+	@Autowired
+	private OutboxService outboxService;
+
+	@Autowired
+	private EventoOutboxRepository eventoOutboxRepository;
+
+	@MockBean
+	private CartaoCreditoService cartaoCreditoService;
+
+	@AfterEach
+	void limpar() {
+		eventoOutboxRepository.deleteAll();
+	}
+
+	@Test
+	void doisDespachantesNaoExecutamOMesmoEvento() throws Exception {
+		LocalDateTime criadoEm = LocalDateTime.now().minusSeconds(1);
+		List<EventoOutbox> eventos = new ArrayList<>();
+		for (int i = 0; i < EVENTOS; i++) {
+			EventoOutbox evento = new EventoOutbox();
+			evento.setTipo(TipoEventoOutbox.LIQUIDACAO);
+			evento.setReferencia("transacao-" + i);
+			evento.setCriadoEm(criadoEm);
+			evento.setProximaTentativaEm(criadoEm);
+			eventos.add(evento);
+		}
+		eventoOutboxRepository.saveAll(eventos);
+
+		Map<String, AtomicInteger> liquidacoes = new ConcurrentHashMap<>();
+		doAnswer(invocacao -> {
+			liquidacoes.computeIfAbsent(invocacao.getArgument(0), k -> new AtomicInteger()).incrementAndGet();
+			// Gateway lento: os dois despachantes ficam com lotes em andamento ao mesmo tempo
+			Thread.sleep(2);
+			return null;
+		}).when(cartaoCreditoService).liquidarCobranca(anyString());
+
+		ExecutorService despachantes = Executors.newFixedThreadPool(2);
+		CountDownLatch largada = new CountDownLatch(1);
+		try {
+			List<Future<?>> ciclos = new ArrayList<>();
+			for (int i = 0; i < 2; i++) {
+				ciclos.add(despachantes.submit(() -> {
+					largada.await();
+					outboxService.despachar();
+					return null;
+				}));
+			}
+			largada.countDown();
+			for (Future<?> ciclo : ciclos) {
+				ciclo.get(60, TimeUnit.SECONDS);
+			}
+		} finally {
+			despachantes.shutdownNow();
+		}
+
+		assertThat(liquidacoes).hasSize(EVENTOS);
+		assertThat(liquidacoes.values()).allSatisfy(vezes -> assertThat(vezes.get()).isEqualTo(1));
+		assertThat(eventoOutboxRepository.countByStatus(StatusEventoOutbox.PROCESSADO)).isEqualTo(EVENTOS);
+	}
+}
@@ -0,0 +1,161 @@
+package com.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+import com.example.demo.model.Bicicleta;
+import com.example.demo.model.StatusBicicleta;
+import com.example.demo.model.StatusTranca;
+import com.example.demo.model.Totem;
+import com.example.demo.model.Tranca;
+import com.example.demo.repository.TrancaRepository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Verifica as reservas em memória: expiração pela roda, contagem por totem,
+ * cancelamento por mudança na tranca e a regra de que só o dono da reserva
+ * pode retirar a bicicleta
+ */
+@ExtendWith(MockitoExtension.class)
+class ReservaServiceTests {
+
+	private static final Long TOTEM_A = 100L;
+	private static final Long TOTEM_B = 200L;
+
+	@Mock
+	private TrancaRepository trancaRepository;
+
+	@Mock
+	private EmprestimosAtivosService emprestimosAtivosService;
+
+	@InjectMocks
+	private ReservaService reservaService;
+
+	@BeforeEach
+	void iniciar() {
+		ReflectionTestUtils.setField(reservaService, "validadeMinutos", 10L);
+		reservaService.iniciarRoda();
+	}
+
+	@AfterEach
+	void encerrar() {
+		reservaService.encerrarRoda();
+	}
+
+	@Test
+	void reservaExpiraELiberaOTotem() throws InterruptedException {
+		// Validade zero: a reserva vence no primeiro tique da roda (1 segundo)
+		ReflectionTestUtils.setField(reservaService, "validadeMinutos", 0L);
+		trancaDisponivel(10L, TOTEM_A);
+
+		reservaService.reservar(1L, 10L);
+		assertThat(reservaService.buscarPorCiclista(1L)).isPresent();
+		assertThat(reservaService.reservadasNoTotem(TOTEM_A)).isEqualTo(1);
+
+		aguardar(() -> reservaService.buscarPorCiclista(1L).isEmpty());
+		assertThat(reservaService.reservadasNoTotem(TOTEM_A)).isZero();
+		assertThat(reservaService.isReservadaParaOutro(10L, 2L)).isFalse();
+	}
+
+	@Test
+	void contadoresPorTotemAcompanhamReservasCanceladasEConcluidas() {
+		trancaDisponivel(10L, TOTEM_A);
+		trancaDisponivel(11L, TOTEM_A);
+		trancaDisponivel(20L, TOTEM_B);
+
+		reservaService.reservar(1L, 10L);
+		reservaService.reservar(2L, 11L);
+		reservaService.reservar(3L, 20L);
+		assertThat(reservaService.reservadasNoTotem(TOTEM_A)).isEqualTo(2);
+		assertThat(reservaService.reservadasNoTotem(TOTEM_B)).isEqualTo(1);
+
+		reservaService.cancelar(1L);
+		reservaService.concluir(3L);
+		assertThat(reservaService.reservadasNoTotem(TOTEM_A)).isEqualTo(1);
+		assertThat(reservaService.reservadasNoTotem(TOTEM_B)).isZero();
+
+		// Encerrar de novo não desconta outra vez
+		assertThatThrownBy(() -> reservaService.cancelar(1L)).hasMessage("Ciclista não possui reserva");
+		reservaService.concluir(3L);
+		assertThat(reservaService.reservadasNoTotem(TOTEM_A)).isEqualTo(1);
+		assertThat(reservaService.reservadasNoTotem(TOTEM_B)).isZero();
+	}
+
+	@Test
+	void bicicletaReservadaNaoPodeSerReservadaDeNovo() {
+		trancaDisponivel(10L, TOTEM_A);
+		reservaService.reservar(1L, 10L);
+
+		assertThatThrownBy(() -> reservaService.reservar(2L, 10L)).hasMessage("Bicicleta já reservada");
+		assertThat(reservaService.buscarPorCiclista(2L)).isEmpty();
+		assertThat(reservaService.reservadasNoTotem(TOTEM_A)).isEqualTo(1);
+	}
+
+	@Test
+	void somenteODonoDaReservaRetiraABicicleta() {
+		trancaDisponivel(10L, TOTEM_A);
+		reservaService.reservar(1L, 10L);
+
+		reservaService.verificarRetirada(1L, 10L);
+		assertThatThrownBy(() -> reservaService.verificarRetirada(2L, 10L))
+				.hasMessage("Bicicleta reservada para outro ciclista");
+
+		assertThat(reservaService.isReservadaParaOutro(10L, 1L)).isFalse();
+		assertThat(reservaService.isReservadaParaOutro(10L, 2L)).isTrue();
+		assertThat(reservaService.isReservadaParaOutro(10L, null)).isTrue();
+
+		// Sem reserva, qualquer ciclista retira
+		reservaService.cancelar(1L);
+		reservaService.verificarRetirada(2L, 10L);
+		assertThat(reservaService.isReservadaParaOutro(10L, 2L)).isFalse();
+	}
+
+	@Test
+	void mudancaNaTrancaCancelaAReserva() {
+		trancaDisponivel(10L, TOTEM_A);
+		reservaService.reservar(1L, 10L);
+
+		reservaService.cancelarPorTranca(10L);
+		assertThat(reservaService.buscarPorCiclista(1L)).isEmpty();
+		assertThat(reservaService.reservadasNoTotem(TOTEM_A)).isZero();
+		assertThat(reservaService.isReservadaParaOutro(10L, 2L)).isFalse();
+
+		// Tranca sem reserva: nada a cancelar
+		reservaService.cancelarPorTranca(10L);
+		assertThat(reservaService.reservadasNoTotem(TOTEM_A)).isZero();
+	}
+
+	private void trancaDisponivel(Long trancaId, Long totemId) {
+		Totem totem = new Totem();
+		totem.setId(totemId);
+		Bicicleta bicicleta = new Bicicleta();
+		bicicleta.setId(trancaId + 1000);
+		bicicleta.setStatus(StatusBicicleta.DISPONIVEL);
+		Tranca tranca = new Tranca();
+		tranca.setId(trancaId);
+		tranca.setStatus(StatusTranca.OCUPADA);
+		tranca.setTotem(totem);
+		tranca.setBicicleta(bicicleta);
+		when(trancaRepository.findById(trancaId)).thenReturn(Optional.of(tranca));
+	}
+
+	private static void aguardar(BooleanSupplier condicao) throws InterruptedException {
+		long limite = System.currentTimeMillis() + 10_000;
+		while (!condicao.getAsBoolean()) {
+			assertThat(System.currentTimeMillis()).as("tempo esgotado").isLessThan(limite);
+			Thread.sleep(50);
+		}
+	}
+}
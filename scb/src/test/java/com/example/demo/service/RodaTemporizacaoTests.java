@@ -0,0 +1,96 @@
+package com.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Verifica o vencimento das tarefas da roda de temporização, inclusive as
+ * que dão mais de uma volta ou são agendadas enquanto o relógio avança, e o
+ * cancelamento antes do vencimento
+ */
+class RodaTemporizacaoTests {
+
+	// Roda de 1 ms por posição, com as mesmas 512 posições usadas pelas reservas
+	private static final int POSICOES = 512;
+
+	private final RodaTemporizacao roda = new RodaTemporizacao("roda-teste", 1, POSICOES);
+
+	@AfterEach
+	void encerrar() {
+		roda.encerrar();
+	}
+
+	@Test
+	void tarefaComMaisDeUmaVoltaVenceSoNoPrazo() throws InterruptedException {
+		long atrasoMs = POSICOES + 300;
+		CountDownLatch executada = new CountDownLatch(1);
+		AtomicLong executadaEm = new AtomicLong();
+		long inicio = System.nanoTime();
+
+		roda.agendar(atrasoMs, () -> {
+			executadaEm.set(System.nanoTime());
+			executada.countDown();
+		});
+
+		// Na primeira volta (~300 ms) a roda passa pela posição da tarefa sem executá-la; a
+		// margem de uma volta absorve o atraso do relógio sem aceitar uma execução prematura
+		assertThat(executada.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(TimeUnit.NANOSECONDS.toMillis(executadaEm.get() - inicio)).isGreaterThanOrEqualTo(POSICOES);
+	}
+
+	@Test
+	void tarefasAgendadasDuranteOAvancoNaoEsperamOutraVolta() throws InterruptedException {
+		// Volta de 60 segundos: uma tarefa que perdesse a sua posição só rodaria na volta seguinte
+		RodaTemporizacao rodaLonga = new RodaTemporizacao("roda-teste-longa", 1, 60_000);
+		int threads = 8;
+		int porThread = 2_000;
+		CountDownLatch executadas = new CountDownLatch(threads * porThread);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			for (int i = 0; i < threads; i++) {
+				executor.execute(() -> {
+					for (int j = 0; j < porThread; j++) {
+						rodaLonga.agendar(1, executadas::countDown);
+					}
+				});
+			}
+			assertThat(executadas.await(10, TimeUnit.SECONDS)).isTrue();
+		} finally {
+			executor.shutdownNow();
+			rodaLonga.encerrar();
+		}
+	}
+
+	@Test
+	void tarefaCanceladaAntesDoPrazoNaoExecuta() throws InterruptedException {
+		AtomicInteger execucoes = new AtomicInteger();
+		RodaTemporizacao.Tarefa tarefa = roda.agendar(50, execucoes::incrementAndGet);
+
+		assertThat(tarefa.cancelar()).isTrue();
+
+		// Uma tarefa agendada depois serve de marco: a roda já passou do prazo da cancelada
+		CountDownLatch marco = new CountDownLatch(1);
+		roda.agendar(200, marco::countDown);
+		assertThat(marco.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(execucoes.get()).isZero();
+		assertThat(tarefa.cancelar()).isFalse();
+	}
+
+	@Test
+	void cancelarDepoisDeExecutarNaoTemEfeito() throws InterruptedException {
+		CountDownLatch executada = new CountDownLatch(1);
+		RodaTemporizacao.Tarefa tarefa = roda.agendar(10, executada::countDown);
+
+		assertThat(executada.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(tarefa.cancelar()).isFalse();
+	}
+}
@@ -0,0 +1,95 @@
+package com.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.demo.model.TipoDocumento;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+
+/**
+ * Verifica a emissão e a validação dos tokens de sessão: token aceito com ou
+ * sem o prefixo "Bearer", recusa de tokens adulterados, assinados com outra
+ * chave ou expirados, e a chave obrigatória no perfil "server"
+ */
+class SessaoServiceTests {
+
+	private static final String CHAVE = Base64.getEncoder().encodeToString(new byte[32]);
+
+	private final MockEnvironment environment = new MockEnvironment();
+
+	private SessaoService sessaoService;
+
+	@BeforeEach
+	void iniciar() {
+		sessaoService = novoServico(CHAVE, 480);
+	}
+
+	@Test
+	void tokenEmitidoEValidado() {
+		String token = sessaoService.emitir(7L, TipoDocumento.PASSAPORTE);
+
+		SessaoService.Sessao sessao = sessaoService.validar(token);
+		assertThat(sessao.getCiclistaId()).isEqualTo(7L);
+		assertThat(sessao.getTipo()).isEqualTo(TipoDocumento.PASSAPORTE);
+	}
+
+	@Test
+	void aceitaOValorDoCabecalhoComPrefixoBearer() {
+		String token = sessaoService.emitir(7L, TipoDocumento.CPF);
+
+		assertThat(sessaoService.validar("Bearer " + token).getCiclistaId()).isEqualTo(7L);
+	}
+
+	@Test
+	void tokenAdulteradoERecusado() {
+		String token = sessaoService.emitir(7L, TipoDocumento.CPF);
+		String outroCiclista = "8" + token.substring(token.indexOf('.'));
+
+		assertThatThrownBy(() -> sessaoService.validar(outroCiclista)).hasMessage("Sessão inválida");
+		assertThatThrownBy(() -> sessaoService.validar(token + "x")).hasMessage("Sessão inválida");
+		assertThatThrownBy(() -> sessaoService.validar("sem-assinatura")).hasMessage("Sessão inválida");
+		assertThatThrownBy(() -> sessaoService.validar(null)).hasMessage("Sessão inválida");
+	}
+
+	@Test
+	void tokenDeOutraChaveERecusado() {
+		byte[] outraChave = new byte[32];
+		outraChave[0] = 1;
+		SessaoService outroNo = novoServico(Base64.getEncoder().encodeToString(outraChave), 480);
+
+		String token = outroNo.emitir(7L, TipoDocumento.CPF);
+		assertThatThrownBy(() -> sessaoService.validar(token)).hasMessage("Sessão inválida");
+	}
+
+	@Test
+	void tokenExpiradoERecusado() {
+		SessaoService vencido = novoServico(CHAVE, -1);
+
+		String token = vencido.emitir(7L, TipoDocumento.CPF);
+		assertThatThrownBy(() -> sessaoService.validar(token)).hasMessage("Sessão expirada");
+	}
+
+	@Test
+	void perfilServidorExigeChaveConfigurada() {
+		environment.setActiveProfiles("server");
+
+		assertThatThrownBy(() -> novoServico("", 480)).isInstanceOf(IllegalStateException.class);
+		// Com a chave configurada, o perfil sobe normalmente
+		assertThat(novoServico(CHAVE, 480).emitir(7L, TipoDocumento.CPF)).isNotBlank();
+	}
+
+	private SessaoService novoServico(String chave, long validadeMinutos) {
+		SessaoService servico = new SessaoService();
+		ReflectionTestUtils.setField(servico, "chaveConfigurada", chave);
+		ReflectionTestUtils.setField(servico, "validadeMinutos", validadeMinutos);
+		ReflectionTestUtils.setField(servico, "environment", environment);
+		servico.inicializarChave();
+		return servico;
+	}
+}
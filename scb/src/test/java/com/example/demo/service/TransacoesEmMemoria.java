@@ -0,0 +1,32 @@
+package com.example.demo.service;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+/**
+ * Gerenciador de transações sem banco, para testes unitários
+ * Mantém o ciclo de vida real das sincronizações: ações registradas para
+ * depois do commit só rodam se a transação for confirmada
+ */
+class TransacoesEmMemoria extends AbstractPlatformTransactionManager {
+
+	private static final long serialVersionUID = 1L;
+
+	@Override
+	protected Object doGetTransaction() {
+		return new Object();
+	}
+
+	@Override
+	protected void doBegin(Object transaction, TransactionDefinition definition) {
+	}
+
+	@Override
+	protected void doCommit(DefaultTransactionStatus status) {
+	}
+
+	@Override
+	protected void doRollback(DefaultTransactionStatus status) {
+	}
+}